@@ -22,6 +22,14 @@ import static java.lang.annotation.ElementType.TYPE;
 import static java.lang.annotation.RetentionPolicy.RUNTIME;
 
 /**
+ * Range partitions the table by the given timestamp column, using interval partitioning on Oracle and declarative
+ * partitioning on PostgreSQL.
+ * <p>
+ * PostgreSQL does not create partitions on demand. Only the partitions up to {@link #partitionsAhead()} intervals
+ * from now are created with the table, afterwards inserting a row fails with "no partition of relation ... found
+ * for row" unless the database function create_all_partitions (or PartitionManager.createPartitions) is scheduled
+ * regularly, at least once per interval.
+ *
  * @author Georg Kohlweiss
  */
 @Target({TYPE})
@@ -29,6 +37,12 @@ import static java.lang.annotation.RetentionPolicy.RUNTIME;
 public @interface IntervalPartitioning {
     String columnName() default "partition_date";
     String interval() default "numtoyminterval(1, 'MONTH')";
+    /**
+     * Upper bound of the first partition. On PostgreSQL all partitions from this value up to the current interval
+     * are created at once, if empty the first partition ends at the start of the current interval.
+     *
+     * @return
+     */
     String startPartitionLessThanValue() default "";
     boolean enableRowMovement() default false;
 
@@ -40,4 +54,22 @@ public @interface IntervalPartitioning {
      * @return
      */
     boolean useLocalPK() default false;
+
+    /**
+     * Only evaluated for PostgreSQL. Number of partitions for future intervals created in advance by the database
+     * function create_partitions, this is the time the scheduled partition creation may fail without rows being
+     * rejected.
+     *
+     * @return
+     */
+    int partitionsAhead() default 3;
+
+    /**
+     * Only evaluated for PostgreSQL (requires version 11 or newer). Creates a default partition taking all rows
+     * not fitting into another partition. Partitions for intervals with rows in the default partition cannot be
+     * created afterwards.
+     *
+     * @return
+     */
+    boolean defaultPartition() default false;
 }
@@ -31,4 +31,75 @@ public @interface TemporalEntity {
     String historyTimestampColumnName() default "TRANSACTION_TIMESTAMP";
     String[] ignoreChangeOfColumns() default {};
     String latestSnapshotViewName() default "";
+
+    /**
+     * Only evaluated for PostgreSQL. {@link TriggerLevel#STATEMENT} writes the history of all rows modified by one
+     * statement with set based statements on the transition tables of statement level triggers instead of
+     * processing each row on its own. {@link TriggerLevel#DEFAULT} uses the persistence unit property
+     * yagen.generator.postgres.history.trigger-level (row or statement), row level if not set.
+     */
+    TriggerLevel triggerLevel() default TriggerLevel.DEFAULT;
+
+    /**
+     * Creates an index supporting the lookup of the currently valid history entry which is invalidated on each update
+     * or delete of the live table. On PostgreSQL this is a partial index on the primary key columns where
+     * invalidated_at is null, on Oracle and HSQLDB a composite index on the primary key columns and invalidated_at.
+     * Opt-in since the index changes the DDL of existing history tables and has to be maintained on each insert.
+     */
+    boolean invalidationIndex() default false;
+
+    /**
+     * Only evaluated for PostgreSQL. {@link HistoryCapture#OUTBOX} lets the triggers append a compact change record
+     * to the partitioned table HST_OUTBOX only, the history table is written asynchronously by
+     * com.github.gekoh.yagen.util.HistoryOutboxDrainer. {@link HistoryCapture#DEFAULT} uses the persistence unit
+     * property yagen.generator.postgres.history.capture (trigger or outbox), trigger if not set.
+     */
+    HistoryCapture historyCapture() default HistoryCapture.DEFAULT;
+
+    /**
+     * Only evaluated for PostgreSQL. Interval in PostgreSQL syntax (e.g. "1 month") by which the history table is
+     * range partitioned on the history timestamp column, "none" for an unpartitioned history table. Partitions
+     * including their constraints and indexes are created by the database function create_partitions for 3
+     * intervals ahead. There is neither a default partition nor on demand creation, create_all_partitions has to be
+     * scheduled regularly, otherwise modifying the live table fails as soon as no history partition for the current
+     * timestamp exists (see {@link IntervalPartitioning}). An empty value uses the
+     * persistence unit property yagen.generator.postgres.history.partition-interval, unpartitioned if not set.
+     * The history timestamp of an entry is never updated on PostgreSQL (only Oracle rewrites the timestamps of the
+     * current transaction after a failed invalidation), so entries never have to move between partitions.
+     */
+    String historyPartitionInterval() default "";
+
+    /**
+     * Period in ISO-8601 syntax (e.g. "P1Y") for which the full history is retained. Older versions are compacted
+     * according to {@link #historyCompaction()} by com.github.gekoh.yagen.util.HistoryCompactor, empty for keeping
+     * the full history forever. The retention period is measured from the current timestamp of the database, only
+     * tables with a single column primary key are supported.
+     */
+    String historyRetention() default "";
+
+    /**
+     * Versions beyond {@link #historyRetention()} are compacted by removing versions without a change of the
+     * history relevant columns ({@link HistoryCompaction#CHANGES}), additionally keeping only the last version of
+     * each day, month or year. Inserts and deletes are always kept.
+     */
+    HistoryCompaction historyCompaction() default HistoryCompaction.DAY;
+
+    enum TriggerLevel {
+        DEFAULT,
+        ROW,
+        STATEMENT
+    }
+
+    enum HistoryCapture {
+        DEFAULT,
+        TRIGGER,
+        OUTBOX
+    }
+
+    enum HistoryCompaction {
+        CHANGES,
+        DAY,
+        MONTH,
+        YEAR
+    }
 }
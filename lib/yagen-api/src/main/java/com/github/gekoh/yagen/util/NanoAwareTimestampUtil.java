@@ -1,15 +1,62 @@
 package com.github.gekoh.yagen.util;
 
 import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Strictly increasing timestamps across all threads: the wall clock time is extrapolated with nanoTime and
+ * recalibrated against the wall clock periodically, a CAS loop guarantees each timestamp to be at least one
+ * resolution step after the previously returned one.
+ * <p>
+ * The resolution defaults to microseconds, the precision of the timestamp columns generated, it can be set by
+ * system property {@value #PROPERTY_RESOLUTION_NANOS}. If timestamps are requested faster than one per resolution
+ * step they run ahead of the wall clock until the load drops.
+ */
 class NanoAwareTimestampUtil {
-    private static final long NANO_DIFF = (System.currentTimeMillis() * 1000000L) - System.nanoTime();
+    static final String PROPERTY_RESOLUTION_NANOS = "yagen.timestamp.resolution-nanos";
+
+    private static final long RESOLUTION_NANOS = Math.max(1L, Long.getLong(PROPERTY_RESOLUTION_NANOS, 1000L));
+    private static final long RECALIBRATION_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private static final AtomicLong LAST_EPOCH_NANOS = new AtomicLong();
+    private static volatile Calibration calibration = new Calibration();
 
     static Timestamp getCurrentTimestamp() {
-        long nanoTime = System.nanoTime() + NANO_DIFF;
-        Timestamp timestamp = new Timestamp(nanoTime / 1000000L);
-        long nanos = nanoTime % 1000000000L;
-        timestamp.setNanos((int) nanos);
+        long now = currentEpochNanos();
+        now -= now % RESOLUTION_NANOS;
+
+        long last, next;
+        do {
+            last = LAST_EPOCH_NANOS.get();
+            next = Math.max(now, last + RESOLUTION_NANOS);
+        } while (!LAST_EPOCH_NANOS.compareAndSet(last, next));
+
+        Timestamp timestamp = new Timestamp(next / 1000000L);
+        timestamp.setNanos((int) (next % 1000000000L));
         return timestamp;
     }
+
+    private static long currentEpochNanos() {
+        Calibration current = calibration;
+        long nanoTime = System.nanoTime();
+        if (nanoTime - current.nanoTime > RECALIBRATION_INTERVAL_NANOS) {
+            current = new Calibration();
+            calibration = current;
+            nanoTime = System.nanoTime();
+        }
+        return current.epochNanos + (nanoTime - current.nanoTime);
+    }
+
+    private static class Calibration {
+        private final long epochNanos;
+        private final long nanoTime;
+
+        Calibration() {
+            Instant now = Instant.now();
+            nanoTime = System.nanoTime();
+            epochNanos = now.getEpochSecond() * 1000000000L + now.getNano();
+        }
+    }
 }
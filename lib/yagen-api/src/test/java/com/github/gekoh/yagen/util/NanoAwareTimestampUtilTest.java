@@ -3,6 +3,11 @@ package com.github.gekoh.yagen.util;
 import org.junit.Test;
 
 import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
 
 import static org.junit.Assert.*;
 
@@ -31,4 +36,48 @@ public class NanoAwareTimestampUtilTest {
             assertTrue(timestampNanos.getTime() - timestampMillis.getTime() < 100);
         }
     }
+
+    @Test
+    public void testConcurrentInvocations() throws Exception {
+        final int threadCount = 64;
+        final int invocations = 10000;
+        final long[][] values = new long[threadCount][invocations];
+        final CountDownLatch start = new CountDownLatch(1);
+
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int t = 0; t < threadCount; t++) {
+            final long[] threadValues = values[t];
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 0; i < invocations; i++) {
+                        Timestamp timestamp = NanoAwareTimestampUtil.getCurrentTimestamp();
+                        threadValues[i] = timestamp.getTime() / 1000L * 1000000000L + timestamp.getNanos();
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Set<Long> unique = new HashSet<Long>();
+        for (long[] threadValues : values) {
+            for (int i = 0; i < invocations; i++) {
+                assertTrue(unique.add(threadValues[i]));
+                if (i > 0) {
+                    assertTrue(threadValues[i] > threadValues[i - 1]);
+                }
+            }
+        }
+        assertEquals(threadCount * invocations, unique.size());
+    }
 }
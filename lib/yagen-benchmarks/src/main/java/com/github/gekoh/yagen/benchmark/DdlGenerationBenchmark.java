@@ -0,0 +1,175 @@
+/*
+ Copyright 2026 agent
+
+ Licensed under the Apache License, Version 2.0 (the License);
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+ http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an AS IS BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+*/
+package com.github.gekoh.yagen.benchmark;
+
+import com.github.gekoh.yagen.ddl.CreateDDL;
+import com.github.gekoh.yagen.ddl.DDLGenerator;
+import com.github.gekoh.yagen.ddl.TableConfig;
+import com.github.gekoh.yagen.hibernate.DdlPatchHelper;
+import com.github.gekoh.yagen.hibernate.exporter.TableExporterWrapper;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.model.relational.Namespace;
+import org.hibernate.boot.model.relational.SqlStringGenerationContext;
+import org.hibernate.boot.model.relational.internal.SqlStringGenerationContextImpl;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.mapping.Column;
+import org.hibernate.mapping.Table;
+import org.hibernate.tool.hbm2ddl.SchemaExport;
+import org.hibernate.tool.schema.TargetType;
+import org.hibernate.tool.schema.spi.Exporter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the stages of the DDL generation for a synthesized domain (see {@link SyntheticDomain}) of a given size:
+ * creating the generator profile, scanning the entity classes for yaGen annotations, enhancing the create table
+ * statements and the full script export as done by {@link DDLGenerator#writeDDL}.
+ * <p>
+ * Run via {@link BenchmarkRunner} to additionally get the allocation rates reported by the GC profiler.
+ *
+ * @author agent
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DdlGenerationBenchmark {
+
+    @Param({"12", "60", "240"})
+    private int entityCount;
+
+    @Param({"oracle", "postgres", "hsqldb"})
+    private String dialectName;
+
+    private Metadata metadata;
+    private Dialect dialect;
+    private DDLGenerator.Profile profile;
+    private CreateDDL scanningDdlEnhancer;
+    private Map<String, String> tableCreates;
+    private Map<String, Map<String, Column>> tableColumns;
+    private File outputFile;
+
+    @Setup
+    public void setup() throws IOException {
+        metadata = SyntheticDomain.createMetadata(entityCount, getDialectClassName(dialectName));
+        dialect = metadata.getDatabase().getDialect();
+        profile = createProfile();
+        scanningDdlEnhancer = new CreateDDL(profile, dialect);
+
+        Exporter<Table> exporter = dialect.getTableExporter();
+        if (exporter instanceof TableExporterWrapper) {
+            exporter = ((TableExporterWrapper) exporter).getDelegate();
+        }
+        SqlStringGenerationContext context = SqlStringGenerationContextImpl.fromConfigurationMap(
+                metadata.getDatabase().getJdbcEnvironment(), metadata.getDatabase(), Collections.emptyMap());
+
+        tableCreates = new LinkedHashMap<String, String>();
+        tableColumns = new LinkedHashMap<String, Map<String, Column>>();
+        for (Namespace namespace : metadata.getDatabase().getNamespaces()) {
+            for (Table table : namespace.getTables()) {
+                if (!table.isPhysicalTable()) {
+                    continue;
+                }
+                tableCreates.put(table.getName(), exporter.getSqlCreateStrings(table, metadata, context)[0] + dialect.getTableTypeString());
+
+                Map<String, Column> columns = new LinkedHashMap<String, Column>();
+                table.getColumns().forEach(c -> columns.put(c.getName().toLowerCase(), c));
+                tableColumns.put(table.getName(), columns);
+            }
+        }
+
+        outputFile = File.createTempFile("yagen-benchmark-" + dialectName + "-", ".ddl.sql");
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (outputFile != null && !outputFile.delete()) {
+            outputFile.deleteOnExit();
+        }
+    }
+
+    @Benchmark
+    public DDLGenerator.Profile createProfile() {
+        DDLGenerator.Profile profile = DDLGenerator.createProfileFromMetadata("benchmark", metadata);
+        profile.registerMetadata(metadata);
+        return profile;
+    }
+
+    @Benchmark
+    public void scanEntityClasses(Blackhole blackhole) {
+        for (Class<?> entityClass : SyntheticDomain.getEntityClasses(entityCount)) {
+            String tableName = profile.getNamingStrategy().classToTableName(entityClass.getName()).toLowerCase();
+            TableConfig tableConfig = new TableConfig(scanningDdlEnhancer, entityClass, tableName);
+            tableConfig.scanEntityClass(entityClass, false);
+            blackhole.consume(tableConfig);
+        }
+    }
+
+    @Benchmark
+    public void updateCreateTables(Blackhole blackhole) {
+        CreateDDL ddlEnhancer = new CreateDDL(profile, dialect);
+        for (Map.Entry<String, String> tableCreate : tableCreates.entrySet()) {
+            String tableName = tableCreate.getKey();
+            blackhole.consume(ddlEnhancer.updateCreateTable(dialect, new StringBuffer(tableCreate.getValue()), tableName, tableColumns.get(tableName)));
+        }
+    }
+
+    @Benchmark
+    public long exportScript() {
+        SchemaExport export = new SchemaExport();
+        export.setDelimiter(";");
+        export.setFormat(true);
+        export.setOverrideOutputFileContent();
+        export.setOutputFile(outputFile.getAbsolutePath());
+        DdlPatchHelper.initDialect(createProfile(), metadata);
+        export.createOnly(EnumSet.of(TargetType.SCRIPT), metadata);
+        return outputFile.length();
+    }
+
+    static String getDialectClassName(String dialectName) {
+        if ("oracle".equals(dialectName)) {
+            return "org.hibernate.dialect.OracleDialect";
+        }
+        else if ("postgres".equals(dialectName)) {
+            return "org.hibernate.dialect.PostgreSQLDialect";
+        }
+        else if ("hsqldb".equals(dialectName)) {
+            return "org.hibernate.dialect.HSQLDialect";
+        }
+        throw new IllegalArgumentException("unsupported dialect " + dialectName);
+    }
+}
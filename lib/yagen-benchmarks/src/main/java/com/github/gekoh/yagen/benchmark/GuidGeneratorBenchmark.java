@@ -0,0 +1,59 @@
+/*
+ Copyright 2026 agent
+
+ Licensed under the Apache License, Version 2.0 (the License);
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+ http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an AS IS BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+*/
+package com.github.gekoh.yagen.benchmark;
+
+import com.github.gekoh.yagen.util.GuidGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the creation of the GUIDs returned by the HSQLDB sys_guid() java routine compared to the former
+ * implementation based on the string representation of a random UUID.
+ *
+ * @author agent
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class GuidGeneratorBenchmark {
+
+    @Benchmark
+    public String randomUuidString() {
+        return UUID.randomUUID().toString().replaceAll("-", "").toUpperCase();
+    }
+
+    @Benchmark
+    public String randomGuid() {
+        return GuidGenerator.createRandomGuid();
+    }
+
+    @Benchmark
+    public String timeOrderedGuid() {
+        return GuidGenerator.createTimeOrderedGuid();
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ Copyright 2026 agent
+
+ Licensed under the Apache License, Version 2.0 (the License);
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+ http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an AS IS BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+*/
+package com.github.gekoh.yagen.benchmark;
+
+import com.github.gekoh.yagen.ddl.DDLGenerator;
+import com.github.gekoh.yagen.hibernate.DdlPatchHelper;
+import com.github.gekoh.yagen.util.DBHelper;
+import com.opentable.db.postgres.embedded.EmbeddedPostgres;
+import org.hibernate.boot.Metadata;
+import org.hibernate.tool.hbm2ddl.SchemaExport;
+import org.hibernate.tool.schema.TargetType;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of transactions updating rows of a temporal entity on an embedded PostgreSQL server and the
+ * WAL volume written by them, comparing logged with unlogged history bookkeeping tables (HST_CURRENT_TRANSACTION
+ * and HST_MODIFIED_ROW, see persistence unit property
+ * {@value DBHelper#PROPERTY_POSTGRES_HISTORY_BOOKKEEPING_TABLES}).
+ * <p>
+ * The secondary result walBytes is reported per second, divided by the primary score it yields the WAL bytes
+ * per transaction. Note that the embedded server refuses to run as root.
+ *
+ * @author agent
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HistoryBookkeepingBenchmark {
+
+    private static final int ENTITY_COUNT = SyntheticDomain.Variant.TEMPORAL.ordinal() + 1;
+
+    @Param({"logged", "unlogged"})
+    private String bookkeepingTables;
+
+    @Param({"1", "100"})
+    private int rowsPerTransaction;
+
+    private EmbeddedPostgres postgres;
+    private Connection connection;
+    private String updateSql;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class WalCounters {
+        public long walBytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            walBytes = 0;
+        }
+    }
+
+    @Setup
+    public void setup() throws IOException, SQLException {
+        postgres = EmbeddedPostgres.builder()
+                .setCleanDataDirectory(true)
+                .start();
+
+        Map<String, Object> settings = new HashMap<String, Object>();
+        settings.put("hibernate.connection.url", postgres.getJdbcUrl("postgres", "postgres"));
+        settings.put("hibernate.connection.username", "postgres");
+        settings.put("hibernate.temp.use_jdbc_metadata_defaults", "true");
+        settings.put(DBHelper.PROPERTY_POSTGRES_USE_UUID_OSSP_EXTENSION, "create");
+        settings.put(DBHelper.PROPERTY_POSTGRES_HISTORY_BOOKKEEPING_TABLES, bookkeepingTables);
+
+        Metadata metadata = SyntheticDomain.createMetadata(ENTITY_COUNT, "org.hibernate.dialect.PostgreSQLDialect", settings);
+        DdlPatchHelper.initDialect(DDLGenerator.createProfileFromMetadata("benchmark", metadata), metadata);
+        SchemaExport export = new SchemaExport();
+        export.setHaltOnError(true);
+        export.createOnly(EnumSet.of(TargetType.DATABASE), metadata);
+
+        String tableName = SyntheticDomain.getTableName(ENTITY_COUNT, SyntheticDomain.Variant.TEMPORAL.ordinal());
+        updateSql = "update " + tableName + " set AMOUNT=AMOUNT+1";
+
+        connection = postgres.getPostgresDatabase().getConnection();
+        connection.setAutoCommit(false);
+        try (PreparedStatement insert = connection.prepareStatement("insert into " + tableName + " (ID, CODE, NAME, AMOUNT, ACTIVE) values (?, ?, ?, 0, true)")) {
+            for (int i = 0; i < rowsPerTransaction; i++) {
+                insert.setString(1, UUID.randomUUID().toString());
+                insert.setString(2, "C" + i);
+                insert.setString(3, "row " + i);
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+        connection.commit();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException, SQLException {
+        if (connection != null) {
+            connection.close();
+        }
+        if (postgres != null) {
+            postgres.close();
+        }
+    }
+
+    @Benchmark
+    public int updateTemporalRows(WalCounters counters) throws SQLException {
+        long walPosition = getWalPosition();
+        int updated;
+        try (Statement statement = connection.createStatement()) {
+            updated = statement.executeUpdate(updateSql);
+        }
+        connection.commit();
+        counters.walBytes += getWalPosition() - walPosition;
+        return updated;
+    }
+
+    private long getWalPosition() throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("select pg_wal_lsn_diff(pg_current_wal_insert_lsn(), '0/0')::bigint")) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+}
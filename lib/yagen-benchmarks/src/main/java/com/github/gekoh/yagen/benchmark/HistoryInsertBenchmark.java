@@ -0,0 +1,135 @@
+/*
+ Copyright 2026 agent
+
+ Licensed under the Apache License, Version 2.0 (the License);
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+ http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an AS IS BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+*/
+package com.github.gekoh.yagen.benchmark;
+
+import com.github.gekoh.yagen.ddl.DDLGenerator;
+import com.github.gekoh.yagen.hibernate.DdlPatchHelper;
+import com.github.gekoh.yagen.util.DBHelper;
+import com.github.gekoh.yagen.util.GuidGenerator;
+import com.opentable.db.postgres.embedded.EmbeddedPostgres;
+import org.hibernate.boot.Metadata;
+import org.hibernate.tool.hbm2ddl.SchemaExport;
+import org.hibernate.tool.schema.TargetType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of transactions inserting rows into a temporal entity on an embedded PostgreSQL server,
+ * i.e. inserts into the primary key indexes of the live and the history table, comparing random with time ordered
+ * GUIDs (see persistence unit property {@value DBHelper#PROPERTY_GUID_STRATEGY}). The live table keys are created
+ * with the same strategy by {@link GuidGenerator}, the history table keys by sys_guid().
+ * <p>
+ * The tables grow during the run, so the effect of the strategy increases with the measurement time.
+ * Note that the embedded server refuses to run as root.
+ *
+ * @author agent
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HistoryInsertBenchmark {
+
+    private static final int ENTITY_COUNT = SyntheticDomain.Variant.TEMPORAL.ordinal() + 1;
+
+    @Param({"random", "time-ordered"})
+    private String guidStrategy;
+
+    @Param({"100"})
+    private int rowsPerTransaction;
+
+    private EmbeddedPostgres postgres;
+    private Connection connection;
+    private GuidGenerator.Strategy strategy;
+    private String insertSql;
+    private long rowCount;
+
+    @Setup
+    public void setup() throws IOException, SQLException {
+        strategy = GuidGenerator.Strategy.fromPropertyValue(guidStrategy);
+        postgres = EmbeddedPostgres.builder()
+                .setCleanDataDirectory(true)
+                .start();
+
+        Map<String, Object> settings = new HashMap<String, Object>();
+        settings.put("hibernate.connection.url", postgres.getJdbcUrl("postgres", "postgres"));
+        settings.put("hibernate.connection.username", "postgres");
+        settings.put("hibernate.temp.use_jdbc_metadata_defaults", "true");
+        settings.put(DBHelper.PROPERTY_POSTGRES_USE_UUID_OSSP_EXTENSION, "create");
+        settings.put(DBHelper.PROPERTY_GUID_STRATEGY, guidStrategy);
+
+        Metadata metadata = SyntheticDomain.createMetadata(ENTITY_COUNT, "org.hibernate.dialect.PostgreSQLDialect", settings);
+        DdlPatchHelper.initDialect(DDLGenerator.createProfileFromMetadata("benchmark", metadata), metadata);
+        SchemaExport export = new SchemaExport();
+        export.setHaltOnError(true);
+        export.createOnly(EnumSet.of(TargetType.DATABASE), metadata);
+
+        String tableName = SyntheticDomain.getTableName(ENTITY_COUNT, SyntheticDomain.Variant.TEMPORAL.ordinal());
+        insertSql = "insert into " + tableName + " (ID, CODE, NAME, AMOUNT, ACTIVE) values (?, ?, ?, 0, true)";
+
+        connection = postgres.getPostgresDatabase().getConnection();
+        connection.setAutoCommit(false);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException, SQLException {
+        if (connection != null) {
+            connection.close();
+        }
+        if (postgres != null) {
+            postgres.close();
+        }
+    }
+
+    @Benchmark
+    public int insertTemporalRows() throws SQLException {
+        int inserted = 0;
+        try (PreparedStatement insert = connection.prepareStatement(insertSql)) {
+            for (int i = 0; i < rowsPerTransaction; i++) {
+                insert.setString(1, GuidGenerator.createGuid(strategy));
+                insert.setString(2, "C" + rowCount);
+                insert.setString(3, "row " + rowCount++);
+                insert.addBatch();
+            }
+            for (int count : insert.executeBatch()) {
+                inserted += count;
+            }
+        }
+        connection.commit();
+        return inserted;
+    }
+}
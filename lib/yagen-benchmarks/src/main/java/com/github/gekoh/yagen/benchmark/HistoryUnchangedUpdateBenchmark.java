@@ -0,0 +1,122 @@
+/*
+ Copyright 2026 agent
+
+ Licensed under the Apache License, Version 2.0 (the License);
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+ http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an AS IS BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+*/
+package com.github.gekoh.yagen.benchmark;
+
+import com.github.gekoh.yagen.ddl.DDLGenerator;
+import com.github.gekoh.yagen.hibernate.DdlPatchHelper;
+import org.hibernate.boot.Metadata;
+import org.hibernate.tool.hbm2ddl.SchemaExport;
+import org.hibernate.tool.schema.TargetType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures bulk updates of a temporal entity on an in-memory HSQLDB, either not changing any history relevant column
+ * (filtered by the when clause of the history update trigger) or changing one (writing a history entry per row).
+ *
+ * @author agent
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HistoryUnchangedUpdateBenchmark {
+
+    private static final int ENTITY_COUNT = SyntheticDomain.Variant.TEMPORAL.ordinal() + 1;
+
+    @Param({"unchanged", "changed"})
+    private String update;
+
+    @Param({"100", "1000"})
+    private int rowsPerTransaction;
+
+    private Connection connection;
+    private String updateSql;
+
+    @Setup
+    public void setup() throws SQLException {
+        String url = "jdbc:hsqldb:mem:" + UUID.randomUUID();
+
+        Map<String, Object> settings = new HashMap<String, Object>();
+        settings.put("hibernate.connection.url", url);
+        settings.put("hibernate.connection.username", "SA");
+
+        Metadata metadata = SyntheticDomain.createMetadata(ENTITY_COUNT, "org.hibernate.dialect.HSQLDialect", settings);
+        DdlPatchHelper.initDialect(DDLGenerator.createProfileFromMetadata("benchmark", metadata), metadata);
+        SchemaExport export = new SchemaExport();
+        export.setHaltOnError(true);
+        export.createOnly(EnumSet.of(TargetType.DATABASE), metadata);
+
+        String tableName = SyntheticDomain.getTableName(ENTITY_COUNT, SyntheticDomain.Variant.TEMPORAL.ordinal());
+        updateSql = "update " + tableName + " set AMOUNT=AMOUNT" + (update.equals("changed") ? "+1" : "");
+
+        connection = DriverManager.getConnection(url, "SA", "");
+        connection.setAutoCommit(false);
+        try (PreparedStatement insert = connection.prepareStatement("insert into " + tableName + " (ID, CODE, NAME, AMOUNT, ACTIVE) values (?, ?, ?, 0, true)")) {
+            for (int i = 0; i < rowsPerTransaction; i++) {
+                insert.setString(1, UUID.randomUUID().toString());
+                insert.setString(2, "C" + i);
+                insert.setString(3, "row " + i);
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+        connection.commit();
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        if (connection != null) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("shutdown");
+            }
+            connection.close();
+        }
+    }
+
+    @Benchmark
+    public int updateTemporalRows() throws SQLException {
+        int updated;
+        try (Statement statement = connection.createStatement()) {
+            updated = statement.executeUpdate(updateSql);
+        }
+        connection.commit();
+        return updated;
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ Copyright 2026 agent
+
+ Licensed under the Apache License, Version 2.0 (the License);
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+ http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an AS IS BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+*/
+package com.github.gekoh.yagen.benchmark;
+
+import com.github.gekoh.yagen.api.Auditable;
+import com.github.gekoh.yagen.api.Constants;
+import com.github.gekoh.yagen.api.I18NDetailEntityRelation;
+import com.github.gekoh.yagen.api.IntervalPartitioning;
+import com.github.gekoh.yagen.api.LayeredTablesView;
+import com.github.gekoh.yagen.api.TemporalEntity;
+import com.github.gekoh.yagen.hibernate.schema.SchemaManagementToolWrapper;
+import com.github.gekoh.yagen.hst.CreateEntities;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import net.bytebuddy.ByteBuddy;
+import net.bytebuddy.description.annotation.AnnotationDescription;
+import net.bytebuddy.description.modifier.Visibility;
+import net.bytebuddy.dynamic.DynamicType;
+import net.bytebuddy.dynamic.loading.ClassLoadingStrategy;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+
+import java.lang.invoke.MethodHandles;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Synthesizes a domain of entity classes carrying the yaGen annotations to measure the generator with domains
+ * of any size. The entities cycle through the variants plain, audited, temporal, i18n detail, layered and
+ * partitioned, audited and temporal entities reference their predecessor by a foreign key.
+ * <p>
+ * The classes are defined in the class loader of this class as the generator resolves entity classes by name.
+ *
+ * @author agent
+ */
+public final class SyntheticDomain {
+
+    public enum Variant {
+        PLAIN, AUDITED, TEMPORAL, I18N, LAYERED, PARTITIONED
+    }
+
+    private static final Map<Integer, List<Class<?>>> DOMAINS = new ConcurrentHashMap<Integer, List<Class<?>>>();
+
+    private SyntheticDomain() {
+    }
+
+    public static Variant getVariant(int entityIdx) {
+        return Variant.values()[entityIdx % Variant.values().length];
+    }
+
+    /**
+     * @return the entity classes of a domain consisting of the given number of entities, classes of a domain of the
+     * same size are created only once per JVM
+     */
+    public static List<Class<?>> getEntityClasses(int entityCount) {
+        return DOMAINS.computeIfAbsent(entityCount, SyntheticDomain::createEntityClasses);
+    }
+
+    /**
+     * @return name of the table of the entity with given index, for i18n detail and layered entities the table name
+     * annotated has a suffix
+     */
+    public static String getTableName(int entityCount, int entityIdx) {
+        return "syn_d" + entityCount + "e" + entityIdx;
+    }
+
+    public static Metadata createMetadata(int entityCount, String dialectClassName) {
+        return createMetadata(entityCount, dialectClassName, Collections.<String, Object>emptyMap());
+    }
+
+    public static Metadata createMetadata(int entityCount, String dialectClassName, Map<String, Object> settings) {
+        StandardServiceRegistry serviceRegistry = new StandardServiceRegistryBuilder()
+                .applySetting("hibernate.dialect", dialectClassName)
+                .applySetting("hibernate.temp.use_jdbc_metadata_defaults", "false")
+                .applySetting("hibernate.schema_management_tool", SchemaManagementToolWrapper.class.getName())
+                .applySettings(settings)
+                .build();
+
+        MetadataSources sources = new MetadataSources(serviceRegistry);
+        for (Class<?> entityClass : getEntityClasses(entityCount)) {
+            sources.addAnnotatedClass(entityClass);
+        }
+        return sources.buildMetadata();
+    }
+
+    private static List<Class<?>> createEntityClasses(int entityCount) {
+        List<Class<?>> entityClasses = new ArrayList<Class<?>>(entityCount);
+        ClassLoadingStrategy<ClassLoader> loadingStrategy = ClassLoadingStrategy.UsingLookup.of(MethodHandles.lookup());
+
+        for (int i = 0; i < entityCount; i++) {
+            Variant variant = getVariant(i);
+            String prefix = "D" + entityCount + "E" + i;
+            String tableName = getTableName(entityCount, i);
+
+            DynamicType.Builder<Object> builder = new ByteBuddy()
+                    .subclass(Object.class)
+                    .name(SyntheticDomain.class.getPackage().getName() + ".Synthetic" + prefix)
+                    .annotateType(AnnotationDescription.Builder.ofType(Entity.class).build())
+                    .annotateType(AnnotationDescription.Builder.ofType(com.github.gekoh.yagen.api.Table.class)
+                            .define("shortName", prefix)
+                            .build());
+
+            if (variant == Variant.I18N) {
+                builder = builder
+                        .annotateType(table(tableName + "_l"))
+                        .defineField("compositeId", String.class, Visibility.PRIVATE)
+                        .annotateField(id(), column("COMPOSITE_ID", 73, false))
+                        .defineField("languageCd", String.class, Visibility.PRIVATE)
+                        .annotateField(column("LANGUAGE_CD", 2, false))
+                        .defineField("description", String.class, Visibility.PRIVATE)
+                        .annotateField(column("DESCRIPTION", 255, true))
+                        .defineField("isPersistent", Boolean.class, Visibility.PRIVATE)
+                        .annotateField(column("IS_PERSISTENT", 255, true))
+                        .defineField("base", entityClasses.get(i - Variant.I18N.ordinal()), Visibility.PRIVATE)
+                        .annotateField(
+                                AnnotationDescription.Builder.ofType(ManyToOne.class).build(),
+                                AnnotationDescription.Builder.ofType(JoinColumn.class).define("name", "BASE_ID").build(),
+                                AnnotationDescription.Builder.ofType(I18NDetailEntityRelation.class).build());
+            }
+            else {
+                if (variant == Variant.LAYERED) {
+                    builder = builder
+                            .annotateType(table(tableName + "_v"))
+                            .annotateType(AnnotationDescription.Builder.ofType(LayeredTablesView.class)
+                                    .defineArray("keyColumns", "CODE")
+                                    .defineArray("tableNamesInOrder", tableName + "_cor", tableName + "_imp")
+                                    .build());
+                }
+                else {
+                    builder = builder.annotateType(table(tableName));
+                }
+
+                if (variant == Variant.AUDITED) {
+                    builder = builder.annotateType(AnnotationDescription.Builder.ofType(Auditable.class).build());
+                }
+                else if (variant == Variant.TEMPORAL) {
+                    builder = builder
+                            .annotateType(AnnotationDescription.Builder.ofType(TemporalEntity.class).build())
+                            .annotateType(AnnotationDescription.Builder.ofType(Auditable.class).build());
+                }
+                else if (variant == Variant.PARTITIONED) {
+                    builder = builder.annotateType(AnnotationDescription.Builder.ofType(IntervalPartitioning.class).build());
+                }
+
+                builder = builder
+                        .defineField("id", String.class, Visibility.PRIVATE)
+                        .annotateField(id(), column("ID", 36, false))
+                        .defineField("code", String.class, Visibility.PRIVATE)
+                        .annotateField(column("CODE", 20, false))
+                        .defineField("name", String.class, Visibility.PRIVATE)
+                        .annotateField(column("NAME", 100, true))
+                        .defineField("amount", Long.class, Visibility.PRIVATE)
+                        .annotateField(column("AMOUNT", 255, true))
+                        .defineField("active", boolean.class, Visibility.PRIVATE)
+                        .annotateField(column("ACTIVE", 255, false))
+                        .defineField("validFrom", LocalDateTime.class, Visibility.PRIVATE)
+                        .annotateField(column("VALID_FROM", 255, true));
+
+                Variant predecessor = i > 0 ? getVariant(i - 1) : null;
+                if ((variant == Variant.AUDITED || variant == Variant.TEMPORAL) &&
+                        (predecessor == Variant.PLAIN || predecessor == Variant.AUDITED)) {
+                    builder = builder
+                            .defineField("parent", entityClasses.get(i - 1), Visibility.PRIVATE)
+                            .annotateField(
+                                    AnnotationDescription.Builder.ofType(ManyToOne.class).build(),
+                                    AnnotationDescription.Builder.ofType(JoinColumn.class).define("name", "PARENT_ID").build());
+                }
+            }
+
+            entityClasses.add(builder.make().load(SyntheticDomain.class.getClassLoader(), loadingStrategy).getLoaded());
+
+            if (variant == Variant.TEMPORAL) {
+                // the generator only renders history of live tables with a history entity class in the classpath
+                new ByteBuddy()
+                        .subclass(Object.class)
+                        .name(entityClasses.get(i).getName() + CreateEntities.HISTORY_ENTITY_SUFFIX)
+                        .annotateType(table(tableName + Constants._HST.toLowerCase()))
+                        .make()
+                        .load(SyntheticDomain.class.getClassLoader(), loadingStrategy);
+            }
+        }
+
+        return Collections.unmodifiableList(entityClasses);
+    }
+
+    private static AnnotationDescription table(String name) {
+        return AnnotationDescription.Builder.ofType(Table.class).define("name", name).build();
+    }
+
+    private static AnnotationDescription id() {
+        return AnnotationDescription.Builder.ofType(Id.class).build();
+    }
+
+    private static AnnotationDescription column(String name, int length, boolean nullable) {
+        return AnnotationDescription.Builder.ofType(Column.class)
+                .define("name", name)
+                .define("length", length)
+                .define("nullable", nullable)
+                .build();
+    }
+}
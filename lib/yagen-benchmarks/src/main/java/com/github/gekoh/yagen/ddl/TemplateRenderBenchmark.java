@@ -0,0 +1,99 @@
+/*
+ Copyright 2026 agent
+
+ Licensed under the Apache License, Version 2.0 (the License);
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+ http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an AS IS BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+*/
+package com.github.gekoh.yagen.ddl;
+
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.HSQLDialect;
+import org.hibernate.dialect.OracleDialect;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of enhancing the DDL of a single audited and temporal entity (history table, history and
+ * audit triggers) with the parsed velocity templates kept in {@link TemplateRegistry} (templateCache=true)
+ * compared to parsing each template again for every entity (templateCache=false).
+ *
+ * @author agent
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TemplateRenderBenchmark {
+
+    private static final String CREATE_TABLE = "create table bench_entity (" +
+            "id varchar(36) not null, " +
+            "priority integer not null, " +
+            "description varchar(255), " +
+            "amount numeric(10,2), " +
+            "valid_from timestamp, " +
+            "version integer not null, " +
+            "constraint bench_pk primary key (id))";
+
+    @Param({"oracle", "postgres", "hsqldb"})
+    private String dialectName;
+
+    @Param({"true", "false"})
+    private boolean templateCache;
+
+    private Dialect dialect;
+
+    @Setup
+    public void setup() {
+        if ("oracle".equals(dialectName)) {
+            dialect = new OracleDialect();
+        }
+        else if ("postgres".equals(dialectName)) {
+            dialect = new PostgreSQLDialect();
+        }
+        else if ("hsqldb".equals(dialectName)) {
+            dialect = new HSQLDialect();
+        }
+        else {
+            throw new IllegalArgumentException("unsupported dialect " + dialectName);
+        }
+    }
+
+    @Benchmark
+    public Collection<String> enhanceTemporalAuditedEntity() {
+        if (!templateCache) {
+            TemplateRegistry.clear();
+        }
+        CreateDDL createDDL = new CreateDDL(new DDLGenerator.Profile("benchmark"), dialect);
+
+        TableConfig.add(createDDL, "BENCH_ENTITY")
+                .withTableAnnotation("BENCH")
+                .withTemporalEntityAnnotation()
+                .withAuditableAnnotation();
+
+        return createDDL.enhanceCreateTableDdl(dialect, CREATE_TABLE);
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ Copyright 2026 agent
+
+ Licensed under the Apache License, Version 2.0 (the License);
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+ http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an AS IS BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+*/
+package com.github.gekoh.yagen.hibernate;
+
+import com.github.gekoh.yagen.ddl.DDLGenerator;
+import org.hibernate.boot.Metadata;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.jpa.boot.internal.ParsedPersistenceXmlDescriptor;
+import org.hibernate.jpa.boot.internal.PersistenceXmlParser;
+import org.hibernate.jpa.boot.spi.Bootstrap;
+import org.hibernate.tool.schema.internal.SchemaCreatorImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures splitting and preparing the statements of the enhanced example domain DDL the way
+ * {@link com.github.gekoh.yagen.hibernate.schema.SchemaCreatorWrapper} does it for each command hibernate
+ * hands over to the generation target (splitSQL, prepareDDL and isEmptyStatement).
+ *
+ * @author agent
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DdlSplitBenchmark {
+
+    private static final String PERSISTENCE_UNIT_NAME = "generation-unit";
+
+    @Param({"oracle", "postgres", "hsqldb"})
+    private String dialectName;
+
+    private Dialect dialect;
+    private List<String> commands;
+
+    @Setup
+    public void setup() {
+        Map<String, Object> properties = new HashMap<String, Object>();
+        properties.put("hibernate.dialect", getDialectClassName(dialectName));
+
+        ParsedPersistenceXmlDescriptor persistenceUnit = PersistenceXmlParser.locatePersistenceUnits(Collections.emptyMap()).stream()
+                .filter(pu -> PERSISTENCE_UNIT_NAME.equals(pu.getName()))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("persistence unit " + PERSISTENCE_UNIT_NAME + " not found"));
+        persistenceUnit.getProperties().putAll(properties);
+
+        Metadata metadata = Bootstrap.getEntityManagerFactoryBuilder(persistenceUnit, properties).metadata();
+        DdlPatchHelper.initDialect(DDLGenerator.createProfileFromMetadata("benchmark", metadata), metadata);
+        dialect = metadata.getDatabase().getDialect();
+
+        commands = new ArrayList<String>(DdlPatchHelper.getHeaderStatements(dialect));
+        commands.addAll(new SchemaCreatorImpl(metadata.getDatabase().getServiceRegistry()).generateCreationCommands(metadata, false));
+        commands.addAll(DdlPatchHelper.getFooterStatements(dialect));
+    }
+
+    @Benchmark
+    public void splitAndPrepare(Blackhole blackhole) {
+        for (String command : commands) {
+            for (String sql : DdlPatchHelper.splitSQL(command)) {
+                SqlStatement statement = DdlPatchHelper.prepareDDL(sql, dialect, null);
+                blackhole.consume(statement);
+                blackhole.consume(DdlPatchHelper.isEmptyStatement(statement.getSql()));
+            }
+        }
+    }
+
+    private static String getDialectClassName(String dialectName) {
+        if ("oracle".equals(dialectName)) {
+            return "org.hibernate.dialect.OracleDialect";
+        }
+        else if ("postgres".equals(dialectName)) {
+            return "org.hibernate.dialect.PostgreSQLDialect";
+        }
+        else if ("hsqldb".equals(dialectName)) {
+            return "org.hibernate.dialect.HSQLDialect";
+        }
+        throw new IllegalArgumentException("unsupported dialect " + dialectName);
+    }
+}
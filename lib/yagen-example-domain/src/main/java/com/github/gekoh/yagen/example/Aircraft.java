@@ -32,7 +32,9 @@ import java.util.List;
 @Auditable
 @Table(name = "AIRCRAFT")
 @com.github.gekoh.yagen.api.Table(shortName = "AC")
-@TemporalEntity(historyTableName = "AIRCRAFT_HST")
+@TemporalEntity(historyTableName = "AIRCRAFT_HST", latestSnapshotViewName = "AIRCRAFT_LATEST_V",
+        historyRetention = "P1Y", historyCompaction = TemporalEntity.HistoryCompaction.MONTH,
+        invalidationIndex = true)
 public class Aircraft extends BaseEntity {
     //private static final org.slf4j.Logger LOG = org.slf4j.LoggerFactory.getLogger(Aircraft.class);
 
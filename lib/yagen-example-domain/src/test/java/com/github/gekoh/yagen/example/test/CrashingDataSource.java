@@ -0,0 +1,77 @@
+/*
+ Copyright 2026 agent
+
+ Licensed under the Apache License, Version 2.0 (the License);
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+ http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an AS IS BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+*/
+package com.github.gekoh.yagen.example.test;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Simulates a lost connection: commits of transactions which prepared a statement starting with the given prefix
+ * fail, the transaction has to be rolled back.
+ *
+ * @author agent
+ */
+public class CrashingDataSource implements InvocationHandler {
+
+    private final DataSource dataSource;
+    private final String statementPrefix;
+
+    private CrashingDataSource(DataSource dataSource, String statementPrefix) {
+        this.dataSource = dataSource;
+        this.statementPrefix = statementPrefix;
+    }
+
+    public static DataSource crashBeforeCommit(DataSource dataSource, String statementPrefix) {
+        return (DataSource) Proxy.newProxyInstance(CrashingDataSource.class.getClassLoader(), new Class<?>[]{DataSource.class},
+                new CrashingDataSource(dataSource, statementPrefix));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        Object result = delegate(dataSource, method, args);
+        if (!"getConnection".equals(method.getName())) {
+            return result;
+        }
+        Connection connection = (Connection) result;
+        return Proxy.newProxyInstance(CrashingDataSource.class.getClassLoader(), new Class<?>[]{Connection.class}, new InvocationHandler() {
+            private boolean crash;
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                if ("prepareStatement".equals(method.getName()) && ((String) args[0]).startsWith(statementPrefix)) {
+                    crash = true;
+                }
+                else if ("commit".equals(method.getName()) && crash) {
+                    throw new SQLException("connection lost", "08006");
+                }
+                return delegate(connection, method, args);
+            }
+        });
+    }
+
+    private static Object delegate(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ Copyright 2026 agent
+
+ Licensed under the Apache License, Version 2.0 (the License);
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+ http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an AS IS BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+*/
+package com.github.gekoh.yagen.example.test;
+
+import com.github.gekoh.yagen.api.Auditable;
+import com.github.gekoh.yagen.api.IntervalPartitioning;
+import com.github.gekoh.yagen.example.Aircraft;
+import com.github.gekoh.yagen.example.BaseEntity;
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Live table range partitioned by day.
+ *
+ * @author agent
+ */
+@Entity
+@Auditable
+@Table(name = "FLIGHT_EVENT", indexes = @Index(name = "FE_EVENT_TYPE_IX", columnList = "EVENT_TYPE"))
+@com.github.gekoh.yagen.api.Table(shortName = "FE")
+@IntervalPartitioning(columnName = "EVENT_TIME", interval = "numtodsinterval(1, 'DAY')")
+public class FlightEvent extends BaseEntity {
+
+    @ManyToOne
+    @JoinColumn(name = "AIRCRAFT_UUID")
+    private Aircraft aircraft;
+
+    @Basic(optional = false)
+    @Column(name = "EVENT_TIME")
+    private LocalDateTime eventTime;
+
+    @Basic(optional = false)
+    @Column(name = "EVENT_TYPE", length = 20)
+    private String eventType;
+
+    @Column(name = "EXTERNAL_ID", length = 36, unique = true)
+    private String externalId;
+
+    FlightEvent() {
+    }
+
+    public FlightEvent(Aircraft aircraft, LocalDateTime eventTime, String eventType, String externalId) {
+        this.aircraft = aircraft;
+        this.eventTime = eventTime;
+        this.eventType = eventType;
+        this.externalId = externalId;
+    }
+
+    public Aircraft getAircraft() {
+        return aircraft;
+    }
+
+    public LocalDateTime getEventTime() {
+        return eventTime;
+    }
+
+    public String getEventType() {
+        return eventType;
+    }
+
+    public String getExternalId() {
+        return externalId;
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ Copyright 2026 agent
+
+ Licensed under the Apache License, Version 2.0 (the License);
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+ http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an AS IS BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+*/
+package com.github.gekoh.yagen.example.test;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+
+/**
+ * Runs the history tests with audit and history triggers implemented by {@link com.github.gekoh.yagen.util.HsqlDbTrigger}.
+ *
+ * @author agent
+ */
+public class HSQLDB_JavaTriggerHistoryTest extends HistoryTest {
+    @Override
+    protected String getPersistenceUnitName() {
+        return "example-domain-test-java-trigger";
+    }
+
+    @Override
+    protected String getDbUserName() {
+        return "SA";
+    }
+
+    @BeforeClass
+    public static void recreateEmf() {
+        emf = null;
+    }
+
+    @AfterClass
+    public static void enableRecreateEmf() {
+        emf = null;
+    }
+}
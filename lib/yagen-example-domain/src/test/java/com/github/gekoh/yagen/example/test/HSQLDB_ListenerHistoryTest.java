@@ -0,0 +1,211 @@
+/*
+ Copyright 2026 agent
+
+ Licensed under the Apache License, Version 2.0 (the License);
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+ http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an AS IS BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+*/
+package com.github.gekoh.yagen.example.test;
+
+import com.github.gekoh.yagen.example.Aircraft;
+import com.github.gekoh.yagen.example.EngineType;
+import com.github.gekoh.yagen.hibernate.HistoryEventListener;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.util.List;
+
+/**
+ * Runs the history tests with history writer listener, history tables are written by {@link HistoryEventListener}
+ * instead of triggers.
+ *
+ * @author agent
+ */
+public class HSQLDB_ListenerHistoryTest extends HistoryTest {
+
+    @Override
+    protected String getPersistenceUnitName() {
+        return "example-domain-test-listener";
+    }
+
+    @Override
+    protected String getDbUserName() {
+        return "SA";
+    }
+
+    @BeforeClass
+    public static void recreateEmf() {
+        emf = null;
+    }
+
+    @After
+    public void enableRecreateEmf() {
+        emf = null;
+    }
+
+    @Test
+    public void testHistoryWrittenByListener() throws Exception {
+        // triggers are kept for modifications not done through entities
+        Assert.assertEquals(3, em.createNativeQuery("select 1 from INFORMATION_SCHEMA.TRIGGERS where TRIGGER_NAME like 'AIRCRAFT_HT%'").getResultList().size());
+
+        Aircraft ac = new Aircraft(EngineType.piston, "C172", "OE-DOB", 10.92f, 8.2f, "listener");
+        em.getTransaction().begin();
+        em.persist(ac);
+        em.getTransaction().commit();
+
+        em.getTransaction().begin();
+        setType(ac, "C172N");
+        em.flush();
+        setType(ac, "C172P");
+        em.getTransaction().commit();
+
+        em.getTransaction().begin();
+        setType(ac, "C172S");
+        em.getTransaction().commit();
+
+        em.getTransaction().begin();
+        em.remove(ac);
+        em.getTransaction().commit();
+
+        em.getTransaction().begin();
+        Aircraft ac2 = new Aircraft(EngineType.piston, "PA18", "OE-DOC", 10.73f, 6.88f, "listener");
+        em.persist(ac2);
+        em.flush();
+        setType(ac2, "PA18-150");
+        em.flush();
+        em.remove(ac2);
+        em.getTransaction().commit();
+
+        // OE-DOC has been inserted and deleted within one transaction and therefore leaves no history
+        Assert.assertEquals(0, em.createNativeQuery("select 1 from AIRCRAFT_HST where UUID=:uuid")
+                .setParameter("uuid", ac2.getUuid())
+                .getResultList().size());
+        List<Object[]> history = em.createNativeQuery("select OPERATION, TYPE, TRANSACTION_TIMESTAMP, INVALIDATED_AT, LAST_MODIFIED_BY from AIRCRAFT_HST " +
+                "where UUID=:uuid order by TRANSACTION_TIMESTAMP")
+                .setParameter("uuid", ac.getUuid())
+                .getResultList();
+        Assert.assertEquals(4, history.size());
+        String[][] expected = {{"I", "C172"}, {"U", "C172P"}, {"U", "C172S"}, {"D", null}};
+        for (int i = 0; i < expected.length; i++) {
+            Object[] entry = history.get(i);
+            Assert.assertEquals(expected[i][0], String.valueOf(entry[0]));
+            Assert.assertEquals(expected[i][1], entry[1]);
+            Assert.assertEquals(i < expected.length - 1 ? history.get(i + 1)[2] : null, entry[3]);
+            Assert.assertNotNull(entry[4]);
+        }
+    }
+
+    @Test
+    public void testHistoryWrittenByTriggers() throws Exception {
+        Aircraft ac = new Aircraft(EngineType.piston, "PA28", "OE-DOE", 10.67f, 7.25f, "listener");
+        em.getTransaction().begin();
+        em.persist(ac);
+        em.getTransaction().commit();
+
+        em.getTransaction().begin();
+        Assert.assertEquals(1, em.createQuery("update Aircraft a set a.type=:type where a.callSign=:callSign")
+                .setParameter("type", "PA28-161")
+                .setParameter("callSign", "OE-DOE")
+                .executeUpdate());
+        em.getTransaction().commit();
+
+        em.getTransaction().begin();
+        em.createNativeQuery("update AIRCRAFT set TYPE='PA28-181' where CALL_SIGN='OE-DOE'").executeUpdate();
+        em.getTransaction().commit();
+
+        String newUuid = ac.getUuid().substring(0, 31) + (ac.getUuid().endsWith("0") ? "1" : "0");
+        em.getTransaction().begin();
+        em.createNativeQuery("update AIRCRAFT set UUID=:newUuid where UUID=:uuid")
+                .setParameter("newUuid", newUuid)
+                .setParameter("uuid", ac.getUuid())
+                .executeUpdate();
+        em.getTransaction().commit();
+
+        em.getTransaction().begin();
+        em.createQuery("delete from Aircraft a where a.callSign=:callSign")
+                .setParameter("callSign", "OE-DOE")
+                .executeUpdate();
+        em.getTransaction().commit();
+
+        String[][] expected = {{"I", "PA28"}, {"U", "PA28-161"}, {"U", "PA28-181"}};
+        List<Object[]> history = em.createNativeQuery("select OPERATION, TYPE, INVALIDATED_AT from AIRCRAFT_HST " +
+                "where UUID=:uuid order by TRANSACTION_TIMESTAMP")
+                .setParameter("uuid", ac.getUuid())
+                .getResultList();
+        Assert.assertEquals(expected.length, history.size());
+        for (int i = 0; i < expected.length; i++) {
+            Assert.assertEquals(expected[i][0], String.valueOf(history.get(i)[0]));
+            Assert.assertEquals(expected[i][1], history.get(i)[1]);
+            Assert.assertNotNull(history.get(i)[2]);
+        }
+
+        // primary key change is recorded as update of the new key, like by the triggers without listener
+        history = em.createNativeQuery("select OPERATION, TYPE, INVALIDATED_AT from AIRCRAFT_HST " +
+                "where UUID=:uuid order by TRANSACTION_TIMESTAMP")
+                .setParameter("uuid", newUuid)
+                .getResultList();
+        Assert.assertEquals(2, history.size());
+        Assert.assertEquals("U", String.valueOf(history.get(0)[0]));
+        Assert.assertEquals("PA28-181", history.get(0)[1]);
+        Assert.assertNotNull(history.get(0)[2]);
+        Assert.assertEquals("D", String.valueOf(history.get(1)[0]));
+        Assert.assertNull(history.get(1)[2]);
+    }
+
+    @Test
+    public void testTriggersBypassedOnlyWhileFlushing() throws Exception {
+        Aircraft ac = new Aircraft(EngineType.piston, "C152", "OE-DOD", 10.11f, 7.34f, "listener");
+        em.getTransaction().begin();
+        em.persist(ac);
+        em.flush();
+        Assert.assertEquals(0, em.createNativeQuery("select 1 from SESSION_VARIABLES where NAME='yagen.history.listener'").getResultList().size());
+        em.getTransaction().commit();
+
+        em.getTransaction().begin();
+        setType(ac, "C152II");
+        em.getTransaction().commit();
+
+        // an entity update after a native one invalidates the history row written by the trigger
+        em.getTransaction().begin();
+        em.createNativeQuery("update AIRCRAFT set TYPE='C152A' where CALL_SIGN='OE-DOD'").executeUpdate();
+        em.getTransaction().commit();
+        em.refresh(ac);
+
+        em.getTransaction().begin();
+        setType(ac, "C152B");
+        em.getTransaction().commit();
+
+        em.getTransaction().begin();
+        em.remove(ac);
+        em.getTransaction().commit();
+
+        List<Object[]> history = em.createNativeQuery("select OPERATION, TYPE, INVALIDATED_AT from AIRCRAFT_HST " +
+                "where UUID=:uuid order by TRANSACTION_TIMESTAMP")
+                .setParameter("uuid", ac.getUuid())
+                .getResultList();
+        String[][] expected = {{"I", "C152"}, {"U", "C152II"}, {"U", "C152A"}, {"U", "C152B"}, {"D", null}};
+        Assert.assertEquals(expected.length, history.size());
+        for (int i = 0; i < expected.length; i++) {
+            Assert.assertEquals(expected[i][0], String.valueOf(history.get(i)[0]));
+            Assert.assertEquals(expected[i][1], history.get(i)[1]);
+            Assert.assertEquals(i == expected.length - 1, history.get(i)[2] == null);
+        }
+    }
+
+    private static void setType(Aircraft aircraft, String type) throws Exception {
+        Field field = Aircraft.class.getDeclaredField("type");
+        field.setAccessible(true);
+        field.set(aircraft, type);
+    }
+}
@@ -20,7 +20,9 @@ import com.github.gekoh.yagen.example.AircraftHst;
 import com.github.gekoh.yagen.example.BoardBookEntry;
 import com.github.gekoh.yagen.example.EngineType;
 import com.github.gekoh.yagen.hst.Operation;
+import com.github.gekoh.yagen.util.AsOfQuery;
 import com.github.gekoh.yagen.util.DBHelper;
+import com.github.gekoh.yagen.util.HistoryCompactor;
 import jakarta.persistence.Query;
 import org.apache.commons.lang3.StringUtils;
 import org.hsqldb.HsqlException;
@@ -30,7 +32,12 @@ import org.junit.Test;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
 /**
  * @author Georg Kohlweiss
@@ -218,6 +225,38 @@ public abstract class HistoryTest extends TestBase {
                 .size());
     }
 
+    @Test
+    public void testUnchangedUpdate() {
+        Aircraft ac = new Aircraft(EngineType.piston, "C152", "OE-CUU", 10.11f, 7.34f, PRODUCTION_LOG);
+        ac.addBoardBookEntry(new BoardBookEntry(1, "1+1", "LOWW", LocalDateTime.now().minusHours(1), "LOWW", LocalDateTime.now(), 1));
+        em.getTransaction().begin();
+        em.persist(ac);
+        em.flush();
+        em.getTransaction().commit();
+
+        Query aircraftHistory = em.createNativeQuery("select 1 from AIRCRAFT_HST where CALL_SIGN='OE-CUU'");
+        Query boardBookHistory = em.createNativeQuery("select 1 from BOARD_BOOK_ENTRY_HST where AIRCRAFT_UUID=:acUuid")
+                .setParameter("acUuid", ac.getUuid());
+
+        em.getTransaction().begin();
+        Assert.assertEquals(1, em.createNativeQuery("update AIRCRAFT set TYPE=TYPE where CALL_SIGN='OE-CUU'").executeUpdate());
+        Assert.assertEquals(1, em.createNativeQuery("update BOARD_BOOK_ENTRY set LANDINGS=LANDINGS where AIRCRAFT_UUID=:acUuid")
+                .setParameter("acUuid", ac.getUuid())
+                .executeUpdate());
+        em.getTransaction().commit();
+
+        Assert.assertEquals(1, aircraftHistory.getResultList().size());
+        Assert.assertEquals(1, boardBookHistory.getResultList().size());
+
+        em.getTransaction().begin();
+        em.createNativeQuery("update BOARD_BOOK_ENTRY set LANDINGS=LANDINGS+1 where AIRCRAFT_UUID=:acUuid")
+                .setParameter("acUuid", ac.getUuid())
+                .executeUpdate();
+        em.getTransaction().commit();
+
+        Assert.assertEquals(2, boardBookHistory.getResultList().size());
+    }
+
     @Test
     public void testDeleteRecord() {
         em.getTransaction().begin();
@@ -246,4 +285,240 @@ public abstract class HistoryTest extends TestBase {
 
         Assert.assertEquals(getDbUserName() + " (anyuser)", nativeQuery.setParameter("callSign", "D-GGGG").getSingleResult());
     }
+
+    @Test
+    public void testBulkUpdate() {
+        em.getTransaction().begin();
+        em.persist(new Aircraft(EngineType.piston, "PA28", "OE-KBA", 10.67f, 7.25f, PRODUCTION_LOG));
+        em.persist(new Aircraft(EngineType.piston, "PA28", "OE-KBB", 10.67f, 7.25f, PRODUCTION_LOG));
+        em.persist(new Aircraft(EngineType.piston, "PA28", "OE-KBC", 10.67f, 7.25f, PRODUCTION_LOG));
+        em.flush();
+        em.getTransaction().commit();
+
+        em.getTransaction().begin();
+        Assert.assertEquals(3, em.createNativeQuery("update AIRCRAFT set TYPE='PA28-181' where CALL_SIGN like 'OE-KB%'").executeUpdate());
+        Assert.assertEquals(2, em.createNativeQuery("update AIRCRAFT set TYPE='PA28-161' where CALL_SIGN in ('OE-KBA', 'OE-KBB')").executeUpdate());
+        em.flush();
+        em.getTransaction().commit();
+
+        Assert.assertEquals(3, em.createNativeQuery("select 1 from AIRCRAFT_HST where OPERATION='I' and CALL_SIGN like 'OE-KB%' and INVALIDATED_AT is not null")
+                .getResultList()
+                .size());
+        Assert.assertEquals(2, em.createNativeQuery("select 1 from AIRCRAFT_HST where OPERATION='U' and TYPE='PA28-161' and INVALIDATED_AT is null")
+                .getResultList()
+                .size());
+        Assert.assertEquals(1, em.createNativeQuery("select 1 from AIRCRAFT_HST where OPERATION='U' and TYPE='PA28-181' and INVALIDATED_AT is null")
+                .getResultList()
+                .size());
+    }
+
+    /**
+     * Updating the primary key invalidates the latest version of the old key and adds an update version for the new
+     * key, there is no delete version of the old key (same for row and statement level triggers).
+     */
+    @Test
+    public void testPrimaryKeyChange() {
+        Aircraft ac = new Aircraft(EngineType.piston, "PA28", "OE-PKC", 10.67f, 7.25f, PRODUCTION_LOG);
+        em.getTransaction().begin();
+        em.persist(ac);
+        em.getTransaction().commit();
+
+        String newUuid = UUID.randomUUID().toString();
+        em.getTransaction().begin();
+        Assert.assertEquals(1, em.createNativeQuery("update AIRCRAFT set uuid=:newUuid where uuid=:uuid")
+                .setParameter("newUuid", newUuid)
+                .setParameter("uuid", ac.getUuid())
+                .executeUpdate());
+        em.getTransaction().commit();
+
+        List<Object[]> oldKeyVersions = em.createNativeQuery("select OPERATION, INVALIDATED_AT from AIRCRAFT_HST where uuid=:uuid")
+                .setParameter("uuid", ac.getUuid())
+                .getResultList();
+        Assert.assertEquals(1, oldKeyVersions.size());
+        Assert.assertEquals("I", String.valueOf(oldKeyVersions.get(0)[0]));
+        Assert.assertNotNull(oldKeyVersions.get(0)[1]);
+
+        List<Object[]> newKeyVersions = em.createNativeQuery("select OPERATION, INVALIDATED_AT from AIRCRAFT_HST where uuid=:uuid")
+                .setParameter("uuid", newUuid)
+                .getResultList();
+        Assert.assertEquals(1, newKeyVersions.size());
+        Assert.assertEquals("U", String.valueOf(newKeyVersions.get(0)[0]));
+        Assert.assertNull(newKeyVersions.get(0)[1]);
+    }
+
+    @Test
+    public void testSessionVariables() {
+        Map<String, String> variables = new LinkedHashMap<String, String>();
+        variables.put("test.first", "1");
+        variables.put("test.second", "quoted \"value\"");
+
+        em.getTransaction().begin();
+        DBHelper.setSessionVariables(variables, em);
+        em.getTransaction().commit();
+        Assert.assertEquals("quoted \"value\"", em.createNativeQuery("select value from SESSION_VARIABLES where name='test.second'").getSingleResult());
+
+        variables.put("test.first", null);
+        variables.put("test.second", "2");
+        em.getTransaction().begin();
+        DBHelper.setSessionVariables(variables, em);
+        em.getTransaction().rollback();
+
+        Assert.assertEquals("1", DBHelper.getSessionVariable("test.first", em));
+        Assert.assertEquals("quoted \"value\"", DBHelper.getSessionVariable("test.second", em));
+
+        em.getTransaction().begin();
+        DBHelper.setSessionVariables(variables, em);
+        em.getTransaction().commit();
+
+        Assert.assertNull(DBHelper.getSessionVariable("test.first", em));
+        Assert.assertEquals("2", em.createNativeQuery("select value from SESSION_VARIABLES where name='test.second'").getSingleResult());
+
+        // remembered values outlive the transaction, changes with native SQL have to be announced
+        em.getTransaction().begin();
+        em.createNativeQuery("update SESSION_VARIABLES set value='3' where name='test.second'").executeUpdate();
+        em.getTransaction().commit();
+        Assert.assertEquals("2", DBHelper.getSessionVariable("test.second", em));
+        DBHelper.invalidateSessionContext(em);
+        Assert.assertEquals("3", DBHelper.getSessionVariable("test.second", em));
+    }
+
+    @Test
+    public void testBypassFlushesPendingChanges() {
+        Aircraft ac = new Aircraft(EngineType.piston, "C42", "OE-DBY", 9.45f, 6.47f, "bypass");
+        em.getTransaction().begin();
+        em.persist(ac);
+        // the pending insert is written before the triggers are bypassed
+        DBHelper.setBypass(null, em);
+        em.createNativeQuery("update AIRCRAFT set TYPE='C42B' where CALL_SIGN='OE-DBY'").executeUpdate();
+        DBHelper.removeBypass(em);
+        em.getTransaction().commit();
+
+        List<Object> types = em.createNativeQuery("select TYPE from AIRCRAFT_HST where UUID=:uuid")
+                .setParameter("uuid", ac.getUuid())
+                .getResultList();
+        Assert.assertEquals(Arrays.<Object>asList("C42"), types);
+    }
+
+    /**
+     * former definition of AIRCRAFT_LATEST_V for all databases except oracle, counting later materializations
+     * with a correlated sub query instead of using a window function
+     */
+    protected static final String LATEST_SNAPSHOT_CORRELATED_SQL = "select h.uuid, h.TYPE, h.TRANSACTION_TIMESTAMP," +
+            " (select count(*)+1 from AIRCRAFT_HST where uuid=h.uuid and TRANSACTION_TIMESTAMP>h.TRANSACTION_TIMESTAMP and OPERATION='I') as rev_materialization_nr" +
+            " from AIRCRAFT_HST h" +
+            " left join AIRCRAFT_HST hd on hd.uuid=h.uuid and hd.TRANSACTION_TIMESTAMP=h.INVALIDATED_AT and hd.OPERATION='D'" +
+            " where (h.INVALIDATED_AT is null and h.OPERATION<>'D') or hd.hst_uuid is not null";
+
+    protected static final String LATEST_SNAPSHOT_VIEW_SQL = "select uuid, TYPE, TRANSACTION_TIMESTAMP, rev_materialization_nr from AIRCRAFT_LATEST_V";
+
+    @Test
+    public void testLatestSnapshotView() {
+        String reinsertedUuid = UUID.randomUUID().toString();
+        String insertSql = "insert into AIRCRAFT (uuid, CALL_SIGN, ENGINE_TYPE, LENGTH, TYPE, WING_SPAN) values (:uuid, 'OE-LSV', 'piston', 7.25, 'PA28', 10.67)";
+
+        executeInTransaction(em.createNativeQuery(insertSql).setParameter("uuid", reinsertedUuid));
+        executeInTransaction(em.createNativeQuery("update AIRCRAFT set TYPE='PA28-140' where uuid=:uuid").setParameter("uuid", reinsertedUuid));
+        executeInTransaction(em.createNativeQuery("delete from AIRCRAFT where uuid=:uuid").setParameter("uuid", reinsertedUuid));
+        executeInTransaction(em.createNativeQuery(insertSql).setParameter("uuid", reinsertedUuid));
+        executeInTransaction(em.createNativeQuery("update AIRCRAFT set TYPE='PA28-181' where uuid=:uuid").setParameter("uuid", reinsertedUuid));
+
+        List<Object[]> snapshots = em.createNativeQuery("select TYPE, rev_materialization_nr from AIRCRAFT_LATEST_V where uuid=:uuid order by rev_materialization_nr")
+                .setParameter("uuid", reinsertedUuid)
+                .getResultList();
+        Assert.assertEquals(2, snapshots.size());
+        Assert.assertEquals("PA28-181", snapshots.get(0)[0]);
+        Assert.assertEquals(1, ((Number) snapshots.get(0)[1]).intValue());
+        Assert.assertEquals("PA28-140", snapshots.get(1)[0]);
+        Assert.assertEquals(2, ((Number) snapshots.get(1)[1]).intValue());
+
+        assertSameRows(LATEST_SNAPSHOT_CORRELATED_SQL, LATEST_SNAPSHOT_VIEW_SQL);
+    }
+
+    @Test
+    public void testHistoryCompaction() {
+        LocalDateTime[] tt = {
+                LocalDateTime.of(2020, 1, 1, 0, 0), LocalDateTime.of(2020, 1, 10, 0, 0), LocalDateTime.of(2020, 1, 20, 0, 0),
+                LocalDateTime.of(2020, 2, 5, 0, 0), LocalDateTime.of(2020, 2, 15, 0, 0), LocalDateTime.of(2020, 3, 1, 0, 0),
+                LocalDateTime.of(2020, 4, 1, 0, 0), LocalDateTime.of(2020, 5, 1, 0, 0), LocalDateTime.now().minusDays(1)};
+        String[] operations = {"I", "U", "U", "U", "U", "D", "I", "U", "U"};
+        String[] types = {"A", "B", "C", "C", "D", "D", "E", "F", "G"};
+
+        em.getTransaction().begin();
+        for (int i = 0; i < tt.length; i++) {
+            boolean invalidated = i + 1 < tt.length && !"D".equals(operations[i]);
+            insertAircraftHistory("CMP-1", "CMP-" + i, operations[i], types[i], tt[i], invalidated ? tt[i + 1] : null);
+        }
+        em.getTransaction().commit();
+
+        HistoryCompactor compactor = new HistoryCompactor(em);
+        // version of 2020-02-05 did not change anything, the one of 2020-01-10 is not the last one of its month
+        Assert.assertEquals(2, compactor.compact("AIRCRAFT"));
+        Assert.assertEquals(0, compactor.compact("AIRCRAFT"));
+
+        List<Object[]> versions = em.createNativeQuery("select hst_uuid, transaction_timestamp, invalidated_at from AIRCRAFT_HST " +
+                "where uuid='CMP-1' order by transaction_timestamp").getResultList();
+        String[] keptVersions = {"CMP-0", "CMP-2", "CMP-4", "CMP-5", "CMP-6", "CMP-7", "CMP-8"};
+        Assert.assertEquals(keptVersions.length, versions.size());
+        for (int i = 0; i < keptVersions.length; i++) {
+            Assert.assertEquals(keptVersions[i], versions.get(i)[0]);
+            if (i + 1 < keptVersions.length && !"CMP-5".equals(keptVersions[i])) {
+                Assert.assertEquals("gap in history after " + keptVersions[i], versions.get(i + 1)[1], versions.get(i)[2]);
+            }
+        }
+    }
+
+    @Test
+    public void testAsOfQuery() {
+        em.getTransaction().begin();
+        insertAircraftHistory("AOQ-1", "AOQ-1I", "I", "A", LocalDateTime.of(2020, 1, 1, 0, 0), LocalDateTime.of(2020, 2, 1, 0, 0));
+        insertAircraftHistory("AOQ-1", "AOQ-1U", "U", "B", LocalDateTime.of(2020, 2, 1, 0, 0), LocalDateTime.of(2020, 3, 1, 0, 0));
+        insertAircraftHistory("AOQ-1", "AOQ-1D", "D", "B", LocalDateTime.of(2020, 3, 1, 0, 0), null);
+        insertAircraftHistory("AOQ-2", "AOQ-2I", "I", "X", LocalDateTime.of(2020, 1, 15, 0, 0), null);
+        em.getTransaction().commit();
+
+        AsOfQuery<AircraftHst> query = AsOfQuery.forEntity(em, Aircraft.class);
+        Assert.assertEquals("A", query.find("AOQ-1", LocalDateTime.of(2020, 1, 20, 0, 0)).getType());
+        Assert.assertEquals("B", query.find("AOQ-1", LocalDateTime.of(2020, 2, 1, 0, 0)).getType());
+        Assert.assertNull(query.find("AOQ-1", LocalDateTime.of(2020, 3, 5, 0, 0)));
+        Assert.assertNull(query.find("AOQ-2", LocalDateTime.of(2020, 1, 10, 0, 0)));
+
+        query.setBatchSize(2);
+        Map<Object, AircraftHst> versions = query.find(Arrays.asList("AOQ-1", "AOQ-2", "AOQ-3"), LocalDateTime.of(2020, 2, 10, 0, 0));
+        Assert.assertEquals(2, versions.size());
+        Assert.assertEquals("B", versions.get("AOQ-1").getType());
+        Assert.assertEquals("X", versions.get("AOQ-2").getType());
+
+        int found = 0;
+        for (AircraftHst version : query.getResultList(LocalDateTime.of(2020, 1, 10, 0, 0))) {
+            if (version.getLiveUuid().startsWith("AOQ-")) {
+                Assert.assertEquals("AOQ-1I", version.getUuid());
+                found++;
+            }
+        }
+        Assert.assertEquals(1, found);
+    }
+
+    protected void insertAircraftHistory(String uuid, String hstUuid, String operation, String type, LocalDateTime transactionTimestamp, LocalDateTime invalidatedAt) {
+        em.createNativeQuery("insert into AIRCRAFT_HST (hst_uuid, operation, uuid, CALL_SIGN, ENGINE_TYPE, LENGTH, TYPE, WING_SPAN, " +
+                        "transaction_timestamp, invalidated_at) values (:hstUuid, :operation, :uuid, 'OE-AOQ', 'piston', 7.25, :type, 10.67, :tt, :invalidatedAt)")
+                .setParameter("hstUuid", hstUuid)
+                .setParameter("operation", operation)
+                .setParameter("uuid", uuid)
+                .setParameter("type", type)
+                .setParameter("tt", Timestamp.valueOf(transactionTimestamp))
+                .setParameter("invalidatedAt", invalidatedAt != null ? Timestamp.valueOf(invalidatedAt) : null)
+                .executeUpdate();
+    }
+
+    protected void assertSameRows(String sql, String otherSql) {
+        Assert.assertEquals(0, ((Number) em.createNativeQuery("select count(*) from (" +
+                "select * from (" + sql + " except " + otherSql + ") d1" +
+                " union all select * from (" + otherSql + " except " + sql + ") d2) d").getSingleResult()).intValue());
+    }
+
+    private void executeInTransaction(Query query) {
+        em.getTransaction().begin();
+        Assert.assertEquals(1, query.executeUpdate());
+        em.getTransaction().commit();
+    }
 }
@@ -17,16 +17,17 @@ package com.github.gekoh.yagen.example.test;
 
 import com.opentable.db.postgres.embedded.EmbeddedPostgres;
 import org.junit.After;
+import org.junit.Assert;
 import org.junit.Ignore;
 import org.junit.Test;
 
-import java.io.IOException;
-import java.time.Duration;
+import java.util.List;
 
 /**
  * @author Mario Ivankovits
  */
 public class POSTGRESQL_HistoryTest extends HistoryTest {
+    private static final org.slf4j.Logger LOG = org.slf4j.LoggerFactory.getLogger(POSTGRESQL_HistoryTest.class);
 
     private EmbeddedPostgres pg;
 
@@ -36,25 +37,11 @@ public class POSTGRESQL_HistoryTest extends HistoryTest {
     }
 
     protected void setupDatabase() {
-        try {
-            pg = EmbeddedPostgres.builder()
-                    .setCleanDataDirectory(true)
-                    .setPort(9002)
-                    .setPGStartupWait(Duration.ofSeconds(20L))
-                    .start();
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
+        pg = PostgreSQLTestBase.startEmbeddedPostgres();
     }
 
     protected void shutdownDatabase() {
-        try {
-            if (pg != null) {
-                pg.close();
-            }
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
+        PostgreSQLTestBase.stopEmbeddedPostgres(pg);
     }
 
     @After
@@ -67,6 +54,51 @@ public class POSTGRESQL_HistoryTest extends HistoryTest {
         return "postgres";
     }
 
+    @Test
+    public void testLatestSnapshotViewLargeHistory() {
+        insertLargeAircraftHistory();
+
+        long start = System.nanoTime();
+        Assert.assertEquals(4000, em.createNativeQuery(LATEST_SNAPSHOT_VIEW_SQL).getResultList().size());
+        long viewMillis = (System.nanoTime() - start) / 1000000L;
+
+        start = System.nanoTime();
+        Assert.assertEquals(4000, em.createNativeQuery(LATEST_SNAPSHOT_CORRELATED_SQL).getResultList().size());
+        long correlatedMillis = (System.nanoTime() - start) / 1000000L;
+
+        LOG.info("latest snapshot of 80000 history rows: window function {} ms, correlated sub query {} ms", viewMillis, correlatedMillis);
+
+        assertSameRows(LATEST_SNAPSHOT_CORRELATED_SQL, LATEST_SNAPSHOT_VIEW_SQL);
+    }
+
+    @Test
+    public void testInvalidationIndex() {
+        insertLargeAircraftHistory();
+
+        em.getTransaction().begin();
+        // same predicate as the invalidation of the latest history entry in the history trigger
+        List<String> plan = em.createNativeQuery("explain update AIRCRAFT_HST h set invalidated_at=current_timestamp" +
+                " where transaction_timestamp < current_timestamp and operation <> 'D' and uuid='LSV-1000' and invalidated_at is null").getResultList();
+        em.getTransaction().rollback();
+
+        LOG.info("plan of history invalidation: {}", plan);
+        Assert.assertTrue(plan.toString(), plan.toString().contains("ach_uuid_invalidatedat_IX".toLowerCase()));
+    }
+
+    /**
+     * 2000 rows with 40 history entries each, deleted and inserted again after the 20th change
+     */
+    protected void insertLargeAircraftHistory() {
+        em.getTransaction().begin();
+        em.createNativeQuery("insert into AIRCRAFT_HST (hst_uuid, operation, uuid, TYPE, transaction_timestamp, invalidated_at)" +
+                " select md5(k||'-'||v), case when v in (0, 21) then 'I' when v=20 then 'D' else 'U' end, 'LSV-'||k, 'PA28-'||v," +
+                "   timestamp '2020-01-01 00:00:00' + v * interval '1 minute'," +
+                "   case when v not in (20, 39) then timestamp '2020-01-01 00:00:00' + (v+1) * interval '1 minute' end" +
+                " from generate_series(1, 2000) k, generate_series(0, 39) v").executeUpdate();
+        em.createNativeQuery("analyze AIRCRAFT_HST").executeUpdate();
+        em.getTransaction().commit();
+    }
+
     @Ignore("test does not work with oracle or postgresql")
     @Test
     public void testHistoryCollectionTableLimitation() {
@@ -0,0 +1,285 @@
+/*
+ Copyright 2026 agent
+
+ Licensed under the Apache License, Version 2.0 (the License);
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+ http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an AS IS BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+*/
+package com.github.gekoh.yagen.example.test;
+
+import com.github.gekoh.yagen.example.Aircraft;
+import com.github.gekoh.yagen.example.BoardBookEntry;
+import com.github.gekoh.yagen.example.EngineType;
+import com.github.gekoh.yagen.util.HistoryOutboxDrainer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs with history capture outbox, history tables are written by {@link HistoryOutboxDrainer}.
+ *
+ * @author agent
+ */
+public class POSTGRESQL_OutboxHistoryTest extends PostgreSQLTestBase {
+
+    @Override
+    protected String getPersistenceUnitName() {
+        return "example-domain-test-postgres-outbox";
+    }
+
+    @Test
+    public void testDrainHistory() throws Exception {
+        Aircraft ac = new Aircraft(EngineType.piston, "C172", "OE-DOB", 10.92f, 8.2f, "outbox");
+        em.getTransaction().begin();
+        em.persist(ac);
+        em.getTransaction().commit();
+
+        em.getTransaction().begin();
+        em.createNativeQuery("update AIRCRAFT set TYPE='C172N' where CALL_SIGN='OE-DOB'").executeUpdate();
+        em.createNativeQuery("update AIRCRAFT set TYPE='C172P' where CALL_SIGN='OE-DOB'").executeUpdate();
+        em.getTransaction().commit();
+
+        em.getTransaction().begin();
+        em.createNativeQuery("update AIRCRAFT set TYPE='C172S' where CALL_SIGN='OE-DOB'").executeUpdate();
+        em.getTransaction().commit();
+
+        em.getTransaction().begin();
+        em.createNativeQuery("delete from AIRCRAFT where CALL_SIGN='OE-DOB'").executeUpdate();
+        em.getTransaction().commit();
+
+        em.getTransaction().begin();
+        em.persist(new Aircraft(EngineType.piston, "PA18", "OE-DOC", 10.73f, 6.88f, "outbox"));
+        em.flush();
+        em.createNativeQuery("delete from AIRCRAFT where CALL_SIGN='OE-DOC'").executeUpdate();
+        em.getTransaction().commit();
+
+        Assert.assertEquals(0, em.createNativeQuery("select 1 from AIRCRAFT_HST").getResultList().size());
+        Assert.assertEquals(7, em.createNativeQuery("select 1 from AIRCRAFT_HST_OBX").getResultList().size());
+
+        HistoryOutboxDrainer drainer = new HistoryOutboxDrainer(pg.getPostgresDatabase());
+        drainer.setBatchSize(4);
+        Assert.assertEquals(7, drainer.drainAll());
+
+        // OE-DOC has been inserted and deleted within one transaction and therefore leaves no history
+        Assert.assertEquals(4, em.createNativeQuery("select 1 from AIRCRAFT_HST").getResultList().size());
+        List<Object[]> history = em.createNativeQuery("select OPERATION, TYPE, TRANSACTION_TIMESTAMP, INVALIDATED_AT from AIRCRAFT_HST " +
+                "where UUID=:uuid order by TRANSACTION_TIMESTAMP")
+                .setParameter("uuid", ac.getUuid())
+                .getResultList();
+        Assert.assertEquals(4, history.size());
+        String[][] expected = {{"I", "C172"}, {"U", "C172P"}, {"U", "C172S"}, {"D", null}};
+        for (int i = 0; i < expected.length; i++) {
+            Object[] entry = history.get(i);
+            Assert.assertEquals(expected[i][0], String.valueOf(entry[0]));
+            Assert.assertEquals(expected[i][1], entry[1]);
+            Assert.assertEquals(i < expected.length - 1 ? history.get(i + 1)[2] : null, entry[3]);
+        }
+
+        Assert.assertEquals(0, em.createNativeQuery("select 1 from HST_OUTBOX").getResultList().size());
+        Object[] cursor = (Object[]) em.createNativeQuery("select DRAINED_ROWS, LAST_TRANSACTION_TIMESTAMP from HST_OUTBOX_CURSOR where HST_TABLE_NAME='AIRCRAFT_HST'")
+                .getSingleResult();
+        Assert.assertEquals(7L, ((Number) cursor[0]).longValue());
+        Assert.assertNotNull(cursor[1]);
+    }
+
+    @Test
+    public void testDrainRejectsInconsistentHistory() throws Exception {
+        Aircraft ac = new Aircraft(EngineType.piston, "C152", "OE-DOD", 10.11f, 7.34f, "outbox");
+        em.getTransaction().begin();
+        em.persist(ac);
+        em.getTransaction().commit();
+
+        HistoryOutboxDrainer drainer = new HistoryOutboxDrainer(pg.getPostgresDatabase());
+        Assert.assertEquals(1, drainer.drainAll());
+
+        // no current version left to invalidate
+        em.getTransaction().begin();
+        em.createNativeQuery("update AIRCRAFT_HST set INVALIDATED_AT=TRANSACTION_TIMESTAMP where UUID=:uuid")
+                .setParameter("uuid", ac.getUuid())
+                .executeUpdate();
+        em.createNativeQuery("update AIRCRAFT set TYPE='C152II' where CALL_SIGN='OE-DOD'").executeUpdate();
+        em.getTransaction().commit();
+
+        Assert.assertEquals(0, drainer.drainAll());
+        Assert.assertEquals(Collections.singletonList("AIRCRAFT_HST"), drainer.getFailingTables());
+        Assert.assertEquals(1, em.createNativeQuery("select 1 from AIRCRAFT_HST_OBX").getResultList().size());
+        Assert.assertEquals(1, em.createNativeQuery("select 1 from AIRCRAFT_HST where UUID=:uuid")
+                .setParameter("uuid", ac.getUuid())
+                .getResultList().size());
+
+        em.getTransaction().begin();
+        em.createNativeQuery("update AIRCRAFT_HST set INVALIDATED_AT=null where UUID=:uuid")
+                .setParameter("uuid", ac.getUuid())
+                .executeUpdate();
+        em.getTransaction().commit();
+
+        Assert.assertEquals(1, drainer.drainAll());
+        Assert.assertEquals(1, em.createNativeQuery("select 1 from AIRCRAFT_HST where UUID=:uuid and INVALIDATED_AT is null and TYPE='C152II'")
+                .setParameter("uuid", ac.getUuid())
+                .getResultList().size());
+        Assert.assertTrue(drainer.getFailingTables().isEmpty());
+    }
+
+    @Test
+    public void testDeadLetter() throws Exception {
+        Aircraft ac = new Aircraft(EngineType.piston, "C150", "OE-DOG", 10.11f, 7.24f, "outbox");
+        ac.addBoardBookEntry(new BoardBookEntry(1, "1+1", "LOWW", LocalDateTime.now().minusHours(1), "LOWW", LocalDateTime.now(), 1));
+        em.getTransaction().begin();
+        em.persist(ac);
+        em.getTransaction().commit();
+
+        HistoryOutboxDrainer drainer = new HistoryOutboxDrainer(pg.getPostgresDatabase());
+        drainer.setMaxAttempts(2);
+        Assert.assertEquals(2, drainer.drainAll());
+
+        // the aircraft record cannot be invalidated, the board book entry record drains nevertheless
+        em.getTransaction().begin();
+        em.createNativeQuery("update AIRCRAFT_HST set INVALIDATED_AT=TRANSACTION_TIMESTAMP where UUID=:uuid")
+                .setParameter("uuid", ac.getUuid())
+                .executeUpdate();
+        em.createNativeQuery("update AIRCRAFT set TYPE='C150M' where CALL_SIGN='OE-DOG'").executeUpdate();
+        em.createNativeQuery("update BOARD_BOOK_ENTRY set LANDINGS=2").executeUpdate();
+        em.getTransaction().commit();
+
+        Assert.assertEquals(1, drainer.drain());
+        Assert.assertEquals(Collections.singletonList("AIRCRAFT_HST"), drainer.getFailingTables());
+        Assert.assertEquals(1, em.createNativeQuery("select 1 from BOARD_BOOK_ENTRY_HST where LANDINGS=2 and INVALIDATED_AT is null")
+                .getResultList().size());
+        Object[] cursor = (Object[]) em.createNativeQuery("select FAILED_ATTEMPTS, LAST_ERROR from HST_OUTBOX_CURSOR where HST_TABLE_NAME='AIRCRAFT_HST'")
+                .getSingleResult();
+        Assert.assertEquals(1, ((Number) cursor[0]).intValue());
+        Assert.assertTrue(String.valueOf(cursor[1]).contains("unable to invalidate history record"));
+
+        // moved to the dead letter table after the second attempt
+        Assert.assertEquals(1, drainer.drain());
+        Assert.assertTrue(drainer.getFailingTables().isEmpty());
+        Assert.assertEquals(1L, drainer.getDeadLetterCount());
+        Assert.assertEquals(0, em.createNativeQuery("select 1 from AIRCRAFT_HST_OBX").getResultList().size());
+        Assert.assertEquals(1, em.createNativeQuery("select 1 from HST_OUTBOX_DEAD_LETTER where HST_TABLE_NAME='AIRCRAFT_HST' " +
+                "and ROW_DATA->>'type'='C150M' and ERROR_MESSAGE like 'unable to invalidate history record%'")
+                .getResultList().size());
+        Assert.assertEquals(1L, ((Number) em.createNativeQuery("select DEAD_LETTERED from HST_OUTBOX_CURSOR where HST_TABLE_NAME='AIRCRAFT_HST'")
+                .getSingleResult()).longValue());
+    }
+
+    @Test
+    public void testResumeAfterCrash() throws Exception {
+        Aircraft ac = new Aircraft(EngineType.piston, "PA28", "OE-DOE", 10.67f, 7.25f, "outbox");
+        em.getTransaction().begin();
+        em.persist(ac);
+        em.getTransaction().commit();
+
+        for (String type : new String[]{"PA28-161", "PA28-181"}) {
+            em.getTransaction().begin();
+            em.createNativeQuery("update AIRCRAFT set TYPE=:type where CALL_SIGN='OE-DOE'")
+                    .setParameter("type", type)
+                    .executeUpdate();
+            em.getTransaction().commit();
+        }
+
+        HistoryOutboxDrainer drainer = new HistoryOutboxDrainer(pg.getPostgresDatabase());
+        drainer.setBatchSize(1);
+        Assert.assertEquals(1, drainer.drain());
+
+        // connection lost after the history entries of the next batch have been written
+        HistoryOutboxDrainer crashingDrainer = new HistoryOutboxDrainer(CrashingDataSource.crashBeforeCommit(pg.getPostgresDatabase(), "update HST_OUTBOX_CURSOR"));
+        try {
+            crashingDrainer.drainAll();
+            Assert.fail("drain has to fail");
+        } catch (Exception e) {
+            Assert.assertEquals("08006", ((SQLException) e).getSQLState());
+        }
+
+        Assert.assertEquals(2, em.createNativeQuery("select 1 from AIRCRAFT_HST_OBX").getResultList().size());
+        Assert.assertEquals(1, em.createNativeQuery("select 1 from AIRCRAFT_HST").getResultList().size());
+        Assert.assertEquals(1L, ((Number) em.createNativeQuery("select DRAINED_ROWS from HST_OUTBOX_CURSOR where HST_TABLE_NAME='AIRCRAFT_HST'")
+                .getSingleResult()).longValue());
+
+        Assert.assertEquals(2, drainer.drainAll());
+        List<Object[]> history = em.createNativeQuery("select TYPE, INVALIDATED_AT from AIRCRAFT_HST where UUID=:uuid order by TRANSACTION_TIMESTAMP")
+                .setParameter("uuid", ac.getUuid())
+                .getResultList();
+        Assert.assertEquals(3, history.size());
+        Assert.assertEquals("PA28", history.get(0)[0]);
+        Assert.assertEquals("PA28-181", history.get(2)[0]);
+        Assert.assertNotNull(history.get(1)[1]);
+        Assert.assertNull(history.get(2)[1]);
+        Assert.assertEquals(3L, ((Number) em.createNativeQuery("select DRAINED_ROWS from HST_OUTBOX_CURSOR where HST_TABLE_NAME='AIRCRAFT_HST'")
+                .getSingleResult()).longValue());
+    }
+
+    @Test
+    public void testBackPressure() throws Exception {
+        em.getTransaction().begin();
+        em.persist(new Aircraft(EngineType.piston, "DA20", "OE-DOF", 10.87f, 7.16f, "outbox"));
+        em.getTransaction().commit();
+
+        // the oldest undrained record is more than max-backlog records behind the next one
+        em.getTransaction().begin();
+        em.createNativeQuery("select setval('hst_outbox_seq', nextval('hst_outbox_seq')+100000)").getSingleResult();
+        em.getTransaction().commit();
+
+        long start = System.currentTimeMillis();
+        em.getTransaction().begin();
+        try {
+            em.createNativeQuery("update AIRCRAFT set TYPE='DA20-A1' where CALL_SIGN='OE-DOF'").executeUpdate();
+            Assert.fail("writer has to fail if the outbox is not drained within max-wait-millis");
+        } catch (PersistenceException e) {
+            Assert.assertTrue(getRootCause(e).getMessage().contains("backlog exceeds 100000"));
+        } finally {
+            em.getTransaction().rollback();
+        }
+        Assert.assertTrue(System.currentTimeMillis() - start >= 1000);
+
+        // writer waits until the outbox has been drained
+        AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+        Thread writer = new Thread(() -> {
+            EntityManager writerEm = emf.createEntityManager();
+            try {
+                writerEm.getTransaction().begin();
+                writerEm.createNativeQuery("update AIRCRAFT set TYPE='DA20-C1' where CALL_SIGN='OE-DOF'").executeUpdate();
+                writerEm.getTransaction().commit();
+            } catch (Throwable t) {
+                error.set(t);
+            } finally {
+                writerEm.close();
+            }
+        });
+        writer.start();
+        Thread.sleep(200);
+        Assert.assertTrue(writer.isAlive());
+
+        HistoryOutboxDrainer drainer = new HistoryOutboxDrainer(pg.getPostgresDatabase());
+        int drained = drainer.drainAll();
+        writer.join(5000);
+        Assert.assertFalse(writer.isAlive());
+        Assert.assertNull(error.get());
+
+        drained += drainer.drainAll();
+        Assert.assertEquals(2, drained);
+        Assert.assertEquals(1, em.createNativeQuery("select 1 from AIRCRAFT_HST where TYPE='DA20-C1' and INVALIDATED_AT is null")
+                .getResultList().size());
+    }
+
+    private static Throwable getRootCause(Throwable t) {
+        while (t.getCause() != null && t.getCause() != t) {
+            t = t.getCause();
+        }
+        return t;
+    }
+}
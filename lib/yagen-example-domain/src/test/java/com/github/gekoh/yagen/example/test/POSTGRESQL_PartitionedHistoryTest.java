@@ -0,0 +1,156 @@
+/*
+ Copyright 2026 agent
+
+ Licensed under the Apache License, Version 2.0 (the License);
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+ http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an AS IS BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+*/
+package com.github.gekoh.yagen.example.test;
+
+import com.github.gekoh.yagen.example.Aircraft;
+import com.github.gekoh.yagen.example.EngineType;
+import com.github.gekoh.yagen.util.PartitionManager;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Runs the history tests with history tables range partitioned by month.
+ *
+ * @author agent
+ */
+public class POSTGRESQL_PartitionedHistoryTest extends POSTGRESQL_HistoryTest {
+    private static final org.slf4j.Logger LOG = org.slf4j.LoggerFactory.getLogger(POSTGRESQL_PartitionedHistoryTest.class);
+
+    private static final String PARTITION_COUNT_SQL = "select count(*) from pg_inherits where inhparent=cast('aircraft_hst' as regclass)";
+
+    @Override
+    protected String getPersistenceUnitName() {
+        return "example-domain-test-postgres-partitioned";
+    }
+
+    @Test
+    @Override
+    public void testInvalidationIndex() {
+        insertLargeAircraftHistory();
+
+        em.getTransaction().begin();
+        List<String> plan = em.createNativeQuery("explain update AIRCRAFT_HST h set invalidated_at=current_timestamp" +
+                " where transaction_timestamp < current_timestamp and operation <> 'D' and uuid='LSV-1000' and invalidated_at is null").getResultList();
+        em.getTransaction().rollback();
+
+        LOG.info("plan of history invalidation: {}", plan);
+        Assert.assertTrue(plan.toString(), plan.toString().contains("aircraft_hst_pmin_ix"));
+    }
+
+    @Test
+    public void testPartitionPruning() {
+        // partition for rows before the current month, current month and 3 months ahead
+        Assert.assertEquals(5, ((Number) em.createNativeQuery(PARTITION_COUNT_SQL).getSingleResult()).intValue());
+
+        insertLargeAircraftHistory();
+
+        em.getTransaction().begin();
+        em.persist(new Aircraft(EngineType.piston, "C172", "OE-DOB", 10.92f, 8.2f, "partitioned"));
+        em.getTransaction().commit();
+
+        LocalDate month = LocalDate.now().withDayOfMonth(1);
+        String currentPartition = "aircraft_hst_p" + month.format(DateTimeFormatter.BASIC_ISO_DATE);
+
+        List<String> plan = em.createNativeQuery("explain select * from AIRCRAFT_HST where transaction_timestamp >= timestamp '" + month +
+                "' and transaction_timestamp < timestamp '" + month.plusMonths(1) + "'").getResultList();
+        LOG.info("plan of history query for current month: {}", plan);
+        Assert.assertTrue(plan.toString(), plan.toString().contains(currentPartition));
+        Assert.assertFalse(plan.toString(), plan.toString().contains("aircraft_hst_pmin"));
+
+        plan = em.createNativeQuery("explain select * from AIRCRAFT_HST where uuid='LSV-1000'" +
+                " and transaction_timestamp between timestamp '2020-01-01' and timestamp '2020-01-02'").getResultList();
+        LOG.info("plan of history query for 2020: {}", plan);
+        Assert.assertTrue(plan.toString(), plan.toString().contains("aircraft_hst_pmin"));
+        Assert.assertFalse(plan.toString(), plan.toString().contains(currentPartition));
+
+        Assert.assertEquals(1, em.createNativeQuery("select 1 from " + currentPartition).getResultList().size());
+        Assert.assertEquals(80000, em.createNativeQuery("select 1 from AIRCRAFT_HST_PMIN").getResultList().size());
+
+        em.getTransaction().begin();
+        Assert.assertEquals(0, ((Number) em.createNativeQuery("select create_partitions('AIRCRAFT_HST')").getSingleResult()).intValue());
+        Assert.assertEquals(2, ((Number) em.createNativeQuery("select create_partitions('AIRCRAFT_HST', 5)").getSingleResult()).intValue());
+        em.getTransaction().commit();
+
+        Assert.assertEquals(7, ((Number) em.createNativeQuery(PARTITION_COUNT_SQL).getSingleResult()).intValue());
+    }
+
+    @Test
+    public void testInvalidationAcrossPartitions() {
+        Aircraft ac = new Aircraft(EngineType.piston, "C172", "OE-DOX", 10.92f, 8.2f, "partitioned");
+        em.getTransaction().begin();
+        em.persist(ac);
+        em.getTransaction().commit();
+
+        // current version in the catch-all partition, like one written before the table has been partitioned
+        em.getTransaction().begin();
+        em.createNativeQuery("delete from AIRCRAFT_HST where UUID=:uuid").setParameter("uuid", ac.getUuid()).executeUpdate();
+        insertAircraftHistory(ac.getUuid(), "XPT-1", "I", "C172", LocalDateTime.of(2020, 1, 1, 0, 0), null);
+        em.getTransaction().commit();
+
+        // the history timestamp is never updated, only invalidated_at, so no row has to move between partitions
+        em.getTransaction().begin();
+        em.createNativeQuery("update AIRCRAFT set TYPE='C172N' where UUID=:uuid").setParameter("uuid", ac.getUuid()).executeUpdate();
+        em.getTransaction().commit();
+
+        Assert.assertEquals(1, em.createNativeQuery("select 1 from AIRCRAFT_HST_PMIN where UUID=:uuid and INVALIDATED_AT is not null")
+                .setParameter("uuid", ac.getUuid())
+                .getResultList().size());
+        String currentPartition = "aircraft_hst_p" + LocalDate.now().withDayOfMonth(1).format(DateTimeFormatter.BASIC_ISO_DATE);
+        Assert.assertEquals(1, em.createNativeQuery("select 1 from " + currentPartition + " where UUID=:uuid and TYPE='C172N' and INVALIDATED_AT is null")
+                .setParameter("uuid", ac.getUuid())
+                .getResultList().size());
+    }
+
+    @Test
+    public void testRetentionKeepsCurrentVersions() {
+        Aircraft ac = new Aircraft(EngineType.piston, "C172", "OE-DOR", 10.92f, 8.2f, "partitioned");
+        em.getTransaction().begin();
+        em.persist(ac);
+        em.getTransaction().commit();
+
+        // partition of next month only containing versions of a deleted row
+        LocalDate nextMonth = LocalDate.now().withDayOfMonth(1).plusMonths(1);
+        em.getTransaction().begin();
+        insertAircraftHistory("RET-1", "RET-1I", "I", "C172", nextMonth.atTime(1, 0), nextMonth.atTime(2, 0));
+        insertAircraftHistory("RET-1", "RET-1D", "D", "C172", nextMonth.atTime(2, 0), null);
+        em.getTransaction().commit();
+
+        // the partitions before the current month and of the current month containing the current version are kept
+        PartitionManager partitionManager = new PartitionManager(em);
+        em.getTransaction().begin();
+        Assert.assertEquals(Collections.singletonList("drop table aircraft_hst_p" + nextMonth.format(DateTimeFormatter.BASIC_ISO_DATE)),
+                partitionManager.dropPartitionsBefore("AIRCRAFT_HST", nextMonth.plusMonths(1).atStartOfDay()));
+        em.getTransaction().commit();
+        Assert.assertEquals(4, ((Number) em.createNativeQuery(PARTITION_COUNT_SQL).getSingleResult()).intValue());
+
+        em.getTransaction().begin();
+        em.createNativeQuery("update AIRCRAFT set TYPE='C172N' where UUID=:uuid").setParameter("uuid", ac.getUuid()).executeUpdate();
+        em.getTransaction().commit();
+
+        Assert.assertEquals(2, em.createNativeQuery("select 1 from AIRCRAFT_HST where UUID=:uuid")
+                .setParameter("uuid", ac.getUuid())
+                .getResultList().size());
+        Assert.assertEquals(1, em.createNativeQuery("select 1 from AIRCRAFT_HST where UUID=:uuid and TYPE='C172N' and INVALIDATED_AT is null")
+                .setParameter("uuid", ac.getUuid())
+                .getResultList().size());
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ Copyright 2026 agent
+
+ Licensed under the Apache License, Version 2.0 (the License);
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+ http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an AS IS BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+*/
+package com.github.gekoh.yagen.example.test;
+
+import com.github.gekoh.yagen.example.Aircraft;
+import com.github.gekoh.yagen.example.EngineType;
+import com.github.gekoh.yagen.util.PartitionManager;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Live table FLIGHT_EVENT range partitioned by day with constraints, indexes and triggers created per partition.
+ *
+ * @author agent
+ */
+public class POSTGRESQL_PartitioningTest extends PostgreSQLTestBase {
+
+    private static final String PARTITIONS = "(select inhrelid from pg_inherits where inhparent=cast('flight_event' as regclass))";
+
+    @Override
+    protected String getPersistenceUnitName() {
+        return "example-domain-test-postgres-live-partitioned";
+    }
+
+    @Test
+    public void testPartitionObjects() {
+        // partition for rows before the current day, current day and 3 days ahead
+        Assert.assertEquals(5, count("select count(*) from " + PARTITIONS + " p"));
+
+        Assert.assertEquals(5, count("select count(*) from pg_constraint where contype='p' and conrelid in " + PARTITIONS));
+        Assert.assertEquals(5, count("select count(*) from pg_constraint where contype='u' and conrelid in " + PARTITIONS));
+        Assert.assertEquals(5, count("select count(*) from pg_constraint where contype='f' and conrelid in " + PARTITIONS));
+        Assert.assertEquals(5, count("select count(*) from pg_indexes where tablename like 'flight_event_p%' and indexdef like '%(event_type)'"));
+        Assert.assertEquals(5, count("select count(*) from pg_trigger where not tgisinternal and tgrelid in " + PARTITIONS));
+
+        em.getTransaction().begin();
+        Assert.assertEquals(2, count("select create_partitions('FLIGHT_EVENT', 5)"));
+        em.getTransaction().commit();
+
+        Assert.assertEquals(7, count("select count(*) from pg_constraint where contype='p' and conrelid in " + PARTITIONS));
+        Assert.assertEquals(7, count("select count(*) from pg_trigger where not tgisinternal and tgrelid in " + PARTITIONS));
+    }
+
+    @Test
+    public void testInsertRouting() {
+        Aircraft aircraft = new Aircraft(EngineType.piston, "C172", "OE-DOB", 10.92f, 8.2f, "partitioned");
+        em.getTransaction().begin();
+        em.persist(aircraft);
+        em.persist(new FlightEvent(aircraft, LocalDateTime.of(2020, 1, 1, 12, 0), "takeoff", "E-1"));
+        em.persist(new FlightEvent(aircraft, LocalDateTime.now(), "takeoff", "E-2"));
+        em.getTransaction().commit();
+
+        String currentPartition = "flight_event_p" + LocalDate.now().format(DateTimeFormatter.BASIC_ISO_DATE);
+        Assert.assertEquals(1, em.createNativeQuery("select 1 from flight_event_pmin where external_id='E-1'").getResultList().size());
+        Assert.assertEquals(1, em.createNativeQuery("select 1 from " + currentPartition + " where external_id='E-2'").getResultList().size());
+        Assert.assertEquals(2, count("select count(*) from FLIGHT_EVENT where created_by is not null"));
+    }
+
+    @Test
+    public void testPartitionManager() {
+        PartitionManager partitionManager = new PartitionManager(em);
+        Assert.assertEquals(1, partitionManager.getPartitionedTables().size());
+        Assert.assertEquals("1 day", partitionManager.getPartitionedTable("FLIGHT_EVENT").getInterval());
+
+        em.getTransaction().begin();
+        em.persist(new FlightEvent(null, LocalDateTime.of(2020, 1, 1, 12, 0), "takeoff", "E-1"));
+        em.persist(new FlightEvent(null, LocalDateTime.now(), "takeoff", "E-2"));
+        em.getTransaction().commit();
+
+        List<PartitionManager.Partition> partitions = partitionManager.getPartitions("FLIGHT_EVENT");
+        Assert.assertEquals(5, partitions.size());
+        Assert.assertEquals("flight_event_pmin", partitions.get(0).getPartitionName());
+        Assert.assertTrue(partitions.get(0).getBytes() > 0);
+        String currentPartition = "flight_event_p" + LocalDate.now().format(DateTimeFormatter.BASIC_ISO_DATE);
+        Assert.assertEquals(currentPartition, partitions.get(1).getPartitionName());
+        LocalDateTime retainFrom = partitions.get(1).getUpperBound();
+
+        em.getTransaction().begin();
+        partitionManager.setDryRun(true);
+        // the first partition is never removed, rows before the start of the partitioning could not be inserted anymore
+        Assert.assertEquals(Collections.singletonList("drop table " + currentPartition), partitionManager.dropPartitionsBefore("FLIGHT_EVENT", retainFrom));
+        Assert.assertEquals(5, partitionManager.getPartitions("FLIGHT_EVENT").size());
+
+        partitionManager.setDryRun(false);
+        Assert.assertEquals(Collections.singletonList("alter table flight_event detach partition " + currentPartition),
+                partitionManager.detachPartitionsBefore("FLIGHT_EVENT", retainFrom));
+        Assert.assertTrue(partitionManager.dropPartitionsBefore("FLIGHT_EVENT", retainFrom).isEmpty());
+        partitionManager.createPartitions("FLIGHT_EVENT", 5);
+        em.getTransaction().commit();
+
+        Assert.assertEquals(6, partitionManager.getPartitions("FLIGHT_EVENT").size());
+        Assert.assertEquals(1, count("select count(*) from FLIGHT_EVENT"));
+        Assert.assertEquals(1, count("select count(*) from flight_event_pmin where external_id='E-1'"));
+        Assert.assertEquals(1, count("select count(*) from " + currentPartition + " where external_id='E-2'"));
+    }
+
+    private int count(String sql) {
+        return ((Number) em.createNativeQuery(sql).getSingleResult()).intValue();
+    }
+}
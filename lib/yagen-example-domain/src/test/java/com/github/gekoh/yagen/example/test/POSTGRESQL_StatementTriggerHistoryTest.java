@@ -0,0 +1,29 @@
+/*
+ Copyright 2026 agent
+
+ Licensed under the Apache License, Version 2.0 (the License);
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+ http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an AS IS BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+*/
+package com.github.gekoh.yagen.example.test;
+
+/**
+ * Runs the history tests with statement level history triggers.
+ *
+ * @author agent
+ */
+public class POSTGRESQL_StatementTriggerHistoryTest extends POSTGRESQL_HistoryTest {
+
+    @Override
+    protected String getPersistenceUnitName() {
+        return "example-domain-test-postgres-statement-trigger";
+    }
+}
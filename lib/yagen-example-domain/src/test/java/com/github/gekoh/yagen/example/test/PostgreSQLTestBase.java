@@ -0,0 +1,78 @@
+/*
+ Copyright 2026 agent
+
+ Licensed under the Apache License, Version 2.0 (the License);
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+ http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an AS IS BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+*/
+package com.github.gekoh.yagen.example.test;
+
+import com.opentable.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.After;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Runs each test class against a freshly started embedded PostgreSQL.
+ * Tests bound to another base class use {@link #startEmbeddedPostgres()} and {@link #stopEmbeddedPostgres(EmbeddedPostgres)}.
+ *
+ * @author agent
+ */
+public abstract class PostgreSQLTestBase extends TestBase {
+
+    /**
+     * port as configured in the postgres persistence units
+     */
+    private static final int PORT = 9002;
+
+    protected EmbeddedPostgres pg;
+
+    protected void setupDatabase() {
+        pg = startEmbeddedPostgres();
+    }
+
+    protected void shutdownDatabase() {
+        stopEmbeddedPostgres(pg);
+    }
+
+    @After
+    public void enableRecreateEmf() {
+        emf = null;
+    }
+
+    @Override
+    protected String getDbUserName() {
+        return "postgres";
+    }
+
+    static EmbeddedPostgres startEmbeddedPostgres() {
+        try {
+            return EmbeddedPostgres.builder()
+                    .setCleanDataDirectory(true)
+                    .setPort(PORT)
+                    .setPGStartupWait(Duration.ofSeconds(20L))
+                    .start();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    static void stopEmbeddedPostgres(EmbeddedPostgres pg) {
+        try {
+            if (pg != null) {
+                pg.close();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -36,7 +36,10 @@ import com.github.gekoh.yagen.hibernate.DefaultNamingStrategy;
 import com.github.gekoh.yagen.hibernate.NamingStrategy;
 import com.github.gekoh.yagen.hst.CreateEntities;
 import com.github.gekoh.yagen.util.DBHelper;
+import com.github.gekoh.yagen.util.DialectProfile;
 import com.github.gekoh.yagen.util.FieldInfo;
+import com.github.gekoh.yagen.util.GuidGenerator;
+import com.github.gekoh.yagen.util.HsqlDbTrigger;
 import jakarta.persistence.CollectionTable;
 import jakarta.persistence.DiscriminatorValue;
 import jakarta.persistence.JoinTable;
@@ -56,15 +59,14 @@ import org.hibernate.mapping.Table;
 import org.hibernate.mapping.UniqueKey;
 
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.io.Reader;
-import java.io.SequenceInputStream;
 import java.io.StringReader;
 import java.io.StringWriter;
-import java.io.UnsupportedEncodingException;
 import java.io.Writer;
 import java.lang.annotation.Annotation;
 import java.sql.Types;
+import java.time.Period;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -78,6 +80,11 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -97,55 +104,15 @@ public class CreateDDL {
 
     public static final String STATIC_FIELD_TABLE_NAME_SHORT = "TABLE_NAME_SHORT";
 
-    private static final String REGEX_COLNAME = "[\"'`]?[a-zA-Z]+[0-9a-zA-Z_]*[\"'`]?";
-
-    private static final Pattern TBL_PATTERN = Pattern.compile(".*"
-            + "create (table)[\\s]+([a-zA-Z]+[0-9a-zA-Z_]*)[\\s]*\\("
-            + "(.*(,([\\s]*(constraint[\\s]+([a-zA-Z]+[0-9a-zA-Z_]*)[\\s]+)?(primary key[\\s]*\\((" + REGEX_COLNAME +"([\\s]*,[\\s]*" + REGEX_COLNAME + ")*)\\))))"
-            + ".*)[\\s]*\\)\\s*(partition\\s+by.*)?");
-    private static final int TBL_PATTERN_IDX_TBL_SYN = 1;
-    private static final int TBL_PATTERN_IDX_TBLNAME = 2;
-    private static final int TBL_PATTERN_IDX_TBL_DEF = 3;
-    private static final int TBL_PATTERN_IDX_AFTER_COL_DEF = 4;
-    private static final int TBL_PATTERN_IDX_PK_START = 5;
-    private static final int TBL_PATTERN_IDX_PK_NAME = 7;
-    private static final int TBL_PATTERN_IDX_PK_CLAUSE = 8;
-    private static final int TBL_PATTERN_IDX_PK_COLLIST = 9;
-    private static final int TBL_PATTERN_IDX_PART_CLAUSE = 10;
-
-    private static final Pattern TBL_PATTERN_WO_PK = Pattern.compile(".*"
-            + "create table[\\s]+([a-zA-Z]+[0-9a-zA-Z_]*)([\\s]*\\()"
-            + ".*(\\))\\s*(partition\\s+by.*)?");
-    private static final int TBL_PATTERN_WO_PK_IDX_TBLNAME = 1;
-    private static final int TBL_PATTERN_WO_PK_IDX_BEFORE_COL_DEF = 2;
-    private static final int TBL_PATTERN_WO_PK_IDX_AFTER_COL_DEF = 3;
-
     private static final Pattern TBL_ALTER_PATTERN = Pattern.compile("alter table[\\s]+([a-zA-Z]+[0-9a-zA-Z_]*)[\\s]");
     private static final Pattern IDX_CREATE_PATTERN = Pattern.compile("create( unique)? index[\\s]+([a-zA-Z]+[0-9a-zA-Z_]*)[\\s]+on[\\s]+([a-zA-Z]+[0-9a-zA-Z_]*)([\\s]*\\()");
     private static final int IDX_CREATE_PATTERN_IDX_NAME = 2;
     private static final int IDX_CREATE_PATTERN_TBL_NAME = 3;
+    private static final Pattern TBL_ALTER_IF_EXISTS_PATTERN = Pattern.compile("alter table([\\s]+if exists)?[\\s]+([a-zA-Z]+[0-9a-zA-Z_]*)[\\s]");
+    private static final Pattern ORACLE_INTERVAL_PATTERN = Pattern.compile("numto(ym|ds)interval\\([\\s]*([0-9]+)[\\s]*,[\\s]*'([a-zA-Z]+)'[\\s]*\\)", Pattern.CASE_INSENSITIVE);
     private static final Pattern SEQ_CREATE_PATTERN = Pattern.compile("create sequence[\\s]+([a-zA-Z]+[0-9a-zA-Z_]*)");
     private static final Pattern PKG_CREATE_PATTERN = Pattern.compile("create( or replace)?[\\s]+package[\\s]+([a-zA-Z]+[0-9a-zA-Z_]*)[\\s]", Pattern.MULTILINE | Pattern.CASE_INSENSITIVE);
 
-    private static final int COL_PATTERN_IDX_COLNAME = 2;
-    private static final int COL_PATTERN_IDX_TYPE    = 4;
-    private static final int COL_PATTERN_IDX_DEFAULT = 30;
-    private static final int COL_PATTERN_IDX_NOTNULL = 32;
-    private static final int COL_PATTERN_IDX_NOTNULL_CONS_NAME = 34;
-    private static final int COL_PATTERN_IDX_NOT     = 35;
-    private static final int COL_PATTERN_IDX_UNIQUE  = 36;
-    private static final int COL_PATTERN_IDX_UNIQUE_CONS_NAME = 38;
-    private static final String COL_PATTERN_IDX_CHECK  = "check";
-    private static final String COL_PATTERN_IDX_CHECK_NAME  = "checkName";
-    private static final Pattern COL_PATTERN = Pattern.compile("([\\(|\\s]?)(" + REGEX_COLNAME + ")([\\s]((varchar(2)?\\([^\\)]+\\))|(number\\([^\\)]+\\))|(numeric\\([^\\)]+\\))|(timestamp(\\s*\\([0-9]+\\))?( with(out)? time zone)?)|(date)|([cb]lob)|(text)|(char\\([^\\)]+\\))|(int((eger)|[0-9]*))|(bigint)|(bit)|(bool(ean)?)|(((double)|(float[0-9]?(\\s*\\([0-9]+\\))?))( precision)?)))([\\s]+default[\\s]*([^\\s]*))?(([\\s]+constraint[\\s]+([a-zA-Z]+[0-9a-zA-Z_]*))?([\\s]+not)?[\\s]+null)?" +
-            "(([\\s]+constraint[\\s]+([a-zA-Z]+[0-9a-zA-Z_]*))?[\\s]+unique)?" +
-            "(?<" + COL_PATTERN_IDX_CHECK + ">([\\s]+constraint[\\s]+(?<" + COL_PATTERN_IDX_CHECK_NAME + ">[a-zA-Z]+[0-9a-zA-Z_]*))?[\\s]+check[\\s]+\\(([^\\()]+\\([^\\)]+\\))*\\))?" +
-            "[^\\(,]*(,|\\))");
-
-    private static final Pattern UNIQUE_PATTERN = Pattern.compile("(,(([\\s]*constraint[\\s]+([a-zA-Z]+[0-9a-zA-Z_]*))?[\\s]*unique[\\s]*\\((" + REGEX_COLNAME + "([\\s]*,[\\s]*" + REGEX_COLNAME + ")*)\\)))");
-    private static final int UNIQUE_PATTERN_IDX_UNIQUE_FULL = 2;
-    private static final int UNIQUE_PATTERN_IDX_UNIQUE_NAME = 4;
-    private static final int UNIQUE_PATTERN_IDX_UNIQUE_COLS = 5;
     private static final Pattern CONSTRAINT_OR_INDEX_PATTERN = Pattern.compile("(unique[\\s]*)?(index|constraint)[\\s]*(([a-zA-Z][0-9a-zA-Z]*_)?[a-zA-Z]+[0-9a-zA-Z_]*)");
     private static final int CONSTRAINT_OR_INDEX_PATTERN_IDX_NAME = 3;
     private static final int CONSTRAINT_OR_INDEX_PATTERN_IDX_SHORTNAME = 4;
@@ -160,6 +127,7 @@ public class CreateDDL {
     private static final String HIST_TABLE_PK_COLUMN_NAME = "hst_uuid";
     private static final String HIST_OPERATION_COLUMN_NAME = "operation";
     private static final String HIST_INVALID_TIMESTAMP_COLUMN_NAME = "invalidated_at";
+    private static final int HIST_PARTITIONS_AHEAD = 3;
 
     private static final String I18N_COLUMN_COMPOSITE_ID = "composite_id";
     private static final String I18N_COLUMN_IS_PERSISTENT = "is_persistent";
@@ -183,10 +151,16 @@ public class CreateDDL {
     private Set<String> views;
     private Set<String> tblColNameHasSingleColIndex = new HashSet<String>();
     private Map<String, List<String>> tblNameToDropObjectsSql = new HashMap<String, List<String>>();
+    private Map<String, HistoryTable> tblNameToListenerHistoryTable = new ConcurrentHashMap<String, HistoryTable>();
+    private Map<String, HistoryTable> tblNameToHistoryTable = new ConcurrentHashMap<String, HistoryTable>();
+    private Map<String, List<String>> tblNameToPartitionRowTriggerDdl = new ConcurrentHashMap<String, List<String>>();
 
     private DDLGenerator.Profile currentProfile;
 
     private List<String> dbObjects = new ArrayList<String>();
+
+    private Map<String, PreparedCreateTable> preparedCreateTables = new HashMap<String, PreparedCreateTable>();
+    private final ThreadLocal<PreparedCreateTable> preparingCreateTable = new ThreadLocal<PreparedCreateTable>();
     
     private Integer maxObjectNameLength; // specified by persistence unit property yagen.generator.db.constraints.max-object-name-length
     private Integer maxTableNameLength; // derived from maxObjectNameLength
@@ -287,6 +261,67 @@ public class CreateDDL {
         return tblNameToConfig.get(tableName);
     }
 
+    /**
+     * @return history table of given live table if its history rows are written by
+     * {@link com.github.gekoh.yagen.hibernate.HistoryEventListener}, null otherwise
+     */
+    public HistoryTable getListenerHistoryTable (String tableName) {
+        return tblNameToListenerHistoryTable.get(tableName.toLowerCase());
+    }
+
+    /**
+     * @return history table of given live table as generated for the current persistence unit, null if there is none
+     */
+    public HistoryTable getHistoryTable (String tableName) {
+        return tblNameToHistoryTable.get(tableName.toLowerCase());
+    }
+
+    public Collection<HistoryTable> getHistoryTables () {
+        return Collections.unmodifiableCollection(tblNameToHistoryTable.values());
+    }
+
+    /**
+     * @return range partitioned tables, these are live tables annotated with {@link IntervalPartitioning} and
+     * their history tables on Oracle or history tables partitioned by the history timestamp on PostgreSQL
+     */
+    public List<PartitionedTable> getPartitionedTables (Dialect dialect) {
+        List<PartitionedTable> partitionedTables = new ArrayList<PartitionedTable>();
+        if (!supportsPartitioning(dialect) && !isPostgres(dialect)) {
+            return partitionedTables;
+        }
+        for (TableConfig tableConfig : new ArrayList<TableConfig>(tblNameToConfig.values())) {
+            String nameLC = tableConfig.getTableName().toLowerCase();
+            if (!tableConfig.isTableToBeRendered() || externalViews.contains(nameLC)) {
+                continue;
+            }
+            IntervalPartitioning partitioning = tableConfig.getTableAnnotationOfType(IntervalPartitioning.class);
+            if (partitioning != null) {
+                partitionedTables.add(new PartitionedTable(nameLC, partitioning.columnName().toLowerCase(),
+                        isPostgres(dialect) ? getPostgreSQLInterval(partitioning.interval()) : partitioning.interval(), partitioning.partitionsAhead(), null));
+            }
+
+            TemporalEntity temporalEntity = getProfile().isNoHistory() ? null : tableConfig.getTableAnnotationOfType(TemporalEntity.class);
+            String histPartitionInterval = temporalEntity != null && isPostgres(dialect) ? getHistoryPartitionInterval(dialect, temporalEntity) : null;
+            if (temporalEntity == null || (isPostgres(dialect) ? histPartitionInterval == null : partitioning == null)) {
+                continue;
+            }
+            String entityClassName = getEntityClassName(nameLC);
+            String histTableName = entityClassName != null && isAccessible(entityClassName) ?
+                    getProfile().getNamingStrategy().classToTableName(entityClassName + CreateEntities.HISTORY_ENTITY_SUFFIX) :
+                    getProfile().getNamingStrategy().tableName(temporalEntity.historyTableName());
+            if (StringUtils.isEmpty(histTableName)) {
+                histTableName = nameLC + Constants._HST;
+            }
+            if (isPostgres(dialect)) {
+                partitionedTables.add(new PartitionedTable(histTableName.toLowerCase(), temporalEntity.historyTimestampColumnName().toLowerCase(), histPartitionInterval, HIST_PARTITIONS_AHEAD, nameLC));
+            }
+            else {
+                partitionedTables.add(new PartitionedTable(histTableName.toLowerCase(), partitioning.columnName().toLowerCase(), partitioning.interval(), partitioning.partitionsAhead(), nameLC));
+            }
+        }
+        return partitionedTables;
+    }
+
     public void addTableConfig (TableConfig tableConfig) {
         tblNameToConfig.put(tableConfig.getTableName(), tableConfig);
     }
@@ -294,7 +329,7 @@ public class CreateDDL {
     public void checkTableName(Dialect dialect, String name) {
         String nameLC = name.toLowerCase();
 
-        if (objectNames.contains(name)) {
+        if (isObjectNameDefined(name)) {
             throw new IllegalArgumentException("object name "+name+" already defined for another object");
         }
 
@@ -312,13 +347,13 @@ public class CreateDDL {
             }
         }
 
-        objectNames.add(name);
+        addObjectName(name);
     }
     
     public void checkObjectName(Dialect dialect, String name) {
         name = name.toLowerCase();
 
-        if (objectNames.contains(name)) {
+        if (isObjectNameDefined(name)) {
             throw new IllegalArgumentException("object name "+name+" already defined for another object");
         }
 
@@ -329,7 +364,22 @@ public class CreateDDL {
             }
         }
 
-        objectNames.add(name);
+        addObjectName(name);
+    }
+
+    private boolean isObjectNameDefined(String name) {
+        PreparedCreateTable prepared = preparingCreateTable.get();
+        return objectNames.contains(name) || (prepared != null && prepared.objectNames.contains(name));
+    }
+
+    private void addObjectName(String name) {
+        PreparedCreateTable prepared = preparingCreateTable.get();
+        if (prepared != null) {
+            prepared.objectNames.add(name);
+        }
+        else {
+            objectNames.add(name);
+        }
     }
 
     private boolean renderTable (String tableNameLC) {
@@ -386,22 +436,14 @@ public class CreateDDL {
     public Collection<String> enhanceCreateTableDdl(Dialect dialect, String tableCreate) {
         tableCreate = tableCreate.replaceFirst(";\\s*$", "").toLowerCase().replace("\n", " ");
 
-        Matcher matcher = TBL_PATTERN.matcher(tableCreate);
-        if (matcher.find()) {
-            String tableName = matcher.group(TBL_PATTERN_IDX_TBLNAME);
-
+        CreateTableStatement createTable = CreateTableStatement.parse(tableCreate);
+        if (createTable != null && createTable.getPrimaryKey() != null) {
             Map columns = new HashMap();
 
-            Matcher colMatcher = COL_PATTERN.matcher(matcher.group(TBL_PATTERN_IDX_TBL_DEF));
-
-            int idx=0;
-            while ((colMatcher.find(idx))) {
-
-                columns.put(colMatcher.group(COL_PATTERN_IDX_COLNAME), null);
-
-                idx = colMatcher.end();
+            for (CreateTableStatement.Column column : createTable.getColumns()) {
+                columns.put(column.getName(), null);
             }
-            return DdlPatchHelper.splitSQL(updateCreateTable(dialect, new StringBuffer(tableCreate), tableName, columns));
+            return DdlPatchHelper.splitSQL(updateCreateTable(dialect, new StringBuffer(tableCreate), createTable.getTableName(), columns));
         }
         return Collections.singleton(tableCreate);
     }
@@ -434,18 +476,30 @@ public class CreateDDL {
             return "";
         }
 
-        String sqlCreate = buf.toString();
+        CreateTableStatement createTable = CreateTableStatement.parse(buf.toString());
+
+        if (createTable == null) {
+            LOG.warn("unable to parse create table statement of table {}, cannot enhance DDL", tableName);
+            return buf.toString();
+        }
+
         buf = new StringBuffer();
         String liveTableName = nameLC;
         Set<String> columnNames = columns;
-        List<String> pkCols = getPkColumnNamesFrom(sqlCreate);
+        List<String> pkCols = createTable.getPrimaryKeyColumns();
 
         Auditable auditable = tableConfig.getTableAnnotationOfType(Auditable.class);
         if (auditable != null && auditable.createNonExistingColumns()) {
-            sqlCreate = addAuditColumns(dialect, sqlCreate, columns, auditable.userNameLength() > 0 ? auditable.userNameLength() : DBHelper.getAuditUserMaxlength(dialect), getAuditColumnsNeeded(entityClassName));
+            addAuditColumns(dialect, createTable, columns, auditable.userNameLength() > 0 ? auditable.userNameLength() : DBHelper.getAuditUserMaxlength(dialect), getAuditColumnsNeeded(entityClassName));
         }
 
-        sqlCreate = processCascadeNullable(dialect, buf, nameLC, sqlCreate, tableConfig.getColumnNamesIsCascadeNullable());
+        IntervalPartitioning partitioning = tableConfig.getTableAnnotationOfType(IntervalPartitioning.class);
+        if (isPostgres(dialect) && partitioning != null) {
+            // row level triggers are collected until the table is registered in PARTITIONED_TABLE
+            tblNameToPartitionRowTriggerDdl.put(nameLC, new ArrayList<String>());
+        }
+
+        processCascadeNullable(dialect, buf, nameLC, createTable, tableConfig.getColumnNamesIsCascadeNullable());
 
         String i18nFK = tableConfig.getI18nBaseEntityFkCol();
 
@@ -455,22 +509,22 @@ public class CreateDDL {
             liveTableName = i18nTblName;
             columnNames = getI18NEntityColumns(columns);
 
-            sqlCreate = getI18NDetailTableCreateString(dialect, sqlCreate, i18nTblName, i18nFK);
+            createTable = getI18NDetailTableCreateStatement(dialect, createTable, i18nTblName, i18nFK);
 
             addDropStatement(nameLC, getIfExistsDropStatement(dialect, "drop table " + i18nTblName, null));
 
-            pkCols = getPkColumnNamesFrom(sqlCreate);
+            pkCols = createTable.getPrimaryKeyColumns();
 
             if (dialect.supportsCommentOn()) {
                 buf.append(STATEMENT_SEPARATOR).append("comment on table ").append(i18nTblName).append(" is 'Base table for I18N descriptions, for comments see view ")
                         .append(nameLC).append("'\n");
             }
 
-            deferredDdl.append(STATEMENT_SEPARATOR).append(getI18NDetailViewCreateString(dialect, nameLC, baseEntityTableName, i18nTblName, i18nFK, columnNames, tableConfig));
+            deferredDdl().append(STATEMENT_SEPARATOR).append(getI18NDetailViewCreateString(dialect, nameLC, baseEntityTableName, i18nTblName, i18nFK, columnNames, tableConfig));
             if (isOracle) {
-                addComments(deferredDdl, nameLC, entityClassName, columns);
+                addComments(deferredDdl(), nameLC, entityClassName, columns);
             }
-            writeI18NDetailViewTriggerCreateString(dialect, deferredDdl, nameLC, i18nTblName, i18nFK, columnNames);
+            writeI18NDetailViewTriggerCreateString(dialect, deferredDdl(), nameLC, i18nTblName, i18nFK, columnNames);
         }
         else if (isOracle) {
             addComments(buf, nameLC, entityClassName, columns);
@@ -478,7 +532,6 @@ public class CreateDDL {
 
         addAuditTrigger(dialect, buf, liveTableName, columns);
 
-        IntervalPartitioning partitioning = tableConfig.getTableAnnotationOfType(IntervalPartitioning.class);
         TemporalEntity temporalEntity = getProfile().isNoHistory() ? null : tableConfig.getTableAnnotationOfType(TemporalEntity.class);
 
         if (temporalEntity != null) {
@@ -486,32 +539,18 @@ public class CreateDDL {
                 String histTableName;
 
                 if (entityClassName != null && isAccessible(entityClassName)) {
-                    String hstEntityClassName = entityClassName + CreateEntities.HISTORY_ENTITY_SUFFIX;
-                    histTableName = getProfile().getNamingStrategy().classToTableName(hstEntityClassName);
-
-                    // this will throw an exception when the history entity class is not found
-                    TableConfig hstConfig = new TableConfig(this, Class.forName(hstEntityClassName), histTableName);
-
-                    hstConfig.setTableToBeRendered(false);
-
-                    tblNameToConfig.put(hstConfig.getTableName(), hstConfig);
+                    histTableName = registerHistoryTableConfig(entityClassName);
                 }
                 else {
 //                  there is no entity for the live table, e.g. for ManyToMany relations
                     histTableName = getProfile().getNamingStrategy().tableName(temporalEntity.historyTableName());
                 }
 
-                Matcher tblMatcher = TBL_PATTERN_WO_PK.matcher(sqlCreate);
-
-                if (!tblMatcher.find()) {
-                    throw new IllegalStateException("cannot find create table statement in sql: " + sqlCreate);
-                }
-
                 String histColNameLC = temporalEntity.historyTimestampColumnName().toLowerCase();
                 List<String> historyRelevantCols = getHistoryRelevantColumns(columnNames, temporalEntity.ignoreChangeOfColumns(), histColNameLC);
 
                 if (StringUtils.isEmpty(histTableName)) {
-                    histTableName = tblMatcher.group(TBL_PATTERN_WO_PK_IDX_TBLNAME) + Constants._HST;
+                    histTableName = createTable.getTableName() + Constants._HST;
                 }
 
                 if (pkCols == null) {
@@ -527,48 +566,68 @@ public class CreateDDL {
                     pkCols = toLowercaseList(uniqueConstraints[0].columnNames());
                 }
 
-                Set<String> blobCols = getBlobColumns(sqlCreate);
+                Set<String> blobCols = getBlobColumns(createTable);
+                // LOBs cannot be compared in the when clause of update triggers
+                boolean compareInBody = !Collections.disjoint(historyRelevantCols, getLobColumns(createTable));
+                String histPartitionInterval = isPostgres(dialect) ? getHistoryPartitionInterval(dialect, temporalEntity) : null;
+                List<String> histPartitionDdl = histPartitionInterval != null ? new ArrayList<String>() : null;
                 buf.append(STATEMENT_SEPARATOR).append("-- adding history table due to annotation ")
                         .append(temporalEntity.annotationType().getName())
                         .append(" on entity of table ")
                         .append(tableName)
                         .append("\n")
-                        .append(getHistTableSqlCreateString(dialect, sqlCreate, histTableName, histColNameLC, columnNames, pkCols, partitioning));
+                        .append(getHistTableSqlCreateString(dialect, createTable, histTableName, histColNameLC, columnNames, pkCols, partitioning, histPartitionDdl));
+
+                if (temporalEntity.invalidationIndex()) {
+                    if (histPartitionDdl != null) {
+                        histPartitionDdl.add("create index %1$s_IX on %1$I (" + StringUtils.join(pkCols, ", ") + ") where " + HIST_INVALID_TIMESTAMP_COLUMN_NAME + " is null");
+                    }
+                    else {
+                        buf.append(STATEMENT_SEPARATOR).append(getHistInvalidationIndexSql(dialect, histTableName, pkCols, partitioning));
+                    }
+                }
+
+                if (histPartitionDdl != null) {
+                    buf.append(getPostgreSQLPartitioningSql(histTableName, histColNameLC, histPartitionInterval, null, HIST_PARTITIONS_AHEAD, false, histPartitionDdl));
+                }
+
+                HistoryTable historyTable = new HistoryTable(liveTableName, histTableName, histColNameLC,
+                        pkCols, getNonPkCols(columnNames, pkCols, histColNameLC), historyRelevantCols,
+                        columnNames.contains(AuditInfo.LAST_MODIFIED_BY) ? AuditInfo.LAST_MODIFIED_BY : null, DBHelper.getAuditUserMaxlength(dialect),
+                        getHistoryRetention(liveTableName, temporalEntity), temporalEntity.historyCompaction());
+                tblNameToHistoryTable.put(liveTableName.toLowerCase(), historyTable);
 
                 if (isOracle) {
                     buf.append(STATEMENT_SEPARATOR);
-                    buf.append("-- creating trigger for inserting history rows from table ").append(tableName).append("\n")
-                            .append(getOracleHistTriggerSql(dialect, liveTableName, histTableName, histColNameLC, columnNames, pkCols, historyRelevantCols, blobCols, columnMap)).append("\n/");
+                    buf.append("-- creating triggers for inserting history rows from table ").append(tableName).append("\n")
+                            .append(getOracleHistTriggerSql(dialect, liveTableName, histTableName, histColNameLC, columnNames, pkCols, historyRelevantCols, blobCols, columnMap, "ID", compareInBody)).append("\n/");
+                    buf.append(STATEMENT_SEPARATOR)
+                            .append(getOracleHistTriggerSql(dialect, liveTableName, histTableName, histColNameLC, columnNames, pkCols, historyRelevantCols, blobCols, columnMap, "U", compareInBody)).append("\n/");
+                }
+                else if (isPostgres(dialect) && getHistoryCapture(dialect, temporalEntity) == TemporalEntity.HistoryCapture.OUTBOX) {
+                    buf.append(getPostgreSQLHistOutboxSql(dialect, liveTableName, histTableName, histColNameLC, columnNames, pkCols, historyRelevantCols, blobCols, columnMap));
+                }
+                else if (isPostgres(dialect) && getHistoryTriggerLevel(dialect, temporalEntity) == TemporalEntity.TriggerLevel.STATEMENT) {
+                    buf.append(getPostgreSQLHistStatementTriggerSql(dialect, liveTableName, histTableName, histColNameLC, columnNames, pkCols, historyRelevantCols, blobCols, columnMap));
                 }
                 else if (isPostgres(dialect)) {
                     buf.append(STATEMENT_SEPARATOR)
                             .append(getPostgreSQLHistTriggerFunction(dialect, liveTableName, histTableName, histColNameLC, columnNames, pkCols, historyRelevantCols, blobCols, columnMap));
-
-                    StringBuilder ddl = new StringBuilder();
-                    String objectName = liveTableName + "_htU";
-                    ddl
-                            .append("create trigger ").append(objectName).append("\n")
-                            .append("after update on ").append(liveTableName).append("\n")
-                            .append("for each row\n")
-                            .append("when (");
-                    for (String historyRelevantCol : historyRelevantCols) {
-                        ddl.append("new.").append(historyRelevantCol).append(" is distinct from old.").append(historyRelevantCol).append(" or\n");
-                    }
-                    ddl.delete(ddl.length()-4, ddl.length());
-                    ddl.append(")\nexecute procedure ").append(liveTableName).append("_htr_function()");
-
-                    buf.append(STATEMENT_SEPARATOR).append(duplex(ObjectType.TRIGGER, objectName, ddl.toString()));
-
-                    objectName = liveTableName + "_htr";
-                    String ddlStr = "create trigger " + objectName + "\n" +
-                            "after insert or delete on " + liveTableName + "\n" +
-                            "for each row\n" +
-                            "execute procedure " + liveTableName + "_htr_function()";
-
-                    buf.append(STATEMENT_SEPARATOR).append(duplex(ObjectType.TRIGGER, objectName, ddlStr));
+                    buf.append(getPostgreSQLHistRowTriggersSql(liveTableName, historyRelevantCols));
                 }
                 else {
-                    buf.append(getHsqlDBHistTriggerSql(dialect, liveTableName, histTableName, histColNameLC, columnNames, pkCols, historyRelevantCols, columnMap));
+                    // history rows of entities are written by HistoryEventListener on flush, the triggers are bypassed
+                    // meanwhile and only record modifications not done through entities (native SQL, bulk statements)
+                    boolean listenerBypass = entityClassName != null && DialectProfile.of(dialect).isHsqlDbHistoryListenerWriter();
+                    if (listenerBypass) {
+                        tblNameToListenerHistoryTable.put(liveTableName.toLowerCase(), historyTable);
+                    }
+                    if (DialectProfile.of(dialect).isHsqlDbJavaTriggers()) {
+                        buf.append(getHsqlDBJavaTriggerSql(dialect, liveTableName, "_ht", historyTable, listenerBypass));
+                    }
+                    else {
+                        buf.append(getHsqlDBHistTriggerSql(dialect, liveTableName, histTableName, histColNameLC, columnNames, pkCols, historyRelevantCols, columnMap, compareInBody, listenerBypass));
+                    }
                 }
 
                 if (StringUtils.isNotEmpty(temporalEntity.latestSnapshotViewName())) {
@@ -584,7 +643,7 @@ public class CreateDDL {
             String seqName = getProfile().getNamingStrategy().sequenceName(sequence.name());
 
             StringBuilder seqBuf = new StringBuilder();
-            if (objectNames.contains(seqName.toLowerCase())) {
+            if (isObjectNameDefined(seqName.toLowerCase())) {
                 seqBuf.append("-- WARNING: duplicate definition of sequence or name already defined for another object!\n--");
             }
             else {
@@ -611,31 +670,27 @@ public class CreateDDL {
         }
 
         if (supportsPartitioning(dialect) && partitioning != null) {
-            sqlCreate = addPartitioning(buf, partitioning, nameLC, sqlCreate, columns, pkCols);
+            addPartitioning(buf, partitioning, nameLC, createTable, columns, pkCols);
         }
 
-        sqlCreate = addConstraintsAndNames(dialect, buf, sqlCreate, nameLC);
-        sqlCreate = addDefaultValues(dialect, sqlCreate, nameLC);
+        addConstraintsAndNames(dialect, buf, createTable, nameLC);
+        addDefaultValues(dialect, createTable, nameLC);
+
+        if (isPostgres(dialect) && partitioning != null) {
+            addPostgreSQLPartitioning(dialect, buf, partitioning, nameLC, createTable, columns);
+        }
 
         Changelog changelog = tableConfig.getTableAnnotationOfType(Changelog.class);
         if (changelog != null && StringUtils.isNotEmpty(changelog.timelineViewName())) {
-            deferredDdl.append(STATEMENT_SEPARATOR);
-            deferredDdl.append(getTimelineView(changelog, tableConfig, dialect, sqlCreate, changelog.timelineViewName(), tableName, columns, pkCols));
+            deferredDdl().append(STATEMENT_SEPARATOR);
+            deferredDdl().append(getTimelineView(changelog, tableConfig, dialect, createTable, changelog.timelineViewName(), tableName, columns, pkCols));
         }
 
         com.github.gekoh.yagen.api.Table table = tableConfig.getTableAnnotationOfType(com.github.gekoh.yagen.api.Table.class);
-        if (table != null && table.isGlobalTemporary()) {
-            Matcher matcher = TBL_PATTERN.matcher(sqlCreate);
-
-            if (matcher.find()) {
-                sqlCreate = sqlCreate.substring(0, matcher.start(TBL_PATTERN_IDX_TBL_SYN)) + "global temporary " +
-                        sqlCreate.substring(matcher.start(TBL_PATTERN_IDX_TBL_SYN), matcher.end(TBL_PATTERN_IDX_TBL_SYN)) +
+        if (table != null && table.isGlobalTemporary() && createTable.getPrimaryKey() != null) {
             // adding clause IF NOT EXISTS for temporary tables in postgres since they are not persistent and have to be created in every transaction
             // this will then prevent errors when executing repeatedly
-                        (isPostgres(dialect) ? " IF NOT EXISTS" : "") +
-                        sqlCreate.substring(matcher.end(TBL_PATTERN_IDX_TBL_SYN), matcher.end(TBL_PATTERN_IDX_TBL_DEF)+1) +
-                        " ON COMMIT " + table.globalTemporaryOnCommit() + sqlCreate.substring(matcher.end(TBL_PATTERN_IDX_TBL_DEF)+1);
-            }
+            createTable.makeGlobalTemporary(isPostgres(dialect), table.globalTemporaryOnCommit());
         }
 
         LayeredTablesView layeredTablesView = tableConfig.getTableAnnotationOfType(LayeredTablesView.class);
@@ -647,10 +702,10 @@ public class CreateDDL {
                 LOG.warn("no key columns defined for layered table view requested for {}", nameLC);
             }
             else {
-                buf.insert(0, handleLayeredTable(sqlCreate, layeredTablesView, dialect, columnNames, columnMap));
+                buf.insert(0, handleLayeredTable(createTable, layeredTablesView, dialect, columnNames, columnMap));
                 buf.insert(0, STATEMENT_SEPARATOR);
 
-                sqlCreate = null;
+                createTable = null;
 
                 int idx=0;
                 for (String layeredTableName : layeredTablesView.tableNamesInOrder()) {
@@ -663,6 +718,8 @@ public class CreateDDL {
             addIndexes(buf, dialect, tableConfig, tableConfig.getTableName(), "");
         }
 
+        String sqlCreate = createTable != null ? createTable.toSql() : null;
+
         if (buf.length() == 0) {
             return sqlCreate;
         }
@@ -675,6 +732,132 @@ public class CreateDDL {
         return buf.toString();
     }
 
+    /**
+     * Enhances the create table statements of the given tables in parallel using a fork-join pool.
+     * The results including all side effects (deferred DDL, object names, duplexers) are held back per table
+     * and applied when hibernate's sequential export requests the table via {@link #takePreparedCreateTable(String)},
+     * so the generated DDL is the same as when calling {@link #updateCreateTable} for each table in order.
+     *
+     * @param tableCreates table name to create table statement as rendered by hibernate, in export order
+     * @param tableColumns table name to (lower case) column name to column
+     * @param parallelism number of worker threads
+     */
+    public void prepareCreateTables(Dialect dialect, Map<String, StringBuffer> tableCreates, Map<String, Map<String, Column>> tableColumns, int parallelism) {
+        registerHistoryTableConfigs(tableCreates.keySet());
+        // initialize lazily created naming strategy before going parallel
+        getProfile().getNamingStrategy();
+
+        List<Callable<PreparedCreateTable>> tasks = new ArrayList<Callable<PreparedCreateTable>>();
+        for (Map.Entry<String, StringBuffer> entry : tableCreates.entrySet()) {
+            tasks.add(() -> prepareCreateTable(dialect, entry.getKey(), entry.getValue(), tableColumns.get(entry.getKey())));
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            for (Future<PreparedCreateTable> future : pool.invokeAll(tasks)) {
+                PreparedCreateTable prepared = future.get();
+                preparedCreateTables.put(prepared.tableName.toLowerCase(), prepared);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while preparing create table statements", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("cannot prepare create table statements", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * @return the create table statements prepared by {@link #prepareCreateTables} after applying the side effects
+     * of the preparation, or null if the table was not prepared or needs to be enhanced again since a name
+     * claimed by the preparation has been defined in the meantime
+     */
+    public String takePreparedCreateTable(String tableName) {
+        PreparedCreateTable prepared = preparedCreateTables.remove(tableName.toLowerCase());
+        if (prepared == null) {
+            return null;
+        }
+        if (prepared.failure != null) {
+            LOG.debug("preparation of table {} failed, enhancing again", tableName, prepared.failure);
+            return null;
+        }
+        for (String objectName : prepared.objectNames) {
+            if (objectNames.contains(objectName)) {
+                LOG.debug("object name {} of prepared table {} defined in the meantime, enhancing again", objectName, tableName);
+                return null;
+            }
+        }
+
+        objectNames.addAll(prepared.objectNames);
+        deferredDdl.append(prepared.deferredDdl);
+        for (Runnable effect : prepared.effects) {
+            effect.run();
+        }
+        return prepared.sql;
+    }
+
+    private PreparedCreateTable prepareCreateTable(Dialect dialect, String tableName, StringBuffer buf, Map<String, Column> columnMap) {
+        PreparedCreateTable prepared = new PreparedCreateTable(tableName);
+        preparingCreateTable.set(prepared);
+        try {
+            prepared.sql = updateCreateTable(dialect, buf, tableName, columnMap);
+        } catch (RuntimeException e) {
+            // the table will be enhanced again in order reporting the error as in sequential mode
+            prepared.failure = e;
+        } finally {
+            preparingCreateTable.remove();
+        }
+        return prepared;
+    }
+
+    /**
+     * history table configs are registered when enhancing the live table, do that for all tables
+     * upfront so that neither the order of processing matters nor the table configs are modified concurrently
+     */
+    private void registerHistoryTableConfigs(Collection<String> tableNames) {
+        if (getProfile().isNoHistory()) {
+            return;
+        }
+        for (String tableName : tableNames) {
+            String nameLC = tableName.toLowerCase();
+            TableConfig tableConfig = tblNameToConfig.get(nameLC);
+            if (tableConfig == null || !renderTable(nameLC) || externalViews.contains(nameLC) ||
+                    tableConfig.getTableAnnotationOfType(TemporalEntity.class) == null) {
+                continue;
+            }
+            String entityClassName = getEntityClassName(nameLC);
+            if (entityClassName != null && isAccessible(entityClassName)) {
+                try {
+                    registerHistoryTableConfig(entityClassName);
+                } catch (ClassNotFoundException e) {
+                    // will be logged when enhancing the live table
+                }
+            }
+        }
+    }
+
+    private String registerHistoryTableConfig(String entityClassName) throws ClassNotFoundException {
+        String hstEntityClassName = entityClassName + CreateEntities.HISTORY_ENTITY_SUFFIX;
+        String histTableName = getProfile().getNamingStrategy().classToTableName(hstEntityClassName);
+
+        TableConfig hstConfig = tblNameToConfig.get(TableConfig.getIdentifierForReference(histTableName));
+        if (hstConfig == null || hstConfig.isTableToBeRendered()) {
+            // this will throw an exception when the history entity class is not found
+            hstConfig = new TableConfig(this, Class.forName(hstEntityClassName), histTableName);
+
+            hstConfig.setTableToBeRendered(false);
+
+            tblNameToConfig.put(hstConfig.getTableName(), hstConfig);
+        }
+        return histTableName;
+    }
+
+    private StringBuffer deferredDdl() {
+        PreparedCreateTable prepared = preparingCreateTable.get();
+        return prepared != null ? prepared.deferredDdl : deferredDdl;
+    }
+
     private List<String> toLowercaseList(String[] strings) {
         List<String> lcList = new ArrayList<String>(strings.length);
         for (String string : strings) {
@@ -692,32 +875,39 @@ public class CreateDDL {
         return true;
     }
 
-    private Set<String> getBlobColumns(String sqlCreate) {
+    private Set<String> getBlobColumns(CreateTableStatement createTable) {
         Set<String> blobCols = new HashSet<String>();
 
-        Matcher matcher = COL_PATTERN.matcher(sqlCreate);
-        int idx = 0;
-        while (matcher.find(idx)) {
-
-            if (matcher.group(COL_PATTERN_IDX_TYPE).compareToIgnoreCase("blob") == 0) {
-                blobCols.add(matcher.group(COL_PATTERN_IDX_COLNAME).toLowerCase());
+        for (CreateTableStatement.Column column : createTable.getColumns()) {
+            if (column.getType().compareToIgnoreCase("blob") == 0) {
+                blobCols.add(column.getName().toLowerCase());
             }
-
-            idx = matcher.end();
         }
 
         return blobCols;
     }
 
-    private String handleLayeredTable(String sqlCreate, LayeredTablesView layeredTablesView, Dialect dialect, Set<String> columnNames, Map<String, Column> columnMap) {
-        Matcher matcher = TBL_PATTERN.matcher(sqlCreate);
-        if (!matcher.find()) {
+    private Set<String> getLobColumns(CreateTableStatement createTable) {
+        Set<String> lobCols = new HashSet<String>();
+
+        for (CreateTableStatement.Column column : createTable.getColumns()) {
+            String type = column.getType().toLowerCase();
+            if (type.startsWith("blob") || type.startsWith("clob") || type.startsWith("nclob")) {
+                lobCols.add(column.getName().toLowerCase());
+            }
+        }
+
+        return lobCols;
+    }
+
+    private String handleLayeredTable(CreateTableStatement createTable, LayeredTablesView layeredTablesView, Dialect dialect, Set<String> columnNames, Map<String, Column> columnMap) {
+        if (createTable.getPrimaryKey() == null) {
             LOG.warn("found annotation {} but table pattern does not match", layeredTablesView);
-            return sqlCreate;
+            return createTable.toSql();
         }
 
         StringBuilder ddl = new StringBuilder();
-        String tblName = matcher.group(TBL_PATTERN_IDX_TBLNAME);
+        String tblName = createTable.getTableName();
         String tableNames = "";
         String colList = "";
         StringBuilder viewSource = new StringBuilder();
@@ -742,10 +932,11 @@ public class CreateDDL {
 
             checkObjectName(dialect, tableName);
 
-            String newCreate = sqlCreate.substring(0, matcher.start(TBL_PATTERN_IDX_TBLNAME)) + tableName + sqlCreate.substring(matcher.end(TBL_PATTERN_IDX_TBLNAME));
+            CreateTableStatement layerCreateTable = createTable.copy();
+            layerCreateTable.setTableName(tableName);
             ddl.append(STATEMENT_SEPARATOR);
             ddl.append("-- inserting table layer #").append(priority).append(" of view ").append(tblName).append("\n");
-            ddl.append(modifyName(newCreate, ""+priority, dialect));
+            ddl.append(modifyName(layerCreateTable.toSql(), ""+priority, dialect));
 
             tableNames += ", " + tableName;
 
@@ -995,6 +1186,13 @@ public class CreateDDL {
                         .append("' as the partitioned target table has a local PK (see @IntervalPartitioning on ")
                         .append(((ForeignKey) constraint).getReferencedEntityName()).append(")");
             }
+            else if (refTblPart != null && isPostgres(dialect)) {
+                buf = new StringBuffer();
+                buf.append("-- skipped creation of foreign key constraint '").append(name)
+                        .append("' on table '").append(tableNameLC).append("' to table '").append(refTblNameLC)
+                        .append("' as the partitioned target table has primary keys per partition only (see @IntervalPartitioning on ")
+                        .append(((ForeignKey) constraint).getReferencedEntityName()).append(")");
+            }
             else {
                 if (singleColumn != null) {
                     if (tableConfig.getColumnNamesIsCascadeNullable().contains(singleColumn.getName().toLowerCase())) {
@@ -1019,6 +1217,13 @@ public class CreateDDL {
                     buf.insert(0, "-- creating FK constraint initially disabled since we do not need it for profile '" + getProfile() + "'\n");
                     buf.append(" disable");
                 }
+
+                Matcher matcher = TBL_ALTER_IF_EXISTS_PATTERN.matcher(buf.toString());
+                if (isPostgres(dialect) && tableConfig.getTableAnnotationOfType(IntervalPartitioning.class) != null && matcher.find()) {
+                    // partitioned tables cannot reference other tables, the foreign key is created on each partition
+                    String ddl = "alter table %1$I" + buf.substring(matcher.end(2)).replace("%", "%%");
+                    buf = new StringBuffer(buf.substring(0, matcher.start()) + getPostgreSQLAddPartitionDdlSql(tableNameLC, ddl));
+                }
             }
 
             duplex(ObjectType.CONSTRAINT, name, buf.toString());
@@ -1041,6 +1246,18 @@ public class CreateDDL {
                 buf.append(STATEMENT_SEPARATOR).append("-- auto create index on foreign key constraint\n").append(duplex(ObjectType.INDEX, fkIndexName, objDdl.toString()));
             }
         }
+        else if (isPostgres(dialect) && tableConfig.getTableAnnotationOfType(IntervalPartitioning.class) != null) {
+            Matcher matcher = TBL_ALTER_IF_EXISTS_PATTERN.matcher(buf.toString());
+            int uniqueIdx = buf.indexOf(" unique (");
+            int endIdx = buf.indexOf(")", uniqueIdx);
+            if (matcher.find() && uniqueIdx > 0 && endIdx > 0) {
+                // unique constraints need to include the partition key and are created unnamed on each partition
+                String partColName = tableConfig.getTableAnnotationOfType(IntervalPartitioning.class).columnName().toLowerCase();
+                String ddl = "alter table %1$I add unique (" + getPartitionKeyColumnList(buf.substring(uniqueIdx + 9, endIdx), partColName) +
+                        buf.substring(endIdx).replace("%", "%%");
+                buf = new StringBuffer(getPostgreSQLAddPartitionDdlSql(tableNameLC, ddl));
+            }
+        }
 
         return buf.toString();
     }
@@ -1082,6 +1299,21 @@ public class CreateDDL {
                 buf.append(" local");
             }
         }
+        else if (partitioning != null && isPostgres(dialect)) {
+            Matcher matcher = IDX_CREATE_PATTERN.matcher(buf.toString());
+            // partitioned tables cannot be indexed, the index is created on each partition
+            if (matcher.find()) {
+                boolean unique = matcher.group(1) != null;
+                String columnList = buf.substring(matcher.end(4));
+                int endIdx = columnList.indexOf(')');
+                if (unique && endIdx > 0) {
+                    columnList = getPartitionKeyColumnList(columnList.substring(0, endIdx), partitioning.columnName().toLowerCase()) + columnList.substring(endIdx);
+                }
+                String ddl = "create" + (unique ? " unique" : "") + " index on %1$I (" + columnList.replace("%", "%%");
+                buf.setLength(0);
+                buf.append(getPostgreSQLAddPartitionDdlSql(tableNameLC, ddl));
+            }
+        }
 
         String i18nFK = tableConfig.getI18nBaseEntityFkCol();
 
@@ -1129,33 +1361,19 @@ public class CreateDDL {
         return sqlCreate;
     }
 
-    private String processCascadeNullable(Dialect dialect, StringBuffer buf, String tableName, String sqlCreate, Set<String> columns) {
+    private void processCascadeNullable(Dialect dialect, StringBuffer buf, String tableName, CreateTableStatement createTable, Set<String> columns) {
         if (columns == null || columns.size() < 1) {
-            return sqlCreate;
+            return;
         }
 
-        Matcher matcher = COL_PATTERN.matcher(sqlCreate);
-        int idx = 0;
-
-        StringBuilder sb = new StringBuilder();
+        for (CreateTableStatement.Column column : createTable.getColumns()) {
+            String colName = column.getColumnName();
 
-        while (matcher.find(idx)) {
-            String colName = TableConfig.getIdentifierForReference(matcher.group(COL_PATTERN_IDX_COLNAME));
-
-            if (columns.contains(colName) && matcher.group(COL_PATTERN_IDX_NOT) != null) {
-                sb.append(sqlCreate.substring(idx, matcher.start(COL_PATTERN_IDX_NOTNULL)));
-                idx = matcher.end(COL_PATTERN_IDX_NOTNULL);
-                createCascadeNullableTrigger(dialect, deferredDdl, tableName, colName);
-            }
-            else {
-                sb.append(sqlCreate.substring(idx, matcher.end()));
-                idx = matcher.end();
+            if (columns.contains(colName) && column.isNotNull()) {
+                column.removeNullConstraint();
+                createCascadeNullableTrigger(dialect, deferredDdl(), tableName, colName);
             }
         }
-
-        sb.append(sqlCreate.substring(idx));
-
-        return sb.toString();
     }
 
     private void createCascadeNullableTrigger(Dialect dialect, StringBuffer buf, String tableName, String colName) {
@@ -1166,11 +1384,11 @@ public class CreateDDL {
         else if (isPostgres(dialect)) {
             String triggerName = createCascadeNullableTrigger(dialect, buf, tableName, colName, "CascadeNullableTrigger.vm.pl.sql", null);
 
-            buf.append(STATEMENT_SEPARATOR)
-                    .append("create trigger ").append(triggerName).append("_trg\n")
-                    .append("before insert or update on ").append(tableName).append("\n")
-                    .append("for each row\n")
-                    .append("execute procedure ").append(triggerName).append("()");
+            buf.append(STATEMENT_SEPARATOR).append(getPostgreSQLRowTriggerSql(triggerName + "_trg",
+                    "create trigger " + triggerName + "_trg\n" +
+                    "before insert or update on ", tableName, "\n" +
+                    "for each row\n" +
+                    "execute procedure " + triggerName + "()"));
         }
         else if (isHsqlDb(dialect)) {
             createCascadeNullableTrigger(dialect, buf, tableName, colName, "hsqldb/CascadeNullableTrigger.vm.pl.sql", "I");
@@ -1201,16 +1419,19 @@ public class CreateDDL {
     static VelocityContext newVelocityContext(Dialect dialect) {
         VelocityContext context = new VelocityContext();
         context.put("dialect", dialect);
-        context.put("is_oracle", isOracle(dialect));
-        context.put("is_postgres", isPostgres(dialect));
-        context.put("is_hsql", isHsqlDb(dialect));
-        context.put("is_oracleXE", isOracleXE(dialect));
-        context.put("timestampType", DBHelper.getTimestampDdlTypeDeclaration(dialect));
+        DialectProfile dialectProfile = DialectProfile.of(dialect);
+        context.put("is_oracle", dialectProfile.isOracle());
+        context.put("is_postgres", dialectProfile.isPostgres());
+        context.put("is_hsql", dialectProfile.isHsqlDb());
+        context.put("is_oracleXE", dialectProfile.isOracleXE());
+        context.put("timestampType", dialectProfile.getTimestampType());
 
-        Metadata metadata = DBHelper.getMetadata(dialect);
-        if (metadata != null) {
-            context.put("configuration", DBHelper.getConfigurationValues(metadata));
-            context.put("bypassFunctionality", DBHelper.implementBypassFunctionality(metadata));
+        if (dialectProfile.getConfigurationValues() != null) {
+            context.put("configuration", dialectProfile.getConfigurationValues());
+            context.put("bypassFunctionality", dialectProfile.isBypassFunctionality());
+            context.put("cacheTransactionTimestamp", !dialectProfile.isHsqlDb() && dialectProfile.isCacheTransactionTimestamp());
+            context.put("timeOrderedGuid", dialectProfile.getGuidStrategy() == GuidGenerator.Strategy.TIME_ORDERED);
+            context.put("partitionedTables", dialectProfile.hasPartitionedTables());
         }
 
         setNewOldVar(dialect, context);
@@ -1218,68 +1439,41 @@ public class CreateDDL {
     }
 
     private String duplex(ObjectType type, String objectName, String ddl) {
-        getProfile().duplex(type, objectName, ddl);
+        PreparedCreateTable prepared = preparingCreateTable.get();
+        if (prepared != null) {
+            prepared.effects.add(() -> getProfile().duplex(type, objectName, ddl));
+        }
+        else {
+            getProfile().duplex(type, objectName, ddl);
+        }
         return ddl;
     }
 
-    private String addDefaultValues(Dialect dialect, String sqlCreate, String nameLC) {
+    private void addDefaultValues(Dialect dialect, CreateTableStatement createTable, String nameLC) {
         TableConfig tableConfig = tblNameToConfig.get(nameLC);
 
         if (tableConfig == null) {
-            return sqlCreate;
+            return;
         }
 
-        StringBuilder b = new StringBuilder();
-        Matcher matcher = COL_PATTERN.matcher(sqlCreate);
-        int idx = 0;
-
-        while (matcher.find(idx)) {
-            String colName = TableConfig.getIdentifierForReference(matcher.group(COL_PATTERN_IDX_COLNAME));
-
-            if (matcher.group(COL_PATTERN_IDX_DEFAULT) == null) {
-                Default defAnn = tableConfig.getColNameToDefault().get(colName);
+        for (CreateTableStatement.Column column : createTable.getColumns()) {
+            if (!column.hasDefault()) {
+                Default defAnn = tableConfig.getColNameToDefault().get(column.getColumnName());
 
                 if (defAnn != null) {
-                    String defaultExpr = defAnn.currentTimestamp() ? dialect.getCurrentTimestampSelectString() : defAnn.sqlExpression();
-
-                    b.append(sqlCreate.substring(idx, matcher.end(COL_PATTERN_IDX_TYPE)));
-                    b.append(" default ").append(defaultExpr);
-                    idx = matcher.end(COL_PATTERN_IDX_TYPE);
+                    column.setDefault(defAnn.currentTimestamp() ? dialect.getCurrentTimestampSelectString() : defAnn.sqlExpression());
                 }
             }
-
-            b.append(sqlCreate.substring(idx, matcher.end()));
-            idx = matcher.end();
         }
-
-        b.append(sqlCreate.substring(idx));
-
-        return b.toString();
     }
 
-    private static String addAuditColumns(Dialect dialect, String sqlCreate, Set<String> columns, int userNameLength, List<String> auditColumns) {
-        Matcher matcher = TBL_PATTERN.matcher(sqlCreate);
-        int insertIdx = -1;
-
-        if (matcher.find()) {
-            insertIdx = matcher.start(TBL_PATTERN_IDX_AFTER_COL_DEF);
-        }
-        else if ((matcher = TBL_PATTERN_WO_PK.matcher(sqlCreate)).find()) {
-            insertIdx = matcher.start(TBL_PATTERN_WO_PK_IDX_AFTER_COL_DEF);
-        }
-
-        if (insertIdx >= 0) {
-            StringBuilder sb = new StringBuilder(sqlCreate.substring(0, insertIdx));
-            for (String auditColumn : auditColumns) {
-                if (!columns.contains(auditColumn)) {
-                    sb.append(", ").append(formatColumn(dialect, AUDIT_COLUMN_DEFINITION.get(auditColumn), userNameLength));
-                    columns.add(auditColumn);
-                }
+    private static void addAuditColumns(Dialect dialect, CreateTableStatement createTable, Set<String> columns, int userNameLength, List<String> auditColumns) {
+        for (String auditColumn : auditColumns) {
+            if (!columns.contains(auditColumn)) {
+                createTable.addBeforePrimaryKey(" " + formatColumn(dialect, AUDIT_COLUMN_DEFINITION.get(auditColumn), userNameLength));
+                columns.add(auditColumn);
             }
-            sb.append(sqlCreate.substring(insertIdx));
-            sqlCreate = sb.toString();
         }
-        return sqlCreate;
     }
 
     private static String formatColumn(Dialect dialect, String colTemplate, Integer length) {
@@ -1297,7 +1491,7 @@ public class CreateDDL {
         return DBHelper.getDdlTypeDeclaration(dialect, Types.VARCHAR, intLen, 0, 0);
     }
 
-    private String getTimelineView(Changelog changelog, TableConfig tableConfig, Dialect dialect, String sqlCreate, String viewName, String tableName, Set<String> columns, List<String> pkCols) {
+    private String getTimelineView(Changelog changelog, TableConfig tableConfig, Dialect dialect, CreateTableStatement createTable, String viewName, String tableName, Set<String> columns, List<String> pkCols) {
         StringWriter objWr = new StringWriter();
 
         columns = new LinkedHashSet<String>(columns);
@@ -1311,8 +1505,8 @@ public class CreateDDL {
 
         checkObjectName(dialect, viewName);
 
-        Map<String, String> numericColumnDefinitions = findNumericColumnDefinitions(sqlCreate);
-        Map<String, String> timestampColumnDefinitions = findTimestampColumnDefinitions(sqlCreate);
+        Map<String, String> numericColumnDefinitions = findNumericColumnDefinitions(createTable);
+        Map<String, String> timestampColumnDefinitions = findTimestampColumnDefinitions(createTable);
 
         VelocityContext context = newVelocityContext(dialect);
         context.put("changelogQueryString", changelog.changelogQueryString());
@@ -1342,35 +1536,27 @@ public class CreateDDL {
         return lobColumns;
     }
 
-    private Map<String, String> findNumericColumnDefinitions(String sqlCreate) {
+    private Map<String, String> findNumericColumnDefinitions(CreateTableStatement createTable) {
         Map<String, String> numColumnDef = new HashMap<String, String>();
 
-        Matcher colMatcher = COL_PATTERN.matcher(sqlCreate);
-        int idx = 0;
-
-        while (colMatcher.find(idx)) {
-            String type = colMatcher.group(COL_PATTERN_IDX_TYPE).toLowerCase();
+        for (CreateTableStatement.Column column : createTable.getColumns()) {
+            String type = column.getType().toLowerCase();
             if (type.contains("num") || type.contains("int") || type.contains("long") || type.contains("double") || type.contains("float")) {
-                numColumnDef.put(colMatcher.group(COL_PATTERN_IDX_COLNAME).toLowerCase(), type);
+                numColumnDef.put(column.getName().toLowerCase(), type);
             }
-            idx = colMatcher.end();
         }
 
         return numColumnDef;
     }
 
-    private Map<String, String> findTimestampColumnDefinitions(String sqlCreate) {
+    private Map<String, String> findTimestampColumnDefinitions(CreateTableStatement createTable) {
         Map<String, String> colDef = new HashMap<String, String>();
 
-        Matcher colMatcher = COL_PATTERN.matcher(sqlCreate);
-        int idx = 0;
-
-        while (colMatcher.find(idx)) {
-            String type = colMatcher.group(COL_PATTERN_IDX_TYPE).toLowerCase();
+        for (CreateTableStatement.Column column : createTable.getColumns()) {
+            String type = column.getType().toLowerCase();
             if (type.contains("timestamp")) {
-                colDef.put(colMatcher.group(COL_PATTERN_IDX_COLNAME).toLowerCase(), type);
+                colDef.put(column.getName().toLowerCase(), type);
             }
-            idx = colMatcher.end();
         }
 
         return colDef;
@@ -1400,6 +1586,10 @@ public class CreateDDL {
             writePostgreSqlAuditTrigger(dialect, buf, nameLC, singleTimestamp, columns);
             return;
         }
+        if (isHsqlDb(dialect) && DialectProfile.of(dialect).isHsqlDbJavaTriggers()) {
+            buf.append(getHsqlDBJavaTriggerSql(dialect, nameLC, "_at", null, false));
+            return;
+        }
 
         VelocityContext context = newVelocityContext(dialect);
         context.put("liveTableName", nameLC);
@@ -1443,9 +1633,7 @@ public class CreateDDL {
 
         checkObjectName(dialect, triggerName);
 
-        objSb.append(STATEMENT_SEPARATOR)
-                .append("create trigger ").append(triggerName).append("\n")
-                .append("before insert or update on ").append(tableNameLC).append("\n")
+        objSb.append("\n")
                 .append("for each row\n")
                 .append("execute procedure ");
 
@@ -1460,7 +1648,9 @@ public class CreateDDL {
             objSb.append("audit_trigger_function()");
         }
 
-        buf.append(duplex(ObjectType.TRIGGER, triggerName, objSb.toString()));
+        buf.append(STATEMENT_SEPARATOR).append(getPostgreSQLRowTriggerSql(triggerName,
+                "create trigger " + triggerName + "\n" +
+                "before insert or update on ", tableNameLC, objSb.toString()));
     }
 
     private void writeOracleAuditTrigger(Dialect dialect, StringBuffer buf, VelocityContext context, String tableNameLC, String templateName) {
@@ -1498,21 +1688,6 @@ public class CreateDDL {
         return null;
     }
 
-    private static List<String> getPkColumnNamesFrom(String sqlCreate) {
-        Matcher tblMatcher = TBL_PATTERN.matcher(sqlCreate);
-
-        if (!tblMatcher.find()) {
-            return null;
-        }
-
-        String pkColList = tblMatcher.group(TBL_PATTERN_IDX_PK_COLLIST);
-        if (pkColList == null) {
-            throw new IllegalStateException("unable to find primary key in sql: " + sqlCreate);
-        }
-
-        return Arrays.asList(pkColList.toLowerCase().split(",[ ]?"));
-    }
-
     private static List<String> getHistoryRelevantColumns(Set<String> columnNames, String[] ignoreColumns, String hstColName) {
         List<String> cols = new ArrayList<String>(columnNames);
 
@@ -1623,159 +1798,122 @@ public class CreateDDL {
         return comment.replaceAll("'", "''''").replaceAll("\n", "'||chr(10)||\n'");
     }
 
-    private String addConstraintsAndNames(Dialect dialect, StringBuffer additionalObjects, String sqlCreate, String nameLC) {
-        List<String> pkColumns = getPkColumnNamesFrom(sqlCreate);
+    private void addConstraintsAndNames(Dialect dialect, StringBuffer additionalObjects, CreateTableStatement createTable, String nameLC) {
+        List<String> pkColumns = createTable.getPrimaryKeyColumns();
         TableConfig tableConfig = tblNameToConfig.get(nameLC);
 
-        StringBuilder b = new StringBuilder();
-        StringBuilder enumConstraints = new StringBuilder();
-        Matcher matcher = COL_PATTERN.matcher(sqlCreate);
-        int idx = 0;
-
-        while (matcher.find(idx)) {
-            String defColName = matcher.group(COL_PATTERN_IDX_COLNAME);
-            String colName = TableConfig.getIdentifierForReference(defColName);
+        for (CreateTableStatement.Column column : createTable.getColumns()) {
+            String colName = column.getColumnName();
 
             // name not null constraint (will be disregarden by PostgreSQL, thus omitting for this RDBMS)
-            if (!isPostgres(dialect)) {
-                idx = appendConstraint(b, sqlCreate, nameLC, colName, idx, matcher, COL_PATTERN_IDX_NOTNULL, COL_PATTERN_IDX_NOTNULL_CONS_NAME, Constants._NN);
+            if (!isPostgres(dialect) && column.hasNullConstraint() && !column.isNullConstraintNamed()) {
+                column.nameNullConstraint(getConstraintName(nameLC, colName, Constants._NN));
             }
 
             // name unique constraint
-            idx = appendConstraint(b, sqlCreate, nameLC, colName, idx, matcher, COL_PATTERN_IDX_UNIQUE, COL_PATTERN_IDX_UNIQUE_CONS_NAME, Constants._UK);
+            if (column.hasUniqueConstraint() && !column.isUniqueConstraintNamed()) {
+                column.nameUniqueConstraint(getConstraintName(nameLC, colName, Constants._UK));
+            }
 
             // check constraint
-            idx = appendConstraint(b, sqlCreate, nameLC, colName, idx, matcher, COL_PATTERN_IDX_CHECK, COL_PATTERN_IDX_CHECK_NAME, Constants._CK);
-
-            b.append(sqlCreate, idx, matcher.end());
-            idx = matcher.end();
+            if (column.hasCheckConstraint() && !column.isCheckConstraintNamed()) {
+                column.nameCheckConstraint(getConstraintName(nameLC, colName, Constants._CK));
+            }
         }
 
-        b.append(sqlCreate.substring(idx));
-
-        sqlCreate = b.toString();
-        b = new StringBuilder();
-
-        matcher = UNIQUE_PATTERN.matcher(sqlCreate);
-        idx = 0;
-
-        while (matcher.find(idx)) {
+        for (CreateTableStatement.KeyConstraint uniqueConstraint : createTable.getUniqueConstraints()) {
             // name unique constraint
-            idx = appendConstraint(b, sqlCreate, nameLC, DefaultNamingStrategy.concatColumnNames(matcher.group(UNIQUE_PATTERN_IDX_UNIQUE_COLS)), idx, matcher, UNIQUE_PATTERN_IDX_UNIQUE_FULL, UNIQUE_PATTERN_IDX_UNIQUE_NAME, Constants._UK);
-
-            b.append(sqlCreate, idx, matcher.end());
-            idx = matcher.end();
+            if (uniqueConstraint.getName() == null) {
+                uniqueConstraint.setName(getConstraintName(nameLC, DefaultNamingStrategy.concatColumnNames(uniqueConstraint.getColumnList()), Constants._UK));
+            }
         }
 
-        b.append(sqlCreate.substring(idx));
-
-        sqlCreate = b.toString();
-
-        matcher = TBL_PATTERN.matcher(sqlCreate);
+        CreateTableStatement.KeyConstraint primaryKey = createTable.getPrimaryKey();
 
-        if (matcher.find() && matcher.group(TBL_PATTERN_IDX_PK_CLAUSE) != null) {
+        if (primaryKey != null) {
 
             // name not already present
-            if (matcher.group(TBL_PATTERN_IDX_PK_NAME) == null) {
-                b = new StringBuilder();
-
-                idx = matcher.start(TBL_PATTERN_IDX_PK_START);
-                b.append(sqlCreate, 0, idx);
-
+            if (primaryKey.getName() == null) {
                 // name primary key constraint
-                idx = appendConstraint(b, sqlCreate, nameLC, DefaultNamingStrategy.concatColumnNames(matcher.group(TBL_PATTERN_IDX_PK_COLLIST)), idx, matcher, TBL_PATTERN_IDX_PK_START, TBL_PATTERN_IDX_PK_NAME, Constants._PK);
-
-                b.append(sqlCreate.substring(idx));
-
-                sqlCreate = b.toString();
+                primaryKey.setName(getConstraintName(nameLC, DefaultNamingStrategy.concatColumnNames(primaryKey.getColumnList()), Constants._PK));
             }
         }
         else {
             LOG.info("no primary key found for table {}", nameLC);
         }
 
-        matcher = TBL_PATTERN_WO_PK.matcher(sqlCreate);
-        if (matcher.matches()) {
-            b = new StringBuilder(sqlCreate.substring(0, matcher.start(TBL_PATTERN_WO_PK_IDX_AFTER_COL_DEF)));
-
-            if (enumConstraints.length() > 0) {
-                b.append(enumConstraints);
-            }
-
-            com.github.gekoh.yagen.api.Table tblAnnotation = tableConfig != null ? tableConfig.getTableAnnotationOfType(com.github.gekoh.yagen.api.Table.class) : null;
-            if (tblAnnotation != null) {
-                for (CheckConstraint checkConstraint : tblAnnotation.checkConstraints()) {
-                    String constraintName = getProfile().getNamingStrategy().constraintName(checkConstraint);
-                    if (StringUtils.isEmpty(constraintName)) {
-                        throw new IllegalArgumentException("please specify a check constraint name in annotation CheckConstraint for table " + nameLC);
-                    }
-                    checkObjectName(dialect, constraintName);
-                    if (checkConstraint.initiallyDeferred() && isPostgres(dialect)) {
-                        String objectName = constraintName + "_FCT";
-                        additionalObjects.append(STATEMENT_SEPARATOR)
-                                .append(getDeferredCheckConstraintFunction(dialect, objectName, constraintName, nameLC, String.format(checkConstraint.declaration(), "t."), pkColumns))
-                                .append("\n/");
-                        additionalObjects.append(STATEMENT_SEPARATOR)
-                                .append("create constraint trigger ")
-                                .append(getProfile().getNamingStrategy().triggerName(constraintName + "_TRG")).append("\n")
-                                .append("after insert or update\n" +
-                                        "on ").append(nameLC).append(" initially deferred for each row\n" +
-                                "execute procedure ").append(objectName).append("();");
-                    }
-                    else {
-                        b.append(", constraint ").append(constraintName);
-                        b.append(" check (").append(String.format(checkConstraint.declaration(), "")).append(")");
-                        if (supportsDeferrable(dialect) && checkConstraint.initiallyDeferred()) {
-                            b.append(" deferrable initially deferred");
-                        }
-                    }
+        com.github.gekoh.yagen.api.Table tblAnnotation = tableConfig != null ? tableConfig.getTableAnnotationOfType(com.github.gekoh.yagen.api.Table.class) : null;
+        if (tblAnnotation != null) {
+            for (CheckConstraint checkConstraint : tblAnnotation.checkConstraints()) {
+                String constraintName = getProfile().getNamingStrategy().constraintName(checkConstraint);
+                if (StringUtils.isEmpty(constraintName)) {
+                    throw new IllegalArgumentException("please specify a check constraint name in annotation CheckConstraint for table " + nameLC);
                 }
-                for (UniqueConstraint uniqueConstraint : tblAnnotation.uniqueConstraints()) {
-                    // custom declarations of unique keys need to be created with separate unique index DDL
-                    // when specifying column names we may use an inline unique constraint
-                    if (uniqueConstraint.columnNames().length < 1) {
-                        continue;
-                    }
-                    String constraintName = getProfile().getNamingStrategy().constraintName(uniqueConstraint);
-                    if (uniqueConstraint.functionBased() && !supportsFunctionBased(dialect)) {
-                        LOG.warn("unable to create UniqueConstraint '{}' since function based constraints are not available on target RDBMS", constraintName);
-                        continue;
-                    }
-                    if (StringUtils.isEmpty(constraintName)) {
-                        throw new IllegalArgumentException("please specify a unique constraint name in annotation UniqueConstraint on table " + nameLC);
-                    }
-                    checkObjectName(dialect, constraintName);
-                    if (StringUtils.isNotEmpty(uniqueConstraint.declaration()) && uniqueConstraint.columnNames().length>0) {
-                        throw new IllegalArgumentException("please specify either a declaration or a set of column names for UniqueConstraint on table " + nameLC);
+                checkObjectName(dialect, constraintName);
+                if (checkConstraint.initiallyDeferred() && isPostgres(dialect)) {
+                    String objectName = constraintName + "_FCT";
+                    additionalObjects.append(STATEMENT_SEPARATOR)
+                            .append(getDeferredCheckConstraintFunction(dialect, objectName, constraintName, nameLC, String.format(checkConstraint.declaration(), "t."), pkColumns))
+                            .append("\n/");
+                    String triggerName = getProfile().getNamingStrategy().triggerName(constraintName + "_TRG");
+                    additionalObjects.append(STATEMENT_SEPARATOR)
+                            .append(getPostgreSQLRowTriggerSql(triggerName,
+                                    "create constraint trigger " + triggerName + "\n" +
+                                    "after insert or update\n" +
+                                    "on ", nameLC, " initially deferred for each row\n" +
+                                    "execute procedure " + objectName + "()"))
+                            .append(";");
+                }
+                else {
+                    StringBuilder b = new StringBuilder(" constraint ").append(constraintName);
+                    b.append(" check (").append(String.format(checkConstraint.declaration(), "")).append(")");
+                    if (supportsDeferrable(dialect) && checkConstraint.initiallyDeferred()) {
+                        b.append(" deferrable initially deferred");
                     }
+                    createTable.add(b.toString());
+                }
+            }
+            for (UniqueConstraint uniqueConstraint : tblAnnotation.uniqueConstraints()) {
+                // custom declarations of unique keys need to be created with separate unique index DDL
+                // when specifying column names we may use an inline unique constraint
+                if (uniqueConstraint.columnNames().length < 1) {
+                    continue;
+                }
+                String constraintName = getProfile().getNamingStrategy().constraintName(uniqueConstraint);
+                if (uniqueConstraint.functionBased() && !supportsFunctionBased(dialect)) {
+                    LOG.warn("unable to create UniqueConstraint '{}' since function based constraints are not available on target RDBMS", constraintName);
+                    continue;
+                }
+                if (StringUtils.isEmpty(constraintName)) {
+                    throw new IllegalArgumentException("please specify a unique constraint name in annotation UniqueConstraint on table " + nameLC);
+                }
+                checkObjectName(dialect, constraintName);
+                if (StringUtils.isNotEmpty(uniqueConstraint.declaration()) && uniqueConstraint.columnNames().length>0) {
+                    throw new IllegalArgumentException("please specify either a declaration or a set of column names for UniqueConstraint on table " + nameLC);
+                }
 
-                    StringBuilder declaration = new StringBuilder();
-                    for (String columnName : uniqueConstraint.columnNames()) {
-                        if (declaration.length() > 0) {
-                            declaration.append(", ");
-                        }
-                        declaration.append(columnName);
+                StringBuilder declaration = new StringBuilder();
+                for (String columnName : uniqueConstraint.columnNames()) {
+                    if (declaration.length() > 0) {
+                        declaration.append(", ");
                     }
+                    declaration.append(columnName);
+                }
 
-                    b.append(", constraint ").append(constraintName);
-                    b.append(" unique (").append(declaration).append(")");
+                StringBuilder b = new StringBuilder(" constraint ").append(constraintName);
+                b.append(" unique (").append(declaration).append(")");
 
-                    if (supportsDeferrable(dialect) && uniqueConstraint.initiallyDeferred()) {
-                        b.append(" deferrable initially deferred");
-                    }
+                if (supportsDeferrable(dialect) && uniqueConstraint.initiallyDeferred()) {
+                    b.append(" deferrable initially deferred");
+                }
 
-                    if (uniqueConstraint.usingLocalIndex() && supportsPartitioning(dialect)) {
-                        b.append(" using index (create unique index ").append(constraintName).append(" on ").append(nameLC);
-                        b.append(" (").append(declaration).append(") local)");
-                    }
+                if (uniqueConstraint.usingLocalIndex() && supportsPartitioning(dialect)) {
+                    b.append(" using index (create unique index ").append(constraintName).append(" on ").append(nameLC);
+                    b.append(" (").append(declaration).append(") local)");
                 }
+                createTable.add(b.toString());
             }
-
-            b.append(sqlCreate.substring(matcher.start(TBL_PATTERN_WO_PK_IDX_AFTER_COL_DEF)));
-            sqlCreate = b.toString();
         }
-
-        return sqlCreate;
     }
 
     private String getDeferredCheckConstraintFunction (Dialect dialect, String objectName, String constraintName, String tableName, String declaration, List<String> pkColumns) {
@@ -1822,49 +1960,11 @@ public class CreateDDL {
         return null;
     }
 
-    private int appendConstraint(StringBuilder b,
-                                 String sqlCreate,
-                                 String tableName,
-                                 String columnName,
-                                 int currIdx,
-                                 Matcher colMatcher,
-                                 int groupId,
-                                 int existingNameGroupId,
-                                 String constraintSuffix) {
-        if (colMatcher.group(groupId) != null && colMatcher.group(existingNameGroupId) == null) {
-            String constraintName = getProfile().getNamingStrategy().constraintName(getEntityClassName(tableName), tableName, columnName, constraintSuffix);
-            b.append(sqlCreate.substring(currIdx, colMatcher.start(groupId)));
-            currIdx = colMatcher.start(groupId);
-            b.append(" constraint ").append(constraintName);
-            b.append(sqlCreate.substring(currIdx, colMatcher.end(groupId)));
-            currIdx = colMatcher.end(groupId);
-        }
-
-        return currIdx;
-    }
-
-    private int appendConstraint(StringBuilder b,
-                                 String sqlCreate,
-                                 String tableName,
-                                 String columnName,
-                                 int currIdx,
-                                 Matcher colMatcher,
-                                 String groupId,
-                                 String existingNameGroupId,
-                                 String constraintSuffix) {
-        if (colMatcher.group(groupId) != null && colMatcher.group(existingNameGroupId) == null) {
-            String constraintName = getProfile().getNamingStrategy().constraintName(getEntityClassName(tableName), tableName, columnName, constraintSuffix);
-            b.append(sqlCreate.substring(currIdx, colMatcher.start(groupId)));
-            currIdx = colMatcher.start(groupId);
-            b.append(" constraint ").append(constraintName);
-            b.append(sqlCreate.substring(currIdx, colMatcher.end(groupId)));
-            currIdx = colMatcher.end(groupId);
-        }
-
-        return currIdx;
-    }
-
-    private String addPartitioning(StringBuffer addDdl, IntervalPartitioning partitioning, String nameLC, String sqlCreate, Set<String> columns, List<String> pkCols) {
+    private String getConstraintName(String tableName, String columnName, String constraintSuffix) {
+        return getProfile().getNamingStrategy().constraintName(getEntityClassName(tableName), tableName, columnName, constraintSuffix);
+    }
+
+    private void addPartitioning(StringBuffer addDdl, IntervalPartitioning partitioning, String nameLC, CreateTableStatement createTable, Set<String> columns, List<String> pkCols) {
         String shortName = getShortName(nameLC);
 
         if (StringUtils.isEmpty(shortName)) {
@@ -1872,46 +1972,31 @@ public class CreateDDL {
         }
 
         String partColName = partitioning.columnName().toLowerCase();
-        if (!columns.contains(partColName)) {
-            Matcher pkMatcher = TBL_PATTERN.matcher(sqlCreate);
-            if (pkMatcher.find()) {
-                StringBuilder sb = new StringBuilder();
-                sb.append(sqlCreate.substring(0, pkMatcher.start(TBL_PATTERN_IDX_AFTER_COL_DEF)));
-                sb.append(", ").append(partColName).append(" date default f_sysdate()");
-                sb.append(sqlCreate.substring(pkMatcher.start(TBL_PATTERN_IDX_AFTER_COL_DEF)));
-                sqlCreate = sb.toString();
-                columns.add(partColName);
-            }
+        if (!columns.contains(partColName) && createTable.getPrimaryKey() != null) {
+            createTable.addBeforePrimaryKey(" " + partColName + " date default f_sysdate()");
+            columns.add(partColName);
         }
-        StringBuilder sb;
 
         if (partitioning.useLocalPK()) {
-            sb = new StringBuilder();
+            CreateTableStatement.KeyConstraint primaryKey = createTable.getPrimaryKey();
 
-            Matcher matcher = TBL_PATTERN.matcher(sqlCreate);
-
-            if (!matcher.find()) {
-                throw new IllegalArgumentException("cannot parse create table statement: "+sqlCreate);
+            if (primaryKey == null) {
+                throw new IllegalArgumentException("cannot parse create table statement: "+createTable);
             }
 
-            if (matcher.group(TBL_PATTERN_IDX_PK_CLAUSE) != null) {
-                String pkColList = matcher.group(TBL_PATTERN_IDX_PK_COLLIST);
-
-                if (!pkCols.contains(partColName)) {
-                    pkColList += ", " + partColName;
-                }
+            String pkColList = primaryKey.getColumnList();
 
-                addDdl.append(STATEMENT_SEPARATOR).append("-- creating local unique index instead of global primary key\n");
-                addLocalUniqueConstraintIndex(addDdl, nameLC, pkColList);
+            if (!pkCols.contains(partColName)) {
+                pkColList += ", " + partColName;
             }
 
-            sb.append(sqlCreate.substring(0, matcher.start(TBL_PATTERN_IDX_AFTER_COL_DEF)));
-            sb.append(sqlCreate.substring(matcher.end(TBL_PATTERN_IDX_AFTER_COL_DEF)));
-        }
-        else {
-            sb = new StringBuilder(sqlCreate);
+            addDdl.append(STATEMENT_SEPARATOR).append("-- creating local unique index instead of global primary key\n");
+            addLocalUniqueConstraintIndex(addDdl, nameLC, pkColList);
+
+            createTable.getElements().remove(primaryKey);
         }
 
+        StringBuilder sb = new StringBuilder();
         sb.append(" partition by range (").append(partitioning.columnName()).append(") ");
         sb.append("interval(").append(partitioning.interval()).append(") ");
         sb.append("( partition ").append(shortName).append("_P1 values less than (");
@@ -1929,7 +2014,96 @@ public class CreateDDL {
         sb.append(partitioning.enableRowMovement() ? "ENABLE" : "DISABLE");
         sb.append(" ROW MOVEMENT");
 
-        return sb.toString();
+        createTable.appendToTail(sb.toString());
+    }
+
+    /**
+     * PostgreSQL 10 supports neither primary keys, unique constraints, indexes nor row level triggers on partitioned
+     * tables, these are registered in PARTITIONED_TABLE and created on each partition by create_partitions
+     */
+    private void addPostgreSQLPartitioning(Dialect dialect, StringBuffer buf, IntervalPartitioning partitioning, String nameLC, CreateTableStatement createTable, Set<String> columns) {
+        String partColName = partitioning.columnName().toLowerCase();
+        if (!columns.contains(partColName)) {
+            createTable.addBeforePrimaryKey(" " + formatColumn(dialect, partColName + " ${timestampType} default f_sysdate() not null", null));
+            columns.add(partColName);
+        }
+
+        List<String> partitionDdl = new ArrayList<String>();
+        int uniqueNo = 0;
+        for (CreateTableStatement.Column column : createTable.getColumns()) {
+            if (column.hasUniqueConstraint()) {
+                uniqueNo++;
+                partitionDdl.add("alter table %1$I add constraint %1$s_UK" + (uniqueNo > 1 ? uniqueNo : "") + " unique (" +
+                        getPartitionKeyColumnList(column.getColumnName(), partColName) + ")");
+                column.removeUniqueConstraint();
+            }
+        }
+        for (CreateTableStatement.KeyConstraint constraint : createTable.getUniqueConstraints()) {
+            uniqueNo++;
+            partitionDdl.add("alter table %1$I add constraint %1$s_UK" + (uniqueNo > 1 ? uniqueNo : "") + " unique (" +
+                    getPartitionKeyColumnList(constraint.getColumnList(), partColName) + ")");
+            createTable.getElements().remove(constraint);
+        }
+        CreateTableStatement.KeyConstraint primaryKey = createTable.getPrimaryKey();
+        if (primaryKey != null) {
+            partitionDdl.add(0, "alter table %1$I add constraint %1$s_PK primary key (" +
+                    getPartitionKeyColumnList(primaryKey.getColumnList(), partColName) + ")");
+            createTable.getElements().remove(primaryKey);
+        }
+
+        List<String> rowTriggerDdl = tblNameToPartitionRowTriggerDdl.remove(nameLC);
+        if (rowTriggerDdl != null) {
+            partitionDdl.addAll(rowTriggerDdl);
+        }
+
+        createTable.appendToTail(" partition by range (" + partColName + ")");
+
+        buf.append(getPostgreSQLPartitioningSql(nameLC, partColName, getPostgreSQLInterval(partitioning.interval()),
+                partitioning.startPartitionLessThanValue(), partitioning.partitionsAhead(), partitioning.defaultPartition(), partitionDdl));
+    }
+
+    /**
+     * @return DDL creating the row level trigger, PostgreSQL 10 does not support row level triggers on partitioned
+     * tables, for these the trigger is registered in PARTITIONED_TABLE and created on each partition
+     */
+    private String getPostgreSQLRowTriggerSql(String triggerName, String ddlBeforeTableName, String tableNameLC, String ddlAfterTableName) {
+        TableConfig tableConfig = tblNameToConfig.get(tableNameLC);
+        if (tableConfig == null || tableConfig.getTableAnnotationOfType(IntervalPartitioning.class) == null) {
+            return duplex(ObjectType.TRIGGER, triggerName, ddlBeforeTableName + tableNameLC + ddlAfterTableName);
+        }
+
+        String partitionDdl = ddlBeforeTableName.replace("%", "%%") + "%1$I" + ddlAfterTableName.replace("%", "%%");
+        List<String> rowTriggerDdl = tblNameToPartitionRowTriggerDdl.get(tableNameLC);
+        if (rowTriggerDdl != null) {
+            // table not yet registered, the trigger is created together with the initial partitions
+            rowTriggerDdl.add(partitionDdl);
+            return "-- trigger " + triggerName + " created on each partition of range partitioned table " + tableNameLC;
+        }
+        return duplex(ObjectType.TRIGGER, triggerName, getPostgreSQLAddPartitionDdlSql(tableNameLC, partitionDdl));
+    }
+
+    private static String getPostgreSQLAddPartitionDdlSql(String tableNameLC, String partitionDdl) {
+        return "select add_partition_ddl('" + tableNameLC + "', '" + partitionDdl.replace("'", "''") + "')";
+    }
+
+    private static String getPartitionKeyColumnList(String columnList, String partColName) {
+        for (String column : columnList.split(",")) {
+            if (column.trim().equalsIgnoreCase(partColName)) {
+                return columnList;
+            }
+        }
+        return columnList + ", " + partColName;
+    }
+
+    /**
+     * @return PostgreSQL interval literal for Oracle interval expressions like numtoyminterval(1, 'MONTH')
+     */
+    static String getPostgreSQLInterval(String interval) {
+        Matcher matcher = ORACLE_INTERVAL_PATTERN.matcher(interval.trim());
+        if (matcher.matches()) {
+            return matcher.group(2) + " " + matcher.group(3).toLowerCase();
+        }
+        return interval;
     }
 
     private void addLocalUniqueConstraintIndex(StringBuffer ddl, String tableName, String columnList) {
@@ -1943,40 +2117,37 @@ public class CreateDDL {
         return i18nBaseEntityTblName != null ? i18nBaseEntityTblName + I18N_LIVE_TABLE_SUFFIX : null;
     }
     
-    private String getI18NDetailTableCreateString(Dialect dialect, String sqlCreate, String i18nTblName, String i18nFKColName) {
-        StringBuilder sql = new StringBuilder();
-        Matcher matcher = TBL_PATTERN.matcher(sqlCreate);
+    private CreateTableStatement getI18NDetailTableCreateStatement(Dialect dialect, CreateTableStatement createTable, String i18nTblName, String i18nFKColName) {
         checkTableName(dialect, i18nTblName);
-        
-        if (matcher.matches()) {
-            sql.append(sqlCreate.substring(0, matcher.start(TBL_PATTERN_IDX_TBLNAME))).append(i18nTblName);
-            
-            Matcher colMatcher = COL_PATTERN.matcher(sqlCreate);
-            
-            int idx = sqlCreate.indexOf('(', matcher.end(TBL_PATTERN_IDX_TBLNAME)) + 1;
-            sql.append(sqlCreate.substring(matcher.end(TBL_PATTERN_IDX_TBLNAME), idx));
-
-            StringBuilder colDef = new StringBuilder();
-            while (colMatcher.find(idx)) {
-                String colName = TableConfig.getIdentifierForReference(colMatcher.group(COL_PATTERN_IDX_COLNAME));
-                if (!colName.toLowerCase().equals(I18N_COLUMN_IS_PERSISTENT) && !colName.toLowerCase().equals(I18N_COLUMN_COMPOSITE_ID)) {
-                    colDef.append(" ").append(sqlCreate.substring(colMatcher.start(COL_PATTERN_IDX_COLNAME), colMatcher.end()));
-                }
-                idx = colMatcher.end();
-            }
-            sql.append(colDef.substring(1));
-            sql.append(sqlCreate.substring(idx));
 
-            String tmpSql = sql.toString();
-            matcher = TBL_PATTERN.matcher(tmpSql);
-            if (matcher.matches()) {
-                sql = new StringBuilder(tmpSql.substring(0, matcher.start(TBL_PATTERN_IDX_PK_COLLIST)));
-                sql.append(i18nFKColName).append(", language_cd")
-                        .append(tmpSql.substring(matcher.end(TBL_PATTERN_IDX_PK_COLLIST)));
+        if (createTable.getPrimaryKey() == null) {
+            throw new IllegalStateException("cannot find primary key in create table statement: " + createTable);
+        }
+
+        CreateTableStatement i18nCreateTable = createTable.copy();
+        i18nCreateTable.setTableName(i18nTblName);
+
+        List<CreateTableStatement.Element> elements = i18nCreateTable.getElements();
+        List<CreateTableStatement.Column> columns = i18nCreateTable.getColumns();
+        int lastColumnIdx = elements.indexOf(columns.get(columns.size() - 1));
+
+        List<CreateTableStatement.Element> i18nElements = new ArrayList<CreateTableStatement.Element>();
+        for (CreateTableStatement.Column column : columns) {
+            String colName = column.getColumnName();
+            if (!colName.equals(I18N_COLUMN_IS_PERSISTENT) && !colName.equals(I18N_COLUMN_COMPOSITE_ID)) {
+                column.setLeading(i18nElements.isEmpty() ? "" : " ");
+                i18nElements.add(column);
             }
         }
+        i18nElements.addAll(elements.subList(lastColumnIdx + 1, elements.size()));
+        elements.clear();
+        elements.addAll(i18nElements);
+
+        i18nCreateTable.getPrimaryKey().setColumnList(i18nFKColName + ", language_cd");
 
-        return duplex(ObjectType.TABLE, i18nTblName, sql.toString());
+        duplex(ObjectType.TABLE, i18nTblName, i18nCreateTable.toSql());
+
+        return i18nCreateTable;
     }
     
     private String getI18NDetailViewCreateString (Dialect dialect, String i18nDetailTblName, String baseEntityTableName, String i18nTblName, String i18nFKColName, Set<String> columns, TableConfig tableConfig) {
@@ -2057,10 +2228,23 @@ public class CreateDDL {
                                             List<String> pkColumns,
                                             List<String> histRelevantCols,
                                             Set<String> blobCols,
-                                            Map<String, Column> columnMap) {
+                                            Map<String, Column> columnMap,
+                                            String operation,
+                                            boolean compareInBody) {
+        // both triggers share the name of the insert/delete trigger for bypassing history
         String objectName = tableName + "_htr";
-        return duplex(ObjectType.TRIGGER, objectName,
-                getHistTriggerSource(dialect, objectName, tableName, histTableName, histColName, columns, pkColumns, histRelevantCols, blobCols, columnMap));
+        String triggerName = operation.equals("U") ? tableName + "_htU" : objectName;
+        checkObjectName(dialect, triggerName);
+
+        VelocityContext context = newHistTriggerContext(dialect, objectName, tableName, histTableName, histColName, columns, pkColumns, histRelevantCols, blobCols, columnMap);
+        context.put("triggerName", triggerName);
+        context.put("operation", operation);
+        context.put("compareInBody", operation.equals("U") && compareInBody);
+
+        StringWriter wr = new StringWriter();
+        mergeTemplateFromResource("HstTrigger.vm.pl.sql", wr, context);
+
+        return duplex(ObjectType.TRIGGER, triggerName, wr.toString());
     }
 
     private String getPostgreSQLHistTriggerFunction (Dialect dialect,
@@ -2077,6 +2261,111 @@ public class CreateDDL {
                 getHistTriggerSource(dialect, objectName, tableName, histTableName, histColName, columns, pkColumns, histRelevantCols, blobCols, columnMap));
     }
 
+    private String getPostgreSQLHistRowTriggersSql (String tableName, List<String> histRelevantCols) {
+        StringBuilder buf = new StringBuilder();
+
+        StringBuilder ddl = new StringBuilder();
+        String objectName = tableName + "_htU";
+        ddl
+                .append("\n")
+                .append("for each row\n")
+                .append("when (");
+        for (String historyRelevantCol : histRelevantCols) {
+            ddl.append("new.").append(historyRelevantCol).append(" is distinct from old.").append(historyRelevantCol).append(" or\n");
+        }
+        ddl.delete(ddl.length()-4, ddl.length());
+        ddl.append(")\nexecute procedure ").append(tableName).append("_htr_function()");
+
+        buf.append(STATEMENT_SEPARATOR).append(getPostgreSQLRowTriggerSql(objectName,
+                "create trigger " + objectName + "\n" +
+                "after update on ", tableName, ddl.toString()));
+
+        objectName = tableName + "_htr";
+        buf.append(STATEMENT_SEPARATOR).append(getPostgreSQLRowTriggerSql(objectName,
+                "create trigger " + objectName + "\n" +
+                "after insert or delete on ", tableName, "\n" +
+                "for each row\n" +
+                "execute procedure " + tableName + "_htr_function()"));
+
+        return buf.toString();
+    }
+
+    /**
+     * registers the range partitioned table for create_partitions and creates its initial partitions
+     */
+    private String getPostgreSQLPartitioningSql(String tableName, String partitionColumn, String partitionInterval, String startValue,
+                                                int partitionsAhead, boolean defaultPartition, List<String> partitionDdl) {
+        StringBuilder ddlArray = new StringBuilder();
+        for (String ddl : partitionDdl) {
+            ddlArray.append(ddlArray.length() > 0 ? ",\n  '" : "'").append(ddl.replace("'", "''")).append("'");
+        }
+        String tableNameLC = tableName.toLowerCase();
+
+        return STATEMENT_SEPARATOR +
+                "insert into PARTITIONED_TABLE (table_name, partition_column, partition_interval, partitions_ahead, default_partition, start_value, partition_ddl)\n" +
+                "values ('" + tableNameLC + "', '" + partitionColumn.toLowerCase() + "', interval '" + partitionInterval.replace("'", "''") + "', " +
+                partitionsAhead + ", " + defaultPartition + ", " + (StringUtils.isEmpty(startValue) ? "null" : startValue) + ", array[\n  " + ddlArray + "]::text[])\n" +
+                "on conflict (table_name) do update set partition_column=excluded.partition_column, partition_interval=excluded.partition_interval,\n" +
+                "  partitions_ahead=excluded.partitions_ahead, default_partition=excluded.default_partition, start_value=excluded.start_value,\n" +
+                "  last_partition_bound=null, partition_ddl=excluded.partition_ddl" +
+                STATEMENT_SEPARATOR +
+                "select create_partitions('" + tableNameLC + "')";
+    }
+
+    private String getPostgreSQLHistOutboxSql (Dialect dialect,
+                                               String tableName,
+                                               String histTableName,
+                                               String histColName,
+                                               Set<String> columns,
+                                               List<String> pkColumns,
+                                               List<String> histRelevantCols,
+                                               Set<String> blobCols,
+                                               Map<String, Column> columnMap) {
+        StringBuilder buf = new StringBuilder();
+
+        String partitionName = histTableName + "_obx";
+        checkObjectName(dialect, partitionName);
+        buf.append(STATEMENT_SEPARATOR)
+                .append("create table if not exists ").append(partitionName).append(" partition of HST_OUTBOX for values in ('").append(histTableName).append("')");
+        String indexName = partitionName + "_id_IX";
+        checkObjectName(dialect, indexName);
+        buf.append(STATEMENT_SEPARATOR)
+                .append("create index if not exists ").append(indexName).append(" on ").append(partitionName).append(" (id)");
+
+        List<String> nullablePkColumns = new ArrayList<String>();
+        for (String pkColumn : pkColumns) {
+            if (columnMap.get(pkColumn).isNullable()) {
+                nullablePkColumns.add(pkColumn);
+            }
+        }
+        List<String> hstColumns = new ArrayList<String>(pkColumns);
+        for (String column : getNonPkCols(columns, pkColumns)) {
+            if (!column.equals(histColName)) {
+                hstColumns.add(column);
+            }
+        }
+        buf.append(STATEMENT_SEPARATOR)
+                .append("insert into HST_OUTBOX_TABLE (hst_table_name, live_table_name, hst_timestamp_column, pk_columns, nullable_pk_columns, columns)\n")
+                .append("values ('").append(histTableName).append("', '").append(tableName).append("', '").append(histColName).append("', '")
+                .append(StringUtils.join(pkColumns, ",")).append("', ")
+                .append(nullablePkColumns.isEmpty() ? "null" : "'" + StringUtils.join(nullablePkColumns, ",") + "'").append(", '")
+                .append(StringUtils.join(hstColumns, ",")).append("')\n")
+                .append("on conflict (hst_table_name) do update set live_table_name=excluded.live_table_name, hst_timestamp_column=excluded.hst_timestamp_column,\n")
+                .append("  pk_columns=excluded.pk_columns, nullable_pk_columns=excluded.nullable_pk_columns, columns=excluded.columns");
+
+        String objectName = tableName + "_htr_function";
+        checkObjectName(dialect, objectName);
+        VelocityContext context = newHistTriggerContext(dialect, objectName, tableName, histTableName, histColName, columns, pkColumns, histRelevantCols, blobCols, columnMap);
+
+        StringWriter wr = new StringWriter();
+        mergeTemplateFromResource("postgres/HstOutboxTrigger.vm.pl.sql", wr, context);
+
+        buf.append(STATEMENT_SEPARATOR).append(duplex(ObjectType.FUNCTION, objectName, wr.toString()));
+        buf.append(getPostgreSQLHistRowTriggersSql(tableName, histRelevantCols));
+
+        return buf.toString();
+    }
+
     private String getHistTriggerSource (Dialect dialect,
                                          String objectName,
                                          String tableName,
@@ -2089,6 +2378,102 @@ public class CreateDDL {
                                          Map<String, Column> columnMap) {
         checkObjectName(dialect, objectName);
 
+        VelocityContext context = newHistTriggerContext(dialect, objectName, tableName, histTableName, histColName, columns, pkColumns, histRelevantCols, blobCols, columnMap);
+
+        StringWriter wr = new StringWriter();
+        mergeTemplateFromResource("HstTrigger.vm.pl.sql", wr, context);
+
+        return wr.toString();
+    }
+
+    private String getPostgreSQLHistStatementTriggerSql (Dialect dialect,
+                                                        String tableName,
+                                                        String histTableName,
+                                                        String histColName,
+                                                        Set<String> columns,
+                                                        List<String> pkColumns,
+                                                        List<String> histRelevantCols,
+                                                        Set<String> blobCols,
+                                                        Map<String, Column> columnMap) {
+        StringBuilder buf = new StringBuilder();
+
+        for (String operation : new String[]{"I", "U", "D"}) {
+            String objectName = tableName + "_ht" + operation + "_function";
+            checkObjectName(dialect, objectName);
+
+            VelocityContext context = newHistTriggerContext(dialect, objectName, tableName, histTableName, histColName, columns, pkColumns, histRelevantCols, blobCols, columnMap);
+            context.put("operation", operation);
+
+            StringWriter wr = new StringWriter();
+            mergeTemplateFromResource("postgres/HstTriggerStatement.vm.pl.sql", wr, context);
+
+            buf.append(STATEMENT_SEPARATOR).append(duplex(ObjectType.FUNCTION, objectName, wr.toString()));
+
+            String triggerName = tableName + "_ht" + operation;
+            String ddl = "create trigger " + triggerName + "\n" +
+                    "after " + (operation.equals("I") ? "insert" : operation.equals("U") ? "update" : "delete") + " on " + tableName + "\n" +
+                    "referencing" + (operation.equals("I") ? "" : " old table as old_rows") + (operation.equals("D") ? "" : " new table as new_rows") + "\n" +
+                    "for each statement\n" +
+                    "execute procedure " + objectName + "()";
+
+            buf.append(STATEMENT_SEPARATOR).append(duplex(ObjectType.TRIGGER, triggerName, ddl));
+        }
+
+        return buf.toString();
+    }
+
+    private TemporalEntity.HistoryCapture getHistoryCapture(Dialect dialect, TemporalEntity temporalEntity) {
+        TemporalEntity.HistoryCapture configured = DialectProfile.of(dialect).getPostgresHistoryCapture();
+        if (temporalEntity.historyCapture() == TemporalEntity.HistoryCapture.OUTBOX && configured != TemporalEntity.HistoryCapture.OUTBOX) {
+            throw new IllegalStateException("history capture " + TemporalEntity.HistoryCapture.OUTBOX + " requires property " +
+                    DBHelper.PROPERTY_POSTGRES_HISTORY_CAPTURE + "=outbox for creating the outbox tables");
+        }
+        if (temporalEntity.historyCapture() != TemporalEntity.HistoryCapture.DEFAULT) {
+            return temporalEntity.historyCapture();
+        }
+        return configured;
+    }
+
+    /**
+     * @return interval by which the history table is range partitioned or null if unpartitioned
+     */
+    private String getHistoryPartitionInterval(Dialect dialect, TemporalEntity temporalEntity) {
+        String interval = temporalEntity.historyPartitionInterval().trim();
+        if (interval.isEmpty()) {
+            return DialectProfile.of(dialect).getPostgresHistoryPartitionInterval();
+        }
+        return "none".equalsIgnoreCase(interval) ? null : interval;
+    }
+
+    private Period getHistoryRetention(String tableName, TemporalEntity temporalEntity) {
+        String retention = temporalEntity.historyRetention().trim();
+        if (retention.isEmpty()) {
+            return null;
+        }
+        try {
+            return Period.parse(retention);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("invalid history retention '" + retention + "' of table " + tableName + ", expected ISO-8601 period like P1Y", e);
+        }
+    }
+
+    private TemporalEntity.TriggerLevel getHistoryTriggerLevel(Dialect dialect, TemporalEntity temporalEntity) {
+        if (temporalEntity.triggerLevel() != TemporalEntity.TriggerLevel.DEFAULT) {
+            return temporalEntity.triggerLevel();
+        }
+        return DialectProfile.of(dialect).getPostgresHistoryTriggerLevel();
+    }
+
+    private VelocityContext newHistTriggerContext (Dialect dialect,
+                                                   String objectName,
+                                                   String tableName,
+                                                   String histTableName,
+                                                   String histColName,
+                                                   Set<String> columns,
+                                                   List<String> pkColumns,
+                                                   List<String> histRelevantCols,
+                                                   Set<String> blobCols,
+                                                   Map<String, Column> columnMap) {
         VelocityContext context = newVelocityContext(dialect);
 
         Set<String> hstNoNullColumns = new HashSet<String>();
@@ -2121,10 +2506,7 @@ public class CreateDDL {
         context.put("columnMap", columnMap);
         context.put("varcharType", getVarcharDdlTypeDeclaration(dialect, 64));
 
-        StringWriter wr = new StringWriter();
-        mergeTemplateFromResource("HstTrigger.vm.pl.sql", wr, context);
-
-        return wr.toString();
+        return context;
     }
 
     private String getHsqlDBHistTriggerSql (Dialect dialect,
@@ -2134,7 +2516,9 @@ public class CreateDDL {
                                             Set<String> columns,
                                             List<String> pkColumns,
                                             List<String> histRelevantCols,
-                                            Map<String, Column> columnMap) {
+                                            Map<String, Column> columnMap,
+                                            boolean compareInBody,
+                                            boolean listenerBypass) {
         VelocityContext context = newVelocityContext(dialect);
 
         Set<String> nonPkColumns = getNonPkCols(columns, pkColumns);
@@ -2154,6 +2538,10 @@ public class CreateDDL {
         context.put("nonPkColumns", nonPkColumns);
         context.put("histRelevantCols", histRelevantCols);
         context.put("columnMap", columnMap);
+        context.put("compareInBody", compareInBody);
+        if (listenerBypass) {
+            context.put("listenerBypassVariable", DBHelper.SESSION_VARIABLE_HISTORY_LISTENER);
+        }
 
         StringWriter wr = new StringWriter();
 
@@ -2168,6 +2556,48 @@ public class CreateDDL {
         return wr.toString();
     }
 
+    /**
+     * audit (historyTable is null) or history triggers calling {@link com.github.gekoh.yagen.util.HsqlDbTrigger},
+     * the trigger specific configuration is registered in table JAVA_TRIGGER_CONFIG
+     */
+    private String getHsqlDBJavaTriggerSql (Dialect dialect,
+                                            String tableName,
+                                            String suffix,
+                                            HistoryTable historyTable,
+                                            boolean listenerBypass) {
+        StringBuilder buf = new StringBuilder();
+
+        for (String operation : historyTable != null ? new String[]{"I", "U", "D"} : new String[]{"I", "U"}) {
+            String triggerName = getProfile().getNamingStrategy().triggerName(getEntityClassName(tableName), tableName, null, suffix + operation);
+            checkObjectName(dialect, triggerName);
+
+            buf.append(STATEMENT_SEPARATOR)
+                    .append("insert into JAVA_TRIGGER_CONFIG (trigger_name, object_name, modifier_column_length");
+            if (historyTable != null) {
+                buf.append(", hst_table_name, hst_timestamp_column, pk_columns, hst_relevant_columns, listener_bypass");
+            }
+            buf.append(")\nvalues ('").append(triggerName.toUpperCase()).append("', '").append(triggerName).append("', ")
+                    .append(DBHelper.getAuditUserMaxlength(dialect));
+            if (historyTable != null) {
+                buf.append(", '").append(historyTable.getHistTableName()).append("', '").append(historyTable.getHistColName()).append("', '")
+                        .append(StringUtils.join(historyTable.getPkColumns(), ",")).append("', '")
+                        .append(StringUtils.join(historyTable.getHistRelevantColumns(), ",")).append("', ").append(listenerBypass);
+            }
+            buf.append(")");
+
+            String object = "create trigger " + triggerName + "\n" +
+                    (historyTable != null ? "after " : "before ") +
+                    ("I".equals(operation) ? "insert" : "U".equals(operation) ? "update" : "delete") + " on " + tableName + "\n" +
+                    "for each row queue 0 call \"" + HsqlDbTrigger.class.getName() + "\"";
+
+            addDbObject(object);
+
+            buf.append(STATEMENT_SEPARATOR).append(duplex(ObjectType.TRIGGER, triggerName, object));
+        }
+
+        return buf.toString();
+    }
+
     private String getLatestSnapshotViewSql (Dialect dialect,
                                             String viewName,
                                             String histTableName,
@@ -2205,9 +2635,7 @@ public class CreateDDL {
 
         String object = objWr.toString();
 
-        if (dbObjects != null) {
-            dbObjects.add(object);
-        }
+        addDbObject(object);
 
         return duplex(ObjectType.VIEW, viewName, object);
     }
@@ -2221,6 +2649,12 @@ public class CreateDDL {
         return nonPkColumns;
     }
 
+    private Set<String> getNonPkCols(Set<String> columns, List<String> pkColumns, String histColName) {
+        Set<String> nonPkColumns = getNonPkCols(columns, pkColumns);
+        nonPkColumns.remove(histColName);
+        return nonPkColumns;
+    }
+
     private void writeTriggerSingleOperation(Dialect dialect, Writer wr, String resourceName, VelocityContext context, String tableName, String suffix, String operation)
             throws IOException {
         StringWriter objWr = new StringWriter();
@@ -2235,9 +2669,7 @@ public class CreateDDL {
 
         String object = objWr.toString();
 
-        if (dbObjects != null) {
-            dbObjects.add(object);
-        }
+        addDbObject(object);
 
         wr.write(object);
 
@@ -2245,164 +2677,170 @@ public class CreateDDL {
     }
 
     private String getHistTableSqlCreateString (Dialect dialect,
-                                                String sqlCreateString,
+                                                CreateTableStatement liveCreateTable,
                                                 String histTableName,
                                                 String histColName,
                                                 Set<String> columns,
                                                 List<String> pkCols,
-                                                IntervalPartitioning livePartitioning) {
+                                                IntervalPartitioning livePartitioning,
+                                                List<String> partitionDdl) {
         checkTableName(dialect, histTableName);
 
-        Matcher matcher = TBL_PATTERN.matcher(sqlCreateString);
-        Matcher matchUnique = UNIQUE_PATTERN.matcher(sqlCreateString);
+        CreateTableStatement createTable = liveCreateTable.copy();
+        createTable.setTableName(histTableName);
 
-        StringBuilder sql = new StringBuilder();
+        List<CreateTableStatement.Element> elements = createTable.getElements();
+        CreateTableStatement.KeyConstraint primaryKey = createTable.getPrimaryKey();
+        List<CreateTableStatement.KeyConstraint> uniqueConstraints = createTable.getUniqueConstraints();
         StringBuffer additionalObjects = new StringBuffer();
 
-        // try matching create table sql with PK definition
-        if (!matcher.matches()) {
-            matcher = TBL_PATTERN_WO_PK.matcher(sqlCreateString);
-
-            // next try without PD definition (e.g. for CollectionTable)
-            if (!matcher.matches()) {
-                throw new IllegalStateException("cannot find create table in sql: " + sqlCreateString);
+        // create table sql without PK definition (e.g. for CollectionTable)
+        if (primaryKey == null) {
+            if (!uniqueConstraints.isEmpty()) {
+                elements.subList(elements.indexOf(uniqueConstraints.get(0)), elements.size()).clear();
             }
 
-            int endColsIdx = matchUnique.find() ? matchUnique.start() : matcher.start(TBL_PATTERN_WO_PK_IDX_AFTER_COL_DEF);
-
-            sql.append(sqlCreateString.substring(0, matcher.start(TBL_PATTERN_WO_PK_IDX_TBLNAME))).append(histTableName);
-            sql.append(sqlCreateString.substring(matcher.end(TBL_PATTERN_WO_PK_IDX_TBLNAME), matcher.end(TBL_PATTERN_WO_PK_IDX_BEFORE_COL_DEF)));
-            sql.append(formatColumn(dialect, HIST_TABLE_PK_COLUMN_NAME+" ${varcharType} not null", Constants.UUID_LEN)).append(", ");
-            sql.append(formatColumn(dialect, HIST_OPERATION_COLUMN_NAME+" ${varcharType} not null", 1)).append(", ");
-
-            sql.append(sqlCreateString.substring(matcher.end(TBL_PATTERN_WO_PK_IDX_BEFORE_COL_DEF), endColsIdx));
-
-            sql.append(", ");
-
             if (!columns.contains(histColName)) {
-                sql.append(formatColumn(dialect, histColName+" ${timestampType} not null", null)).append(", ");
+                createTable.add(" " + formatColumn(dialect, histColName+" ${timestampType} not null", null));
             }
 
-            sql.append("primary key (");
-            sql.append(HIST_TABLE_PK_COLUMN_NAME).append("), ");
+            createTable.add(" primary key (" + HIST_TABLE_PK_COLUMN_NAME + ")");
 
-            sql.append("unique (");
+            StringBuilder unique = new StringBuilder(" unique (");
             for (String columnName : pkCols) {
-                sql.append(columnName).append(", ");
+                unique.append(columnName).append(", ");
             }
-            sql.append(histColName);
-            sql.append(")");
-
-            sql.append(sqlCreateString.substring(matcher.start(TBL_PATTERN_WO_PK_IDX_AFTER_COL_DEF)));
+            unique.append(histColName);
+            unique.append(")");
+            createTable.add(unique.toString());
         }
         else {
-            String liveTableName = matcher.group(TBL_PATTERN_IDX_TBLNAME).toLowerCase();
-
-            sql.append(sqlCreateString.substring(0, matcher.start(TBL_PATTERN_IDX_TBLNAME))).append(histTableName);
-            sql.append(sqlCreateString.substring(matcher.end(TBL_PATTERN_IDX_TBLNAME), matcher.start(TBL_PATTERN_IDX_TBL_DEF)));
-            sql.append(formatColumn(dialect, HIST_TABLE_PK_COLUMN_NAME+" ${varcharType} not null", Constants.UUID_LEN)).append(", ");
-            sql.append(formatColumn(dialect, HIST_OPERATION_COLUMN_NAME+" ${varcharType} not null", 1)).append(", ");
-
-            sql.append(sqlCreateString.substring(matcher.start(TBL_PATTERN_IDX_TBL_DEF), matcher.start(TBL_PATTERN_IDX_PK_START)));
+            int pkIdx = elements.indexOf(primaryKey);
 
-            if (!columns.contains(histColName)) {
-                sql.append(" ").append(formatColumn(dialect, histColName+" ${timestampType} not null", null)).append(",");
-            }
-
-            String pkConstraintName = matcher.group(TBL_PATTERN_IDX_PK_NAME);
+            String pkConstraintName = primaryKey.getName();
             if (pkConstraintName != null) {
-                sql.append(sqlCreateString.substring(matcher.start(TBL_PATTERN_IDX_PK_START), matcher.start(TBL_PATTERN_IDX_PK_NAME)));
-
                 int shortNameEndIdx = pkConstraintName.indexOf('_');
                 if (shortNameEndIdx < 0) {
                     shortNameEndIdx = 0;
                 }
-                sql.append(getHistTableShortNameFromLiveTableShortName(pkConstraintName.substring(0, shortNameEndIdx))).append(pkConstraintName.substring(shortNameEndIdx));
-                sql.append(sqlCreateString.substring(matcher.end(TBL_PATTERN_IDX_PK_NAME), matcher.start(TBL_PATTERN_IDX_PK_COLLIST)));
+                primaryKey.setName(getHistTableShortNameFromLiveTableShortName(pkConstraintName.substring(0, shortNameEndIdx)) + pkConstraintName.substring(shortNameEndIdx));
             }
-            else {
-                sql.append(sqlCreateString.substring(matcher.start(TBL_PATTERN_IDX_PK_START), matcher.start(TBL_PATTERN_IDX_PK_COLLIST)));
+
+            String constraintColumns = primaryKey.getColumnList() + ", " + histColName;
+            String pkRest = primaryKey.getSuffix().substring(1);
+            primaryKey.setColumnList(HIST_TABLE_PK_COLUMN_NAME);
+            primaryKey.setSuffix(")");
+
+            // unique constraints following the primary key are replaced by the unique key on the live table PK and the history timestamp
+            CreateTableStatement.KeyConstraint lastUniqueConstraint = uniqueConstraints.isEmpty() ? null : uniqueConstraints.get(uniqueConstraints.size() - 1);
+            int lastUniqueIdx = lastUniqueConstraint != null ? elements.indexOf(lastUniqueConstraint) : -1;
+            if (lastUniqueIdx > pkIdx) {
+                elements.subList(pkIdx + 1, lastUniqueIdx + 1).clear();
+                pkRest = "";
             }
-            sql.append(HIST_TABLE_PK_COLUMN_NAME).append(")");
-            String constraintColumns = matcher.group(TBL_PATTERN_IDX_PK_COLLIST) + ", " + histColName;
 
-            if (livePartitioning != null && livePartitioning.useLocalPK()) {
+            if (livePartitioning != null && livePartitioning.useLocalPK() && supportsPartitioning(dialect)) {
                 if (!histColName.equals(livePartitioning.columnName().toLowerCase())) {
                     constraintColumns += ", " + livePartitioning.columnName();
                 }
                 additionalObjects.append(STATEMENT_SEPARATOR);
                 addLocalUniqueConstraintIndex(additionalObjects, histTableName.toLowerCase(), constraintColumns);
+                primaryKey.setSuffix(")" + pkRest);
             }
             else {
-                sql.append(", unique (");
-                sql.append(constraintColumns);
-                sql.append(")");
+                createTable.add(pkIdx + 1, " unique (" + constraintColumns + ")" + pkRest);
             }
 
-            int restIdx = matcher.end(TBL_PATTERN_IDX_PK_CLAUSE);
-            while (matchUnique.find(restIdx)) {
-                restIdx = matchUnique.end(1);
+            if (!columns.contains(histColName)) {
+                createTable.add(pkIdx, " " + formatColumn(dialect, histColName+" ${timestampType} not null", null));
             }
+        }
 
-            sql.append(sqlCreateString.substring(restIdx));
+        if (!elements.isEmpty()) {
+            elements.get(0).prepend(" ");
         }
+        createTable.add(0, formatColumn(dialect, HIST_TABLE_PK_COLUMN_NAME+" ${varcharType} not null", Constants.UUID_LEN));
+        createTable.add(1, " " + formatColumn(dialect, HIST_OPERATION_COLUMN_NAME+" ${varcharType} not null", 1));
 
-        Matcher uniqueColMatcher = COL_PATTERN.matcher(sql.toString());
-        int colIdx = 0;
-        while (uniqueColMatcher.find(colIdx)) {
-            String colName = TableConfig.getIdentifierForReference(uniqueColMatcher.group(COL_PATTERN_IDX_COLNAME));
+        for (CreateTableStatement.Column column : createTable.getColumns()) {
+            String colName = column.getColumnName();
 //                remove unique constraint from single column
-            if (uniqueColMatcher.group(COL_PATTERN_IDX_UNIQUE) != null) {
-                sql.delete(uniqueColMatcher.start(COL_PATTERN_IDX_UNIQUE), uniqueColMatcher.end(COL_PATTERN_IDX_UNIQUE));
-                colIdx = uniqueColMatcher.start();
-                uniqueColMatcher = COL_PATTERN.matcher(sql.toString());
-            }
+            column.removeUniqueConstraint();
 //                remove not null constraints
-            else if (!colName.equals(HIST_OPERATION_COLUMN_NAME) &&
+            if (!colName.equals(HIST_OPERATION_COLUMN_NAME) &&
                     !colName.equals(histColName) &&
-                    uniqueColMatcher.group(COL_PATTERN_IDX_NOT) != null) {
-                sql.delete(uniqueColMatcher.start(COL_PATTERN_IDX_NOTNULL), uniqueColMatcher.end(COL_PATTERN_IDX_NOTNULL));
-                colIdx = uniqueColMatcher.start();
-                uniqueColMatcher = COL_PATTERN.matcher(sql.toString());
+                    !(partitionDdl != null && colName.equals(HIST_TABLE_PK_COLUMN_NAME)) &&
+                    column.isNotNull()) {
+                column.removeNullConstraint();
             }
 //                remove check constraints
-            else if (uniqueColMatcher.group(COL_PATTERN_IDX_CHECK) != null) {
-                sql.delete(uniqueColMatcher.start(COL_PATTERN_IDX_CHECK), uniqueColMatcher.end(COL_PATTERN_IDX_CHECK));
-                colIdx = uniqueColMatcher.start();
-                uniqueColMatcher = COL_PATTERN.matcher(sql.toString());
+            column.removeCheckConstraint();
+
+            if (colName.equals(histColName)) {
+                createTable.add(elements.indexOf(column) + 1, " " + HIST_INVALID_TIMESTAMP_COLUMN_NAME + " " + column.getType());
             }
-            else if (colName.equals(histColName)) {
-                String addCol = ", " + HIST_INVALID_TIMESTAMP_COLUMN_NAME + " " + uniqueColMatcher.group(COL_PATTERN_IDX_TYPE);
-                sql.insert(uniqueColMatcher.end()-1, addCol);
-                colIdx = uniqueColMatcher.end() + addCol.length();
-                uniqueColMatcher = COL_PATTERN.matcher(sql.toString());
+        }
+
+        if (supportsPartitioning(dialect) && livePartitioning != null) {
+            addPartitioning(additionalObjects, livePartitioning, histTableName, createTable, columns, pkCols);
+        }
+
+        addConstraintsAndNames(dialect, additionalObjects, createTable, histTableName.toLowerCase());
+
+        if (partitionDdl != null) {
+            // partitioned tables of PostgreSQL 10 support neither primary keys nor unique constraints, these are created per partition
+            int uniqueNo = 0;
+            for (CreateTableStatement.KeyConstraint constraint : createTable.getUniqueConstraints()) {
+                uniqueNo++;
+                partitionDdl.add("alter table %1$I add constraint %1$s_UK" + (uniqueNo > 1 ? uniqueNo : "") + " unique (" + constraint.getColumnList() + ")");
+                elements.remove(constraint);
             }
-            else {
-                colIdx = uniqueColMatcher.end();
+            primaryKey = createTable.getPrimaryKey();
+            if (primaryKey != null) {
+                partitionDdl.add(0, "alter table %1$I add constraint %1$s_PK primary key (" + primaryKey.getColumnList() + ")");
+                elements.remove(primaryKey);
             }
+            createTable.appendToTail(" partition by range (" + histColName + ")");
         }
+//        not adding default values to history tables, this will make investigations very hard
+//        addDefaultValues(createTable, histTableName.toLowerCase());
 
-        if (supportsPartitioning(dialect) && livePartitioning != null) {
-            sqlCreateString = addPartitioning(additionalObjects, livePartitioning, histTableName, sql.toString(), columns, pkCols);
+        return duplex(ObjectType.TABLE, histTableName, createTable.toSql()) + additionalObjects.toString();
+    }
+    
+    private String getHistInvalidationIndexSql(Dialect dialect, String histTableName, List<String> pkCols, IntervalPartitioning livePartitioning) {
+        String histTableNameLC = histTableName.toLowerCase();
+        StringBuilder colList = new StringBuilder();
+        for (String columnName : pkCols) {
+            colList.append(columnName).append(", ");
+        }
+        if (isPostgres(dialect)) {
+            colList.delete(colList.length() - 2, colList.length());
         }
         else {
-            sqlCreateString = sql.toString();
+            colList.append(HIST_INVALID_TIMESTAMP_COLUMN_NAME);
         }
 
-        sqlCreateString = addConstraintsAndNames(dialect, additionalObjects, sqlCreateString, histTableName.toLowerCase());
-//        not adding default values to history tables, this will make investigations very hard
-//        sqlCreateString = addDefaultValues(sqlCreateString, histTableName.toLowerCase());
+        String indexName = getProfile().getNamingStrategy().indexName(getEntityClassName(histTableNameLC), histTableNameLC,
+                DefaultNamingStrategy.concatColumnNames(colList + (isPostgres(dialect) ? ", " + HIST_INVALID_TIMESTAMP_COLUMN_NAME : "")));
+        checkObjectName(dialect, indexName);
+
+        StringBuilder objDdl = new StringBuilder();
+        objDdl.append("create index ").append(indexName)
+                .append(" on ").append(histTableName).append(" (").append(colList).append(")");
+
+        if (isPostgres(dialect)) {
+            objDdl.append(" where ").append(HIST_INVALID_TIMESTAMP_COLUMN_NAME).append(" is null");
+        }
+        else if (livePartitioning != null && supportsPartitioning(dialect)) {
+            objDdl.append(" local");
+        }
 
-        return duplex(ObjectType.TABLE, histTableName, sqlCreateString) + additionalObjects.toString();
+        return duplex(ObjectType.INDEX, indexName, objDdl.toString());
     }
-    
+
     private static void mergeTemplateFromResource(String resource, Writer wr, VelocityContext context) {
-        try {
-            Velocity.evaluate(context, wr, CreateDDL.class.getName()+"#"+resource,
-                    new InputStreamReader(new SequenceInputStream(CreateDDL.class.getResourceAsStream("setVars.vm"), CreateDDL.class.getResourceAsStream(resource)), "UTF-8"));
-        } catch (UnsupportedEncodingException e) {
-            e.printStackTrace();
-        }
+        TemplateRegistry.merge(resource, wr, context);
     }
 
     private static Set<String> getI18NEntityColumns (Set<String> columns) {
@@ -2420,14 +2858,29 @@ public class CreateDDL {
     }
     
     private void addDropStatement(String tableName, String dropSql) {
-        tableName = tableName.toLowerCase();
-        List<String> dropSqls = tblNameToDropObjectsSql.get(tableName);
+        PreparedCreateTable prepared = preparingCreateTable.get();
+        if (prepared != null) {
+            prepared.effects.add(() -> addDropStatement(tableName, dropSql));
+            return;
+        }
+        String tableNameLC = tableName.toLowerCase();
+        List<String> dropSqls = tblNameToDropObjectsSql.get(tableNameLC);
         if (dropSqls == null) {
-            tblNameToDropObjectsSql.put(tableName, dropSqls = new ArrayList<String>());
+            tblNameToDropObjectsSql.put(tableNameLC, dropSqls = new ArrayList<String>());
         }
         dropSqls.add(dropSql);
     }
 
+    private void addDbObject(String object) {
+        PreparedCreateTable prepared = preparingCreateTable.get();
+        if (prepared != null) {
+            prepared.effects.add(() -> addDbObject(object));
+        }
+        else if (dbObjects != null) {
+            dbObjects.add(object);
+        }
+    }
+
     public List<String> getDBObjects() {
         return dbObjects;
     }
@@ -2528,7 +2981,7 @@ public class CreateDDL {
     }
 
     private static boolean isOracleXE(Dialect dialect) {
-        return dialect.getClass().getSimpleName().toLowerCase().contains("oraclexe");
+        return DialectProfile.of(dialect).isOracleXE();
     }
 
     private static boolean supportsFunctionBased(Dialect dialect) {
@@ -2542,4 +2995,17 @@ public class CreateDDL {
     private static boolean supportsPartitioning(Dialect dialect) {
         return isOracle(dialect) && !isOracleXE(dialect);
     }
+
+    private static class PreparedCreateTable {
+        private final String tableName;
+        private final Set<String> objectNames = new LinkedHashSet<String>();
+        private final StringBuffer deferredDdl = new StringBuffer();
+        private final List<Runnable> effects = new ArrayList<Runnable>();
+        private String sql;
+        private RuntimeException failure;
+
+        private PreparedCreateTable(String tableName) {
+            this.tableName = tableName;
+        }
+    }
 }
@@ -0,0 +1,888 @@
+/*
+ Copyright 2026 agent
+
+ Licensed under the Apache License, Version 2.0 (the License);
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+ http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an AS IS BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+*/
+package com.github.gekoh.yagen.ddl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Model of a create table statement as rendered by hibernate. The statement is split into its column and
+ * constraint definitions in a single pass, the enhancement steps of {@link CreateDDL} modify the model
+ * and the statement is rendered once at the end. All parts not touched are kept as found in the original
+ * statement, so rendering an unmodified model returns the parsed sql.
+ * <p>
+ * Column definitions are recognized with the same grammar the column regex of {@link CreateDDL} used before:
+ * {@code name type [default value] [[constraint name] [not] null] [[constraint name] unique] [[constraint name] check (...)]},
+ * definitions of other types are kept untouched.
+ *
+ * @author agent
+ */
+final class CreateTableStatement {
+
+    private static final String CREATE_TABLE = "create table";
+
+    private final String head;
+    private boolean globalTemporary;
+    private boolean ifNotExists;
+    private final String beforeTableName;
+    private String tableName;
+    private final String beforeElements;
+    private final List<Element> elements;
+    private String tail;
+
+    private CreateTableStatement(String head, String beforeTableName, String tableName, String beforeElements, List<Element> elements, String tail) {
+        this.head = head;
+        this.beforeTableName = beforeTableName;
+        this.tableName = tableName;
+        this.beforeElements = beforeElements;
+        this.elements = elements;
+        this.tail = tail;
+    }
+
+    /**
+     * @return the parsed statement or null if the given sql is no create table statement
+     */
+    static CreateTableStatement parse(String sql) {
+        int createIdx = sql.lastIndexOf(CREATE_TABLE);
+        if (createIdx < 0) {
+            return null;
+        }
+
+        int idx = createIdx + CREATE_TABLE.length();
+        int nameIdx = skipSpaces(sql, idx);
+        if (nameIdx == idx) {
+            return null;
+        }
+        int nameEndIdx = scanName(sql, nameIdx);
+        if (nameEndIdx < 0) {
+            return null;
+        }
+        idx = skipSpaces(sql, nameEndIdx);
+        if (idx >= sql.length() || sql.charAt(idx) != '(') {
+            return null;
+        }
+
+        List<Element> elements = new ArrayList<Element>();
+        int depth = 0;
+        char quote = 0;
+        int elementIdx = idx + 1;
+        for (int i = elementIdx; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            }
+            else if (c == '\'' || c == '"' || c == '`') {
+                quote = c;
+            }
+            else if (c == '(') {
+                depth++;
+            }
+            else if (c == ')' && depth > 0) {
+                depth--;
+            }
+            else if ((c == ',' || c == ')') && depth == 0) {
+                elements.add(parseElement(sql.substring(elementIdx, i)));
+                elementIdx = i + 1;
+                if (c == ')') {
+                    return new CreateTableStatement(sql.substring(0, createIdx + "create ".length()),
+                            sql.substring(createIdx + CREATE_TABLE.length(), nameIdx),
+                            sql.substring(nameIdx, nameEndIdx),
+                            sql.substring(nameEndIdx, idx + 1),
+                            elements,
+                            sql.substring(i + 1));
+                }
+            }
+        }
+        return null;
+    }
+
+    static Element parseElement(String text) {
+        Element element = KeyConstraint.parse(text);
+        if (element == null) {
+            element = Column.parse(text);
+        }
+        return element != null ? element : new Element(text);
+    }
+
+    CreateTableStatement copy() {
+        List<Element> copiedElements = new ArrayList<Element>(elements.size());
+        for (Element element : elements) {
+            copiedElements.add(element.copy());
+        }
+        CreateTableStatement copy = new CreateTableStatement(head, beforeTableName, tableName, beforeElements, copiedElements, tail);
+        copy.globalTemporary = globalTemporary;
+        copy.ifNotExists = ifNotExists;
+        return copy;
+    }
+
+    String getTableName() {
+        return tableName;
+    }
+
+    void setTableName(String tableName) {
+        this.tableName = tableName;
+    }
+
+    /**
+     * @return all column and constraint definitions in order, modifiable
+     */
+    List<Element> getElements() {
+        return elements;
+    }
+
+    /**
+     * @return the recognized column definitions in order
+     */
+    List<Column> getColumns() {
+        List<Column> columns = new ArrayList<Column>(elements.size());
+        for (Element element : elements) {
+            if (element instanceof Column) {
+                columns.add((Column) element);
+            }
+        }
+        return columns;
+    }
+
+    /**
+     * @return the last primary key definition not being the first element or null if there is none
+     */
+    KeyConstraint getPrimaryKey() {
+        for (int i = elements.size() - 1; i > 0; i--) {
+            Element element = elements.get(i);
+            if (element instanceof KeyConstraint && ((KeyConstraint) element).isPrimaryKey()) {
+                return (KeyConstraint) element;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return lower case column names of the primary key or null if there is no primary key definition
+     */
+    List<String> getPrimaryKeyColumns() {
+        KeyConstraint primaryKey = getPrimaryKey();
+        return primaryKey != null ? Arrays.asList(primaryKey.getColumnList().toLowerCase().split(",[ ]?")) : null;
+    }
+
+    /**
+     * @return the unique constraint definitions in order (excluding the first element)
+     */
+    List<KeyConstraint> getUniqueConstraints() {
+        List<KeyConstraint> constraints = new ArrayList<KeyConstraint>();
+        for (int i = 1; i < elements.size(); i++) {
+            Element element = elements.get(i);
+            if (element instanceof KeyConstraint && !((KeyConstraint) element).isPrimaryKey()) {
+                constraints.add((KeyConstraint) element);
+            }
+        }
+        return constraints;
+    }
+
+    /**
+     * adds the definition in front of the primary key or at the end if there is no primary key
+     */
+    Element addBeforePrimaryKey(String definition) {
+        KeyConstraint primaryKey = getPrimaryKey();
+        return add(primaryKey != null ? elements.indexOf(primaryKey) : elements.size(), definition);
+    }
+
+    Element add(String definition) {
+        return add(elements.size(), definition);
+    }
+
+    Element add(int index, String definition) {
+        Element element = parseElement(definition);
+        elements.add(index, element);
+        return element;
+    }
+
+    void makeGlobalTemporary(boolean ifNotExists, String onCommit) {
+        this.globalTemporary = true;
+        this.ifNotExists = ifNotExists;
+
+        int idx = tail.lastIndexOf(')') + 1;
+        tail = tail.substring(0, idx) + " ON COMMIT " + onCommit + tail.substring(idx);
+    }
+
+    void appendToTail(String sql) {
+        tail += sql;
+    }
+
+    String toSql() {
+        StringBuilder sql = new StringBuilder(head);
+        if (globalTemporary) {
+            sql.append("global temporary ");
+        }
+        sql.append("table");
+        if (ifNotExists) {
+            sql.append(" IF NOT EXISTS");
+        }
+        sql.append(beforeTableName).append(tableName).append(beforeElements);
+        for (int i = 0; i < elements.size(); i++) {
+            if (i > 0) {
+                sql.append(',');
+            }
+            elements.get(i).appendTo(sql);
+        }
+        return sql.append(')').append(tail).toString();
+    }
+
+    @Override
+    public String toString() {
+        return toSql();
+    }
+
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    private static int skipSpaces(String s, int idx) {
+        while (idx < s.length() && isSpace(s.charAt(idx))) {
+            idx++;
+        }
+        return idx;
+    }
+
+    private static boolean isLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isNameChar(char c) {
+        return isLetter(c) || (c >= '0' && c <= '9') || c == '_';
+    }
+
+    private static boolean isDigit(String s, int idx) {
+        return idx < s.length() && s.charAt(idx) >= '0' && s.charAt(idx) <= '9';
+    }
+
+    /**
+     * @return end index of a name [a-zA-Z]+[0-9a-zA-Z_]* starting at idx or -1
+     */
+    private static int scanName(String s, int idx) {
+        if (idx >= s.length() || !isLetter(s.charAt(idx))) {
+            return -1;
+        }
+        while (idx < s.length() && isNameChar(s.charAt(idx))) {
+            idx++;
+        }
+        return idx;
+    }
+
+    /**
+     * @return end index of a possibly quoted column name starting at idx or -1
+     */
+    private static int scanColumnName(String s, int idx) {
+        if (idx < s.length() && isQuote(s.charAt(idx))) {
+            idx++;
+        }
+        idx = scanName(s, idx);
+        if (idx >= 0 && idx < s.length() && isQuote(s.charAt(idx))) {
+            idx++;
+        }
+        return idx;
+    }
+
+    private static boolean isQuote(char c) {
+        return c == '"' || c == '\'' || c == '`';
+    }
+
+    /**
+     * @return end index of one or more spaces followed by the keyword or -1
+     */
+    private static int scanSpacedKeyword(String s, int idx, String keyword) {
+        int keywordIdx = skipSpaces(s, idx);
+        return keywordIdx > idx && s.startsWith(keyword, keywordIdx) ? keywordIdx + keyword.length() : -1;
+    }
+
+    /**
+     * @return end index of optional spaces followed by the given char or -1
+     */
+    private static int scanSpacedChar(String s, int idx, char c) {
+        idx = skipSpaces(s, idx);
+        return idx < s.length() && s.charAt(idx) == c ? idx + 1 : -1;
+    }
+
+    /**
+     * @return end index of a bracket expression (anything but the closing bracket) starting at idx or -1
+     */
+    private static int scanBracketContent(String s, int idx) {
+        if (idx >= s.length() || s.charAt(idx) != '(') {
+            return -1;
+        }
+        int closeIdx = s.indexOf(')', idx + 1);
+        return closeIdx > idx + 1 ? closeIdx + 1 : -1;
+    }
+
+    /**
+     * @return end index of [\s]+constraint[\s]+name starting at idx or -1
+     */
+    private static int scanConstraintName(String s, int idx) {
+        int nameIdx = scanSpacedKeyword(s, idx, "constraint");
+        if (nameIdx < 0) {
+            return -1;
+        }
+        int startIdx = skipSpaces(s, nameIdx);
+        return startIdx > nameIdx ? scanName(s, startIdx) : -1;
+    }
+
+    /**
+     * a column or constraint definition within the brackets of the create table statement, kept as is
+     */
+    static class Element {
+        private String text;
+
+        Element(String text) {
+            this.text = text;
+        }
+
+        void prepend(String s) {
+            text = s + text;
+        }
+
+        Element copy() {
+            return new Element(text);
+        }
+
+        void appendTo(StringBuilder sql) {
+            sql.append(text);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sql = new StringBuilder();
+            appendTo(sql);
+            return sql.toString();
+        }
+    }
+
+    /**
+     * primary key or unique constraint definition
+     */
+    static final class KeyConstraint extends Element {
+        private final boolean primaryKey;
+        private String prefix;
+        private String name;
+        private String infix;
+        private String columnList;
+        private String suffix;
+
+        private KeyConstraint(boolean primaryKey, String prefix, String name, String infix, String columnList, String suffix) {
+            super(null);
+            this.primaryKey = primaryKey;
+            this.prefix = prefix;
+            this.name = name;
+            this.infix = infix;
+            this.columnList = columnList;
+            this.suffix = suffix;
+        }
+
+        static KeyConstraint parse(String text) {
+            int idx = skipSpaces(text, 0);
+            int nameIdx = -1, nameEndIdx = -1;
+            if (text.startsWith("constraint", idx)) {
+                nameIdx = skipSpaces(text, idx + "constraint".length());
+                nameEndIdx = nameIdx > idx + "constraint".length() ? scanName(text, nameIdx) : -1;
+                if (nameEndIdx < 0) {
+                    return null;
+                }
+                idx = skipSpaces(text, nameEndIdx);
+            }
+
+            boolean primaryKey;
+            if (text.startsWith("primary key", idx) && (nameEndIdx < 0 || idx > nameEndIdx)) {
+                primaryKey = true;
+                idx += "primary key".length();
+            }
+            else if (text.startsWith("unique", idx)) {
+                primaryKey = false;
+                idx += "unique".length();
+            }
+            else {
+                return null;
+            }
+
+            int colListIdx = scanSpacedChar(text, idx, '(');
+            if (colListIdx < 0) {
+                return null;
+            }
+            idx = scanColumnName(text, colListIdx);
+            while (idx >= 0) {
+                int nextIdx = scanSpacedChar(text, idx, ',');
+                if (nextIdx < 0) {
+                    break;
+                }
+                idx = scanColumnName(text, skipSpaces(text, nextIdx));
+            }
+            if (idx < 0 || idx >= text.length() || text.charAt(idx) != ')') {
+                return null;
+            }
+
+            if (nameIdx < 0) {
+                return new KeyConstraint(primaryKey, "", null, text.substring(0, colListIdx), text.substring(colListIdx, idx), text.substring(idx));
+            }
+            return new KeyConstraint(primaryKey, text.substring(0, nameIdx), text.substring(nameIdx, nameEndIdx),
+                    text.substring(nameEndIdx, colListIdx), text.substring(colListIdx, idx), text.substring(idx));
+        }
+
+        boolean isPrimaryKey() {
+            return primaryKey;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        /**
+         * names an unnamed constraint or renames a named one
+         */
+        void setName(String name) {
+            if (this.name == null) {
+                prefix = " constraint ";
+            }
+            this.name = name;
+        }
+
+        String getColumnList() {
+            return columnList;
+        }
+
+        void setColumnList(String columnList) {
+            this.columnList = columnList;
+        }
+
+        String getSuffix() {
+            return suffix;
+        }
+
+        void setSuffix(String suffix) {
+            this.suffix = suffix;
+        }
+
+        @Override
+        void prepend(String s) {
+            if (name != null) {
+                prefix = s + prefix;
+            }
+            else {
+                infix = s + infix;
+            }
+        }
+
+        @Override
+        Element copy() {
+            return new KeyConstraint(primaryKey, prefix, name, infix, columnList, suffix);
+        }
+
+        @Override
+        void appendTo(StringBuilder sql) {
+            sql.append(prefix);
+            if (name != null) {
+                sql.append(name);
+            }
+            sql.append(infix).append(columnList).append(suffix);
+        }
+    }
+
+    /**
+     * column definition of a recognized type, the optional parts default, null, unique and check
+     * include their leading whitespace
+     */
+    static final class Column extends Element {
+        private String leading;
+        private final String name;
+        private final char separator;
+        private final String type;
+        private String defaultClause;
+        private String nullConstraint;
+        private String nullConstraintName;
+        private boolean notNull;
+        private String uniqueConstraint;
+        private String uniqueConstraintName;
+        private String checkConstraint;
+        private String checkConstraintName;
+        private final String rest;
+
+        private Column(String leading, String name, char separator, String type, String rest) {
+            super(null);
+            this.leading = leading;
+            this.name = name;
+            this.separator = separator;
+            this.type = type;
+            this.rest = rest;
+        }
+
+        static Column parse(String text) {
+            int nameIdx = skipSpaces(text, 0);
+            int nameEndIdx = scanColumnName(text, nameIdx);
+            if (nameEndIdx < 0 || nameEndIdx >= text.length() || !isSpace(text.charAt(nameEndIdx))) {
+                return null;
+            }
+            int typeIdx = nameEndIdx + 1;
+            int idx = scanType(text, typeIdx);
+            if (idx < 0) {
+                return null;
+            }
+            String leading = text.substring(0, nameIdx);
+            String name = text.substring(nameIdx, nameEndIdx);
+            String type = text.substring(typeIdx, idx);
+
+            String defaultClause = null;
+            int endIdx = scanSpacedKeyword(text, idx, "default");
+            if (endIdx >= 0) {
+                endIdx = skipSpaces(text, endIdx);
+                while (endIdx < text.length() && !isSpace(text.charAt(endIdx))) {
+                    endIdx++;
+                }
+                defaultClause = text.substring(idx, endIdx);
+                idx = endIdx;
+            }
+
+            String nullConstraint = null, nullConstraintName = null;
+            boolean notNull = false;
+            endIdx = scanConstraintName(text, idx);
+            int nullIdx = endIdx >= 0 ? scanNull(text, endIdx) : -1;
+            if (nullIdx >= 0) {
+                nullConstraintName = text.substring(skipConstraintKeyword(text, idx), endIdx);
+                notNull = scanNotNull(text, endIdx) >= 0;
+            }
+            else {
+                nullIdx = scanNull(text, idx);
+                notNull = nullIdx >= 0 && scanNotNull(text, idx) >= 0;
+            }
+            if (nullIdx >= 0) {
+                nullConstraint = text.substring(idx, nullIdx);
+                idx = nullIdx;
+            }
+
+            String uniqueConstraint = null, uniqueConstraintName = null;
+            endIdx = scanConstraintName(text, idx);
+            int uniqueIdx = scanSpacedKeyword(text, endIdx >= 0 ? endIdx : idx, "unique");
+            if (uniqueIdx >= 0 && endIdx >= 0) {
+                uniqueConstraintName = text.substring(skipConstraintKeyword(text, idx), endIdx);
+            }
+            else if (endIdx >= 0) {
+                uniqueIdx = scanSpacedKeyword(text, idx, "unique");
+            }
+            if (uniqueIdx >= 0) {
+                uniqueConstraint = text.substring(idx, uniqueIdx);
+                idx = uniqueIdx;
+            }
+
+            String checkConstraint = null, checkConstraintName = null;
+            endIdx = scanConstraintName(text, idx);
+            int checkIdx = scanCheck(text, endIdx >= 0 ? endIdx : idx);
+            if (checkIdx >= 0 && endIdx >= 0) {
+                checkConstraintName = text.substring(skipConstraintKeyword(text, idx), endIdx);
+            }
+            else if (endIdx >= 0) {
+                checkIdx = scanCheck(text, idx);
+            }
+            if (checkIdx >= 0) {
+                checkConstraint = text.substring(idx, checkIdx);
+                idx = checkIdx;
+            }
+
+            String rest = text.substring(idx);
+            if (rest.indexOf('(') >= 0) {
+                return null;
+            }
+
+            Column column = new Column(leading, name, text.charAt(nameEndIdx), type, rest);
+            column.defaultClause = defaultClause;
+            column.nullConstraint = nullConstraint;
+            column.nullConstraintName = nullConstraintName;
+            column.notNull = notNull;
+            column.uniqueConstraint = uniqueConstraint;
+            column.uniqueConstraintName = uniqueConstraintName;
+            column.checkConstraint = checkConstraint;
+            column.checkConstraintName = checkConstraintName;
+            return column;
+        }
+
+        /**
+         * @return end index of ([\s]+not)?[\s]+null starting at idx or -1
+         */
+        private static int scanNull(String s, int idx) {
+            int endIdx = scanNotNull(s, idx);
+            return endIdx >= 0 ? endIdx : scanSpacedKeyword(s, idx, "null");
+        }
+
+        private static int scanNotNull(String s, int idx) {
+            int notIdx = scanSpacedKeyword(s, idx, "not");
+            return notIdx >= 0 ? scanSpacedKeyword(s, notIdx, "null") : -1;
+        }
+
+        private static int skipConstraintKeyword(String text, int idx) {
+            return skipSpaces(text, skipSpaces(text, idx) + "constraint".length());
+        }
+
+        /**
+         * @return end index of [\s]+check[\s]+\(([^\()]+\([^\)]+\))*\) starting at idx or -1
+         */
+        private static int scanCheck(String s, int idx) {
+            int endIdx = scanSpacedKeyword(s, idx, "check");
+            if (endIdx < 0) {
+                return -1;
+            }
+            idx = skipSpaces(s, endIdx);
+            if (idx == endIdx || idx >= s.length() || s.charAt(idx) != '(') {
+                return -1;
+            }
+            idx++;
+            while (true) {
+                int partIdx = idx;
+                while (partIdx < s.length() && s.charAt(partIdx) != '(' && s.charAt(partIdx) != ')') {
+                    partIdx++;
+                }
+                if (partIdx == idx || partIdx >= s.length() || s.charAt(partIdx) != '(') {
+                    break;
+                }
+                partIdx = scanBracketContent(s, partIdx);
+                if (partIdx < 0) {
+                    break;
+                }
+                idx = partIdx;
+            }
+            return idx < s.length() && s.charAt(idx) == ')' ? idx + 1 : -1;
+        }
+
+        /**
+         * @return end index of one of the supported column types starting at idx or -1
+         */
+        private static int scanType(String s, int idx) {
+            if (s.startsWith("varchar", idx)) {
+                int endIdx = idx + "varchar".length();
+                if (s.startsWith("2(", endIdx)) {
+                    endIdx++;
+                }
+                return scanBracketContent(s, endIdx);
+            }
+            if (s.startsWith("number", idx)) {
+                return scanBracketContent(s, idx + "number".length());
+            }
+            if (s.startsWith("numeric", idx)) {
+                return scanBracketContent(s, idx + "numeric".length());
+            }
+            if (s.startsWith("timestamp", idx)) {
+                int endIdx = idx + "timestamp".length();
+                int precisionIdx = skipSpaces(s, endIdx);
+                if (precisionIdx < s.length() && s.charAt(precisionIdx) == '(' && isDigit(s, precisionIdx + 1)) {
+                    int digitsIdx = precisionIdx + 1;
+                    while (isDigit(s, digitsIdx)) {
+                        digitsIdx++;
+                    }
+                    if (digitsIdx < s.length() && s.charAt(digitsIdx) == ')') {
+                        endIdx = digitsIdx + 1;
+                    }
+                }
+                if (s.startsWith(" with time zone", endIdx)) {
+                    endIdx += " with time zone".length();
+                }
+                else if (s.startsWith(" without time zone", endIdx)) {
+                    endIdx += " without time zone".length();
+                }
+                return endIdx;
+            }
+            if (s.startsWith("date", idx) || s.startsWith("clob", idx) || s.startsWith("blob", idx) || s.startsWith("text", idx)) {
+                return idx + 4;
+            }
+            if (s.startsWith("char", idx)) {
+                return scanBracketContent(s, idx + "char".length());
+            }
+            if (s.startsWith("int", idx)) {
+                int endIdx = idx + "int".length();
+                if (s.startsWith("eger", endIdx)) {
+                    return endIdx + "eger".length();
+                }
+                while (isDigit(s, endIdx)) {
+                    endIdx++;
+                }
+                return endIdx;
+            }
+            if (s.startsWith("bigint", idx)) {
+                return idx + "bigint".length();
+            }
+            if (s.startsWith("bit", idx)) {
+                return idx + "bit".length();
+            }
+            if (s.startsWith("bool", idx)) {
+                return idx + (s.startsWith("boolean", idx) ? "boolean" : "bool").length();
+            }
+            int endIdx = -1;
+            if (s.startsWith("double", idx)) {
+                endIdx = idx + "double".length();
+            }
+            else if (s.startsWith("float", idx)) {
+                endIdx = idx + "float".length();
+                if (isDigit(s, endIdx)) {
+                    endIdx++;
+                }
+                int precisionIdx = skipSpaces(s, endIdx);
+                if (precisionIdx < s.length() && s.charAt(precisionIdx) == '(' && isDigit(s, precisionIdx + 1)) {
+                    int digitsIdx = precisionIdx + 1;
+                    while (isDigit(s, digitsIdx)) {
+                        digitsIdx++;
+                    }
+                    if (digitsIdx < s.length() && s.charAt(digitsIdx) == ')') {
+                        endIdx = digitsIdx + 1;
+                    }
+                }
+            }
+            if (endIdx >= 0 && s.startsWith(" precision", endIdx)) {
+                endIdx += " precision".length();
+            }
+            return endIdx;
+        }
+
+        /**
+         * @return the column name as given in the statement, possibly quoted
+         */
+        String getName() {
+            return name;
+        }
+
+        /**
+         * @return lower case column name without quotes
+         */
+        String getColumnName() {
+            return TableConfig.getIdentifierForReference(name);
+        }
+
+        String getType() {
+            return type;
+        }
+
+        boolean hasDefault() {
+            return defaultClause != null;
+        }
+
+        void setDefault(String expression) {
+            defaultClause = " default " + expression;
+        }
+
+        boolean isNotNull() {
+            return notNull;
+        }
+
+        boolean hasNullConstraint() {
+            return nullConstraint != null;
+        }
+
+        boolean isNullConstraintNamed() {
+            return nullConstraintName != null;
+        }
+
+        void nameNullConstraint(String constraintName) {
+            nullConstraint = " constraint " + constraintName + nullConstraint;
+            nullConstraintName = constraintName;
+        }
+
+        void removeNullConstraint() {
+            nullConstraint = null;
+            nullConstraintName = null;
+            notNull = false;
+        }
+
+        boolean hasUniqueConstraint() {
+            return uniqueConstraint != null;
+        }
+
+        boolean isUniqueConstraintNamed() {
+            return uniqueConstraintName != null;
+        }
+
+        void nameUniqueConstraint(String constraintName) {
+            uniqueConstraint = " constraint " + constraintName + uniqueConstraint;
+            uniqueConstraintName = constraintName;
+        }
+
+        void removeUniqueConstraint() {
+            uniqueConstraint = null;
+            uniqueConstraintName = null;
+        }
+
+        boolean hasCheckConstraint() {
+            return checkConstraint != null;
+        }
+
+        boolean isCheckConstraintNamed() {
+            return checkConstraintName != null;
+        }
+
+        void nameCheckConstraint(String constraintName) {
+            checkConstraint = " constraint " + constraintName + checkConstraint;
+            checkConstraintName = constraintName;
+        }
+
+        void removeCheckConstraint() {
+            checkConstraint = null;
+            checkConstraintName = null;
+        }
+
+        /**
+         * @return the definition without leading whitespace
+         */
+        String getDefinition() {
+            StringBuilder sql = new StringBuilder();
+            appendTo(sql);
+            return sql.substring(leading.length());
+        }
+
+        void setLeading(String leading) {
+            this.leading = leading;
+        }
+
+        @Override
+        void prepend(String s) {
+            leading = s + leading;
+        }
+
+        @Override
+        Element copy() {
+            Column copy = new Column(leading, name, separator, type, rest);
+            copy.defaultClause = defaultClause;
+            copy.nullConstraint = nullConstraint;
+            copy.nullConstraintName = nullConstraintName;
+            copy.notNull = notNull;
+            copy.uniqueConstraint = uniqueConstraint;
+            copy.uniqueConstraintName = uniqueConstraintName;
+            copy.checkConstraint = checkConstraint;
+            copy.checkConstraintName = checkConstraintName;
+            return copy;
+        }
+
+        @Override
+        void appendTo(StringBuilder sql) {
+            sql.append(leading).append(name).append(separator).append(type);
+            if (defaultClause != null) {
+                sql.append(defaultClause);
+            }
+            if (nullConstraint != null) {
+                sql.append(nullConstraint);
+            }
+            if (uniqueConstraint != null) {
+                sql.append(uniqueConstraint);
+            }
+            if (checkConstraint != null) {
+                sql.append(checkConstraint);
+            }
+            sql.append(rest);
+        }
+    }
+}
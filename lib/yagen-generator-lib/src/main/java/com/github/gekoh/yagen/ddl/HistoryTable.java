@@ -0,0 +1,111 @@
+/*
+ Copyright 2026 agent
+
+ Licensed under the Apache License, Version 2.0 (the License);
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+ http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an AS IS BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+*/
+package com.github.gekoh.yagen.ddl;
+
+import com.github.gekoh.yagen.api.TemporalEntity;
+
+import java.time.Period;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Columns of a history table as used in the generated DDL, registered by {@link CreateDDL} for live tables whose
+ * history is written by {@link com.github.gekoh.yagen.hibernate.HistoryEventListener} instead of triggers and
+ * used for configuring history triggers implemented by {@link com.github.gekoh.yagen.util.HsqlDbTrigger}
+ * and compacting history by {@link com.github.gekoh.yagen.util.HistoryCompactor}.
+ *
+ * @author agent
+ */
+public class HistoryTable {
+    private final String liveTableName;
+    private final String histTableName;
+    private final String histColName;
+    private final List<String> pkColumns;
+    private final Set<String> nonPkColumns;
+    private final List<String> histRelevantColumns;
+    private final String modifierColumn;
+    private final int modifierColumnLength;
+    private final Period retention;
+    private final TemporalEntity.HistoryCompaction compaction;
+
+    HistoryTable(String liveTableName, String histTableName, String histColName, List<String> pkColumns, Set<String> nonPkColumns,
+                 List<String> histRelevantColumns, String modifierColumn, int modifierColumnLength,
+                 Period retention, TemporalEntity.HistoryCompaction compaction) {
+        this.liveTableName = liveTableName;
+        this.histTableName = histTableName;
+        this.histColName = histColName;
+        this.pkColumns = Collections.unmodifiableList(pkColumns);
+        this.nonPkColumns = Collections.unmodifiableSet(nonPkColumns);
+        this.histRelevantColumns = Collections.unmodifiableList(histRelevantColumns);
+        this.modifierColumn = modifierColumn;
+        this.modifierColumnLength = modifierColumnLength;
+        this.retention = retention;
+        this.compaction = compaction;
+    }
+
+    public String getLiveTableName() {
+        return liveTableName;
+    }
+
+    public String getHistTableName() {
+        return histTableName;
+    }
+
+    /**
+     * @return name of the history timestamp column (e.g. transaction_timestamp)
+     */
+    public String getHistColName() {
+        return histColName;
+    }
+
+    public List<String> getPkColumns() {
+        return pkColumns;
+    }
+
+    /**
+     * @return columns of the live table not part of the primary key, excluding the history timestamp column
+     */
+    public Set<String> getNonPkColumns() {
+        return nonPkColumns;
+    }
+
+    public List<String> getHistRelevantColumns() {
+        return histRelevantColumns;
+    }
+
+    /**
+     * @return audit column holding the modifying user or null if the table has none
+     */
+    public String getModifierColumn() {
+        return modifierColumn;
+    }
+
+    public int getModifierColumnLength() {
+        return modifierColumnLength;
+    }
+
+    /**
+     * @return period for which the full history is retained, null if the history is never compacted
+     */
+    public Period getRetention() {
+        return retention;
+    }
+
+    public TemporalEntity.HistoryCompaction getCompaction() {
+        return compaction;
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ Copyright 2026 agent
+
+ Licensed under the Apache License, Version 2.0 (the License);
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+ http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an AS IS BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+*/
+package com.github.gekoh.yagen.ddl;
+
+/**
+ * Range partitioned table as generated by {@link CreateDDL} for live tables annotated with
+ * {@link com.github.gekoh.yagen.api.IntervalPartitioning} and their history tables.
+ *
+ * @author agent
+ */
+public class PartitionedTable {
+    private final String tableName;
+    private final String partitionColumn;
+    private final String interval;
+    private final int partitionsAhead;
+    private final String liveTableName;
+
+    PartitionedTable(String tableName, String partitionColumn, String interval, int partitionsAhead, String liveTableName) {
+        this.tableName = tableName;
+        this.partitionColumn = partitionColumn;
+        this.interval = interval;
+        this.partitionsAhead = partitionsAhead;
+        this.liveTableName = liveTableName;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public String getPartitionColumn() {
+        return partitionColumn;
+    }
+
+    /**
+     * @return partition interval in the syntax of the database (e.g. numtoyminterval(1, 'MONTH') or 1 month)
+     */
+    public String getInterval() {
+        return interval;
+    }
+
+    /**
+     * @return number of partitions for future intervals to be created in advance
+     */
+    public int getPartitionsAhead() {
+        return partitionsAhead;
+    }
+
+    public boolean isHistoryTable() {
+        return liveTableName != null;
+    }
+
+    /**
+     * @return live table of a history table, null for live tables
+     */
+    public String getLiveTableName() {
+        return liveTableName;
+    }
+}
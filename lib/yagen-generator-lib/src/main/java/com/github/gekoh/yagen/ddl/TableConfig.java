@@ -529,6 +529,30 @@ public class TableConfig {
             public String latestSnapshotViewName() {
                 return "";
             }
+
+            public TriggerLevel triggerLevel() {
+                return TriggerLevel.DEFAULT;
+            }
+
+            public boolean invalidationIndex() {
+                return false;
+            }
+
+            public HistoryCapture historyCapture() {
+                return HistoryCapture.DEFAULT;
+            }
+
+            public String historyPartitionInterval() {
+                return "";
+            }
+
+            public String historyRetention() {
+                return "";
+            }
+
+            public HistoryCompaction historyCompaction() {
+                return HistoryCompaction.DAY;
+            }
         });
         TableConfig hstTableConfig = TableConfig.add(ddlEnhancer, historyTableName != null ? historyTableName : tableName + Constants._HST);
         ddlEnhancer.addTableConfig(hstTableConfig);
@@ -583,6 +607,14 @@ public class TableConfig {
                 return useLocalPK != null ? useLocalPK : false;
             }
 
+            public int partitionsAhead() {
+                return 3;
+            }
+
+            public boolean defaultPartition() {
+                return false;
+            }
+
             public Class<? extends Annotation> annotationType() {
                 return IntervalPartitioning.class;
             }
@@ -0,0 +1,101 @@
+/*
+ Copyright 2026 agent
+
+ Licensed under the Apache License, Version 2.0 (the License);
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+ http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an AS IS BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+*/
+package com.github.gekoh.yagen.ddl;
+
+import org.apache.velocity.Template;
+import org.apache.velocity.VelocityContext;
+import org.apache.velocity.app.Velocity;
+import org.apache.velocity.runtime.RuntimeServices;
+import org.apache.velocity.runtime.RuntimeSingleton;
+import org.apache.velocity.runtime.parser.ParseException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.SequenceInputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Holds the velocity templates used by {@link CreateDDL} parsed only once (including the setVars.vm prelude).
+ * The parsed templates do not depend on the dialect, all dialect specific values are taken from the
+ * {@link VelocityContext} at merge time, so they can be shared between all generator runs within a JVM.
+ *
+ * @author agent
+ */
+final class TemplateRegistry {
+    private static final org.slf4j.Logger LOG = org.slf4j.LoggerFactory.getLogger(TemplateRegistry.class);
+
+    static final String PRELUDE_RESOURCE = "setVars.vm";
+
+    private static final ConcurrentMap<String, Template> TEMPLATES = new ConcurrentHashMap<String, Template>();
+
+    private TemplateRegistry() {
+    }
+
+    /**
+     * merges the template read from the given resource (relative to this package) with the specified context
+     */
+    static void merge(String resource, Writer wr, VelocityContext context) {
+        getTemplate(resource).merge(context, wr);
+    }
+
+    static Template getTemplate(String resource) {
+        Template template = TEMPLATES.get(resource);
+        if (template == null) {
+            template = TEMPLATES.computeIfAbsent(resource, TemplateRegistry::parse);
+        }
+        return template;
+    }
+
+    static int size() {
+        return TEMPLATES.size();
+    }
+
+    static void clear() {
+        TEMPLATES.clear();
+    }
+
+    private static Template parse(String resource) {
+        InputStream prelude = TemplateRegistry.class.getResourceAsStream(PRELUDE_RESOURCE);
+        InputStream body = TemplateRegistry.class.getResourceAsStream(resource);
+        if (prelude == null || body == null) {
+            throw new IllegalArgumentException("template resource " + (prelude == null ? PRELUDE_RESOURCE : resource) + " not found");
+        }
+
+        Velocity.init();
+        RuntimeServices runtimeServices = RuntimeSingleton.getRuntimeServices();
+        Template template = new Template();
+        template.setRuntimeServices(runtimeServices);
+        template.setName(CreateDDL.class.getName() + "#" + resource);
+        template.setEncoding(StandardCharsets.UTF_8.name());
+
+        try (Reader reader = new InputStreamReader(new SequenceInputStream(prelude, body), StandardCharsets.UTF_8)) {
+            template.setData(runtimeServices.parse(reader, template));
+            template.initDocument();
+        } catch (ParseException e) {
+            throw new IllegalStateException("cannot parse template " + resource, e);
+        } catch (IOException e) {
+            throw new IllegalStateException("cannot read template " + resource, e);
+        }
+
+        LOG.debug("parsed and cached template {}", resource);
+        return template;
+    }
+}
@@ -17,21 +17,24 @@ package com.github.gekoh.yagen.hibernate;
 
 import com.github.gekoh.yagen.ddl.CreateDDL;
 import com.github.gekoh.yagen.ddl.DDLGenerator;
+import com.github.gekoh.yagen.hibernate.exporter.TableExporterWrapper;
 import com.github.gekoh.yagen.util.DBHelper;
-import org.apache.commons.lang.StringUtils;
 import org.hibernate.boot.Metadata;
 import org.hibernate.boot.model.relational.Sequence;
+import org.hibernate.boot.model.relational.SqlStringGenerationContext;
 import org.hibernate.dialect.Dialect;
 import org.hibernate.engine.jdbc.internal.Formatter;
 import org.hibernate.mapping.Column;
 import org.hibernate.mapping.Constraint;
 import org.hibernate.mapping.Index;
 import org.hibernate.mapping.Table;
+import org.hibernate.tool.schema.spi.Exporter;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -102,18 +105,61 @@ public class DdlPatchHelper {
 
         StringBuffer buf = new StringBuffer(returnValue[0]);
 
-        Map<String, Column> allColumns = new LinkedHashMap<String, Column>();
-        table.getColumns().forEach(c -> allColumns.put(c.getName().toLowerCase(), c));
-
         try {
+            String prepared = createNotDrop ? ddlEnhancer.takePreparedCreateTable(objectName) : null;
+            if (prepared != null) {
+                return spoilSqlStrings(returnValue, prepared);
+            }
             return spoilSqlStrings(returnValue, (createNotDrop ?
-                            ddlEnhancer.updateCreateTable(dialect, buf.append(dialect.getTableTypeString()), objectName, allColumns) :
+                            ddlEnhancer.updateCreateTable(dialect, buf.append(dialect.getTableTypeString()), objectName, getColumnMap(table)) :
                             ddlEnhancer.updateDropTable(dialect, buf, objectName)));
         } catch (Exception e) {
             throw new IllegalStateException(e);
         }
     }
 
+    /**
+     * enhances the create table statements of the given tables in parallel, the enhanced statements will then be
+     * picked up by {@link #afterTableSqlString} when hibernate exports the tables
+     */
+    public static void prepareCreateTables(Metadata metadata, Collection<Table> tables, SqlStringGenerationContext context, int parallelism) {
+        Dialect dialect = metadata.getDatabase().getDialect();
+        CreateDDL ddlEnhancer = getDDLEnhancerFromDialect(dialect);
+
+        if (ddlEnhancer == null) {
+            return;
+        }
+
+        Exporter<Table> exporter = dialect.getTableExporter();
+        if (exporter instanceof TableExporterWrapper) {
+            exporter = ((TableExporterWrapper) exporter).getDelegate();
+        }
+
+        Map<String, StringBuffer> tableCreates = new LinkedHashMap<String, StringBuffer>();
+        Map<String, Map<String, Column>> tableColumns = new HashMap<String, Map<String, Column>>();
+        for (Table table : tables) {
+            String objectName = table.getName();
+            if (DBHelper.skipModificationOf(objectName, metadata) || tableCreates.containsKey(objectName)) {
+                continue;
+            }
+            String[] sqlStrings = exporter.getSqlCreateStrings(table, metadata, context);
+            if (sqlStrings == null || sqlStrings.length < 1) {
+                continue;
+            }
+            tableCreates.put(objectName, new StringBuffer(sqlStrings[0]).append(dialect.getTableTypeString()));
+            tableColumns.put(objectName, getColumnMap(table));
+        }
+
+        LOG.info("enhancing {} create table statements using {} threads", tableCreates.size(), parallelism);
+        ddlEnhancer.prepareCreateTables(dialect, tableCreates, tableColumns, parallelism);
+    }
+
+    private static Map<String, Column> getColumnMap(Table table) {
+        Map<String, Column> allColumns = new LinkedHashMap<String, Column>();
+        table.getColumns().forEach(c -> allColumns.put(c.getName().toLowerCase(), c));
+        return allColumns;
+    }
+
     public static String[] afterConstraintSqlString(boolean createNotDrop, Constraint constraint, Metadata metadata, String[] returnValue) {
         if (!createNotDrop || returnValue == null || returnValue.length < 1) {
             return returnValue;
@@ -211,71 +257,102 @@ public class DdlPatchHelper {
         throw new IllegalArgumentException((dialect != null ? dialect.getClass().getName() : "Dialect") + " must implement the DDLEnhancerAware interface");
     }
 
+    /**
+     * splits the given sql at the statement separators, comments leading a statement are returned as separate entries
+     * and blank statements are omitted
+     */
     public static Collection<String> splitSQL(String sql) {
         Matcher matcher = SEPARATOR_PATTERN.matcher(sql);
-        int endIdx, idx=0;
+        int idx=0;
         ArrayList<String> statements = new ArrayList<String>();
 
-        while(matcher.find(idx)) {
-            endIdx=matcher.start();
+        while(matcher.find()) {
+            addStatements(statements, sql, idx, matcher.start());
+            idx = matcher.end();
+        }
+        addStatements(statements, sql, idx, sql.length());
 
-            if (endIdx-idx > 0) {
-                statements.add(sql.substring(idx, endIdx));
-            }
+        return statements;
+    }
 
-            if (endIdx>=0) {
-                idx = matcher.end();
+    private static void addStatements(List<String> statements, String sql, int idx, int endIdx) {
+        while (!isBlank(sql, idx, endIdx)) {
+            int commentEnd = getCommentEnd(sql, skipBlanks(sql, idx, endIdx), endIdx);
+            if (commentEnd < 0) {
+                statements.add(sql.substring(idx, endIdx));
+                return;
             }
+            statements.add(sql.substring(idx, commentEnd));
+            idx = commentEnd;
         }
+    }
 
-        if (idx < sql.length()) {
-            String singleSql = sql.substring(idx);
-            if (StringUtils.isNotEmpty(singleSql.trim())) {
-                statements.add(singleSql);
+    public static boolean isEmptyStatement(String sqlStmt) {
+        return isEmptyStatement(sqlStmt, 0, sqlStmt.length());
+    }
+
+    /**
+     * @return true if the given range of the sql consists of blanks and comments only
+     */
+    private static boolean isEmptyStatement(String sql, int idx, int endIdx) {
+        while ((idx = skipBlanks(sql, idx, endIdx)) < endIdx) {
+            idx = getCommentEnd(sql, idx, endIdx);
+            if (idx < 0) {
+                return false;
             }
         }
+        return true;
+    }
 
-        for (int i=0; i<statements.size(); i++) {
-            String stmt = statements.get(i);
-            if (stmt == null || stmt.trim().length() < 1) {
-                statements.remove(i);
-                i--;
-                continue;
-            }
-            matcher = COMMENT_PATTERN.matcher(stmt);
-            if (matcher.find() && stmt.substring(0, matcher.start()).trim().length() < 1) {
-                statements.remove(i);
-                statements.add(i, stmt.substring(matcher.end()));
-                if (stmt.substring(0, matcher.end()).trim().length() > 0) {
-                    statements.add(i, stmt.substring(0, matcher.end()));
+    /**
+     * @return end index of the comment starting at idx, a sequence of single line comments or one block comment
+     * (see {@link #COMMENT_PATTERN}), -1 if there is no comment starting at idx
+     */
+    private static int getCommentEnd(String sql, int idx, int endIdx) {
+        if (sql.startsWith("--", idx) && idx+2 <= endIdx) {
+            do {
+                int eolIdx = sql.indexOf('\n', idx+2);
+                if (eolIdx < 0 || eolIdx >= endIdx) {
+                    return endIdx;
                 }
+                idx = eolIdx+1;
+            } while (sql.startsWith("--", idx) && idx+2 <= endIdx);
+            return idx;
+        }
+        if (sql.startsWith("/*", idx)) {
+            int starsEndIdx = idx+2;
+            while (starsEndIdx < endIdx && sql.charAt(starsEndIdx) == '*') {
+                starsEndIdx++;
+            }
+            int closeIdx = sql.indexOf("*/", starsEndIdx);
+            if (closeIdx < 0 || closeIdx+2 > endIdx) {
+                closeIdx = sql.indexOf("*/", idx+2);
+            }
+            if (closeIdx >= 0 && closeIdx+2 <= endIdx) {
+                return closeIdx+2;
             }
         }
-
-        return statements;
+        return -1;
     }
 
-    public static boolean isEmptyStatement(String sqlStmt) {
-        Matcher matcher = COMMENT_PATTERN.matcher(sqlStmt);
-
-        while (matcher.find()) {
-            sqlStmt = sqlStmt.substring(0, matcher.start()) + sqlStmt.substring(matcher.end());
-            matcher = COMMENT_PATTERN.matcher(sqlStmt);
+    private static int skipBlanks(String sql, int idx, int endIdx) {
+        while (idx < endIdx && sql.charAt(idx) <= ' ') {
+            idx++;
         }
+        return idx;
+    }
 
-        return sqlStmt.trim().length()<1;
+    private static boolean isBlank(String sql, int idx, int endIdx) {
+        return skipBlanks(sql, idx, endIdx) >= endIdx;
     }
 
     public static SqlStatement prepareDDL(String sql, Dialect dialect, DdlPostProcessor postProcessor){
         sql = sql.trim();
         String delimiter = "";
 
-        Matcher matcher = PLSQL_END_PATTERN.matcher(sql);
-        if (matcher.find()) {
-            if (matcher.group(2) != null) {
-                sql = sql.substring(0, matcher.start(2));
-            }
-            sql += "\n";
+        int plsqlEndIdx = getPlsqlEndIdx(sql);
+        if (plsqlEndIdx >= 0) {
+            sql = sql.substring(0, plsqlEndIdx) + "\n";
             delimiter = "/";
         }
         // remove trailing semicolon in case of non pl/sql type objects/statements
@@ -283,12 +360,7 @@ public class DdlPatchHelper {
             sql = sql.substring(0, sql.length()-1);
         }
 
-        StringBuilder sqlWoComments = new StringBuilder(sql);
-        while ((matcher = COMMENT_PATTERN.matcher(sqlWoComments.toString())).find()) {
-            sqlWoComments.delete(matcher.start(), matcher.end());
-        }
-
-        if (delimiter.length() < 1 && sqlWoComments.toString().trim().length() > 0) {
+        if (delimiter.length() < 1 && !isEmptyStatement(sql)) {
             delimiter = ";";
         }
 
@@ -299,6 +371,57 @@ public class DdlPatchHelper {
         return new SqlStatementImpl(sql, delimiter);
     }
 
+    /**
+     * scans the trimmed sql backwards for a trailing pl/sql block end (see {@link #PLSQL_END_PATTERN})
+     *
+     * @return index right after the semicolon of the final end statement or -1 if the sql does not end with a pl/sql block
+     */
+    private static int getPlsqlEndIdx(String sql) {
+        int idx = sql.length();
+        if (idx > 0 && sql.charAt(idx-1) == '/') {
+            idx--;
+            while (idx > 0 && isWhitespace(sql.charAt(idx-1))) {
+                idx--;
+            }
+        }
+        if (idx < 1 || sql.charAt(idx-1) != ';') {
+            return -1;
+        }
+        int semicolonIdx = idx-1;
+
+        // end[\s]*([a-z_]+)?;
+        int labelIdx = semicolonIdx;
+        while (labelIdx > 0 && isLabelChar(sql.charAt(labelIdx-1))) {
+            labelIdx--;
+        }
+        if (isEndKeyword(sql, labelIdx, semicolonIdx)) {
+            return semicolonIdx+1;
+        }
+        int endIdx = labelIdx;
+        while (endIdx > 0 && isWhitespace(sql.charAt(endIdx-1))) {
+            endIdx--;
+        }
+        if (isEndKeyword(sql, endIdx-3, endIdx)) {
+            return semicolonIdx+1;
+        }
+        return -1;
+    }
+
+    /**
+     * @return true if the given range starts with the keyword end preceded by at least one whitespace
+     */
+    private static boolean isEndKeyword(String sql, int idx, int endIdx) {
+        return idx > 0 && endIdx-idx >= 3 && isWhitespace(sql.charAt(idx-1)) && sql.regionMatches(true, idx, "end", 0, 3);
+    }
+
+    private static boolean isLabelChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_';
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
     public static <T> String join(List<T> list, String separator, StringValueExtractor<T> valueExtractor) {
         StringBuilder sb = new StringBuilder();
         for (int i = 0; i < list.size(); i++) {
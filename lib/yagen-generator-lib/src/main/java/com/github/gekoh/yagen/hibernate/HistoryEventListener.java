@@ -0,0 +1,553 @@
+/*
+ Copyright 2026 agent
+
+ Licensed under the Apache License, Version 2.0 (the License);
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+ http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an AS IS BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+*/
+package com.github.gekoh.yagen.hibernate;
+
+import com.github.gekoh.yagen.ddl.CreateDDL;
+import com.github.gekoh.yagen.ddl.HistoryTable;
+import com.github.gekoh.yagen.util.DBHelper;
+import com.github.gekoh.yagen.util.GuidGenerator;
+import org.hibernate.SessionEventListener;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.event.spi.PreDeleteEvent;
+import org.hibernate.event.spi.PreDeleteEventListener;
+import org.hibernate.event.spi.PreInsertEvent;
+import org.hibernate.event.spi.PreInsertEventListener;
+import org.hibernate.event.spi.PreUpdateEvent;
+import org.hibernate.event.spi.PreUpdateEventListener;
+import org.hibernate.metamodel.mapping.JdbcMapping;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.type.descriptor.ValueBinder;
+
+import java.lang.ref.WeakReference;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Writes the history rows of temporal entities on HSQLDB in place of the history triggers, enabled by persistence
+ * unit property {@value com.github.gekoh.yagen.util.DBHelper#PROPERTY_HSQLDB_HISTORY_WRITER}=listener.
+ * <p>
+ * Inserted, updated and deleted entities are collected per session and written at the end of each flush with one
+ * JDBC batch per history table and statement type. Rows are copied from the live table by insert ... select,
+ * so the history gets exactly the column values written by the flush (including audit columns set by triggers).
+ * Transaction timestamp, invalidation and merging of multiple modifications of one row within a transaction
+ * follow the history triggers, using the column lists {@link CreateDDL} registered for the history table.
+ * <p>
+ * The history triggers are kept for modifications not done through entities (native SQL, bulk statements, other
+ * clients), they are bypassed by session variable {@value DBHelper#SESSION_VARIABLE_HISTORY_LISTENER} from the
+ * first entity statement until the end of the flush. Tables without entity (collection and join tables) are always
+ * written by their triggers. Modifying one row by entity and by SQL within the same transaction fails with -20100,
+ * since the triggers do not know about the history rows written by the listener and vice versa.
+ *
+ * @author agent
+ */
+public class HistoryEventListener implements PreInsertEventListener, PreUpdateEventListener, PreDeleteEventListener,
+        PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    private static final org.slf4j.Logger LOG = org.slf4j.LoggerFactory.getLogger(HistoryEventListener.class);
+
+    private static final String OPERATION_INSERT = "I";
+    private static final String OPERATION_UPDATE = "U";
+    private static final String OPERATION_DELETE = "D";
+
+    private final SessionFactoryImplementor sessionFactory;
+    private final GuidGenerator.Strategy guidStrategy;
+
+    private final Map<String, List<TableWriter>> entityNameToWriters = new ConcurrentHashMap<String, List<TableWriter>>();
+    private final Map<SharedSessionContractImplementor, SessionHistory> sessionHistories = Collections.synchronizedMap(new WeakHashMap<SharedSessionContractImplementor, SessionHistory>());
+
+    public HistoryEventListener(SessionFactoryImplementor sessionFactory, GuidGenerator.Strategy guidStrategy) {
+        this.sessionFactory = sessionFactory;
+        this.guidStrategy = guidStrategy;
+    }
+
+    @Override
+    public boolean onPreInsert(PreInsertEvent event) {
+        bypassTriggers(event.getSession(), event.getPersister());
+        return false;
+    }
+
+    @Override
+    public boolean onPreUpdate(PreUpdateEvent event) {
+        bypassTriggers(event.getSession(), event.getPersister());
+        return false;
+    }
+
+    @Override
+    public boolean onPreDelete(PreDeleteEvent event) {
+        bypassTriggers(event.getSession(), event.getPersister());
+        return false;
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        addChange(event.getSession(), event.getPersister(), event.getId(), OPERATION_INSERT, null);
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        addChange(event.getSession(), event.getPersister(), event.getId(), OPERATION_UPDATE, event.getDirtyProperties());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        addChange(event.getSession(), event.getPersister(), event.getId(), OPERATION_DELETE, null);
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    private void bypassTriggers(EventSource session, EntityPersister persister) {
+        if (!getWriters(persister).isEmpty()) {
+            getSessionHistory(session).bypassTriggers();
+        }
+    }
+
+    private void addChange(EventSource session, EntityPersister persister, Object id, String operation, int[] dirtyProperties) {
+        List<TableWriter> writers = getWriters(persister);
+        if (writers.isEmpty()) {
+            return;
+        }
+
+        List<JdbcValue> key = new ArrayList<JdbcValue>();
+        persister.getIdentifierMapping().breakDownJdbcValues(id,
+                (valueIndex, value, jdbcValueMapping) -> key.add(new JdbcValue(value, jdbcValueMapping.getJdbcMapping())), session);
+
+        for (TableWriter writer : writers) {
+            // like the when clause of the update trigger
+            if (dirtyProperties != null && !writer.isHistRelevantChange((AbstractEntityPersister) persister, dirtyProperties)) {
+                continue;
+            }
+            getSessionHistory(session).addChange(writer, key, operation);
+        }
+    }
+
+    private SessionHistory getSessionHistory(EventSource session) {
+        synchronized (sessionHistories) {
+            SessionHistory sessionHistory = sessionHistories.get(session);
+            if (sessionHistory == null) {
+                sessionHistory = new SessionHistory(session);
+                sessionHistories.put(session, sessionHistory);
+                session.getEventListenerManager().addListener(sessionHistory);
+            }
+            return sessionHistory;
+        }
+    }
+
+    private List<TableWriter> getWriters(EntityPersister persister) {
+        List<TableWriter> writers = entityNameToWriters.get(persister.getEntityName());
+        if (writers != null) {
+            return writers;
+        }
+
+        writers = new ArrayList<TableWriter>();
+        Dialect dialect = sessionFactory.getJdbcServices().getDialect();
+        CreateDDL createDDL = dialect instanceof DDLEnhancerAware ? ((DDLEnhancerAware) dialect).getDDLEnhancer() : null;
+        if (createDDL != null && persister instanceof AbstractEntityPersister) {
+            AbstractEntityPersister entityPersister = (AbstractEntityPersister) persister;
+            for (int i = 0; i < entityPersister.getTableSpan(); i++) {
+                HistoryTable historyTable = createDDL.getListenerHistoryTable(unqualify(entityPersister.getTableName(i)));
+                if (historyTable != null) {
+                    writers.add(new TableWriter(historyTable, entityPersister.getKeyColumns(i)));
+                }
+            }
+        }
+        else if (createDDL == null) {
+            LOG.warn("no DDL enhancer found for dialect {}, not writing history of entity {}", dialect, persister.getEntityName());
+        }
+
+        entityNameToWriters.put(persister.getEntityName(), writers);
+        return writers;
+    }
+
+    private static String unqualify(String tableName) {
+        return tableName.substring(tableName.lastIndexOf('.') + 1).replace("\"", "");
+    }
+
+    private static String mergeOperation(String firstOperation, String operation) {
+        if (OPERATION_INSERT.equals(firstOperation) && OPERATION_UPDATE.equals(operation)) {
+            return OPERATION_INSERT;
+        }
+        else if (OPERATION_INSERT.equals(firstOperation) && OPERATION_DELETE.equals(operation)) {
+            return null;
+        }
+        return operation;
+    }
+
+    /**
+     * history rows of the current transaction of one session, written on each flush
+     */
+    private class SessionHistory implements SessionEventListener {
+        private final transient WeakReference<EventSource> session;
+
+        private final Map<RowKey, Change> pending = new LinkedHashMap<RowKey, Change>();
+        private final Map<RowKey, TransactionRow> transactionRows = new HashMap<RowKey, TransactionRow>();
+        private Timestamp transactionTimestamp;
+        private boolean bypassingTriggers;
+
+        SessionHistory(EventSource session) {
+            this.session = new WeakReference<EventSource>(session);
+        }
+
+        void addChange(TableWriter writer, List<JdbcValue> key, String operation) {
+            RowKey rowKey = new RowKey(writer, key);
+            Change change = pending.get(rowKey);
+            if (change == null) {
+                pending.put(rowKey, new Change(rowKey, operation));
+            }
+            else {
+                change.lastOperation = operation;
+            }
+        }
+
+        void bypassTriggers() {
+            if (bypassingTriggers) {
+                return;
+            }
+            this.session.get().doWork(connection -> {
+                try (PreparedStatement stmt = connection.prepareStatement("insert into SESSION_VARIABLES (name, value) values (?, 'Y')")) {
+                    stmt.setString(1, DBHelper.SESSION_VARIABLE_HISTORY_LISTENER);
+                    stmt.executeUpdate();
+                }
+            });
+            bypassingTriggers = true;
+        }
+
+        @Override
+        public void flushEnd(int numberOfEntities, int numberOfCollections) {
+            write();
+        }
+
+        @Override
+        public void partialFlushEnd(int numberOfEntities, int numberOfCollections) {
+            write();
+        }
+
+        @Override
+        public void transactionCompletion(boolean successful) {
+            pending.clear();
+            transactionRows.clear();
+            transactionTimestamp = null;
+            bypassingTriggers = false;
+        }
+
+        @Override
+        public void end() {
+            sessionHistories.remove(session.get());
+        }
+
+        private void write() {
+            if (pending.isEmpty() && !bypassingTriggers) {
+                return;
+            }
+            Map<TableWriter, List<Change>> changesByWriter = new LinkedHashMap<TableWriter, List<Change>>();
+            for (Change change : pending.values()) {
+                changesByWriter.computeIfAbsent(change.rowKey.writer, w -> new ArrayList<Change>()).add(change);
+            }
+            pending.clear();
+
+            EventSource session = this.session.get();
+            session.doWork(connection -> {
+                for (Map.Entry<TableWriter, List<Change>> entry : changesByWriter.entrySet()) {
+                    entry.getKey().write(connection, session, entry.getValue(), transactionRows, getTransactionTimestamp(connection));
+                }
+                if (bypassingTriggers) {
+                    try (PreparedStatement stmt = connection.prepareStatement("delete from SESSION_VARIABLES where name=?")) {
+                        stmt.setString(1, DBHelper.SESSION_VARIABLE_HISTORY_LISTENER);
+                        stmt.executeUpdate();
+                    }
+                    bypassingTriggers = false;
+                }
+            });
+        }
+
+        private Timestamp getTransactionTimestamp(Connection connection) throws SQLException {
+            if (transactionTimestamp == null) {
+                try (Statement stmt = connection.createStatement()) {
+                    // transaction id 0 like the HSQLDB history triggers
+                    ResultSet rs = stmt.executeQuery("select transaction_timestamp from HST_CURRENT_TRANSACTION where transaction_id=0");
+                    if (!rs.next()) {
+                        rs.close();
+                        stmt.executeUpdate("insert into HST_CURRENT_TRANSACTION (transaction_id, transaction_timestamp) values (0, get_audit_timestamp())");
+                        rs = stmt.executeQuery("select transaction_timestamp from HST_CURRENT_TRANSACTION where transaction_id=0");
+                        rs.next();
+                    }
+                    transactionTimestamp = rs.getTimestamp(1);
+                    rs.close();
+                }
+            }
+            return transactionTimestamp;
+        }
+    }
+
+    /**
+     * statements writing the history rows of one live table
+     */
+    private class TableWriter {
+        private final HistoryTable historyTable;
+        private final String[] keyColumns;
+        private final String keyMatch;
+
+        private final String deleteSql;
+        private final String invalidateSql;
+        private final String insertSql;
+        private final String updateSql;
+        private final String deleteRowSql;
+
+        TableWriter(HistoryTable historyTable, String[] keyColumns) {
+            this.historyTable = historyTable;
+            this.keyColumns = keyColumns;
+
+            StringBuilder match = new StringBuilder();
+            for (String keyColumn : keyColumns) {
+                match.append(match.length() > 0 ? " and " : "").append(keyColumn).append("=?");
+            }
+            this.keyMatch = match.toString();
+
+            String hstTableName = historyTable.getHistTableName();
+            String histColName = historyTable.getHistColName();
+            String modifierColumn = historyTable.getModifierColumn();
+            String auditUser = "substr(get_audit_user(null), 1, " + historyTable.getModifierColumnLength() + ")";
+
+            StringBuilder columns = new StringBuilder();
+            StringBuilder insertValues = new StringBuilder();
+            StringBuilder updateValues = new StringBuilder();
+            List<String> allColumns = new ArrayList<String>(historyTable.getPkColumns());
+            allColumns.addAll(historyTable.getNonPkColumns());
+            for (String column : allColumns) {
+                columns.append(column).append(", ");
+                insertValues.append(column.equals(modifierColumn) ? auditUser : column).append(", ");
+                updateValues.append(column).append(", ");
+            }
+            String insertInto = "insert into " + hstTableName + " (" + columns + "hst_uuid, operation, " + histColName + ") ";
+
+            deleteSql = "delete from " + hstTableName + " where hst_uuid=?";
+            invalidateSql = "update " + hstTableName + " set invalidated_at=? where " + keyMatch +
+                    " and " + histColName + " < ? and operation <> 'D' and invalidated_at is null";
+            insertSql = insertInto + "select " + insertValues + "?, ?, ? from " + historyTable.getLiveTableName() + " where " + keyMatch;
+            updateSql = insertInto + "select " + updateValues + "?, ?, ? from " + historyTable.getLiveTableName() + " where " + keyMatch;
+
+            StringBuilder deleteColumns = new StringBuilder();
+            StringBuilder deleteValues = new StringBuilder();
+            for (String keyColumn : keyColumns) {
+                deleteColumns.append(keyColumn).append(", ");
+                deleteValues.append("?, ");
+            }
+            if (modifierColumn != null) {
+                deleteColumns.append(modifierColumn).append(", ");
+                deleteValues.append(auditUser).append(", ");
+            }
+            deleteRowSql = "insert into " + hstTableName + " (" + deleteColumns + "hst_uuid, operation, " + histColName + ") " +
+                    "values (" + deleteValues + "?, ?, ?)";
+        }
+
+        boolean isHistRelevantChange(AbstractEntityPersister persister, int[] dirtyProperties) {
+            for (int dirtyProperty : dirtyProperties) {
+                for (String column : persister.getPropertyColumnNames(dirtyProperty)) {
+                    if (historyTable.getHistRelevantColumns().contains(unqualify(column).toLowerCase())) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        void write(Connection connection, SharedSessionContractImplementor session, List<Change> changes,
+                   Map<RowKey, TransactionRow> transactionRows, Timestamp timestamp) throws SQLException {
+            try (PreparedStatement stmtDelete = connection.prepareStatement(deleteSql);
+                 PreparedStatement stmtInvalidate = connection.prepareStatement(invalidateSql);
+                 PreparedStatement stmtInsert = connection.prepareStatement(insertSql);
+                 PreparedStatement stmtUpdate = connection.prepareStatement(updateSql);
+                 PreparedStatement stmtDeleteRow = connection.prepareStatement(deleteRowSql)) {
+
+                List<Change> invalidating = new ArrayList<Change>();
+                Set<PreparedStatement> batched = new HashSet<PreparedStatement>();
+
+                for (Change change : changes) {
+                    TransactionRow transactionRow = transactionRows.get(change.rowKey);
+                    if (transactionRow == null) {
+                        transactionRow = new TransactionRow(change.firstOperation, GuidGenerator.createGuid(guidStrategy));
+                        transactionRows.put(change.rowKey, transactionRow);
+                        if (!OPERATION_INSERT.equals(change.firstOperation)) {
+                            int idx = 1;
+                            stmtInvalidate.setTimestamp(idx++, timestamp);
+                            idx = bindKey(stmtInvalidate, idx, change.rowKey, session);
+                            stmtInvalidate.setTimestamp(idx, timestamp);
+                            stmtInvalidate.addBatch();
+                            invalidating.add(change);
+                        }
+                    }
+                    else {
+                        stmtDelete.setString(1, transactionRow.hstUuid);
+                        stmtDelete.addBatch();
+                        batched.add(stmtDelete);
+                    }
+
+                    String operation = mergeOperation(transactionRow.firstOperation, change.lastOperation);
+                    if (operation == null) {
+                        continue;
+                    }
+
+                    PreparedStatement stmt = OPERATION_DELETE.equals(change.lastOperation) ? stmtDeleteRow :
+                            OPERATION_INSERT.equals(change.lastOperation) ? stmtInsert : stmtUpdate;
+                    int idx = 1;
+                    if (stmt == stmtDeleteRow) {
+                        idx = bindKey(stmt, idx, change.rowKey, session);
+                    }
+                    stmt.setString(idx++, transactionRow.hstUuid);
+                    stmt.setString(idx++, operation);
+                    stmt.setTimestamp(idx++, timestamp);
+                    if (stmt != stmtDeleteRow) {
+                        bindKey(stmt, idx, change.rowKey, session);
+                    }
+                    stmt.addBatch();
+                    batched.add(stmt);
+                }
+
+                if (batched.contains(stmtDelete)) {
+                    stmtDelete.executeBatch();
+                }
+                if (!invalidating.isEmpty()) {
+                    int[] counts = stmtInvalidate.executeBatch();
+                    for (int i = 0; i < counts.length; i++) {
+                        if (counts[i] != 1 && counts[i] != Statement.SUCCESS_NO_INFO) {
+                            throw new IllegalStateException("unable to invalidate history record for " + historyTable.getLiveTableName().toUpperCase() +
+                                    " " + invalidating.get(i).rowKey);
+                        }
+                    }
+                }
+                for (PreparedStatement stmt : new PreparedStatement[]{stmtInsert, stmtUpdate, stmtDeleteRow}) {
+                    if (batched.contains(stmt)) {
+                        stmt.executeBatch();
+                    }
+                }
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private int bindKey(PreparedStatement stmt, int idx, RowKey rowKey, SharedSessionContractImplementor session) throws SQLException {
+            for (JdbcValue value : rowKey.key) {
+                ((ValueBinder<Object>) value.jdbcMapping.getJdbcValueBinder()).bind(stmt, value.value, idx++, session);
+            }
+            return idx;
+        }
+
+        String describeKey(List<JdbcValue> key) {
+            StringBuilder description = new StringBuilder();
+            for (int i = 0; i < keyColumns.length && i < key.size(); i++) {
+                description.append(i > 0 ? " " : "").append(keyColumns[i]).append("='").append(key.get(i).value).append("'");
+            }
+            return description.toString();
+        }
+    }
+
+    private static class JdbcValue {
+        private final Object value;
+        private final JdbcMapping jdbcMapping;
+
+        JdbcValue(Object value, JdbcMapping jdbcMapping) {
+            this.value = value;
+            this.jdbcMapping = jdbcMapping;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof JdbcValue && Objects.equals(value, ((JdbcValue) o).value);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(value);
+        }
+    }
+
+    private static class RowKey {
+        private final TableWriter writer;
+        private final List<JdbcValue> key;
+
+        RowKey(TableWriter writer, List<JdbcValue> key) {
+            this.writer = writer;
+            this.key = key;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof RowKey && writer == ((RowKey) o).writer && key.equals(((RowKey) o).key);
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(writer) * 31 + key.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return writer.describeKey(key);
+        }
+    }
+
+    private static class Change {
+        private final RowKey rowKey;
+        private final String firstOperation;
+        private String lastOperation;
+
+        Change(RowKey rowKey, String operation) {
+            this.rowKey = rowKey;
+            this.firstOperation = operation;
+            this.lastOperation = operation;
+        }
+    }
+
+    /**
+     * first operation and history row of a live table row modified within the current transaction,
+     * corresponds to HST_MODIFIED_ROW used by the triggers
+     */
+    private static class TransactionRow {
+        private final String firstOperation;
+        private final String hstUuid;
+
+        TransactionRow(String firstOperation, String hstUuid) {
+            this.firstOperation = firstOperation;
+            this.hstUuid = hstUuid;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ Copyright 2026 agent
+
+ Licensed under the Apache License, Version 2.0 (the License);
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+ http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an AS IS BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+*/
+package com.github.gekoh.yagen.hibernate;
+
+import com.github.gekoh.yagen.util.DBHelper;
+import com.github.gekoh.yagen.util.GuidGenerator;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+
+import java.util.Map;
+
+/**
+ * Registers the {@link HistoryEventListener} if enabled by persistence unit property
+ * {@value DBHelper#PROPERTY_HSQLDB_HISTORY_WRITER}, event listeners are services of the session factory and thus
+ * cannot be contributed by {@link YagenServiceContributor}.
+ *
+ * @author agent
+ */
+public class HistoryIntegrator implements Integrator {
+    private static final org.slf4j.Logger LOG = org.slf4j.LoggerFactory.getLogger(HistoryIntegrator.class);
+
+    @Override
+    public void integrate(Metadata metadata, BootstrapContext bootstrapContext, SessionFactoryImplementor sessionFactory) {
+        if (!DBHelper.isHsqlDbHistoryListenerWriter(metadata)) {
+            return;
+        }
+        if (!DBHelper.isHsqlDb(sessionFactory.getJdbcServices().getDialect())) {
+            LOG.warn("property {} is only supported for HSQLDB, history is written by triggers", DBHelper.PROPERTY_HSQLDB_HISTORY_WRITER);
+            return;
+        }
+
+        Map configurationValues = DBHelper.getConfigurationValues(metadata);
+        Object guidStrategy = configurationValues != null ? configurationValues.get(DBHelper.PROPERTY_GUID_STRATEGY) : null;
+
+        HistoryEventListener listener = new HistoryEventListener(sessionFactory,
+                GuidGenerator.Strategy.fromPropertyValue(guidStrategy != null ? guidStrategy.toString() : null));
+
+        EventListenerRegistry registry = sessionFactory.getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.PRE_INSERT, listener);
+        registry.appendListeners(EventType.PRE_UPDATE, listener);
+        registry.appendListeners(EventType.PRE_DELETE, listener);
+        registry.appendListeners(EventType.POST_INSERT, listener);
+        registry.appendListeners(EventType.POST_UPDATE, listener);
+        registry.appendListeners(EventType.POST_DELETE, listener);
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+    }
+}
@@ -14,6 +14,10 @@ public class TableExporterWrapper implements Exporter<Table> {
         this.delegate = delegate;
     }
 
+    public Exporter<Table> getDelegate() {
+        return delegate;
+    }
+
     @Override
     public String[] getSqlCreateStrings(Table table, Metadata metadata, SqlStringGenerationContext context) {
         return DdlPatchHelper.afterTableSqlString(true, table, metadata, delegate.getSqlCreateStrings(table, metadata, context));
@@ -4,8 +4,12 @@ import com.github.gekoh.yagen.hibernate.DdlPatchHelper;
 import com.github.gekoh.yagen.hibernate.DdlPostProcessor;
 import com.github.gekoh.yagen.util.DBHelper;
 import org.hibernate.boot.Metadata;
+import org.hibernate.boot.model.relational.Namespace;
+import org.hibernate.boot.model.relational.internal.SqlStringGenerationContextImpl;
 import org.hibernate.dialect.Dialect;
+import org.hibernate.mapping.Table;
 import org.hibernate.resource.transaction.spi.DdlTransactionIsolator;
+import org.hibernate.tool.schema.SourceType;
 import org.hibernate.tool.schema.TargetType;
 import org.hibernate.tool.schema.internal.HibernateSchemaManagementTool;
 import org.hibernate.tool.schema.internal.SchemaCreatorImpl;
@@ -23,7 +27,9 @@ import org.hibernate.tool.schema.spi.ScriptTargetOutput;
 import org.hibernate.tool.schema.spi.SourceDescriptor;
 import org.hibernate.tool.schema.spi.TargetDescriptor;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 
 public class SchemaCreatorWrapper implements SchemaCreator {
@@ -48,9 +54,39 @@ public class SchemaCreatorWrapper implements SchemaCreator {
                 options
         );
 
+        int parallelism = DBHelper.getGeneratorParallelism(metadata);
+        if (parallelism > 1 && sourceDescriptor.getSourceType() != SourceType.SCRIPT) {
+            DdlPatchHelper.prepareCreateTables(
+                    metadata,
+                    getTablesToCreate(metadata, options, contributableInclusionFilter),
+                    SqlStringGenerationContextImpl.fromConfigurationMap(metadata.getDatabase().getJdbcEnvironment(), metadata.getDatabase(), options.getConfigurationValues()),
+                    parallelism
+            );
+        }
+
         delegate.doCreation( metadata, jdbcContext.getDialect(), options, contributableInclusionFilter, sourceDescriptor, targets );
     }
 
+    /**
+     * @return tables in the order and applying the filters hibernate uses when creating the schema
+     */
+    private static List<Table> getTablesToCreate(Metadata metadata, ExecutionOptions options, ContributableMatcher contributableInclusionFilter) {
+        List<Table> tables = new ArrayList<>();
+        for (Namespace namespace : metadata.getDatabase().getNamespaces()) {
+            if (!options.getSchemaFilter().includeNamespace(namespace)) {
+                continue;
+            }
+            for (Table table : namespace.getTables()) {
+                if (table.isPhysicalTable()
+                        && options.getSchemaFilter().includeTable(table)
+                        && contributableInclusionFilter.matches(table)) {
+                    tables.add(table);
+                }
+            }
+        }
+        return tables;
+    }
+
     private GenerationTarget[] buildGenerationTargets(
             TargetDescriptor targetDescriptor,
             JdbcContext jdbcContext,
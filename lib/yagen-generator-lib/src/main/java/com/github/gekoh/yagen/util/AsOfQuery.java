@@ -0,0 +1,140 @@
+/*
+ Copyright 2026 agent
+
+ Licensed under the Apache License, Version 2.0 (the License);
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+ http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an AS IS BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+*/
+package com.github.gekoh.yagen.util;
+
+import com.github.gekoh.yagen.hst.CreateEntities;
+import com.github.gekoh.yagen.hst.Operation;
+import jakarta.persistence.EntityManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Point in time queries on the history entities generated by {@link CreateEntities}, returning the version of a
+ * live entity which was valid at a given timestamp (history timestamp &lt;= t &lt; invalidated_at), entities deleted
+ * at that time are not returned. Lookups of many entities are done with one query per batch of keys instead of one
+ * query per entity.
+ * <p>
+ * Key lookups use the index of the unique key on the primary key columns and the history timestamp of the history
+ * table, so the versions of a key are found without an additional index.
+ *
+ * @author agent
+ */
+public class AsOfQuery<T> {
+
+    private static final int DEFAULT_BATCH_SIZE = 1000;
+
+    /**
+     * attribute of the generated history entities mapping the id of the live entity
+     */
+    private static final String LIVE_ID_ATTRIBUTE = "liveUuid";
+
+    private static final String VALID_AT_CONDITION =
+            "h.transactionTimestamp <= :asOf and (h.invalidatedAt is null or h.invalidatedAt > :asOf) and h.operation <> :deleted";
+
+    private final EntityManager em;
+    private final Class<T> historyEntityClass;
+    private final String entityName;
+
+    private int batchSize = DEFAULT_BATCH_SIZE;
+
+    public AsOfQuery(EntityManager em, Class<T> historyEntityClass) {
+        this.em = em;
+        this.historyEntityClass = historyEntityClass;
+        this.entityName = em.getMetamodel().entity(historyEntityClass).getName();
+    }
+
+    /**
+     * @return query on the history entity generated for the given live entity class
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> AsOfQuery<T> forEntity(EntityManager em, Class<?> liveEntityClass) {
+        String historyEntityClassName = liveEntityClass.getName() + CreateEntities.HISTORY_ENTITY_SUFFIX;
+        try {
+            return new AsOfQuery<T>(em, (Class<T>) Class.forName(historyEntityClassName, true, liveEntityClass.getClassLoader()));
+        } catch (ClassNotFoundException e) {
+            throw new IllegalArgumentException("no history entity " + historyEntityClassName + " found for " + liveEntityClass.getName(), e);
+        }
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * @param batchSize max. number of keys queried in one statement (Oracle limits in lists to 1000 elements)
+     */
+    public void setBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batch size must be positive");
+        }
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * @return versions of all entities existing at the given timestamp
+     */
+    public List<T> getResultList(LocalDateTime asOf) {
+        return em.createQuery("select h from " + entityName + " h where " + VALID_AT_CONDITION, historyEntityClass)
+                .setParameter("asOf", asOf)
+                .setParameter("deleted", Operation.D)
+                .getResultList();
+    }
+
+    /**
+     * @return version of the entity with the given id valid at the given timestamp or null if it did not exist
+     */
+    public T find(Object id, LocalDateTime asOf) {
+        return find(Collections.singletonList(id), asOf).get(id);
+    }
+
+    /**
+     * @return versions valid at the given timestamp by id of the live entity, ids of entities not existing at that
+     * time are missing
+     */
+    public Map<Object, T> find(Collection<?> ids, LocalDateTime asOf) {
+        Map<Object, T> versions = new LinkedHashMap<Object, T>();
+        List<Object> batch = new ArrayList<Object>(Math.min(ids.size(), batchSize));
+        for (Object id : ids) {
+            batch.add(id);
+            if (batch.size() >= batchSize) {
+                findBatch(batch, asOf, versions);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            findBatch(batch, asOf, versions);
+        }
+        return versions;
+    }
+
+    private void findBatch(List<Object> ids, LocalDateTime asOf, Map<Object, T> versions) {
+        List<Object[]> rows = em.createQuery("select h." + LIVE_ID_ATTRIBUTE + ", h from " + entityName + " h where h." +
+                        LIVE_ID_ATTRIBUTE + " in :ids and " + VALID_AT_CONDITION, Object[].class)
+                .setParameter("ids", ids)
+                .setParameter("asOf", asOf)
+                .setParameter("deleted", Operation.D)
+                .getResultList();
+        for (Object[] row : rows) {
+            versions.put(row[0], historyEntityClass.cast(row[1]));
+        }
+    }
+}
@@ -15,10 +15,13 @@
 */
 package com.github.gekoh.yagen.util;
 
+import com.github.gekoh.yagen.api.TemporalEntity;
 import com.github.gekoh.yagen.hibernate.DDLEnhancerAware;
 import jakarta.persistence.EntityManager;
-import jakarta.persistence.NoResultException;
+import jakarta.persistence.FlushModeType;
 import org.hibernate.Session;
+import org.hibernate.SessionEventListener;
+import org.hibernate.SessionFactory;
 import org.hibernate.boot.Metadata;
 import org.hibernate.boot.registry.internal.StandardServiceRegistryImpl;
 import org.hibernate.dialect.Dialect;
@@ -38,12 +41,13 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.sql.Types;
+import java.util.Collections;
 import java.util.Map;
-import java.util.UUID;
+import java.util.Objects;
+import java.util.Set;
+import java.util.WeakHashMap;
 import java.util.regex.Pattern;
 
-import static com.github.gekoh.yagen.api.Constants.DEFAULT_USER_NAME_LEN;
-
 /**
  * @author Georg Kohlweiss
  */
@@ -62,8 +66,30 @@ public class DBHelper {
     public static final String PROPERTY_SKIP_MODIFICATION = "yagen.skip-modification.regex";
     public static final String PROPERTY_POST_PROCESSOR_CLASS = "yagen.ddl.postprocessor.class";
     public static final String PROPERTY_AUDIT_USERCOL_LEN = "yagen.generator.audit.user.maxlen";
+    public static final String PROPERTY_GENERATOR_PARALLELISM = "yagen.generator.parallelism";
+    public static final String PROPERTY_CACHE_TRANSACTION_TIMESTAMP = "yagen.generator.history.cache-transaction-timestamp";
+    public static final String PROPERTY_GUID_STRATEGY = "yagen.generator.guid.strategy";
 
     public static final String PROPERTY_POSTGRES_USE_UUID_OSSP_EXTENSION = "yagen.generator.postgres.extension.uuid-ossp";
+    public static final String PROPERTY_POSTGRES_HISTORY_TRIGGER_LEVEL = "yagen.generator.postgres.history.trigger-level";
+    public static final String PROPERTY_POSTGRES_HISTORY_BOOKKEEPING_TABLES = "yagen.generator.postgres.history.bookkeeping-tables";
+    public static final String PROPERTY_POSTGRES_HISTORY_CAPTURE = "yagen.generator.postgres.history.capture";
+    public static final String PROPERTY_POSTGRES_HISTORY_OUTBOX_MAX_BACKLOG = "yagen.generator.postgres.history.outbox.max-backlog";
+    public static final String PROPERTY_POSTGRES_HISTORY_OUTBOX_MAX_WAIT_MILLIS = "yagen.generator.postgres.history.outbox.max-wait-millis";
+    public static final String PROPERTY_POSTGRES_HISTORY_PARTITION_INTERVAL = "yagen.generator.postgres.history.partition-interval";
+    public static final String PROPERTY_HSQLDB_HISTORY_WRITER = "yagen.generator.hsqldb.history.writer";
+    public static final String PROPERTY_HSQLDB_TRIGGER_LANGUAGE = "yagen.generator.hsqldb.trigger.language";
+
+    /**
+     * session variable set while {@link com.github.gekoh.yagen.hibernate.HistoryEventListener} flushes entities,
+     * bypassing the history triggers of the tables it writes the history for
+     */
+    public static final String SESSION_VARIABLE_HISTORY_LISTENER = "yagen.history.listener";
+
+    private static final Map<SessionFactory, DatabaseDialect> DATABASE_DIALECTS = Collections.synchronizedMap(new WeakHashMap<SessionFactory, DatabaseDialect>());
+    private static final Map<Session, SessionContextInvalidator> SESSION_CONTEXT_INVALIDATORS = Collections.synchronizedMap(new WeakHashMap<Session, SessionContextInvalidator>());
+
+    private static volatile StaticBypass staticBypass;
 
     private static Field FIELD_CONFIGURATION_VALUES;
     static {
@@ -76,7 +102,11 @@ public class DBHelper {
     }
 
     public static String createUUID() {
-        return UUID.randomUUID().toString().replaceAll("-", "").toUpperCase(); // replace "-" 36 -> 32 char
+        return GuidGenerator.createRandomGuid();
+    }
+
+    public static String createTimeOrderedUUID() {
+        return GuidGenerator.createTimeOrderedGuid();
     }
 
     public static String getOsUser() {
@@ -86,19 +116,43 @@ public class DBHelper {
     }
 
     public static boolean skipModificationOf(String objectName, Metadata metadata) {
-        Map configurationValues = DBHelper.getConfigurationValues(metadata);
-        if (objectName == null || configurationValues == null || !configurationValues.containsKey(PROPERTY_SKIP_MODIFICATION)) {
-            return false;
-        }
-
-        return objectName.matches((String) configurationValues.get(PROPERTY_SKIP_MODIFICATION));
+        return DialectProfile.of(metadata).skipModificationOf(objectName);
     }
 
     public static boolean implementBypassFunctionality(Metadata metadata) {
-        Map configurationValues = metadata != null ? DBHelper.getConfigurationValues(metadata) : null;
+        return metadata != null && DialectProfile.of(metadata).isBypassFunctionality();
+    }
+
+    /**
+     * @return true if history triggers should get the transaction timestamp from a transaction local cache (session
+     * setting on PostgreSQL, package variable on Oracle) and only look up table HST_CURRENT_TRANSACTION once per transaction
+     */
+    public static boolean cacheTransactionTimestamp(Metadata metadata) {
+        return metadata != null && DialectProfile.of(metadata).isCacheTransactionTimestamp();
+    }
+
+    public static int getGeneratorParallelism(Metadata metadata) {
+        return metadata != null ? DialectProfile.of(metadata).getGeneratorParallelism() : 1;
+    }
+
+    public static TemporalEntity.TriggerLevel getPostgresHistoryTriggerLevel(Metadata metadata) {
+        return metadata != null ? DialectProfile.of(metadata).getPostgresHistoryTriggerLevel() : TemporalEntity.TriggerLevel.ROW;
+    }
+
+    public static TemporalEntity.HistoryCapture getPostgresHistoryCapture(Metadata metadata) {
+        return metadata != null ? DialectProfile.of(metadata).getPostgresHistoryCapture() : TemporalEntity.HistoryCapture.TRIGGER;
+    }
+
+    public static String getPostgresHistoryPartitionInterval(Metadata metadata) {
+        return metadata != null ? DialectProfile.of(metadata).getPostgresHistoryPartitionInterval() : null;
+    }
+
+    public static boolean isHsqlDbHistoryListenerWriter(Metadata metadata) {
+        return metadata != null && DialectProfile.of(metadata).isHsqlDbHistoryListenerWriter();
+    }
 
-        return configurationValues != null && configurationValues.containsKey(PROPERTY_GENERATE_BYPASS) &&
-                Boolean.TRUE.equals(Boolean.valueOf((String) configurationValues.get(PROPERTY_GENERATE_BYPASS)));
+    public static boolean isHsqlDbJavaTriggers(Metadata metadata) {
+        return metadata != null && DialectProfile.of(metadata).isHsqlDbJavaTriggers();
     }
 
     public static void setBypass(String objectRegex, EntityManager em) {
@@ -113,6 +167,7 @@ public class DBHelper {
     }
 
     public static void removeSessionVariable(DatabaseDialect dialect, Connection connection, String name) throws SQLException {
+        SessionContext.invalidate(connection);
         switch (dialect) {
             case ORACLE:
             case HSQLDB:
@@ -160,6 +215,7 @@ public class DBHelper {
     }
 
     public static void setSessionVariable(DatabaseDialect dialect, Connection connection, String name, String value) throws SQLException {
+        SessionContext.invalidate(connection);
         switch (dialect) {
             case ORACLE:
             case HSQLDB:
@@ -188,82 +244,131 @@ public class DBHelper {
     }
 
     public static void setSessionVariable(String name, String value, EntityManager em) {
+        setSessionVariables(Collections.singletonMap(name, value), em);
+    }
 
-        // postgres drops the temporary table when the session closes, so probably we have to create it beforehand
-        if (isPostgres(getDialect(em))) {
-            em.unwrap(Session.class).doWork(new Work() {
-                @Override
-                public void execute(Connection connection) throws SQLException {
-                    setSessionVariable(DatabaseDialect.POSTGRESQL, connection, name, value);
-                }
-            });
+    /**
+     * sets the given session variables in one round trip, variables having a null value are removed, nothing is
+     * sent to the database if all variables already have the given values in the current connection
+     * (see {@link SessionContext})
+     */
+    public static void setSessionVariables(Map<String, String> variables, EntityManager em) {
+        flushBeforeChange(variables, em);
+        doWithSessionContext(em, new SessionContextWork<Boolean>() {
+            @Override
+            public Boolean execute(SessionContext context) throws SQLException {
+                return context.set(variables);
+            }
+        });
+    }
+
+    public static String getSessionVariable(String name, EntityManager em) {
+        return doWithSessionContext(em, new SessionContextWork<String>() {
+            @Override
+            public String execute(SessionContext context) throws SQLException {
+                return context.get(name);
+            }
+        });
+    }
+
+    public static void removeSessionVariable(String name, EntityManager em) {
+        setSessionVariables(Collections.singletonMap(name, (String) null), em);
+    }
+
+    /**
+     * drops the session variable values remembered for the connection of the given entity manager, required after
+     * changing SESSION_VARIABLES with native SQL (see {@link SessionContext})
+     */
+    public static void invalidateSessionContext(EntityManager em) {
+        em.unwrap(Session.class).doWork(new Work() {
+            @Override
+            public void execute(Connection connection) throws SQLException {
+                SessionContext.invalidate(connection);
+            }
+        });
+    }
+
+    /**
+     * pending changes are flushed before a session variable changes (as native queries would do), so that e.g. the
+     * triggers of entities persisted before {@link #setBypass(String, EntityManager)} are not bypassed
+     */
+    private static void flushBeforeChange(Map<String, String> variables, EntityManager em) {
+        if (!em.isJoinedToTransaction() || em.getFlushMode() != FlushModeType.AUTO) {
             return;
         }
+        boolean unchanged = doWithSessionContext(em, new SessionContextWork<Boolean>() {
+            @Override
+            public Boolean execute(SessionContext context) {
+                return context.hasValues(variables);
+            }
+        });
+        if (!unchanged) {
+            em.flush();
+        }
+    }
 
-        int affected = em.createNativeQuery("update SESSION_VARIABLES set VALUE=:value where NAME=:name")
-                .setParameter("name", name)
-                .setParameter("value", value)
-                .executeUpdate();
+    private static <T> T doWithSessionContext(EntityManager em, SessionContextWork<T> work) {
+        final Session session = em.unwrap(Session.class);
+        final DatabaseDialect dialect = getDatabaseDialect(em);
+        return session.doReturningWork(new ReturningWork<T>() {
+            @Override
+            public T execute(Connection connection) throws SQLException {
+                SESSION_CONTEXT_INVALIDATORS.computeIfAbsent(session, s -> {
+                    SessionContextInvalidator invalidator = new SessionContextInvalidator();
+                    s.addEventListeners(invalidator);
+                    return invalidator;
+                }).register(connection);
+                return work.execute(SessionContext.of(dialect, connection));
+            }
+        });
+    }
 
-        if (affected < 1) {
-            em.createNativeQuery("insert into SESSION_VARIABLES (name, value) values (:name, :value)")
-                    .setParameter("name", name)
-                    .setParameter("value", value)
-                    .executeUpdate();
-        }
+    private static DatabaseDialect getDatabaseDialect(EntityManager em) {
+        return DATABASE_DIALECTS.computeIfAbsent(em.unwrap(Session.class).getSessionFactory(), sessionFactory -> {
+            Dialect dialect = getDialect(em);
+            DatabaseDialect databaseDialect = DialectProfile.of(dialect).getDatabaseDialect();
+            if (databaseDialect == null) {
+                throw new IllegalArgumentException("unknown dialect: " + dialect);
+            }
+            return databaseDialect;
+        });
     }
 
-    public static String getSessionVariable(String name, EntityManager em) {
+    private interface SessionContextWork<T> {
+        T execute(SessionContext context) throws SQLException;
+    }
 
-        // postgres drops the temporary table when the session closes, so probably we have to create it beforehand
-        if (isPostgres(getDialect(em))) {
-            return em.unwrap(Session.class).doReturningWork(new ReturningWork<String>() {
-                @Override
-                public String execute(Connection connection) throws SQLException {
-                    String ret = getSessionVariable(DatabaseDialect.POSTGRESQL, connection, name);
-                    return ret;
-                }
-            });
-        }
+    /**
+     * drops the session variable values remembered for the connections used in a transaction once it's rolled back
+     */
+    private static class SessionContextInvalidator implements SessionEventListener {
+        private final transient Set<Connection> connections = Collections.newSetFromMap(new WeakHashMap<Connection, Boolean>());
 
-        String value = null;
-        try {
-            value = (String) em.createNativeQuery("select value from SESSION_VARIABLES where NAME=:name")
-                    .setParameter("name", name)
-                    .getSingleResult();
-        } catch (NoResultException noResult) {
-            // ignore
+        void register(Connection connection) {
+            connections.add(connection);
         }
-        return value;
-    }
 
-    public static void removeSessionVariable(String name, EntityManager em) {
-        // postgres drops the temporary table when the session closes, so probably it's not even existing
-        if (isPostgres(getDialect(em))) {
-            em.unwrap(Session.class).doWork(new Work() {
-                @Override
-                public void execute(Connection connection) throws SQLException {
-                    removeSessionVariable(DatabaseDialect.POSTGRESQL, connection, name);
+        @Override
+        public void transactionCompletion(boolean successful) {
+            if (!successful) {
+                for (Connection connection : connections) {
+                    SessionContext.invalidate(connection);
                 }
-            });
-            return;
+            }
+            connections.clear();
         }
-
-        em.createNativeQuery("delete from SESSION_VARIABLES where name=:name")
-                .setParameter("name", name)
-                .executeUpdate();
     }
 
     public static boolean isStaticallyBypassed(String objectName) {
         final String bypass = System.getProperty(PROPERTY_BYPASS);
-        if (bypass != null) {
-            return true;
-        }
-        final String bypassPattern = System.getProperty(PROPERTY_BYPASS_REGEX);
-        if (bypassPattern != null) {
-            return objectName.matches(bypassPattern);
+        final String bypassRegex = System.getProperty(PROPERTY_BYPASS_REGEX);
+
+        StaticBypass current = staticBypass;
+        if (current == null || !current.isResolvedFrom(bypass, bypassRegex)) {
+            current = new StaticBypass(bypass, bypassRegex);
+            staticBypass = current;
         }
-        return false;
+        return current.isBypassed(objectName);
     }
 
     public static String getSysContext(String namespace, String parameter) {
@@ -286,7 +391,7 @@ public class DBHelper {
         if (value == null) {
             return false;
         }
-        return Pattern.compile(regexp).matcher(value).find();
+        return PatternCache.getPattern(regexp).matcher(value).find();
     }
 
     public static boolean regexpLikeFlags(String value, String regexp, String flags) {
@@ -307,64 +412,48 @@ public class DBHelper {
         if (f.contains("m")) {
             opts = opts | Pattern.MULTILINE;
         }
-        return Pattern.compile(regexp, opts).matcher(value).find();
+        return PatternCache.getPattern(regexp, opts).matcher(value).find();
     }
 
     public static String injectSessionUser(String user, EntityManager em) {
-        String prevUser;
-
-        Dialect dialect = getDialect(em);
-        if (isPostgres(dialect)
-                || isHsqlDb(dialect)) {
-            prevUser = getSessionVariable("CLIENT_IDENTIFIER", em);
-            if (user == null) {
-                removeSessionVariable("CLIENT_IDENTIFIER", em);
-            } else {
-                setSessionVariable("CLIENT_IDENTIFIER", user, em);
-            }
-        }
-        else {
-            prevUser = em.unwrap(Session.class).doReturningWork(new SetUserWorkOracle(user, dialect));
+        if (getDatabaseDialect(em) != DatabaseDialect.ORACLE) {
+            flushBeforeChange(Collections.singletonMap("CLIENT_IDENTIFIER", user), em);
+            return doWithSessionContext(em, new SessionContextWork<String>() {
+                @Override
+                public String execute(SessionContext context) throws SQLException {
+                    String prevUser = context.get("CLIENT_IDENTIFIER");
+                    context.set("CLIENT_IDENTIFIER", user);
+                    return prevUser;
+                }
+            });
         }
 
-        return prevUser;
+        return em.unwrap(Session.class).doReturningWork(new SetUserWorkOracle(user, getDialect(em)));
     }
 
     public static boolean isHsqlDb(EntityManager em) {
         return isHsqlDb(getDialect(em));
     }
     public static boolean isHsqlDb(Dialect dialect) {
-        return dialectMatches(dialect, "hsql");
+        return DialectProfile.of(dialect).isHsqlDb();
     }
 
     public static boolean isPostgres(EntityManager em) {
         return isPostgres(getDialect(em));
     }
     public static boolean isPostgres(Dialect dialect) {
-        return dialectMatches(dialect, "postgres");
+        return DialectProfile.of(dialect).isPostgres();
     }
 
     public static boolean isOracle(EntityManager em) {
         return isOracle(getDialect(em));
     }
     public static boolean isOracle(Dialect dialect) {
-        return dialectMatches(dialect, "oracle");
-    }
-
-    private static boolean dialectMatches(Dialect dialect, String subStr) {
-        String driverClassName = getDriverClassName(dialect);
-        return driverClassName != null ? driverClassName.toLowerCase().contains(subStr) : dialect.getClass().getName().toLowerCase().contains(subStr);
+        return DialectProfile.of(dialect).isOracle();
     }
 
     public static int getAuditUserMaxlength (Dialect dialect) {
-        Metadata metadata = getMetadata(dialect);
-        if (metadata != null) {
-            Map values = getConfigurationValues(metadata);
-            if (values != null && values.get(PROPERTY_AUDIT_USERCOL_LEN) != null) {
-                return Integer.parseInt((String) values.get(PROPERTY_AUDIT_USERCOL_LEN));
-            }
-        }
-        return DEFAULT_USER_NAME_LEN;
+        return DialectProfile.of(dialect).getAuditUserMaxlength();
     }
 
     public static Metadata getMetadata(Dialect dialect) {
@@ -405,7 +494,7 @@ public class DBHelper {
     private static Method basicDataSourceGetDriverClassNameMethod = null;
     private static boolean basicDataSourceGetDriverClassNameMethodInitDone = false;
 
-    private static String tryGetDriverNameFromDataSource(Map properties) {
+    static String tryGetDriverNameFromDataSource(Map properties) {
         String driverName = (String) properties.get("hibernate.connection.driver_class");
         if (driverName == null) {
             if (!basicDataSourceGetDriverClassNameMethodInitDone) {
@@ -442,25 +531,56 @@ public class DBHelper {
     }
 
     public static String getTimestampDdlTypeDeclaration(Dialect dialect) {
-        return getDdlTypeDeclaration(dialect, Types.TIMESTAMP, 0, dialect.getDefaultTimestampPrecision(), 0);
+        return DialectProfile.of(dialect).getTimestampType();
     }
 
     public static String getDdlTypeDeclaration(Dialect dialect, int type, int length, int intPrec, int intScale) {
         Metadata metadata = getMetadata(dialect);
         if (metadata != null) {
-            DdlTypeRegistry ddlTypeRegistry = metadata.getDatabase().getTypeConfiguration().getDdlTypeRegistry();
-
-            return ddlTypeRegistry.getTypeName(type, new Size(intPrec, intScale, length, null));
+            return getDdlTypeDeclaration(metadata, type, length, intPrec, intScale);
         } else {
             LOG.warn("unable to determine db data type");
             return "varchar(255)";
         }
     }
 
+    public static String getDdlTypeDeclaration(Metadata metadata, int type, int length, int intPrec, int intScale) {
+        DdlTypeRegistry ddlTypeRegistry = metadata.getDatabase().getTypeConfiguration().getDdlTypeRegistry();
+
+        return ddlTypeRegistry.getTypeName(type, new Size(intPrec, intScale, length, null));
+    }
+
     public static Timestamp getCurrentTimestamp() {
         return NanoAwareTimestampUtil.getCurrentTimestamp();
     }
 
+    /**
+     * bypass settings from system properties {@value #PROPERTY_BYPASS} and {@value #PROPERTY_BYPASS_REGEX}, resolved
+     * again only when one of the properties changes
+     */
+    private static class StaticBypass {
+        private final String bypass;
+        private final String bypassRegex;
+        private final Pattern bypassPattern;
+
+        StaticBypass(String bypass, String bypassRegex) {
+            this.bypass = bypass;
+            this.bypassRegex = bypassRegex;
+            this.bypassPattern = bypass == null && bypassRegex != null ? PatternCache.getPattern(bypassRegex) : null;
+        }
+
+        boolean isResolvedFrom(String bypass, String bypassRegex) {
+            return Objects.equals(this.bypass, bypass) && Objects.equals(this.bypassRegex, bypassRegex);
+        }
+
+        boolean isBypassed(String objectName) {
+            if (bypass != null) {
+                return true;
+            }
+            return bypassPattern != null && bypassPattern.matcher(objectName).matches();
+        }
+    }
+
     public static class SetUserWorkOracle implements ReturningWork<String> {
         private Dialect dialect;
         private String userName;
@@ -0,0 +1,323 @@
+/*
+ Copyright 2026 agent
+
+ Licensed under the Apache License, Version 2.0 (the License);
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+ http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an AS IS BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+*/
+package com.github.gekoh.yagen.util;
+
+import com.github.gekoh.yagen.api.IntervalPartitioning;
+import com.github.gekoh.yagen.api.TemporalEntity;
+import org.hibernate.boot.Metadata;
+import org.hibernate.dialect.DatabaseVersion;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.mapping.PersistentClass;
+
+import java.lang.reflect.Field;
+import java.sql.Types;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.regex.Pattern;
+
+import static com.github.gekoh.yagen.api.Constants.DEFAULT_USER_NAME_LEN;
+
+/**
+ * Database family and yaGen configuration resolved once per {@link Metadata} (or per {@link Dialect} if there is no
+ * metadata registered with it) instead of looking up the persistence unit properties by reflection each time.
+ *
+ * @author agent
+ */
+public final class DialectProfile {
+
+    private static final org.slf4j.Logger LOG = org.slf4j.LoggerFactory.getLogger(DialectProfile.class);
+
+    // the cached profiles must not reference their keys, otherwise these would never be collected
+    private static final Map<Metadata, DialectProfile> PROFILES_BY_METADATA = Collections.synchronizedMap(new WeakHashMap<Metadata, DialectProfile>());
+    private static final Map<Dialect, DialectProfile> PROFILES_BY_DIALECT = Collections.synchronizedMap(new WeakHashMap<Dialect, DialectProfile>());
+
+    private final DBHelper.DatabaseDialect databaseDialect;
+    private final boolean oracleXE;
+    private final DatabaseVersion version;
+    private final String timestampType;
+    private final Map configurationValues;
+    private final boolean bypassFunctionality;
+    private final boolean cacheTransactionTimestamp;
+    private final Pattern skipModificationPattern;
+    private final int auditUserMaxlength;
+    private final GuidGenerator.Strategy guidStrategy;
+    private final int generatorParallelism;
+    private final TemporalEntity.TriggerLevel postgresHistoryTriggerLevel;
+    private final TemporalEntity.HistoryCapture postgresHistoryCapture;
+    private final String postgresHistoryPartitionInterval;
+    private final boolean hsqlDbHistoryListenerWriter;
+    private final boolean hsqlDbJavaTriggers;
+    private final boolean partitionedTables;
+
+    private DialectProfile(Dialect dialect, Metadata metadata) {
+        String driverClassName = null;
+        configurationValues = metadata != null ? DBHelper.getConfigurationValues(metadata) : null;
+        if (configurationValues != null) {
+            driverClassName = DBHelper.tryGetDriverNameFromDataSource(configurationValues);
+        }
+
+        if (matches(dialect, driverClassName, "postgres")) {
+            databaseDialect = DBHelper.DatabaseDialect.POSTGRESQL;
+        }
+        else if (matches(dialect, driverClassName, "hsql")) {
+            databaseDialect = DBHelper.DatabaseDialect.HSQLDB;
+        }
+        else if (matches(dialect, driverClassName, "oracle")) {
+            databaseDialect = DBHelper.DatabaseDialect.ORACLE;
+        }
+        else {
+            databaseDialect = null;
+        }
+        oracleXE = dialect.getClass().getSimpleName().toLowerCase().contains("oraclexe");
+        version = dialect.getVersion();
+
+        if (metadata != null) {
+            timestampType = DBHelper.getDdlTypeDeclaration(metadata, Types.TIMESTAMP, 0, dialect.getDefaultTimestampPrecision(), 0);
+        }
+        else {
+            LOG.warn("unable to determine db data type");
+            timestampType = "varchar(255)";
+        }
+
+        bypassFunctionality = isTrue(getProperty(DBHelper.PROPERTY_GENERATE_BYPASS));
+        cacheTransactionTimestamp = isTrue(getProperty(DBHelper.PROPERTY_CACHE_TRANSACTION_TIMESTAMP));
+
+        String skipModification = getProperty(DBHelper.PROPERTY_SKIP_MODIFICATION);
+        skipModificationPattern = skipModification != null ? Pattern.compile(skipModification) : null;
+
+        String auditUserLen = getProperty(DBHelper.PROPERTY_AUDIT_USERCOL_LEN);
+        auditUserMaxlength = auditUserLen != null ? Integer.parseInt(auditUserLen) : DEFAULT_USER_NAME_LEN;
+
+        guidStrategy = GuidGenerator.Strategy.fromPropertyValue(getProperty(DBHelper.PROPERTY_GUID_STRATEGY));
+        generatorParallelism = parseGeneratorParallelism(getProperty(DBHelper.PROPERTY_GENERATOR_PARALLELISM));
+        postgresHistoryTriggerLevel = parseTriggerLevel(getProperty(DBHelper.PROPERTY_POSTGRES_HISTORY_TRIGGER_LEVEL));
+        postgresHistoryCapture = parseHistoryCapture(getProperty(DBHelper.PROPERTY_POSTGRES_HISTORY_CAPTURE));
+
+        String interval = getProperty(DBHelper.PROPERTY_POSTGRES_HISTORY_PARTITION_INTERVAL);
+        postgresHistoryPartitionInterval = interval == null || interval.trim().length() < 1 || "none".equalsIgnoreCase(interval.trim()) ? null : interval.trim();
+
+        hsqlDbHistoryListenerWriter = parseOption(DBHelper.PROPERTY_HSQLDB_HISTORY_WRITER, "trigger", "listener");
+        hsqlDbJavaTriggers = parseOption(DBHelper.PROPERTY_HSQLDB_TRIGGER_LANGUAGE, "sql", "java");
+
+        partitionedTables = isPostgres() && metadata != null && hasPartitionedTables(metadata, postgresHistoryPartitionInterval != null);
+    }
+
+    public static DialectProfile of(Dialect dialect) {
+        Metadata metadata = DBHelper.getMetadata(dialect);
+        if (metadata != null) {
+            return of(metadata);
+        }
+        return PROFILES_BY_DIALECT.computeIfAbsent(dialect, d -> new DialectProfile(d, null));
+    }
+
+    public static DialectProfile of(Metadata metadata) {
+        return PROFILES_BY_METADATA.computeIfAbsent(metadata, m -> new DialectProfile(m.getDatabase().getDialect(), m));
+    }
+
+    DBHelper.DatabaseDialect getDatabaseDialect() {
+        return databaseDialect;
+    }
+
+    public boolean isOracle() {
+        return databaseDialect == DBHelper.DatabaseDialect.ORACLE;
+    }
+
+    public boolean isOracleXE() {
+        return oracleXE;
+    }
+
+    public boolean isPostgres() {
+        return databaseDialect == DBHelper.DatabaseDialect.POSTGRESQL;
+    }
+
+    public boolean isHsqlDb() {
+        return databaseDialect == DBHelper.DatabaseDialect.HSQLDB;
+    }
+
+    public DatabaseVersion getVersion() {
+        return version;
+    }
+
+    public String getTimestampType() {
+        return timestampType;
+    }
+
+    /**
+     * @return persistence unit properties, null if there is no metadata registered with the dialect
+     */
+    public Map getConfigurationValues() {
+        return configurationValues;
+    }
+
+    public boolean isBypassFunctionality() {
+        return bypassFunctionality;
+    }
+
+    public boolean isCacheTransactionTimestamp() {
+        return cacheTransactionTimestamp;
+    }
+
+    public boolean skipModificationOf(String objectName) {
+        return objectName != null && skipModificationPattern != null && skipModificationPattern.matcher(objectName).matches();
+    }
+
+    public int getAuditUserMaxlength() {
+        return auditUserMaxlength;
+    }
+
+    public GuidGenerator.Strategy getGuidStrategy() {
+        return guidStrategy;
+    }
+
+    /**
+     * @return number of threads to be used for enhancing create table statements, 1 (default) means sequential,
+     * "auto" uses the number of available processors
+     */
+    public int getGeneratorParallelism() {
+        return generatorParallelism;
+    }
+
+    /**
+     * @return trigger level of history triggers for temporal entities not specifying one in
+     * {@link TemporalEntity#triggerLevel()}, {@link TemporalEntity.TriggerLevel#ROW} (default) or
+     * {@link TemporalEntity.TriggerLevel#STATEMENT}
+     */
+    public TemporalEntity.TriggerLevel getPostgresHistoryTriggerLevel() {
+        return postgresHistoryTriggerLevel;
+    }
+
+    public TemporalEntity.HistoryCapture getPostgresHistoryCapture() {
+        return postgresHistoryCapture;
+    }
+
+    /**
+     * @return interval by which history tables of temporal entities not specifying one in
+     * {@link TemporalEntity#historyPartitionInterval()} are range partitioned or null if unpartitioned
+     */
+    public String getPostgresHistoryPartitionInterval() {
+        return postgresHistoryPartitionInterval;
+    }
+
+    /**
+     * @return true if history rows of entity tables are written by
+     * {@link com.github.gekoh.yagen.hibernate.HistoryEventListener}, the triggers only write the history of
+     * modifications not done through entities (HSQLDB only)
+     */
+    public boolean isHsqlDbHistoryListenerWriter() {
+        return hsqlDbHistoryListenerWriter;
+    }
+
+    public boolean isHsqlDbJavaTriggers() {
+        return hsqlDbJavaTriggers;
+    }
+
+    /**
+     * @return true if there is an entity annotated with {@link IntervalPartitioning} or a temporal entity with a
+     * range partitioned history table (PostgreSQL only), i.e. the partition maintenance objects are required
+     */
+    public boolean hasPartitionedTables() {
+        return partitionedTables;
+    }
+
+    private static boolean hasPartitionedTables(Metadata metadata, boolean historyPartitionedByDefault) {
+        for (PersistentClass entity : metadata.getEntityBindings()) {
+            for (Class clazz = entity.getMappedClass(); clazz != null && clazz != Object.class; clazz = clazz.getSuperclass()) {
+                if (clazz.isAnnotationPresent(IntervalPartitioning.class)
+                        || isHistoryPartitioned((TemporalEntity) clazz.getAnnotation(TemporalEntity.class), historyPartitionedByDefault)) {
+                    return true;
+                }
+                for (Field field : clazz.getDeclaredFields()) {
+                    if (isHistoryPartitioned(field.getAnnotation(TemporalEntity.class), historyPartitionedByDefault)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean isHistoryPartitioned(TemporalEntity temporalEntity, boolean historyPartitionedByDefault) {
+        if (temporalEntity == null) {
+            return false;
+        }
+        String interval = temporalEntity.historyPartitionInterval().trim();
+        return interval.isEmpty() ? historyPartitionedByDefault : !"none".equalsIgnoreCase(interval);
+    }
+
+    private static int parseGeneratorParallelism(String parallelism) {
+        if (parallelism == null || parallelism.trim().length() < 1) {
+            return 1;
+        }
+        if ("auto".equalsIgnoreCase(parallelism.trim())) {
+            return Runtime.getRuntime().availableProcessors();
+        }
+        return Math.max(1, Integer.parseInt(parallelism.trim()));
+    }
+
+    private static TemporalEntity.TriggerLevel parseTriggerLevel(String triggerLevel) {
+        if (triggerLevel == null || triggerLevel.trim().length() < 1) {
+            return TemporalEntity.TriggerLevel.ROW;
+        }
+        if (TemporalEntity.TriggerLevel.STATEMENT.name().equalsIgnoreCase(triggerLevel.trim())) {
+            return TemporalEntity.TriggerLevel.STATEMENT;
+        }
+        if (TemporalEntity.TriggerLevel.ROW.name().equalsIgnoreCase(triggerLevel.trim())) {
+            return TemporalEntity.TriggerLevel.ROW;
+        }
+        throw new IllegalArgumentException("unsupported value '" + triggerLevel + "' of property " + DBHelper.PROPERTY_POSTGRES_HISTORY_TRIGGER_LEVEL + ", use row or statement");
+    }
+
+    private static TemporalEntity.HistoryCapture parseHistoryCapture(String capture) {
+        if (capture == null || capture.trim().length() < 1) {
+            return TemporalEntity.HistoryCapture.TRIGGER;
+        }
+        if (TemporalEntity.HistoryCapture.OUTBOX.name().equalsIgnoreCase(capture.trim())) {
+            return TemporalEntity.HistoryCapture.OUTBOX;
+        }
+        if (TemporalEntity.HistoryCapture.TRIGGER.name().equalsIgnoreCase(capture.trim())) {
+            return TemporalEntity.HistoryCapture.TRIGGER;
+        }
+        throw new IllegalArgumentException("unsupported value '" + capture + "' of property " + DBHelper.PROPERTY_POSTGRES_HISTORY_CAPTURE + ", use trigger or outbox");
+    }
+
+    /**
+     * @return true if the property is set to the given option, false if it is unset or set to the default
+     */
+    private boolean parseOption(String name, String defaultValue, String option) {
+        String value = getProperty(name);
+        if (value == null || value.trim().length() < 1 || defaultValue.equalsIgnoreCase(value.trim())) {
+            return false;
+        }
+        if (option.equalsIgnoreCase(value.trim())) {
+            return true;
+        }
+        throw new IllegalArgumentException("unsupported value '" + value + "' of property " + name + ", use " + defaultValue + " or " + option);
+    }
+
+    private String getProperty(String name) {
+        Object value = configurationValues != null ? configurationValues.get(name) : null;
+        return value != null ? value.toString() : null;
+    }
+
+    private static boolean isTrue(String value) {
+        return Boolean.TRUE.equals(Boolean.valueOf(value));
+    }
+
+    private static boolean matches(Dialect dialect, String driverClassName, String subStr) {
+        return driverClassName != null ? driverClassName.toLowerCase().contains(subStr) : dialect.getClass().getName().toLowerCase().contains(subStr);
+    }
+}
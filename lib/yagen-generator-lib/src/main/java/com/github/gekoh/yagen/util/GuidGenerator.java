@@ -0,0 +1,118 @@
+/*
+ Copyright 2026 agent
+
+ Licensed under the Apache License, Version 2.0 (the License);
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+ http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an AS IS BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+*/
+package com.github.gekoh.yagen.util;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Creates the 32 character upper case hex GUIDs returned by sys_guid() (e.g. used for hst_uuid), either random
+ * (UUID version 4) or time ordered (UUID version 7 layout: 48 bit unix epoch milliseconds followed by version,
+ * a 12 bit per thread sequence and random bits). Time ordered GUIDs keep inserts into primary key indexes close
+ * to each other, the random part is taken from {@link ThreadLocalRandom} and is thus not suited for security tokens.
+ * <p>
+ * The strategy used by the database functions is selected by persistence unit property
+ * {@value DBHelper#PROPERTY_GUID_STRATEGY}.
+ *
+ * @author agent
+ */
+public final class GuidGenerator {
+
+    public enum Strategy {
+        RANDOM("random"),
+        TIME_ORDERED("time-ordered");
+
+        private final String propertyValue;
+
+        Strategy(String propertyValue) {
+            this.propertyValue = propertyValue;
+        }
+
+        public String getPropertyValue() {
+            return propertyValue;
+        }
+
+        public static Strategy fromPropertyValue(String value) {
+            if (value == null || value.trim().length() < 1) {
+                return RANDOM;
+            }
+            for (Strategy strategy : values()) {
+                if (strategy.propertyValue.equalsIgnoreCase(value.trim())) {
+                    return strategy;
+                }
+            }
+            throw new IllegalArgumentException("unsupported value '" + value + "' of property " + DBHelper.PROPERTY_GUID_STRATEGY + ", use random or time-ordered");
+        }
+    }
+
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+    private static final ThreadLocal<Sequence> SEQUENCE = ThreadLocal.withInitial(Sequence::new);
+
+    private GuidGenerator() {
+    }
+
+    public static String createGuid(Strategy strategy) {
+        return strategy == Strategy.TIME_ORDERED ? createTimeOrderedGuid() : createRandomGuid();
+    }
+
+    public static String createRandomGuid() {
+        UUID uuid = UUID.randomUUID();
+        return toHex(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+
+    public static String createTimeOrderedGuid() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long msb = SEQUENCE.get().next(System.currentTimeMillis(), random);
+        long lsb = (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return toHex(msb, lsb);
+    }
+
+    static String toHex(long msb, long lsb) {
+        char[] hex = new char[32];
+        for (int i = 15; i >= 0; i--) {
+            hex[i] = HEX_DIGITS[(int) (msb & 0xF)];
+            msb >>>= 4;
+        }
+        for (int i = 31; i >= 16; i--) {
+            hex[i] = HEX_DIGITS[(int) (lsb & 0xF)];
+            lsb >>>= 4;
+        }
+        return new String(hex);
+    }
+
+    /**
+     * timestamp and 12 bit counter of the GUIDs created by one thread, the counter starts at a random value
+     * below 2048 each millisecond and the timestamp is advanced when it overflows, so GUIDs created by one thread
+     * are strictly increasing
+     */
+    private static class Sequence {
+        private long lastMillis;
+        private int counter;
+
+        long next(long millis, ThreadLocalRandom random) {
+            if (millis > lastMillis) {
+                lastMillis = millis;
+                counter = random.nextInt(0x800);
+            }
+            else if (++counter > 0xFFF) {
+                lastMillis++;
+                counter = random.nextInt(0x800);
+            }
+            return (lastMillis & 0xFFFFFFFFFFFFL) << 16 | 0x7000L | counter;
+        }
+    }
+}
@@ -0,0 +1,373 @@
+/*
+ Copyright 2026 agent
+
+ Licensed under the Apache License, Version 2.0 (the License);
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+ http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an AS IS BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+*/
+package com.github.gekoh.yagen.util;
+
+import com.github.gekoh.yagen.api.TemporalEntity;
+import com.github.gekoh.yagen.ddl.CreateDDL;
+import com.github.gekoh.yagen.ddl.HistoryTable;
+import com.github.gekoh.yagen.hibernate.DDLEnhancerAware;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityTransaction;
+import org.apache.commons.lang3.StringUtils;
+import org.hibernate.Session;
+import org.hibernate.dialect.Dialect;
+
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Compacts the history of live tables annotated with {@link TemporalEntity#historyRetention()}. Versions of the
+ * history table invalidated before the retention period are removed according to
+ * {@link TemporalEntity#historyCompaction()}, the remaining version preceding removed versions is extended by
+ * setting its invalidated_at to the one of the last removed version, so the chain of history timestamp and
+ * invalidated_at stays gapless and point in time queries still return the kept version.
+ * <p>
+ * Only tables with a single column primary key are supported. The history is processed in batches of primary key
+ * ranges, each batch in its own transaction of the given entity manager. The versions of a batch are read ordered
+ * by key and history timestamp, the versions to be removed are determined in one pass and removed with batched
+ * statements. Compaction is idempotent, an aborted run can be restarted from scratch or after the last key logged.
+ *
+ * @author agent
+ */
+public class HistoryCompactor {
+
+    private static final org.slf4j.Logger LOG = org.slf4j.LoggerFactory.getLogger(HistoryCompactor.class);
+
+    private static final int DEFAULT_BATCH_SIZE = 1000;
+
+    private final EntityManager em;
+    private final Dialect dialect;
+    private final CreateDDL ddlEnhancer;
+
+    private int batchSize = DEFAULT_BATCH_SIZE;
+
+    public HistoryCompactor(EntityManager em) {
+        this.em = em;
+        this.dialect = DBHelper.getDialect(em);
+        if (!(dialect instanceof DDLEnhancerAware) || ((DDLEnhancerAware) dialect).getDDLEnhancer() == null) {
+            throw new IllegalStateException("no yagen DDL enhancer registered with dialect " + dialect);
+        }
+        this.ddlEnhancer = ((DDLEnhancerAware) dialect).getDDLEnhancer();
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * @param batchSize max. number of primary keys processed in one transaction
+     */
+    public void setBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batch size must be positive");
+        }
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * compacts the history of all tables with configured history retention
+     *
+     * @return number of removed history versions
+     */
+    public int compactAll() {
+        int removed = 0;
+        for (HistoryTable historyTable : ddlEnhancer.getHistoryTables()) {
+            if (historyTable.getRetention() != null) {
+                removed += compact(historyTable.getLiveTableName());
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * compacts the history of the given live table invalidated before the current timestamp of the database minus the
+     * configured history retention
+     *
+     * @return number of removed history versions
+     */
+    public int compact(String liveTableName) {
+        HistoryTable historyTable = getHistoryTable(liveTableName);
+        if (historyTable.getRetention() == null) {
+            throw new IllegalArgumentException("no history retention configured for table " + liveTableName);
+        }
+        Timestamp now = inTransaction(() -> em.unwrap(Session.class).doReturningWork(this::getDatabaseTimestamp));
+        return compact(liveTableName, now.toLocalDateTime().minus(historyTable.getRetention()), null);
+    }
+
+    /**
+     * compacts the history of the given live table invalidated at or before the given threshold
+     *
+     * @param startAfterKey primary key after which compaction starts (for resuming an aborted run), null for
+     *                      processing the whole table
+     * @return number of removed history versions
+     */
+    public int compact(String liveTableName, LocalDateTime threshold, Object startAfterKey) {
+        HistoryTable historyTable = getHistoryTable(liveTableName);
+        if (historyTable.getPkColumns().size() != 1) {
+            throw new IllegalArgumentException("history compaction requires a single column primary key, table " + liveTableName +
+                    " has primary key " + historyTable.getPkColumns());
+        }
+        TemporalEntity.HistoryCompaction compaction = historyTable.getCompaction() != null ? historyTable.getCompaction() : TemporalEntity.HistoryCompaction.DAY;
+        Timestamp thresholdTs = Timestamp.valueOf(threshold);
+
+        int removed = 0, batches = 0;
+        Object lastKey = startAfterKey;
+        while (true) {
+            Object fromKey = lastKey;
+            BatchResult result = inTransaction(() -> em.unwrap(Session.class).doReturningWork(connection ->
+                    compactBatch(connection, historyTable, compaction, thresholdTs, fromKey)));
+            if (result.lastKey == null) {
+                break;
+            }
+            removed += result.removed;
+            lastKey = result.lastKey;
+            batches++;
+            LOG.info("compacted history of {} batch {}: removed {} versions, last key {}", new Object[]{historyTable.getHistTableName(), batches, result.removed, lastKey});
+        }
+
+        LOG.info("compacted history of {} invalidated until {}: removed {} versions in {} batches", new Object[]{historyTable.getHistTableName(), threshold, removed, batches});
+        return removed;
+    }
+
+    private HistoryTable getHistoryTable(String liveTableName) {
+        HistoryTable historyTable = ddlEnhancer.getHistoryTable(liveTableName);
+        if (historyTable == null) {
+            throw new IllegalArgumentException("table " + liveTableName + " has no history table");
+        }
+        return historyTable;
+    }
+
+    /**
+     * @return current timestamp of the database as used for the history timestamps
+     */
+    private Timestamp getDatabaseTimestamp(Connection connection) throws SQLException {
+        String sql = DBHelper.isOracle(dialect) ? "select get_audit_timestamp() from dual" :
+                DBHelper.isHsqlDb(dialect) ? "values (get_audit_timestamp())" : "select get_audit_timestamp()";
+        try (PreparedStatement stmt = connection.prepareStatement(sql); ResultSet rs = stmt.executeQuery()) {
+            rs.next();
+            return rs.getTimestamp(1);
+        }
+    }
+
+    private <T> T inTransaction(Supplier<T> work) {
+        EntityTransaction tx = em.getTransaction();
+        if (tx.isActive()) {
+            throw new IllegalStateException("history compaction manages its own transactions, found active transaction");
+        }
+        tx.begin();
+        try {
+            T result = work.get();
+            tx.commit();
+            return result;
+        } catch (RuntimeException e) {
+            if (tx.isActive()) {
+                tx.rollback();
+            }
+            throw e;
+        }
+    }
+
+    private BatchResult compactBatch(Connection connection, HistoryTable historyTable, TemporalEntity.HistoryCompaction compaction,
+                                     Timestamp threshold, Object fromKey) throws SQLException {
+        String hstTable = historyTable.getHistTableName();
+        String histCol = historyTable.getHistColName();
+        List<String> relevantCols = historyTable.getHistRelevantColumns();
+        String keyCol = historyTable.getPkColumns().get(0);
+
+        Object firstKey = null, lastKey = null;
+        try (PreparedStatement stmt = connection.prepareStatement("select distinct " + keyCol + " from " + hstTable +
+                " where " + (fromKey != null ? keyCol + ">? and " : "") + "operation='U' and invalidated_at<=? order by 1")) {
+            int idx = 1;
+            if (fromKey != null) {
+                stmt.setObject(idx++, fromKey);
+            }
+            stmt.setTimestamp(idx, threshold);
+            stmt.setMaxRows(batchSize);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    if (firstKey == null) {
+                        firstKey = rs.getObject(1);
+                    }
+                    lastKey = rs.getObject(1);
+                }
+            }
+        }
+        if (lastKey == null) {
+            return new BatchResult(null, 0);
+        }
+
+        List<Version> updates = new ArrayList<Version>();
+        List<Version> deletes = new ArrayList<Version>();
+        try (PreparedStatement stmt = connection.prepareStatement("select hst_uuid, operation, " + histCol + ", invalidated_at, " +
+                keyCol + (relevantCols.isEmpty() ? "" : ", " + StringUtils.join(relevantCols, ", ")) +
+                " from " + hstTable + " where " + keyCol + ">=? and " + keyCol + "<=? and " + histCol + "<?" +
+                " order by " + keyCol + ", " + histCol)) {
+            stmt.setObject(1, firstKey);
+            stmt.setObject(2, lastKey);
+            stmt.setTimestamp(3, threshold);
+            try (ResultSet rs = stmt.executeQuery()) {
+                List<Version> versions = new ArrayList<Version>();
+                while (rs.next()) {
+                    Version version = new Version(rs, relevantCols.size());
+                    if (!versions.isEmpty() && !Objects.equals(versions.get(0).key, version.key)) {
+                        compactVersions(versions, compaction, threshold, updates, deletes);
+                        versions.clear();
+                    }
+                    versions.add(version);
+                }
+                compactVersions(versions, compaction, threshold, updates, deletes);
+            }
+        }
+
+        if (!updates.isEmpty()) {
+            try (PreparedStatement stmt = connection.prepareStatement("update " + hstTable + " set invalidated_at=? where hst_uuid=?")) {
+                for (Version version : updates) {
+                    stmt.setTimestamp(1, version.invalidatedAt);
+                    stmt.setString(2, version.hstUuid);
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+            }
+        }
+        if (!deletes.isEmpty()) {
+            try (PreparedStatement stmt = connection.prepareStatement("delete from " + hstTable + " where hst_uuid=?")) {
+                for (Version version : deletes) {
+                    stmt.setString(1, version.hstUuid);
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+            }
+        }
+
+        return new BatchResult(lastKey, deletes.size());
+    }
+
+    /**
+     * decides which versions of one key ordered by history timestamp are removed, the first version and all
+     * inserts and deletes are kept
+     */
+    private static void compactVersions(List<Version> versions, TemporalEntity.HistoryCompaction compaction, Timestamp threshold,
+                                        List<Version> updates, List<Version> deletes) {
+        List<Version> kept = new ArrayList<Version>();
+        List<Boolean> candidate = new ArrayList<Boolean>();
+
+        // remove versions without changes of history relevant columns compared to the previous kept version
+        for (Version version : versions) {
+            boolean isCandidate = !kept.isEmpty() && "U".equals(version.operation) &&
+                    version.invalidatedAt != null && !version.invalidatedAt.after(threshold);
+            if (isCandidate && Objects.deepEquals(kept.get(kept.size() - 1).values, version.values)) {
+                version.removed = true;
+                continue;
+            }
+            kept.add(version);
+            candidate.add(isCandidate);
+        }
+
+        // keep only the last version per period out of consecutive candidates
+        if (compaction != TemporalEntity.HistoryCompaction.CHANGES) {
+            for (int i = 0; i < kept.size() - 1; i++) {
+                if (candidate.get(i) && candidate.get(i + 1) &&
+                        truncate(kept.get(i).historyTimestamp, compaction).equals(truncate(kept.get(i + 1).historyTimestamp, compaction))) {
+                    kept.get(i).removed = true;
+                }
+            }
+        }
+
+        Version previous = null;
+        for (Version version : versions) {
+            if (version.removed) {
+                deletes.add(version);
+                previous.invalidatedAt = version.invalidatedAt;
+                previous.modified = true;
+            }
+            else {
+                if (previous != null && previous.modified) {
+                    updates.add(previous);
+                }
+                previous = version;
+            }
+        }
+        if (previous != null && previous.modified) {
+            updates.add(previous);
+        }
+    }
+
+    private static LocalDateTime truncate(Timestamp timestamp, TemporalEntity.HistoryCompaction compaction) {
+        LocalDateTime dateTime = timestamp.toLocalDateTime().truncatedTo(ChronoUnit.DAYS);
+        switch (compaction) {
+            case MONTH:
+                return dateTime.withDayOfMonth(1);
+            case YEAR:
+                return dateTime.withDayOfYear(1);
+            default:
+                return dateTime;
+        }
+    }
+
+    private static class Version {
+        private final String hstUuid;
+        private final String operation;
+        private final Timestamp historyTimestamp;
+        private Timestamp invalidatedAt;
+        private final Object key;
+        private final Object[] values;
+        private boolean removed;
+        private boolean modified;
+
+        private Version(ResultSet rs, int valueCount) throws SQLException {
+            hstUuid = rs.getString(1);
+            operation = rs.getString(2);
+            historyTimestamp = rs.getTimestamp(3);
+            invalidatedAt = rs.getTimestamp(4);
+            key = rs.getObject(5);
+            values = new Object[valueCount];
+            for (int i = 0; i < valueCount; i++) {
+                values[i] = getComparableValue(rs.getObject(6 + i));
+            }
+        }
+
+        private static Object getComparableValue(Object value) throws SQLException {
+            if (value instanceof Clob) {
+                return ((Clob) value).getSubString(1, (int) ((Clob) value).length());
+            }
+            if (value instanceof Blob) {
+                return ((Blob) value).getBytes(1, (int) ((Blob) value).length());
+            }
+            return value;
+        }
+    }
+
+    private static class BatchResult {
+        private final Object lastKey;
+        private final int removed;
+
+        private BatchResult(Object lastKey, int removed) {
+            this.lastKey = lastKey;
+            this.removed = removed;
+        }
+    }
+}
@@ -0,0 +1,516 @@
+/*
+ Copyright 2026 agent
+
+ Licensed under the Apache License, Version 2.0 (the License);
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+ http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an AS IS BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+*/
+package com.github.gekoh.yagen.util;
+
+import javax.sql.DataSource;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Writes the change records appended to HST_OUTBOX by the triggers of temporal entities using history capture
+ * {@link com.github.gekoh.yagen.api.TemporalEntity.HistoryCapture#OUTBOX} (PostgreSQL only) to their history tables.
+ * <p>
+ * Each history table is drained in its own transaction in outbox id order: the latest history entry is invalidated
+ * and the new one is inserted like the history triggers would have done, multiple modifications of one row within
+ * one transaction are merged into a single history entry. The drained records are deleted and the position is
+ * recorded in HST_OUTBOX_CURSOR within that same transaction, the row lock on the cursor serializes concurrent
+ * drainers of the same history table. Thus, after a crash, records are either drained completely or left in the
+ * outbox for the next run.
+ * <p>
+ * A history table failing to drain is rolled back and retried record by record, the other history tables are drained
+ * nevertheless. The failing record stays in the outbox and is recorded in HST_OUTBOX_CURSOR (failed_id,
+ * failed_attempts, last_error), after {@link #setMaxAttempts(int) max attempts} it is moved to HST_OUTBOX_DEAD_LETTER
+ * so that the following records of that table are drained again. The history of the affected row is incomplete then
+ * and has to be repaired manually. Connection failures are not counted as failed attempts.
+ * <p>
+ * Use {@link #drainAll()} for draining synchronously or {@link #start()} for draining in a background thread.
+ *
+ * @author agent
+ */
+public class HistoryOutboxDrainer implements Runnable {
+
+    private static final org.slf4j.Logger LOG = org.slf4j.LoggerFactory.getLogger(HistoryOutboxDrainer.class);
+
+    private static final long MAX_BACKOFF_MILLIS = 10000;
+
+    private final DataSource dataSource;
+
+    private int batchSize = 1000;
+    private int maxAttempts = 5;
+    private long idleMillis = 50;
+
+    private volatile Thread thread;
+
+    public HistoryOutboxDrainer(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    public void setBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batch size must be positive");
+        }
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * @param maxAttempts number of drains a record may fail before it is moved to HST_OUTBOX_DEAD_LETTER
+     */
+    public void setMaxAttempts(int maxAttempts) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("max attempts must be positive");
+        }
+        this.maxAttempts = maxAttempts;
+    }
+
+    public void setIdleMillis(long idleMillis) {
+        this.idleMillis = idleMillis;
+    }
+
+    /**
+     * drains at most one batch of records of every history table
+     *
+     * @return number of records removed from the outbox, i.e. drained or moved to HST_OUTBOX_DEAD_LETTER
+     */
+    public int drain() throws SQLException {
+        return drain(new ArrayList<String>());
+    }
+
+    /**
+     * drains batches until no more records could be removed from the outbox, a failing record is retried once per batch
+     *
+     * @return number of records removed from the outbox, i.e. drained or moved to HST_OUTBOX_DEAD_LETTER
+     */
+    public int drainAll() throws SQLException {
+        int drained = 0, batch;
+        while ((batch = drain()) > 0) {
+            drained += batch;
+        }
+        return drained;
+    }
+
+    /**
+     * @return history tables the oldest outbox record of which failed to drain and has not been moved to
+     * HST_OUTBOX_DEAD_LETTER yet, see HST_OUTBOX_CURSOR for the failure
+     */
+    public List<String> getFailingTables() throws SQLException {
+        List<String> tables = new ArrayList<String>();
+        try (Connection connection = dataSource.getConnection();
+             Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("select hst_table_name from HST_OUTBOX_CURSOR where failed_attempts > 0 order by hst_table_name")) {
+            while (rs.next()) {
+                tables.add(rs.getString(1));
+            }
+        }
+        return tables;
+    }
+
+    /**
+     * @return number of records moved to HST_OUTBOX_DEAD_LETTER
+     */
+    public long getDeadLetterCount() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("select count(*) from HST_OUTBOX_DEAD_LETTER")) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    public synchronized void start() {
+        if (thread != null) {
+            throw new IllegalStateException("history outbox drainer already started");
+        }
+        thread = new Thread(this, "yagen-history-outbox-drainer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * stops the background thread after the batch currently drained
+     */
+    public synchronized void stop() throws InterruptedException {
+        Thread running = thread;
+        thread = null;
+        if (running != null) {
+            running.interrupt();
+            running.join();
+        }
+    }
+
+    @Override
+    public void run() {
+        long backoffMillis = idleMillis;
+        while (thread == Thread.currentThread()) {
+            try {
+                List<String> failedTables = new ArrayList<String>();
+                int drained = drain(failedTables);
+                if (failedTables.isEmpty()) {
+                    backoffMillis = idleMillis;
+                    if (drained < 1) {
+                        Thread.sleep(idleMillis);
+                    }
+                    continue;
+                }
+                LOG.warn("failed draining history tables {}, retrying in {} ms", failedTables, backoffMillis);
+            } catch (SQLException | RuntimeException e) {
+                LOG.error("error draining history outbox, retrying in {} ms", backoffMillis, e);
+            } catch (InterruptedException e) {
+                break;
+            }
+            try {
+                Thread.sleep(backoffMillis);
+            } catch (InterruptedException ie) {
+                break;
+            }
+            backoffMillis = Math.min(MAX_BACKOFF_MILLIS, Math.max(1, backoffMillis) * 2);
+        }
+    }
+
+    private int drain(List<String> failedTables) throws SQLException {
+        int drained = 0;
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                for (OutboxTable table : getOutboxTables(connection)) {
+                    try {
+                        drained += drain(connection, table, batchSize);
+                        connection.commit();
+                    } catch (SQLException | RuntimeException e) {
+                        connection.rollback();
+                        if (isSqlStateClass(e, "08")) {
+                            // connection lost, no other table can be drained either
+                            throw e;
+                        }
+                        if (isSqlStateClass(e, "40")) {
+                            LOG.warn("draining history table {} has been rolled back, retrying with next drain", table.hstTableName, e);
+                            failedTables.add(table.hstTableName);
+                            continue;
+                        }
+                        LOG.warn("failed draining history table {}, retrying record by record", table.hstTableName, e);
+                        drained += drainFailing(connection, table, failedTables);
+                    }
+                }
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        }
+        return drained;
+    }
+
+    /**
+     * drains the records of the failed batch one by one up to the failing one, which is recorded in HST_OUTBOX_CURSOR
+     * and moved to HST_OUTBOX_DEAD_LETTER after it failed {@link #setMaxAttempts(int) max attempts} times
+     */
+    private int drainFailing(Connection connection, OutboxTable table, List<String> failedTables) throws SQLException {
+        int drained = 0;
+        for (int i = 0; i < batchSize; i++) {
+            try {
+                int count = drain(connection, table, 1);
+                connection.commit();
+                if (count < 1) {
+                    break;
+                }
+                drained += count;
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                if (isSqlStateClass(e, "08")) {
+                    throw e;
+                }
+                int deadLettered = recordFailure(connection, table, e);
+                connection.commit();
+                if (deadLettered < 1) {
+                    failedTables.add(table.hstTableName);
+                }
+                drained += deadLettered;
+                break;
+            }
+        }
+        return drained;
+    }
+
+    private int recordFailure(Connection connection, OutboxTable table, Exception error) throws SQLException {
+        Long id = null;
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("select min(id) from " + table.partitionName)) {
+            if (rs.next()) {
+                id = (Long) rs.getObject(1);
+            }
+        }
+        if (id == null) {
+            return 0;
+        }
+
+        String message = error.getMessage() != null ? error.getMessage() : error.toString();
+        if (message.length() > 4000) {
+            message = message.substring(0, 4000);
+        }
+
+        insertCursor(connection, table);
+        int attempts;
+        try (PreparedStatement stmt = connection.prepareStatement("update HST_OUTBOX_CURSOR set " +
+                "failed_attempts=case when failed_id=? then failed_attempts+1 else 1 end, failed_id=?, last_error=?, failed_at=localtimestamp " +
+                "where hst_table_name=? returning failed_attempts")) {
+            stmt.setLong(1, id);
+            stmt.setLong(2, id);
+            stmt.setString(3, message);
+            stmt.setString(4, table.hstTableName);
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                attempts = rs.getInt(1);
+            }
+        }
+
+        if (attempts < maxAttempts) {
+            LOG.error("unable to drain outbox record {} into history table {}, attempt {} of {}", new Object[]{id, table.hstTableName, attempts, maxAttempts, error});
+            return 0;
+        }
+
+        try (PreparedStatement stmt = connection.prepareStatement("with moved as (delete from " + table.partitionName + " where id=? returning *) " +
+                "insert into HST_OUTBOX_DEAD_LETTER (id, hst_table_name, transaction_timestamp, operation, key_data, row_data, error_message, failed_at) " +
+                "select id, hst_table_name, transaction_timestamp, operation, key_data, row_data, ?, localtimestamp from moved")) {
+            stmt.setLong(1, id);
+            stmt.setString(2, message);
+            stmt.executeUpdate();
+        }
+        try (PreparedStatement stmt = connection.prepareStatement("update HST_OUTBOX_CURSOR set last_id=greatest(last_id, ?), " +
+                "dead_lettered=dead_lettered+1, failed_id=null, failed_attempts=0 where hst_table_name=?")) {
+            stmt.setLong(1, id);
+            stmt.setString(2, table.hstTableName);
+            stmt.executeUpdate();
+        }
+        LOG.error("moved outbox record {} of history table {} to HST_OUTBOX_DEAD_LETTER after {} attempts, history of that row is incomplete",
+                new Object[]{id, table.hstTableName, attempts, error});
+        return 1;
+    }
+
+    private static boolean isSqlStateClass(Exception e, String sqlStateClass) {
+        return e instanceof SQLException && ((SQLException) e).getSQLState() != null
+                && ((SQLException) e).getSQLState().startsWith(sqlStateClass);
+    }
+
+    private List<OutboxTable> getOutboxTables(Connection connection) throws SQLException {
+        List<OutboxTable> tables = new ArrayList<OutboxTable>();
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("select hst_table_name, live_table_name, hst_timestamp_column, pk_columns, nullable_pk_columns, columns from HST_OUTBOX_TABLE order by hst_table_name")) {
+            while (rs.next()) {
+                tables.add(new OutboxTable(rs.getString(1), rs.getString(2), rs.getString(3), rs.getString(4), rs.getString(5), rs.getString(6)));
+            }
+        }
+        connection.commit();
+        return tables;
+    }
+
+    private void insertCursor(Connection connection, OutboxTable table) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement("insert into HST_OUTBOX_CURSOR (hst_table_name, last_id, drained_rows) values (?, 0, 0) on conflict do nothing")) {
+            stmt.setString(1, table.hstTableName);
+            stmt.executeUpdate();
+        }
+    }
+
+    private int drain(Connection connection, OutboxTable table, int limit) throws SQLException {
+        insertCursor(connection, table);
+        try (PreparedStatement stmt = connection.prepareStatement("select last_id from HST_OUTBOX_CURSOR where hst_table_name=? for update")) {
+            stmt.setString(1, table.hstTableName);
+            stmt.executeQuery().close();
+        }
+
+        // records are split into chunks of distinct primary keys, within a chunk the invalidations and inserts
+        // can therefore be executed in separate batches
+        List<List<Long>> chunks = new ArrayList<List<Long>>();
+        List<Long> ids = new ArrayList<Long>();
+        Set<Long> invalidatingIds = new HashSet<Long>();
+        try (PreparedStatement stmt = connection.prepareStatement(table.selectSql)) {
+            stmt.setInt(1, limit);
+            try (ResultSet rs = stmt.executeQuery()) {
+                List<Long> chunk = new ArrayList<Long>();
+                Set<String> chunkKeys = new HashSet<String>();
+                while (rs.next()) {
+                    long id = rs.getLong(1);
+                    String newKey = rs.getString(3);
+                    String oldKey = rs.getString(4);
+                    if ((newKey != null && chunkKeys.contains(newKey)) || (oldKey != null && chunkKeys.contains(oldKey))) {
+                        chunks.add(chunk);
+                        chunk = new ArrayList<Long>();
+                        chunkKeys.clear();
+                    }
+                    if (newKey != null) {
+                        chunkKeys.add(newKey);
+                    }
+                    if (oldKey != null) {
+                        chunkKeys.add(oldKey);
+                        invalidatingIds.add(id);
+                    }
+                    chunk.add(id);
+                    ids.add(id);
+                }
+                if (!chunk.isEmpty()) {
+                    chunks.add(chunk);
+                }
+            }
+        }
+
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        try (PreparedStatement stmtInvalidate = connection.prepareStatement(table.invalidateSql);
+             PreparedStatement stmtInsert = connection.prepareStatement(table.insertSql)) {
+            for (List<Long> chunk : chunks) {
+                List<Long> invalidating = new ArrayList<Long>();
+                for (Long id : chunk) {
+                    if (invalidatingIds.contains(id)) {
+                        stmtInvalidate.setLong(1, id);
+                        stmtInvalidate.addBatch();
+                        invalidating.add(id);
+                    }
+                    stmtInsert.setLong(1, id);
+                    stmtInsert.addBatch();
+                }
+                if (!invalidating.isEmpty()) {
+                    checkInvalidated(connection, table, invalidating, stmtInvalidate.executeBatch());
+                }
+                stmtInsert.executeBatch();
+            }
+        }
+
+        long lastId = ids.get(ids.size() - 1);
+        try (PreparedStatement stmt = connection.prepareStatement("update HST_OUTBOX_CURSOR set last_id=?, drained_rows=drained_rows+?, drained_at=localtimestamp, " +
+                "last_transaction_timestamp=(select transaction_timestamp from " + table.partitionName + " where id=?), " +
+                "failed_attempts=case when failed_id<=? then 0 else failed_attempts end, " +
+                "failed_id=case when failed_id<=? then null else failed_id end where hst_table_name=?")) {
+            stmt.setLong(1, lastId);
+            stmt.setLong(2, ids.size());
+            stmt.setLong(3, lastId);
+            stmt.setLong(4, lastId);
+            stmt.setLong(5, lastId);
+            stmt.setString(6, table.hstTableName);
+            stmt.executeUpdate();
+        }
+
+        Array idArray = connection.createArrayOf("bigint", ids.toArray());
+        try (PreparedStatement stmt = connection.prepareStatement("delete from " + table.partitionName + " where id = any(?)")) {
+            stmt.setArray(1, idArray);
+            int deleted = stmt.executeUpdate();
+            if (deleted != ids.size()) {
+                throw new IllegalStateException("deleted " + deleted + " instead of " + ids.size() + " records from " + table.partitionName);
+            }
+        } finally {
+            idArray.free();
+        }
+
+        LOG.debug("drained {} records into history table {}", ids.size(), table.hstTableName);
+        return ids.size();
+    }
+
+    /**
+     * like the history triggers, fails unless exactly the latest history entry of each updated or deleted row has been
+     * invalidated, no entry is invalidated if the row has already been modified within the same transaction
+     */
+    private void checkInvalidated(Connection connection, OutboxTable table, List<Long> ids, int[] updateCounts) throws SQLException {
+        for (int i = 0; i < ids.size(); i++) {
+            if (updateCounts[i] == 1) {
+                continue;
+            }
+            if (updateCounts[i] == 0 || updateCounts[i] == Statement.SUCCESS_NO_INFO) {
+                try (PreparedStatement stmt = connection.prepareStatement(table.checkInvalidatedSql)) {
+                    stmt.setLong(1, ids.get(i));
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        if (rs.next() && rs.getInt(1) == 0 && rs.getInt(2) > 0) {
+                            continue;
+                        }
+                    }
+                }
+            }
+            throw new SQLException("unable to invalidate history record for outbox record " + ids.get(i) + " of " +
+                    table.hstTableName + ", update count " + updateCounts[i], "20100", -20100);
+        }
+    }
+
+    private static class OutboxTable {
+        private final String hstTableName;
+        private final String partitionName;
+        private final String selectSql;
+        private final String invalidateSql;
+        private final String checkInvalidatedSql;
+        private final String insertSql;
+
+        OutboxTable(String hstTableName, String liveTableName, String hstTimestampColumn, String pkColumns, String nullablePkColumns, String columns) {
+            this.hstTableName = hstTableName;
+            this.partitionName = hstTableName + "_obx";
+
+            Set<String> nullablePks = new HashSet<String>();
+            if (nullablePkColumns != null) {
+                for (String column : nullablePkColumns.split(",")) {
+                    nullablePks.add(column);
+                }
+            }
+            StringBuilder pkMatch = new StringBuilder();
+            for (String column : pkColumns.split(",")) {
+                pkMatch.append(" and ");
+                if (nullablePks.contains(column)) {
+                    pkMatch.append("((h.").append(column).append(" is null and r.").append(column).append(" is null) or ");
+                    pkMatch.append("h.").append(column).append("=r.").append(column).append(")");
+                }
+                else {
+                    pkMatch.append("h.").append(column).append("=r.").append(column);
+                }
+            }
+            String rowType = "null::" + liveTableName;
+
+            selectSql = "select o.id, o.operation, " +
+                    "(select jsonb_object_agg(k, o.row_data->k) from unnest(string_to_array('" + pkColumns + "', ',')) k)::text, " +
+                    "o.key_data::text " +
+                    "from " + partitionName + " o order by o.id limit ?";
+
+            invalidateSql = "update " + hstTableName + " h set invalidated_at=o.transaction_timestamp " +
+                    "from " + partitionName + " o, jsonb_populate_record(" + rowType + ", o.key_data) r " +
+                    "where o.id=?" + pkMatch +
+                    " and h." + hstTimestampColumn + " < o.transaction_timestamp" +
+                    " and h.operation <> 'D' and h.invalidated_at is null";
+
+            // number of still valid older entries and of entries invalidated or written within the same transaction
+            checkInvalidatedSql = "select " +
+                    "(select count(*) from " + hstTableName + " h where h." + hstTimestampColumn + " < o.transaction_timestamp" + pkMatch +
+                    " and h.operation <> 'D' and h.invalidated_at is null), " +
+                    "(select count(*) from " + hstTableName + " h where (h.invalidated_at=o.transaction_timestamp or h." +
+                    hstTimestampColumn + "=o.transaction_timestamp)" + pkMatch + ") " +
+                    "from " + partitionName + " o, jsonb_populate_record(" + rowType + ", o.key_data) r where o.id=?";
+
+            StringBuilder selectColumns = new StringBuilder();
+            for (String column : columns.split(",")) {
+                selectColumns.append("r.").append(column).append(", ");
+            }
+            // an entry of the same transaction is replaced, the merged operation is I if the row has been inserted
+            // within that transaction and there is no entry at all if it has also been deleted again
+            insertSql = "with o as (select * from " + partitionName + " where id=?), " +
+                    "prev as (delete from " + hstTableName + " h using o, jsonb_populate_record(" + rowType + ", o.row_data) r " +
+                    "where h." + hstTimestampColumn + "=o.transaction_timestamp" + pkMatch + " returning h.operation) " +
+                    "insert into " + hstTableName + " (" + columns + ", hst_uuid, operation, " + hstTimestampColumn + ") " +
+                    "select " + selectColumns + "sys_guid(), case when prev.operation='I' then 'I' else o.operation end, o.transaction_timestamp " +
+                    "from o cross join jsonb_populate_record(" + rowType + ", o.row_data) r left join prev on true " +
+                    "where not (coalesce(prev.operation, 'U')='I' and o.operation='D')";
+        }
+    }
+}
@@ -0,0 +1,552 @@
+/*
+ Copyright 2026 agent
+
+ Licensed under the Apache License, Version 2.0 (the License);
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+ http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an AS IS BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+*/
+package com.github.gekoh.yagen.util;
+
+import com.github.gekoh.yagen.api.AuditInfo;
+import org.hsqldb.HsqlException;
+import org.hsqldb.Session;
+import org.hsqldb.Table;
+import org.hsqldb.Trigger;
+import org.hsqldb.jdbc.JDBCConnection;
+import org.hsqldb.jdbc.JDBCDriver;
+import org.hsqldb.types.Type;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Audit and history trigger for HSQLDB implemented in java, created instead of the SQL/PSM triggers of templates
+ * AuditTrigger*SingleOperation.vm.pl.sql and HstTriggerSingleOperation.vm.pl.sql if enabled by property
+ * {@value DBHelper#PROPERTY_HSQLDB_TRIGGER_LANGUAGE}.
+ * <p>
+ * Before row triggers maintain the audit columns, after row triggers write the history table using HST_CURRENT_TRANSACTION
+ * and HST_MODIFIED_ROW like the SQL/PSM triggers do. The configuration of each trigger is read from table
+ * JAVA_TRIGGER_CONFIG on first execution, statements are prepared once per session. Triggers have to be created with
+ * queue size 0, so they are executed synchronously in the session modifying the table.
+ * <p>
+ * Table metadata, type conversions and the session connection are taken from HSQLDB internal classes
+ * (org.hsqldb.Session, org.hsqldb.Table, org.hsqldb.types.Type), so the HSQLDB version on the classpath has to
+ * match the one this library is built with. hsqldb is an optional dependency of this library.
+ *
+ * @author agent
+ */
+public class HsqlDbTrigger implements Trigger {
+
+    private static final String CLIENT_IDENTIFIER = "CLIENT_IDENTIFIER";
+
+    private static final Pattern MAIL_ADDRESS_PATTERN = Pattern.compile("^(.*)@.*$");
+    private static final Pattern DISTINGUISHED_NAME_PATTERN = Pattern.compile("^.*CN=([^, ]*).*$");
+
+    private final Map<Connection, Map<String, PreparedStatement>> sessionStatements = new IdentityHashMap<Connection, Map<String, PreparedStatement>>();
+
+    private volatile Config config;
+
+    @Override
+    public void fire(int type, String trigName, String tabName, Object[] oldRow, Object[] newRow) {
+        JDBCConnection connection = JDBCDriver.driverInstance.threadConnection.get();
+        if (connection == null) {
+            throw new IllegalStateException("no session connection available in trigger " + trigName + ", trigger has to be created with queue 0");
+        }
+        Session session = (Session) connection.getSession();
+
+        try {
+            Config config = getConfig(session, connection, trigName, tabName);
+            Invocation invocation = new Invocation(session, connection, config, getStatements(connection));
+
+            if (config.checkBypass && invocation.isBypassed()) {
+                return;
+            }
+            if (config.listenerBypass && invocation.isListenerWriting()) {
+                return;
+            }
+
+            switch (type) {
+                case INSERT_BEFORE_ROW:
+                case UPDATE_BEFORE_ROW:
+                    invocation.audit(oldRow, newRow);
+                    break;
+                case INSERT_AFTER_ROW:
+                    invocation.history("I", null, newRow);
+                    break;
+                case UPDATE_AFTER_ROW:
+                    if (invocation.isHistoryRelevantChange(oldRow, newRow)) {
+                        invocation.history("U", oldRow, newRow);
+                    }
+                    break;
+                case DELETE_AFTER_ROW:
+                    invocation.history("D", oldRow, null);
+                    break;
+                default:
+                    throw new IllegalStateException("unsupported type " + type + " of trigger " + trigName);
+            }
+        } catch (SQLException e) {
+            throw new HsqlException(e, e.getMessage(), e.getSQLState(), e.getErrorCode());
+        }
+    }
+
+    private Config getConfig(Session session, Connection connection, String trigName, String tabName) throws SQLException {
+        Config current = config;
+        if (current == null) {
+            synchronized (this) {
+                current = config;
+                if (current == null) {
+                    current = config = new Config(session, connection, trigName, tabName);
+                }
+            }
+        }
+        return current;
+    }
+
+    private Map<String, PreparedStatement> getStatements(Connection connection) throws SQLException {
+        synchronized (sessionStatements) {
+            Map<String, PreparedStatement> statements = sessionStatements.get(connection);
+            if (statements == null) {
+                for (Iterator<Connection> it = sessionStatements.keySet().iterator(); it.hasNext(); ) {
+                    if (it.next().isClosed()) {
+                        it.remove();
+                    }
+                }
+                statements = new HashMap<String, PreparedStatement>();
+                sessionStatements.put(connection, statements);
+            }
+            return statements;
+        }
+    }
+
+    /**
+     * equivalent of function get_audit_user
+     */
+    static String getAuditUser(String clientUser, String dbUser, String clientIdentifier, int auditUserLength) {
+        String userName = "unknown".equalsIgnoreCase(clientUser) ? null : clientUser;
+
+        userName = userName != null ? userName : clientIdentifier != null ? clientIdentifier : DBHelper.getOsUser();
+        if (userName != null) {
+            userName = MAIL_ADDRESS_PATTERN.matcher(userName).replaceAll("$1");
+            userName = DISTINGUISHED_NAME_PATTERN.matcher(userName).replaceAll("$1");
+            userName = substr(userName, auditUserLength - 3 - dbUser.length());
+        }
+
+        return dbUser + (userName != null && !dbUser.equalsIgnoreCase(userName) ? " (" + userName + ")" : "");
+    }
+
+    private static String substr(String value, int length) {
+        return value != null && value.length() > length ? value.substring(0, Math.max(0, length)) : value;
+    }
+
+    private static class Config {
+        private final String tableName;
+        private final String objectName;
+        private final boolean checkBypass;
+        private final boolean listenerBypass;
+        private final boolean timeOrderedGuid;
+        private final int auditUserLength;
+        private final int modifierColumnLength;
+
+        private final Type[] types;
+
+        private final int createdAt;
+        private final int createdBy;
+        private final int lastModifiedAt;
+        private final int lastModifiedBy;
+
+        private final String hstTableName;
+        private final int[] pkColumns;
+        private final String[] pkColumnNames;
+        private final boolean nullablePk;
+        private final int[] histRelevantColumns;
+        private final String invalidateSql;
+        private final String insertSql;
+        private final String deleteRowSql;
+
+        Config(Session session, Connection connection, String trigName, String tabName) throws SQLException {
+            Table table = session.database.schemaManager.getUserTable(tabName, session.getCurrentSchemaHsqlName().name);
+            tableName = tabName;
+            types = table.getColumnTypes();
+            createdAt = table.findColumn(AuditInfo.CREATED_AT.toUpperCase());
+            createdBy = table.findColumn(AuditInfo.CREATED_BY.toUpperCase());
+            lastModifiedAt = table.findColumn(AuditInfo.LAST_MODIFIED_AT.toUpperCase());
+            lastModifiedBy = table.findColumn(AuditInfo.LAST_MODIFIED_BY.toUpperCase());
+
+            String histColName;
+            String pkColumnList, histRelevantColumnList;
+            try (PreparedStatement stmt = connection.prepareStatement("select object_name, check_bypass, time_ordered_guid, audit_user_length, " +
+                    "modifier_column_length, hst_table_name, hst_timestamp_column, pk_columns, hst_relevant_columns, listener_bypass from JAVA_TRIGGER_CONFIG where trigger_name=?")) {
+                stmt.setString(1, trigName);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (!rs.next()) {
+                        throw new IllegalStateException("no configuration for trigger " + trigName + " found in table JAVA_TRIGGER_CONFIG");
+                    }
+                    objectName = rs.getString(1);
+                    checkBypass = rs.getBoolean(2);
+                    timeOrderedGuid = rs.getBoolean(3);
+                    auditUserLength = rs.getInt(4);
+                    modifierColumnLength = rs.getInt(5);
+                    hstTableName = rs.getString(6);
+                    histColName = rs.getString(7);
+                    pkColumnList = rs.getString(8);
+                    histRelevantColumnList = rs.getString(9);
+                    listenerBypass = rs.getBoolean(10);
+                }
+            }
+
+            if (hstTableName == null) {
+                pkColumns = histRelevantColumns = null;
+                pkColumnNames = null;
+                nullablePk = false;
+                invalidateSql = insertSql = deleteRowSql = null;
+                return;
+            }
+
+            pkColumnNames = pkColumnList.split(",");
+            pkColumns = findColumns(table, pkColumnNames);
+            histRelevantColumns = findColumns(table, histRelevantColumnList.length() > 0 ? histRelevantColumnList.split(",") : new String[0]);
+            boolean nullable = false;
+            for (int pkColumn : pkColumns) {
+                nullable |= table.getColumn(pkColumn).isNullable();
+            }
+            nullablePk = nullable;
+
+            Table hstTable = session.database.schemaManager.getUserTable(hstTableName.toUpperCase(), table.getSchemaName().name);
+            Type[] hstTypes = hstTable.getColumnTypes();
+
+            StringBuilder columns = new StringBuilder();
+            StringBuilder selectColumns = new StringBuilder();
+            StringBuilder deleteValues = new StringBuilder();
+            for (int i = 0; i < table.getColumnCount(); i++) {
+                String column = table.getColumn(i).getNameString();
+                if (column.equalsIgnoreCase(histColName)) {
+                    continue;
+                }
+                columns.append(column).append(", ");
+                if (i == lastModifiedBy) {
+                    selectColumns.append("coalesce(cast(? as ").append(types[i].getTypeDefinition()).append("), ").append(column).append("), ");
+                    deleteValues.append("?, ");
+                }
+                else {
+                    selectColumns.append(column).append(", ");
+                    deleteValues.append(isPkColumn(i) ? "?, " : "null, ");
+                }
+            }
+            columns.append("hst_uuid, operation, ").append(histColName);
+
+            Type hstTimestampType = hstTypes[hstTable.findColumn(histColName.toUpperCase())];
+            invalidateSql = "update " + hstTableName + " set invalidated_at=? where " + histColName + " < ? and operation <> 'D' and invalidated_at is null and ";
+            insertSql = "insert into " + hstTableName + " (" + columns + ") select " + selectColumns +
+                    "cast(? as " + hstTypes[hstTable.findColumn("HST_UUID")].getTypeDefinition() + "), " +
+                    "cast(? as " + hstTypes[hstTable.findColumn("OPERATION")].getTypeDefinition() + "), " +
+                    "cast(? as " + hstTimestampType.getTypeDefinition() + ") from " + tabName + " where ";
+            deleteRowSql = "insert into " + hstTableName + " (" + columns + ") values (" + deleteValues + "?, ?, ?)";
+        }
+
+        private static int[] findColumns(Table table, String[] columnNames) {
+            int[] columns = new int[columnNames.length];
+            for (int i = 0; i < columnNames.length; i++) {
+                columns[i] = table.findColumn(columnNames[i].toUpperCase());
+                if (columns[i] < 0) {
+                    throw new IllegalStateException("column " + columnNames[i] + " not found in table " + table.getName().name);
+                }
+            }
+            return columns;
+        }
+
+        private boolean isPkColumn(int column) {
+            for (int pkColumn : pkColumns) {
+                if (pkColumn == column) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static class Invocation {
+        private final Session session;
+        private final Connection connection;
+        private final Config config;
+        private final Map<String, PreparedStatement> statements;
+
+        private boolean sessionVariablesRead;
+        private String bypassRegex;
+        private String clientIdentifier;
+        private boolean listenerWriting;
+
+        Invocation(Session session, Connection connection, Config config, Map<String, PreparedStatement> statements) {
+            this.session = session;
+            this.connection = connection;
+            this.config = config;
+            this.statements = statements;
+        }
+
+        private PreparedStatement prepare(String sql) throws SQLException {
+            PreparedStatement stmt = statements.get(sql);
+            if (stmt == null) {
+                stmt = connection.prepareStatement(sql);
+                statements.put(sql, stmt);
+            }
+            return stmt;
+        }
+
+        private void readSessionVariables() throws SQLException {
+            if (sessionVariablesRead) {
+                return;
+            }
+            PreparedStatement stmt = prepare("select name, value from SESSION_VARIABLES where name in ('" + DBHelper.PROPERTY_BYPASS_REGEX + "', '" +
+                    CLIENT_IDENTIFIER + "', '" + DBHelper.SESSION_VARIABLE_HISTORY_LISTENER + "')");
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    if (CLIENT_IDENTIFIER.equals(rs.getString(1))) {
+                        clientIdentifier = rs.getString(2);
+                    }
+                    else if (DBHelper.SESSION_VARIABLE_HISTORY_LISTENER.equals(rs.getString(1))) {
+                        listenerWriting = true;
+                    }
+                    else {
+                        bypassRegex = rs.getString(2);
+                    }
+                }
+            }
+            sessionVariablesRead = true;
+        }
+
+        /**
+         * equivalent of functions is_statically_bypassed and is_bypassed
+         */
+        boolean isBypassed() throws SQLException {
+            if (DBHelper.isStaticallyBypassed(config.objectName)) {
+                return true;
+            }
+            readSessionVariables();
+            return bypassRegex != null && PatternCache.getPattern(bypassRegex).matcher(config.objectName.toUpperCase()).matches();
+        }
+
+        /**
+         * @return true if the modification is flushed by {@link com.github.gekoh.yagen.hibernate.HistoryEventListener}
+         * which writes the history itself
+         */
+        boolean isListenerWriting() throws SQLException {
+            readSessionVariables();
+            return listenerWriting;
+        }
+
+        private String getAuditUser(String clientUser) throws SQLException {
+            readSessionVariables();
+            return substr(HsqlDbTrigger.getAuditUser(clientUser, session.getUsername(), clientIdentifier, config.auditUserLength), config.modifierColumnLength);
+        }
+
+        private Object getAuditTimestamp(int column) {
+            Type type = config.types[column];
+            return type.convertToTypeLimits(session, type.convertJavaToSQL(session, DBHelper.getCurrentTimestamp()));
+        }
+
+        private boolean isChanged(int column, Object[] oldRow, Object[] newRow) {
+            Object oldValue = oldRow[column], newValue = newRow[column];
+            if (oldValue == null || newValue == null) {
+                return oldValue != newValue;
+            }
+            return config.types[column].compare(session, oldValue, newValue) != 0;
+        }
+
+        void audit(Object[] oldRow, Object[] newRow) throws SQLException {
+            if (config.createdAt >= 0 && config.createdBy >= 0 && config.lastModifiedBy >= 0) {
+                if (oldRow == null) {
+                    String userName = newRow[config.createdAt] != null ? (String) newRow[config.createdBy] : null;
+                    newRow[config.createdBy] = getAuditUser(userName);
+                    newRow[config.createdAt] = getAuditTimestamp(config.createdAt);
+                    newRow[config.lastModifiedAt] = null;
+                    newRow[config.lastModifiedBy] = null;
+                }
+                else {
+                    String userName = newRow[config.lastModifiedAt] != null && (oldRow[config.lastModifiedAt] == null || isChanged(config.lastModifiedAt, oldRow, newRow))
+                            ? (String) newRow[config.lastModifiedBy] : null;
+                    newRow[config.createdAt] = oldRow[config.createdAt];
+                    newRow[config.createdBy] = oldRow[config.createdBy];
+                    newRow[config.lastModifiedBy] = getAuditUser(userName);
+                    newRow[config.lastModifiedAt] = getAuditTimestamp(config.lastModifiedAt);
+                }
+            }
+            else {
+                if (config.lastModifiedBy >= 0) {
+                    String userName = newRow[config.lastModifiedAt] != null && (oldRow == null || oldRow[config.lastModifiedAt] == null || isChanged(config.lastModifiedAt, oldRow, newRow))
+                            ? (String) newRow[config.lastModifiedBy] : null;
+                    newRow[config.lastModifiedBy] = getAuditUser(userName);
+                }
+                newRow[config.lastModifiedAt] = getAuditTimestamp(config.lastModifiedAt);
+            }
+        }
+
+        boolean isHistoryRelevantChange(Object[] oldRow, Object[] newRow) {
+            for (int column : config.histRelevantColumns) {
+                if (isChanged(column, oldRow, newRow)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private Timestamp getTransactionTimestamp() throws SQLException {
+            PreparedStatement stmt = prepare("select transaction_timestamp from HST_CURRENT_TRANSACTION where transaction_id=0");
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return rs.getTimestamp(1);
+                }
+            }
+            prepare("insert into HST_CURRENT_TRANSACTION (transaction_id, transaction_timestamp) values (0, get_audit_timestamp())").executeUpdate();
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next()) {
+                    throw new SQLException("no transaction timestamp found in HST_CURRENT_TRANSACTION");
+                }
+                return rs.getTimestamp(1);
+            }
+        }
+
+        /**
+         * @return condition on the primary key columns of the live table, with one parameter per non null value
+         */
+        private String getPkCondition(Object[] row) {
+            StringBuilder condition = new StringBuilder();
+            for (int i = 0; i < config.pkColumns.length; i++) {
+                condition.append(i > 0 ? " and " : "").append(config.pkColumnNames[i])
+                        .append(config.nullablePk && row[config.pkColumns[i]] == null ? " is null" : "=?");
+            }
+            return condition.toString();
+        }
+
+        private int setPkParameters(PreparedStatement stmt, int idx, Object[] row) throws SQLException {
+            for (int pkColumn : config.pkColumns) {
+                Object value = row[pkColumn];
+                if (value != null) {
+                    stmt.setObject(idx++, config.types[pkColumn].convertSQLToJava(session, value));
+                }
+            }
+            return idx;
+        }
+
+        private String getRowId(Object[] row) {
+            StringBuilder rowId = new StringBuilder();
+            for (int pkColumn : config.pkColumns) {
+                Object value = row[pkColumn];
+                if (value != null) {
+                    rowId.append(config.types[pkColumn].convertToString(value));
+                }
+            }
+            return rowId.toString();
+        }
+
+        void history(String operation, Object[] oldRow, Object[] newRow) throws SQLException {
+            Object[] row = newRow != null ? newRow : oldRow;
+            Timestamp transactionTimestamp = getTransactionTimestamp();
+            String rowId = getRowId(row);
+            String hstOperation = operation;
+            String hstUuid = null;
+
+            PreparedStatement stmt = prepare("select operation, hst_uuid from HST_MODIFIED_ROW where table_name=? and row_id=?");
+            stmt.setString(1, config.tableName);
+            stmt.setString(2, rowId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    String prevOperation = rs.getString(1);
+                    hstUuid = rs.getString(2);
+                    if ("I".equals(prevOperation) && "U".equals(operation)) {
+                        hstOperation = "I";
+                    }
+                    else if ("I".equals(prevOperation) && "D".equals(operation)) {
+                        hstOperation = null;
+                    }
+                }
+            }
+
+            if (hstUuid == null) {
+                hstUuid = config.timeOrderedGuid ? DBHelper.createTimeOrderedUUID() : DBHelper.createUUID();
+
+                stmt = prepare("insert into HST_MODIFIED_ROW (table_name, row_id, operation, hst_table_name, hst_uuid) values (?, ?, ?, ?, ?)");
+                stmt.setString(1, config.tableName);
+                stmt.setString(2, rowId);
+                stmt.setString(3, operation);
+                stmt.setString(4, config.hstTableName);
+                stmt.setString(5, hstUuid);
+                stmt.executeUpdate();
+
+                if (!"I".equals(operation)) {
+                    invalidate(oldRow, transactionTimestamp);
+                }
+            }
+            else {
+                stmt = prepare("delete from " + config.hstTableName + " where hst_uuid=?");
+                stmt.setString(1, hstUuid);
+                stmt.executeUpdate();
+            }
+
+            if (hstOperation == null) {
+                return;
+            }
+
+            int idx = 1;
+            if ("D".equals(operation)) {
+                stmt = prepare(config.deleteRowSql);
+                for (int i = 0; i < config.types.length; i++) {
+                    if (i == config.lastModifiedBy) {
+                        stmt.setString(idx++, getAuditUser(null));
+                    }
+                    else if (config.isPkColumn(i)) {
+                        Object value = row[i];
+                        stmt.setObject(idx++, value != null ? config.types[i].convertSQLToJava(session, value) : null);
+                    }
+                }
+            }
+            else {
+                stmt = prepare(config.insertSql + getPkCondition(row));
+                if (config.lastModifiedBy >= 0) {
+                    stmt.setString(idx++, "I".equals(operation) ? getAuditUser(null) : null);
+                }
+            }
+            stmt.setString(idx++, hstUuid);
+            stmt.setString(idx++, hstOperation);
+            stmt.setTimestamp(idx++, transactionTimestamp);
+            if (!"D".equals(operation)) {
+                setPkParameters(stmt, idx, row);
+            }
+
+            if (stmt.executeUpdate() != 1) {
+                throw new IllegalStateException("unable to insert history record into " + config.hstTableName + " for " + config.tableName + " row " + rowId);
+            }
+        }
+
+        private void invalidate(Object[] row, Timestamp transactionTimestamp) throws SQLException {
+            PreparedStatement stmt = prepare(config.invalidateSql + getPkCondition(row));
+            stmt.setTimestamp(1, transactionTimestamp);
+            stmt.setTimestamp(2, transactionTimestamp);
+            setPkParameters(stmt, 3, row);
+
+            if (stmt.executeUpdate() != 1) {
+                StringBuilder msg = new StringBuilder("unable to invalidate history record for ").append(config.tableName);
+                for (int i = 0; i < config.pkColumns.length; i++) {
+                    Object value = row[config.pkColumns[i]];
+                    msg.append(' ').append(config.pkColumnNames[i]).append("='")
+                            .append(value != null ? config.types[config.pkColumns[i]].convertToString(value) : "").append("'");
+                }
+                throw org.hsqldb.error.Error.error(msg.toString(), "20100");
+            }
+        }
+    }
+}
@@ -0,0 +1,340 @@
+/*
+ Copyright 2026 agent
+
+ Licensed under the Apache License, Version 2.0 (the License);
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+ http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an AS IS BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+*/
+package com.github.gekoh.yagen.util;
+
+import com.github.gekoh.yagen.ddl.CreateDDL;
+import com.github.gekoh.yagen.ddl.PartitionedTable;
+import com.github.gekoh.yagen.hibernate.DDLEnhancerAware;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.hibernate.dialect.Dialect;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Maintains the partitions of the range partitioned tables generated for live tables annotated with
+ * {@link com.github.gekoh.yagen.api.IntervalPartitioning} and of partitioned history tables (PostgreSQL and Oracle).
+ * <p>
+ * Partitions are created in advance by {@link #createPartitions()}, which calls create_partitions on PostgreSQL and
+ * locks the future partitions on Oracle for letting the database create the interval partitions. Retention is done
+ * by dropping or detaching whole partitions instead of deleting rows, see {@link #dropPartitionsBefore} and
+ * {@link #detachPartitionsBefore}. The first partition taking all rows before the start of the partitioning is never
+ * removed, neither are partitions of history tables still containing the current version of a live row, otherwise
+ * the next modification of that row would fail invalidating it. In dry run mode the DDL is only logged and returned,
+ * not executed.
+ * <p>
+ * Statements are executed on the connection of the given entity manager, the caller is responsible for the
+ * transaction (DDL is committed implicitly on Oracle).
+ *
+ * @author agent
+ */
+public class PartitionManager {
+
+    private static final org.slf4j.Logger LOG = org.slf4j.LoggerFactory.getLogger(PartitionManager.class);
+
+    private static final Pattern POSTGRES_UPPER_BOUND_PATTERN = Pattern.compile("TO \\((MAXVALUE|'([^']*)')\\)");
+    private static final Pattern ORACLE_HIGH_VALUE_PATTERN = Pattern.compile("'[\\s]*([0-9]{4}-[0-9]{2}-[0-9]{2} [0-9]{2}:[0-9]{2}:[0-9]{2})");
+
+    private final EntityManager em;
+    private final Dialect dialect;
+    private final CreateDDL ddlEnhancer;
+
+    private boolean dryRun;
+
+    public PartitionManager(EntityManager em) {
+        this.em = em;
+        this.dialect = DBHelper.getDialect(em);
+        if (!(dialect instanceof DDLEnhancerAware) || ((DDLEnhancerAware) dialect).getDDLEnhancer() == null) {
+            throw new IllegalStateException("no yagen DDL enhancer registered with dialect " + dialect);
+        }
+        if (!DBHelper.isPostgres(dialect) && !DBHelper.isOracle(dialect)) {
+            throw new IllegalStateException("partition management is only supported for PostgreSQL and Oracle");
+        }
+        this.ddlEnhancer = ((DDLEnhancerAware) dialect).getDDLEnhancer();
+    }
+
+    public boolean isDryRun() {
+        return dryRun;
+    }
+
+    /**
+     * @param dryRun if true, DDL is only logged and returned but not executed
+     */
+    public void setDryRun(boolean dryRun) {
+        this.dryRun = dryRun;
+    }
+
+    public List<PartitionedTable> getPartitionedTables() {
+        return ddlEnhancer.getPartitionedTables(dialect);
+    }
+
+    public PartitionedTable getPartitionedTable(String tableName) {
+        for (PartitionedTable table : getPartitionedTables()) {
+            if (table.getTableName().equalsIgnoreCase(tableName)) {
+                return table;
+            }
+        }
+        throw new IllegalArgumentException("table " + tableName + " is not range partitioned");
+    }
+
+    /**
+     * creates the partitions of all partitioned tables for the configured number of intervals ahead
+     *
+     * @return executed DDL
+     */
+    public List<String> createPartitions() {
+        List<String> ddl = new ArrayList<String>();
+        for (PartitionedTable table : getPartitionedTables()) {
+            ddl.addAll(createPartitions(table.getTableName(), table.getPartitionsAhead()));
+        }
+        return ddl;
+    }
+
+    /**
+     * creates the missing partitions up to the one containing the current timestamp plus the given number of intervals
+     *
+     * @return executed DDL
+     */
+    public List<String> createPartitions(String tableName, int partitionsAhead) {
+        PartitionedTable table = getPartitionedTable(tableName);
+        List<String> ddl = new ArrayList<String>();
+        if (DBHelper.isPostgres(dialect)) {
+            ddl.add("select create_partitions('" + table.getTableName() + "', " + partitionsAhead + ")");
+        }
+        else {
+            // locking a partition for a value creates the interval partition if not yet existing
+            for (int i = 0; i <= partitionsAhead; i++) {
+                ddl.add("lock table " + table.getTableName() + " partition for (sysdate + " + i + " * " + table.getInterval() + ") in share mode");
+            }
+        }
+        return execute(ddl);
+    }
+
+    /**
+     * drops all partitions containing only rows before the given timestamp except the first one and partitions of
+     * history tables containing current versions
+     *
+     * @return executed DDL
+     */
+    public List<String> dropPartitionsBefore(String tableName, LocalDateTime threshold) {
+        PartitionedTable table = getPartitionedTable(tableName);
+        List<String> ddl = new ArrayList<String>();
+        for (Partition partition : getPartitionsBefore(table, threshold)) {
+            if (DBHelper.isPostgres(dialect)) {
+                ddl.add("drop table " + partition.getPartitionName());
+            }
+            else {
+                ddl.add("alter table " + table.getTableName() + " drop partition " + partition.getPartitionName() + " update global indexes");
+            }
+        }
+        return execute(ddl);
+    }
+
+    /**
+     * detaches all partitions containing only rows before the given timestamp except the first one and partitions of
+     * history tables containing current versions for archiving them, on PostgreSQL the
+     * detached partitions are kept as tables of the same name, on Oracle the partitions are exchanged with new tables
+     * named after the partition with suffix _ARC (requires Oracle 12.2) and dropped afterwards
+     *
+     * @return executed DDL
+     */
+    public List<String> detachPartitionsBefore(String tableName, LocalDateTime threshold) {
+        PartitionedTable table = getPartitionedTable(tableName);
+        List<String> ddl = new ArrayList<String>();
+        for (Partition partition : getPartitionsBefore(table, threshold)) {
+            if (DBHelper.isPostgres(dialect)) {
+                ddl.add("alter table " + table.getTableName() + " detach partition " + partition.getPartitionName());
+            }
+            else {
+                String archiveTableName = partition.getPartitionName() + "_ARC";
+                ddl.add("create table " + archiveTableName + " for exchange with table " + table.getTableName());
+                ddl.add("alter table " + table.getTableName() + " exchange partition " + partition.getPartitionName() + " with table " + archiveTableName + " update global indexes");
+                ddl.add("alter table " + table.getTableName() + " drop partition " + partition.getPartitionName() + " update global indexes");
+            }
+        }
+        return execute(ddl);
+    }
+
+    /**
+     * @return partitions of the given table ordered by their upper bound including estimated row count and size
+     */
+    public List<Partition> getPartitions(String tableName) {
+        final PartitionedTable table = getPartitionedTable(tableName);
+        List<Partition> partitions = em.unwrap(Session.class).doReturningWork(connection ->
+                DBHelper.isPostgres(dialect) ? getPostgreSQLPartitions(connection, table) : getOraclePartitions(connection, table));
+        Collections.sort(partitions, (p1, p2) -> p1.getUpperBound() == null ? (p2.getUpperBound() == null ? 0 : 1) :
+                p2.getUpperBound() == null ? -1 : p1.getUpperBound().compareTo(p2.getUpperBound()));
+        return partitions;
+    }
+
+    /**
+     * logs the partitions of all partitioned tables with their size
+     */
+    public void logPartitionSizes() {
+        for (PartitionedTable table : getPartitionedTables()) {
+            for (Partition partition : getPartitions(table.getTableName())) {
+                LOG.info("{}: partition {} until {}, {} rows, {} bytes", new Object[]{table.getTableName(), partition.getPartitionName(),
+                        partition.getUpperBound() != null ? partition.getUpperBound() : "unbounded", partition.getRows(), partition.getBytes()});
+            }
+        }
+    }
+
+    private List<Partition> getPartitionsBefore(PartitionedTable table, LocalDateTime threshold) {
+        List<Partition> partitions = new ArrayList<Partition>();
+        for (Partition partition : getPartitions(table.getTableName())) {
+            if (partition.getUpperBound() == null || partition.getUpperBound().isAfter(threshold) || isFirstPartition(table, partition)) {
+                continue;
+            }
+            if (table.isHistoryTable() && hasCurrentVersions(table, partition)) {
+                LOG.warn("keeping partition {} of history table {} since it contains current versions of rows in {}",
+                        new Object[]{partition.getPartitionName(), table.getTableName(), table.getLiveTableName()});
+                continue;
+            }
+            partitions.add(partition);
+        }
+        return partitions;
+    }
+
+    /**
+     * the first partition takes all rows before the start of the partitioning (_pmin created by create_partitions on
+     * PostgreSQL, last partition of the range section on Oracle)
+     */
+    private boolean isFirstPartition(PartitionedTable table, Partition partition) {
+        return DBHelper.isPostgres(dialect) ? partition.getPartitionName().equalsIgnoreCase(table.getTableName() + "_pmin") : partition.getPosition() <= 1;
+    }
+
+    private boolean hasCurrentVersions(PartitionedTable table, Partition partition) {
+        final String sql = DBHelper.isPostgres(dialect) ?
+                "select 1 from " + partition.getPartitionName() + " where invalidated_at is null and operation<>'D' limit 1" :
+                "select 1 from " + table.getTableName() + " partition (" + partition.getPartitionName() + ") where invalidated_at is null and operation<>'D' and rownum=1";
+        return em.unwrap(Session.class).doReturningWork(connection -> {
+            try (Statement stmt = connection.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+                return rs.next();
+            }
+        });
+    }
+
+    private List<Partition> getPostgreSQLPartitions(Connection connection, PartitionedTable table) throws SQLException {
+        List<Partition> partitions = new ArrayList<Partition>();
+        try (PreparedStatement stmt = connection.prepareStatement("select c.relname, pg_get_expr(c.relpartbound, c.oid), " +
+                "greatest(c.reltuples, 0)::bigint, pg_total_relation_size(c.oid) " +
+                "from pg_inherits i join pg_class c on c.oid=i.inhrelid where i.inhparent=cast(? as regclass)")) {
+            stmt.setString(1, table.getTableName());
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Matcher matcher = POSTGRES_UPPER_BOUND_PATTERN.matcher(rs.getString(2));
+                    LocalDateTime upperBound = matcher.find() && matcher.group(2) != null ? Timestamp.valueOf(matcher.group(2)).toLocalDateTime() : null;
+                    partitions.add(new Partition(rs.getString(1), 0, upperBound, rs.getLong(3), rs.getLong(4)));
+                }
+            }
+        }
+        return partitions;
+    }
+
+    private List<Partition> getOraclePartitions(Connection connection, PartitionedTable table) throws SQLException {
+        List<Partition> partitions = new ArrayList<Partition>();
+        try (PreparedStatement stmt = connection.prepareStatement("select p.partition_name, p.high_value, p.partition_position, nvl(p.num_rows, 0), " +
+                "(select nvl(sum(s.bytes), 0) from user_segments s where s.segment_name=p.table_name and s.partition_name=p.partition_name) " +
+                "from user_tab_partitions p where p.table_name=upper(?)")) {
+            stmt.setString(1, table.getTableName());
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    // high_value is of type long and has to be read first
+                    String partitionName = rs.getString(1);
+                    Matcher matcher = ORACLE_HIGH_VALUE_PATTERN.matcher(rs.getString(2));
+                    LocalDateTime upperBound = matcher.find() ? Timestamp.valueOf(matcher.group(1)).toLocalDateTime() : null;
+                    partitions.add(new Partition(partitionName, rs.getInt(3), upperBound, rs.getLong(4), rs.getLong(5)));
+                }
+            }
+        }
+        return partitions;
+    }
+
+    private List<String> execute(final List<String> ddl) {
+        if (dryRun) {
+            for (String sql : ddl) {
+                LOG.info("dry run: {}", sql);
+            }
+            return ddl;
+        }
+        em.unwrap(Session.class).doWork(connection -> {
+            try (Statement stmt = connection.createStatement()) {
+                for (String sql : ddl) {
+                    LOG.info("executing: {}", sql);
+                    stmt.execute(sql);
+                }
+            }
+        });
+        return ddl;
+    }
+
+    public static class Partition {
+        private final String partitionName;
+        private final int position;
+        private final LocalDateTime upperBound;
+        private final long rows;
+        private final long bytes;
+
+        Partition(String partitionName, int position, LocalDateTime upperBound, long rows, long bytes) {
+            this.partitionName = partitionName;
+            this.position = position;
+            this.upperBound = upperBound;
+            this.rows = rows;
+            this.bytes = bytes;
+        }
+
+        public String getPartitionName() {
+            return partitionName;
+        }
+
+        int getPosition() {
+            return position;
+        }
+
+        /**
+         * @return exclusive upper bound of the partition, null for the partition taking all rows above the highest
+         * bound (Oracle) or the default partition (PostgreSQL)
+         */
+        public LocalDateTime getUpperBound() {
+            return upperBound;
+        }
+
+        /**
+         * @return estimated number of rows according to the statistics of the database
+         */
+        public long getRows() {
+            return rows;
+        }
+
+        /**
+         * @return size of the partition including its indexes (PostgreSQL) or size of the table segment (Oracle)
+         */
+        public long getBytes() {
+            return bytes;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ Copyright 2026 agent
+
+ Licensed under the Apache License, Version 2.0 (the License);
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+ http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an AS IS BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+*/
+package com.github.gekoh.yagen.util;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Bounded cache of compiled regular expressions used by the java routines called from SQL (HSQLDB regexp_like and
+ * is_statically_bypassed), which are invoked once per row. When the cache is full an arbitrary entry is evicted.
+ * <p>
+ * The maximum number of patterns can be set by system property {@value #PROPERTY_MAX_SIZE}.
+ *
+ * @author agent
+ */
+public final class PatternCache {
+
+    public static final String PROPERTY_MAX_SIZE = "yagen.pattern-cache.max-size";
+
+    private static final int MAX_SIZE = Integer.getInteger(PROPERTY_MAX_SIZE, 256);
+
+    private static final Map<Key, Pattern> PATTERNS = new ConcurrentHashMap<Key, Pattern>();
+    private static final LongAdder HITS = new LongAdder();
+    private static final LongAdder MISSES = new LongAdder();
+
+    private PatternCache() {
+    }
+
+    public static Pattern getPattern(String regex) {
+        return getPattern(regex, 0);
+    }
+
+    public static Pattern getPattern(String regex, int flags) {
+        Key key = new Key(regex, flags);
+        Pattern pattern = PATTERNS.get(key);
+        if (pattern != null) {
+            HITS.increment();
+            return pattern;
+        }
+
+        MISSES.increment();
+        pattern = Pattern.compile(regex, flags);
+        if (PATTERNS.size() >= MAX_SIZE) {
+            Iterator<Key> keys = PATTERNS.keySet().iterator();
+            if (keys.hasNext()) {
+                keys.next();
+                keys.remove();
+            }
+        }
+        PATTERNS.put(key, pattern);
+        return pattern;
+    }
+
+    public static long getHitCount() {
+        return HITS.sum();
+    }
+
+    public static long getMissCount() {
+        return MISSES.sum();
+    }
+
+    public static int size() {
+        return PATTERNS.size();
+    }
+
+    public static void clear() {
+        PATTERNS.clear();
+        HITS.reset();
+        MISSES.reset();
+    }
+
+    private static final class Key {
+        private final String regex;
+        private final int flags;
+
+        private Key(String regex, int flags) {
+            this.regex = regex;
+            this.flags = flags;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return flags == key.flags && regex.equals(key.regex);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * regex.hashCode() + flags;
+        }
+    }
+}
@@ -0,0 +1,240 @@
+/*
+ Copyright 2026 agent
+
+ Licensed under the Apache License, Version 2.0 (the License);
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+ http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an AS IS BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+*/
+package com.github.gekoh.yagen.util;
+
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Session variables (table SESSION_VARIABLES) of one JDBC connection. Values read or written through this context
+ * are remembered per physical connection (unwrapped from pool proxies) as long as the database session keeps them,
+ * so setting a variable to the value it already has does not hit the database, also in later transactions, and
+ * changing several variables at once is done with a single call of set_session_variables(json) on PostgreSQL,
+ * respectively one batched merge (plus one delete if variables are removed) on Oracle and HSQLDB.
+ * <p>
+ * Session variables are transactional, so the remembered values of a connection have to be dropped by
+ * {@link #invalidate(Connection)} when its transaction is rolled back, which is done automatically when using the
+ * {@link jakarta.persistence.EntityManager} based methods of {@link DBHelper}. The connection based setters and
+ * removers of {@link DBHelper} invalidate the values as well. Changing SESSION_VARIABLES with native SQL or resetting
+ * the database session (e.g. DISCARD ALL on PostgreSQL) is not detected, {@link #invalidate(Connection)} respectively
+ * {@link DBHelper#invalidateSessionContext(jakarta.persistence.EntityManager)} has to be called in that case.
+ *
+ * @author agent
+ */
+public class SessionContext {
+
+    // values must not reference the connection, otherwise the weak keys are never released
+    private static final Map<Connection, Map<String, String>> KNOWN_VALUES = Collections.synchronizedMap(new WeakHashMap<Connection, Map<String, String>>());
+
+    private static final String MERGE_ORACLE = "merge into SESSION_VARIABLES v using (select ? NAME, ? VALUE from dual) s on (v.NAME=s.NAME) " +
+            "when matched then update set v.VALUE=s.VALUE when not matched then insert (NAME, VALUE) values (s.NAME, s.VALUE)";
+    private static final String MERGE_HSQLDB = "merge into SESSION_VARIABLES v using (values(cast(? as varchar(255)), cast(? as varchar(255)))) s(NAME, VALUE) on (v.NAME=s.NAME) " +
+            "when matched then update set v.VALUE=s.VALUE when not matched then insert (NAME, VALUE) values (s.NAME, s.VALUE)";
+
+    private final DBHelper.DatabaseDialect dialect;
+    private final Connection connection;
+    private final Map<String, String> knownValues;
+
+    private SessionContext(DBHelper.DatabaseDialect dialect, Connection connection, Map<String, String> knownValues) {
+        this.dialect = dialect;
+        this.connection = connection;
+        this.knownValues = knownValues;
+    }
+
+    static SessionContext of(DBHelper.DatabaseDialect dialect, Connection connection) {
+        return new SessionContext(dialect, connection, KNOWN_VALUES.computeIfAbsent(getPhysicalConnection(connection), c -> new HashMap<String, String>()));
+    }
+
+    /**
+     * drops the remembered session variable values of the given connection, required after a rollback or after
+     * changing SESSION_VARIABLES without using this class
+     */
+    public static void invalidate(Connection connection) {
+        KNOWN_VALUES.remove(getPhysicalConnection(connection));
+    }
+
+    private static Connection getPhysicalConnection(Connection connection) {
+        try {
+            if (connection.isWrapperFor(Connection.class)) {
+                return connection.unwrap(Connection.class);
+            }
+        } catch (SQLException e) {
+            // use the given connection
+        }
+        return connection;
+    }
+
+    public Connection getConnection() {
+        return connection;
+    }
+
+    public String get(String name) throws SQLException {
+        if (knownValues.containsKey(name)) {
+            return knownValues.get(name);
+        }
+        String value = DBHelper.getSessionVariable(dialect, connection, name);
+        knownValues.put(name, value);
+        return value;
+    }
+
+    public boolean set(String name, String value) throws SQLException {
+        return set(Collections.singletonMap(name, value));
+    }
+
+    public boolean remove(String name) throws SQLException {
+        return set(Collections.singletonMap(name, (String) null));
+    }
+
+    /**
+     * sets all given variables in one round trip, variables having a null value are removed
+     *
+     * @return false if all variables already had the given value and the database was not accessed
+     */
+    public boolean set(Map<String, String> variables) throws SQLException {
+        Map<String, String> changed = getChanged(variables);
+        if (changed.isEmpty()) {
+            return false;
+        }
+
+        try {
+            switch (dialect) {
+                case ORACLE:
+                case HSQLDB:
+                    write(changed);
+                    break;
+                case POSTGRESQL:
+                    try (CallableStatement callableStatement = connection.prepareCall("{call set_session_variables(cast(? as json))}")) {
+                        callableStatement.setString(1, toJson(changed));
+                        callableStatement.execute();
+                    }
+                    break;
+                default:
+                    throw new IllegalArgumentException("unknown dialect: " + dialect);
+            }
+        } catch (SQLException | RuntimeException e) {
+            invalidate(connection);
+            throw e;
+        }
+
+        knownValues.putAll(changed);
+        return true;
+    }
+
+    /**
+     * @return true if all given variables are known to have the given values, i.e. {@link #set(Map)} would not access
+     * the database
+     */
+    boolean hasValues(Map<String, String> variables) {
+        return getChanged(variables).isEmpty();
+    }
+
+    private Map<String, String> getChanged(Map<String, String> variables) {
+        Map<String, String> changed = new LinkedHashMap<String, String>();
+        for (Map.Entry<String, String> variable : variables.entrySet()) {
+            String name = variable.getKey();
+            String value = variable.getValue();
+            if (!knownValues.containsKey(name) || !equals(knownValues.get(name), value)) {
+                changed.put(name, value);
+            }
+        }
+        return changed;
+    }
+
+    private void write(Map<String, String> variables) throws SQLException {
+        List<String> removed = new ArrayList<String>();
+        boolean merge = false;
+        try (PreparedStatement stmtMerge = connection.prepareStatement(dialect == DBHelper.DatabaseDialect.ORACLE ? MERGE_ORACLE : MERGE_HSQLDB)) {
+            for (Map.Entry<String, String> variable : variables.entrySet()) {
+                if (variable.getValue() == null) {
+                    removed.add(variable.getKey());
+                    continue;
+                }
+                stmtMerge.setString(1, variable.getKey());
+                stmtMerge.setString(2, variable.getValue());
+                stmtMerge.addBatch();
+                merge = true;
+            }
+            if (merge) {
+                stmtMerge.executeBatch();
+            }
+        }
+
+        if (removed.isEmpty()) {
+            return;
+        }
+        StringBuilder deleteSql = new StringBuilder("delete from SESSION_VARIABLES where name in (");
+        for (int i = 0; i < removed.size(); i++) {
+            deleteSql.append(i > 0 ? ", ?" : "?");
+        }
+        deleteSql.append(")");
+
+        try (PreparedStatement stmtDelete = connection.prepareStatement(deleteSql.toString())) {
+            int idx = 1;
+            for (String name : removed) {
+                stmtDelete.setString(idx++, name);
+            }
+            stmtDelete.executeUpdate();
+        }
+    }
+
+    static String toJson(Map<String, String> variables) {
+        StringBuilder json = new StringBuilder("{");
+        for (Map.Entry<String, String> variable : variables.entrySet()) {
+            if (json.length() > 1) {
+                json.append(',');
+            }
+            appendJsonString(json, variable.getKey());
+            json.append(':');
+            if (variable.getValue() == null) {
+                json.append("null");
+            }
+            else {
+                appendJsonString(json, variable.getValue());
+            }
+        }
+        return json.append('}').toString();
+    }
+
+    private static void appendJsonString(StringBuilder json, String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            }
+            else if (c < 0x20) {
+                json.append(String.format("\\u%04x", (int) c));
+            }
+            else {
+                json.append(c);
+            }
+        }
+        json.append('"');
+    }
+
+    private static boolean equals(String a, String b) {
+        return a == null ? b == null : a.equals(b);
+    }
+}
@@ -3,9 +3,24 @@ create or replace function ${objectName}()
   returns trigger AS $$
 #else
 create or replace
-trigger ${objectName}
-after insert or update or delete on ${liveTableName}
+trigger ${triggerName}
+#if( $operation == 'U' )
+after update on ${liveTableName}
 for each row
+#if( !$compareInBody )
+when (
+#foreach( $column in $histRelevantCols )
+  (new.$column is null and old.$column is not null) or
+  (new.$column is not null and old.$column is null) or
+  new.$column!=old.$column#if( $foreach.hasNext ) or#end
+
+#end
+)
+#end
+#else
+after insert or delete on ${liveTableName}
+for each row
+#end
 #end
 declare
 #if($is_postgres)
@@ -24,7 +39,7 @@ declare
 #else
   live_rowid rowid:=coalesce(${new}.rowid, ${old}.rowid);
 #end
-  hst_uuid_used ${hstTableName}.hst_uuid%TYPE:=sys_guid();
+  hst_uuid_used ${hstTableName}.hst_uuid%TYPE:=#if( $is_oracle && $timeOrderedGuid )time_ordered_guid()#{else}sys_guid()#end;
 #if( $MODIFIER_COLUMN_NAME )  hst_modified_by ${MODIFIER_COLUMN_TYPE}:=substr(get_audit_user(null), 1, ${MODIFIER_COLUMN_NAME_LENGTH});
 #end  live_table_name ${varcharType}:=upper('${liveTableName}');
 begin
@@ -34,7 +49,7 @@ begin
   end if;
 #end
 
-#if( !$is_postgres )
+#if( $compareInBody )
   if inserting or deleting
 #foreach( $column in $histRelevantCols )
   or ((${new}.$column is null and ${old}.$column is not null) or
@@ -48,6 +63,9 @@ begin
   then
 
 #end
+#if( $cacheTransactionTimestamp )
+    transaction_timestamp_found:=get_transaction_timestamp();
+#else
     begin
       select transaction_timestamp into #if($is_postgres)strict #{end}transaction_timestamp_found
       from HST_CURRENT_TRANSACTION
@@ -57,6 +75,7 @@ begin
       insert into HST_CURRENT_TRANSACTION (transaction_id, transaction_timestamp)
         values (#if($is_postgres)txid_current()#{else}DBMS_TRANSACTION.LOCAL_TRANSACTION_ID#{end}, transaction_timestamp_found);
     end;
+#end
 
 #if( $is_oracle )
     if ${new}.rowid<>${old}.rowid then
@@ -152,7 +171,7 @@ begin
 
 #if( $is_postgres )
   return new;
-#else
+#elseif( $compareInBody )
   end if;
 #end
 end;#if( $is_postgres )
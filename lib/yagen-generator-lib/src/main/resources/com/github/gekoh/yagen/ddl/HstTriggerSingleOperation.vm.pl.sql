@@ -2,6 +2,14 @@ create trigger ${triggerName}
 after #if(${operation} == 'I') insert #elseif (${operation} == 'U') update #else delete #end on ${liveTableName}
 referencing #if( ${operation} != 'D' ) new as new #end #if( ${operation} != 'I' ) old as old #end
 for each row
+#if (${operation} == 'U' && !$compareInBody)
+when (
+#foreach( $column in $histRelevantCols )
+  new.$column is distinct from old.$column#if( $foreach.hasNext ) or#end
+
+#end
+)
+#end
 begin atomic
   declare transaction_id_used bigint;
   declare transaction_timestamp_found ${timestampType};
@@ -28,8 +36,10 @@ begin atomic
 #if( $bypassFunctionality )
   if not(is_statically_bypassed('${triggerName}')) and is_bypassed(upper('${triggerName}')) = 0 then
 #end
-#if (${operation} == 'U')
---/* TRYING to reactivate detection of changes (WAS: need to disable detection of changes, somehow this causes a NPE within HSQLDB, only god knows why)
+#if( $listenerBypassVariable )
+  if not exists (select 1 from SESSION_VARIABLES where name='${listenerBypassVariable}') then
+#end
+#if (${operation} == 'U' && $compareInBody)
   if 1=0
 #foreach( $column in $histRelevantCols )
   or ((new.$column is null and old.$column is not null) or
@@ -103,7 +113,10 @@ begin atomic
       values (#foreach( $pkColumn in $pkColumns ) #if(${operation}=='D')old.${pkColumn}#{else}new.${pkColumn}#{end},#end#foreach( $column in $nonPkColumns )#if( $column == $MODIFIER_COLUMN_NAME ) hst_modified_by#{else}#if(${operation}=='D') null#{else} new.${column}#{end}#end,#end hst_uuid_used, hst_operation, transaction_timestamp_found);
     end if;
 
-#if (${operation} == 'U')
+#if (${operation} == 'U' && $compareInBody)
+  end if;
+#end
+#if( $listenerBypassVariable )
   end if;
 #end
 #if( $bypassFunctionality )
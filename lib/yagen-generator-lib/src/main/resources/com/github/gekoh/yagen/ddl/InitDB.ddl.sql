@@ -42,6 +42,21 @@ create global temporary table SESSION_VARIABLES (
     constraint SESS_VAR_PK primary key (NAME)
 ) ON COMMIT PRESERVE ROWS;
 
+#if( $timeOrderedGuid )
+------- CreateDDL statement separator -------
+create or replace function time_ordered_guid return varchar2 is
+  ts timestamp:=sys_extract_utc(systimestamp);
+  millis number:=(cast(ts as date) - date '1970-01-01')*86400000 + to_number(to_char(ts, 'FF3'));
+begin
+  -- UUID version 7 layout: unix epoch milliseconds, version, random bits and variant
+  return to_char(millis, 'FM0XXXXXXXXXXX')||'7'
+    ||to_char(trunc(dbms_random.value(0, 4096)), 'FM0XX')
+    ||to_char(trunc(dbms_random.value(32768, 49152)), 'FM0XXX')
+    ||to_char(trunc(dbms_random.value(0, 281474976710656)), 'FM0XXXXXXXXXXX');
+end;
+/
+
+#end
 #if( $bypassFunctionality )
 ------- CreateDDL statement separator -------
 create or replace function is_bypassed(object_name in varchar2) return number is
@@ -67,7 +82,7 @@ end;
 ------- CreateDDL statement separator -------
 CREATE FUNCTION sys_guid() RETURNS char(32)
 LANGUAGE JAVA DETERMINISTIC NO SQL
-EXTERNAL NAME 'CLASSPATH:com.github.gekoh.yagen.util.DBHelper.createUUID'
+EXTERNAL NAME 'CLASSPATH:com.github.gekoh.yagen.util.DBHelper.#if( $timeOrderedGuid )createTimeOrderedUUID#{else}createUUID#end'
 ;
 
 ------- CreateDDL statement separator -------
@@ -173,6 +188,29 @@ begin atomic
     1, $auditUserLen /*user column length*/ -3 -length(user));
   return user || case when user_name is not null and lower(user) <> lower(user_name) then ' ('||user_name||')' else '' end;
 end;
+#set( $triggerLanguage = "$!configuration['yagen.generator.hsqldb.trigger.language']" )
+#if( $triggerLanguage.trim().equalsIgnoreCase('java') )
+
+------- CreateDDL statement separator -------
+/*
+  Configuration of the audit and history triggers implemented by com.github.gekoh.yagen.util.HsqlDbTrigger,
+  one row per trigger (inserted along with the trigger). Defaults are equal for all triggers.
+ */
+create table JAVA_TRIGGER_CONFIG (
+    trigger_name varchar(128),
+    object_name varchar(128) not null,
+    check_bypass boolean default #if( $bypassFunctionality )true#{else}false#end not null,
+    time_ordered_guid boolean default #if( $timeOrderedGuid )true#{else}false#end not null,
+    audit_user_length integer default ${auditUserLen} not null,
+    modifier_column_length integer not null,
+    hst_table_name varchar(128),
+    hst_timestamp_column varchar(128),
+    pk_columns varchar(1000),
+    hst_relevant_columns varchar(4000),
+    listener_bypass boolean default false not null,
+    constraint jtrgcfg_trigger_name_PK primary key (trigger_name)
+);
+#end
 #end
 
 #if( $is_postgres )
@@ -196,6 +234,10 @@ declare
 	guid varchar;
 begin
     SELECT upper(REPLACE(#if( $uuidExtension == 'create' )uuid_generate_v4()#{else}gen_random_uuid()#end::varchar, '-', '')) into guid;
+#if( $timeOrderedGuid )
+    -- UUID version 7 layout: unix epoch milliseconds, version and random bits (incl. variant) of the version 4 UUID
+    guid:=upper(lpad(to_hex(floor(extract(epoch from clock_timestamp())*1000)::bigint), 12, '0'))||'7'||substr(guid, 14, 3)||substr(guid, 17, 16);
+#end
     return guid;
 end;
 $$ LANGUAGE PLPGSQL;
@@ -393,6 +435,27 @@ begin
 end;
 $$ LANGUAGE PLPGSQL;
 
+------- CreateDDL statement separator -------
+CREATE or replace FUNCTION set_session_variables(var_values json) RETURNS void AS $$
+begin
+    begin
+        delete from SESSION_VARIABLES
+            where name in (select key from json_each_text(var_values));
+
+    exception when others then
+        create temporary table SESSION_VARIABLES (
+          NAME VARCHAR(255),
+          VALUE VARCHAR(255),
+          constraint SESS_VAR_PK primary key (NAME)
+        ) ON COMMIT PRESERVE ROWS;
+    end;
+
+    insert into SESSION_VARIABLES (name, value)
+        select key, value from json_each_text(var_values)
+        where value is not null;
+end;
+$$ LANGUAGE PLPGSQL;
+
 ------- CreateDDL statement separator -------
 CREATE or replace FUNCTION remove_session_variable(var_name varchar) RETURNS void AS $$
 begin
@@ -415,4 +478,127 @@ begin
 end;
 $$ LANGUAGE PLPGSQL;
 
+#if( $partitionedTables )
+------- CreateDDL statement separator -------
+/*
+  Range partitioned tables (see IntervalPartitioning and TemporalEntity.historyPartitionInterval). Each partition
+  gets the constraints, indexes and triggers from partition_ddl, format strings with the partition name as only
+  argument.
+ */
+create table if not exists PARTITIONED_TABLE (
+    table_name varchar(30),
+    partition_column varchar(30) not null,
+    partition_interval interval not null,
+    partitions_ahead integer default 3 not null,
+    default_partition boolean default false not null,
+    start_value ${timestampType},
+    last_partition_bound ${timestampType},
+    partition_ddl text[] not null,
+    constraint parttbl_table_name_PK primary key (table_name)
+);
+
+------- CreateDDL statement separator -------
+/*
+  Creates the missing partitions of the given table up to the one containing the current timestamp plus
+  partitions_ahead intervals and returns the number of partitions created. The first partition takes all
+  rows before start_value which is the current timestamp truncated to year, month, day or hour by default.
+ */
+create or replace function create_partitions(table_name_in varchar, partitions_ahead_in integer default null) RETURNS integer AS $$
+declare
+  cfg PARTITIONED_TABLE%ROWTYPE;
+  until_value ${timestampType};
+  lower_bound ${timestampType};
+  partition_name varchar(63);
+  ddl_statement text;
+  created integer:=0;
+begin
+  select * into cfg from PARTITIONED_TABLE where table_name=lower(table_name_in) for update;
+  if not found then
+    perform raise_application_error(-20300, 'table '||table_name_in||' is not range partitioned');
+  end if;
+
+  if cfg.last_partition_bound is null then
+    cfg.start_value:=coalesce(cfg.start_value, date_trunc(case
+        when cfg.partition_interval >= interval '1 year' then 'year'
+        when cfg.partition_interval >= interval '1 month' then 'month'
+        when cfg.partition_interval >= interval '1 day' then 'day'
+        else 'hour' end, localtimestamp));
+    partition_name:=cfg.table_name||'_pmin';
+    execute format('create table %I partition of %I for values from (minvalue) to (%L)', partition_name, cfg.table_name, cfg.start_value);
+    foreach ddl_statement in array cfg.partition_ddl loop
+      execute format(ddl_statement, partition_name);
+    end loop;
+    if cfg.default_partition then
+      partition_name:=cfg.table_name||'_pdefault';
+      execute format('create table %I partition of %I default', partition_name, cfg.table_name);
+      foreach ddl_statement in array cfg.partition_ddl loop
+        execute format(ddl_statement, partition_name);
+      end loop;
+    end if;
+    cfg.last_partition_bound:=cfg.start_value;
+    created:=created+1;
+  end if;
+
+  until_value:=localtimestamp+cfg.partition_interval*coalesce(partitions_ahead_in, cfg.partitions_ahead);
+  while cfg.last_partition_bound <= until_value loop
+    lower_bound:=cfg.last_partition_bound;
+    cfg.last_partition_bound:=lower_bound+cfg.partition_interval;
+    partition_name:=cfg.table_name||'_p'||to_char(lower_bound, case when cfg.partition_interval < interval '1 day' then 'YYYYMMDDHH24MI' else 'YYYYMMDD' end);
+    execute format('create table %I partition of %I for values from (%L) to (%L)', partition_name, cfg.table_name, lower_bound, cfg.last_partition_bound);
+    foreach ddl_statement in array cfg.partition_ddl loop
+      execute format(ddl_statement, partition_name);
+    end loop;
+    created:=created+1;
+  end loop;
+
+  update PARTITIONED_TABLE set start_value=cfg.start_value, last_partition_bound=cfg.last_partition_bound
+  where table_name=cfg.table_name;
+
+  return created;
+end;
+$$ LANGUAGE PLPGSQL;
+
+------- CreateDDL statement separator -------
+/*
+  Creates the missing partitions of all range partitioned tables. Partitions are not created on demand, this has to
+  be scheduled at least once per partition interval (e.g. daily with pg_cron), otherwise inserts fail as soon as
+  the partitions created in advance are used up.
+ */
+create or replace function create_all_partitions() RETURNS integer AS $$
+declare
+  tbl record;
+  created integer:=0;
+begin
+  for tbl in select table_name from PARTITIONED_TABLE order by table_name loop
+    created:=created+create_partitions(tbl.table_name);
+  end loop;
+  return created;
+end;
+$$ LANGUAGE PLPGSQL;
+
+------- CreateDDL statement separator -------
+/*
+  Executes the statement (format string with the partition name as only argument) on all existing partitions of
+  the given table and registers it for partitions created later on. Returns the number of partitions modified.
+ */
+create or replace function add_partition_ddl(table_name_in varchar, ddl_statement_in text) RETURNS integer AS $$
+declare
+  tbl record;
+  modified integer:=0;
+begin
+  update PARTITIONED_TABLE set partition_ddl=partition_ddl||ddl_statement_in where table_name=lower(table_name_in);
+  if not found then
+    perform raise_application_error(-20300, 'table '||table_name_in||' is not range partitioned');
+  end if;
+
+  for tbl in select c.relname from pg_inherits i join pg_class c on c.oid=i.inhrelid
+      where i.inhparent=lower(table_name_in)::regclass order by c.relname loop
+    execute format(ddl_statement_in, tbl.relname);
+    modified:=modified+1;
+  end loop;
+  return modified;
+end;
+$$ LANGUAGE PLPGSQL;
+#end
+
 #end
@@ -25,6 +25,7 @@ end;
 /
 
 ------- CreateDDL statement separator -------
+## Oracle only, rewrites the partition key of history tables which are therefore partitioned on PostgreSQL only
 create or replace function update_transaction_timestamp(exclude_hst_uuid_in in varchar2) return timestamp is
   transaction_timestamp_found ${timestampType};
   new_transaction_timestamp ${timestampType};
@@ -36,15 +37,17 @@ begin
     new_transaction_timestamp:=get_audit_timestamp();
     update HST_CURRENT_TRANSACTION set transaction_timestamp=new_transaction_timestamp
     where transaction_id=DBMS_TRANSACTION.LOCAL_TRANSACTION_ID;
+#if( $cacheTransactionTimestamp )
+    hst_transaction_cache.transaction_timestamp:=new_transaction_timestamp;
+#end
 
-    for data in (select HST_TABLE_NAME, HST_UUID from HST_MODIFIED_ROW where HST_UUID<>exclude_hst_uuid_in) loop
-
-        execute immediate 'update '||data.HST_TABLE_NAME||' set transaction_timestamp=:new_ts where hst_uuid=:hst_uuid'
-          using new_transaction_timestamp, data.HST_UUID;
-    end loop;
-
+    -- one set based statement per history table instead of one per modified row
     for data in (select distinct HST_TABLE_NAME from HST_MODIFIED_ROW where HST_UUID<>exclude_hst_uuid_in) loop
 
+        execute immediate 'update '||data.HST_TABLE_NAME||' set transaction_timestamp=:new_ts where hst_uuid in ('
+            ||'select HST_UUID from HST_MODIFIED_ROW where HST_TABLE_NAME=:hst_table_name and HST_UUID<>:exclude_hst_uuid)'
+          using new_transaction_timestamp, data.HST_TABLE_NAME, exclude_hst_uuid_in;
+
         execute immediate 'update '||data.HST_TABLE_NAME||' h set invalidated_at=:new_ts where transaction_timestamp < :new_ts1 and operation <> ''D'' and invalidated_at = :old_ts'
             using new_transaction_timestamp, new_transaction_timestamp, transaction_timestamp_found;
     end loop;
@@ -52,6 +55,45 @@ begin
     return new_transaction_timestamp;
 end;
 /
+#if( $cacheTransactionTimestamp )
+
+------- CreateDDL statement separator -------
+create or replace package hst_transaction_cache is
+  transaction_id varchar2(4000 char);
+  transaction_timestamp ${timestampType};
+end;
+/
+
+------- CreateDDL statement separator -------
+/*
+  Returns the timestamp of the current transaction, table HST_CURRENT_TRANSACTION is only accessed
+  for the first modification of a transaction, the timestamp is then cached in package hst_transaction_cache.
+ */
+create or replace function get_transaction_timestamp return timestamp is
+  transaction_id_current varchar2(4000 char):=DBMS_TRANSACTION.LOCAL_TRANSACTION_ID;
+  transaction_timestamp_found ${timestampType};
+begin
+  if hst_transaction_cache.transaction_id = transaction_id_current then
+    return hst_transaction_cache.transaction_timestamp;
+  end if;
+
+  begin
+    select transaction_timestamp into transaction_timestamp_found
+    from HST_CURRENT_TRANSACTION
+    where transaction_id=transaction_id_current;
+  exception when no_data_found then
+    transaction_timestamp_found:=get_audit_timestamp();
+    insert into HST_CURRENT_TRANSACTION (transaction_id, transaction_timestamp)
+      values (transaction_id_current, transaction_timestamp_found);
+  end;
+
+  hst_transaction_cache.transaction_id:=transaction_id_current;
+  hst_transaction_cache.transaction_timestamp:=transaction_timestamp_found;
+
+  return transaction_timestamp_found;
+end;
+/
+#end
 #end
 
 #if( $is_hsql )
@@ -95,15 +137,22 @@ end;
 #end
 
 #if( $is_postgres )
+#set( $bookkeepingTables = $configuration['yagen.generator.postgres.history.bookkeeping-tables'] )
+#if( $bookkeepingTables == 'unlogged' )
+#set( $bookkeepingTableOptions = "
+with (autovacuum_vacuum_scale_factor=0, autovacuum_vacuum_threshold=1000, autovacuum_vacuum_cost_delay=0)" )
+#else
+#set( $bookkeepingTableOptions = "" )
+#end
 ------- CreateDDL statement separator -------
-create table if not exists HST_CURRENT_TRANSACTION (
+create #if( $bookkeepingTables == 'unlogged' )unlogged #{end}table if not exists HST_CURRENT_TRANSACTION (
     transaction_id bigint,
     transaction_timestamp ${timestampType},
     constraint hsttr_transaction_id_PK primary key (transaction_id)
-);
+)${bookkeepingTableOptions};
 
 ------- CreateDDL statement separator -------
-create table if not exists HST_MODIFIED_ROW (
+create #if( $bookkeepingTables == 'unlogged' )unlogged #{end}table if not exists HST_MODIFIED_ROW (
     transaction_id bigint,
     table_name varchar(30),
     row_id varchar(100),
@@ -111,10 +160,22 @@ create table if not exists HST_MODIFIED_ROW (
     hst_table_name varchar(30),
     hst_uuid varchar(32),
     constraint hstmod_rowid_tablename_PK primary key (transaction_id, row_id, table_name)
-);
+)${bookkeepingTableOptions};
 
 ------- CreateDDL statement separator -------
 create index if not exists hstmod_rowid_tablename_IX on HST_MODIFIED_ROW (row_id, table_name);
+#if( $bookkeepingTables == 'unlogged' )
+
+------- CreateDDL statement separator -------
+/*
+  Rows of these tables only live until the end of the modifying transaction, so they do not need to be
+  crash safe or replicated. Converts tables of existing schemas as well, which is a no-op when already unlogged.
+ */
+alter table HST_CURRENT_TRANSACTION set unlogged;
+
+------- CreateDDL statement separator -------
+alter table HST_MODIFIED_ROW set unlogged;
+#end
 
 ------- CreateDDL statement separator -------
 do $_$
@@ -160,4 +221,131 @@ begin
     values (transaction_id_used, timestamp_in);
 end;
 $$ LANGUAGE PLPGSQL;
+#if( $cacheTransactionTimestamp )
+
+------- CreateDDL statement separator -------
+/*
+  Returns the timestamp of the current transaction, table HST_CURRENT_TRANSACTION is only accessed
+  for the first modification of a transaction, the timestamp is then cached in a transaction local setting.
+ */
+create or replace function get_transaction_timestamp() RETURNS ${timestampType} AS $$
+declare
+  transaction_timestamp_found ${timestampType};
+begin
+  transaction_timestamp_found:=nullif(current_setting('yagen.transaction_timestamp', true), '')::${timestampType};
+  if transaction_timestamp_found is not null then
+    return transaction_timestamp_found;
+  end if;
+
+  select transaction_timestamp into transaction_timestamp_found
+  from HST_CURRENT_TRANSACTION
+  where transaction_id=txid_current();
+
+  if not found then
+    transaction_timestamp_found:=get_audit_timestamp();
+    insert into HST_CURRENT_TRANSACTION (transaction_id, transaction_timestamp)
+      values (txid_current(), transaction_timestamp_found);
+  end if;
+
+  perform set_config('yagen.transaction_timestamp', transaction_timestamp_found::varchar, true);
+
+  return transaction_timestamp_found;
+end;
+$$ LANGUAGE PLPGSQL;
+#end
+#set( $historyCapture = "$!configuration['yagen.generator.postgres.history.capture']" )
+#if( $historyCapture.trim().equalsIgnoreCase('outbox') )
+#set( $outboxMaxBacklog = $configuration['yagen.generator.postgres.history.outbox.max-backlog'] )
+#set( $outboxMaxWaitMillis = $configuration['yagen.generator.postgres.history.outbox.max-wait-millis'] )
+
+------- CreateDDL statement separator -------
+create sequence if not exists hst_outbox_seq;
+
+------- CreateDDL statement separator -------
+/*
+  Change records of temporal entities using the outbox history capture, one partition per history table
+  (created along with the history table). Records are deleted by HistoryOutboxDrainer in the same transaction
+  in which it writes them to the history table.
+ */
+create table if not exists HST_OUTBOX (
+    id bigint not null default nextval('hst_outbox_seq'),
+    hst_table_name varchar(30) not null,
+    transaction_timestamp ${timestampType} not null,
+    operation char(1) not null,
+    key_data jsonb,
+    row_data jsonb not null
+) partition by list (hst_table_name);
+
+------- CreateDDL statement separator -------
+create table if not exists HST_OUTBOX_TABLE (
+    hst_table_name varchar(30),
+    live_table_name varchar(30) not null,
+    hst_timestamp_column varchar(30) not null,
+    pk_columns varchar(1000) not null,
+    nullable_pk_columns varchar(1000),
+    columns text not null,
+    constraint hstobxtbl_hst_table_name_PK primary key (hst_table_name)
+);
+
+------- CreateDDL statement separator -------
+/*
+  Position of HistoryOutboxDrainer per history table, updated in the transaction draining the records.
+  failed_id is the oldest record failing to drain, it is moved to HST_OUTBOX_DEAD_LETTER after too many attempts.
+ */
+create table if not exists HST_OUTBOX_CURSOR (
+    hst_table_name varchar(30),
+    last_id bigint not null,
+    last_transaction_timestamp ${timestampType},
+    drained_rows bigint not null,
+    drained_at ${timestampType},
+    failed_id bigint,
+    failed_attempts integer default 0 not null,
+    last_error varchar(4000),
+    failed_at ${timestampType},
+    dead_lettered bigint default 0 not null,
+    constraint hstobxcur_hst_table_name_PK primary key (hst_table_name)
+);
+
+------- CreateDDL statement separator -------
+/*
+  Outbox records HistoryOutboxDrainer repeatedly failed to write to their history table.
+ */
+create table if not exists HST_OUTBOX_DEAD_LETTER (
+    id bigint,
+    hst_table_name varchar(30) not null,
+    transaction_timestamp ${timestampType} not null,
+    operation char(1) not null,
+    key_data jsonb,
+    row_data jsonb not null,
+    error_message varchar(4000),
+    failed_at ${timestampType} not null,
+    constraint hstobxdl_id_PK primary key (id)
+);
+#if( "$!outboxMaxBacklog" != '' )
+
+------- CreateDDL statement separator -------
+/*
+  Back-pressure for writers, called once per transaction by the outbox triggers: waits while more than
+  ${outboxMaxBacklog} outbox ids have been allocated since the oldest record not drained yet and fails after
+  $!{outboxMaxWaitMillis} milliseconds (default 10000).
+ */
+create or replace function hst_outbox_await_capacity(outbox_id bigint) RETURNS void AS $$
+declare
+  oldest_id bigint;
+  waited_millis integer:=0;
+begin
+  loop
+    select min(id) into oldest_id from HST_OUTBOX;
+    exit when oldest_id is null or outbox_id-oldest_id <= ${outboxMaxBacklog};
+
+    if waited_millis >= #if( "$!outboxMaxWaitMillis" != '' )${outboxMaxWaitMillis}#{else}10000#end then
+      perform raise_application_error(-20200, 'history outbox backlog exceeds ${outboxMaxBacklog} records');
+    end if;
+    perform pg_sleep(0.01);
+    waited_millis:=waited_millis+10;
+  end loop;
+end;
+$$ LANGUAGE PLPGSQL;
+#end
+#end
 #end
@@ -1,6 +1,7 @@
-create or replace view ${objectName} as
+create #if( !$is_hsql )or replace #{end}view ${objectName} as
 select h.*,
-#if( $is_oracle )
+## HSQLDB does not support window functions partitioned by columns
+#if( $is_oracle || $is_postgres )
        row_number() over (partition by #foreach( $pkColumn in $pkColumns )#if($foreach.count > 1), #{end}h.${pkColumn}#end order by h.TRANSACTION_TIMESTAMP desc)
 #else
        (select count(*)+1 from ${hstTableName} where #foreach( $pkColumn in $pkColumns )${pkColumn}=h.${pkColumn} and #end TRANSACTION_TIMESTAMP>h.TRANSACTION_TIMESTAMP and OPERATION='I')
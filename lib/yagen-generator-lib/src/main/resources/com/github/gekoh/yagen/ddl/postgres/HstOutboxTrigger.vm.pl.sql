@@ -0,0 +1,55 @@
+## appends one change record per modified row to the partition of HST_OUTBOX, the history table itself is written
+## by com.github.gekoh.yagen.util.HistoryOutboxDrainer
+#set( $outboxMaxBacklog = $configuration['yagen.generator.postgres.history.outbox.max-backlog'] )
+#define( $keyData )jsonb_build_object(#foreach( $pkColumn in $pkColumns )'${pkColumn}', old.${pkColumn}#if( $foreach.hasNext ), #end#end)#end
+create or replace function ${objectName}()
+  returns trigger AS $$
+declare
+  transaction_timestamp_found ${timestampType};
+  outbox_id bigint;
+#if( $MODIFIER_COLUMN_NAME )  hst_modified_by ${MODIFIER_COLUMN_TYPE}:=substr(get_audit_user(null), 1, ${MODIFIER_COLUMN_NAME_LENGTH});
+#end
+begin
+#if( $bypassFunctionality )
+  if is_bypassed(upper('${objectName}')) = 1 then
+    return new;
+  end if;
+#end
+
+#if( $cacheTransactionTimestamp )
+  transaction_timestamp_found:=get_transaction_timestamp();
+#else
+  begin
+    select transaction_timestamp into strict transaction_timestamp_found
+    from HST_CURRENT_TRANSACTION
+    where transaction_id=txid_current();
+  exception when no_data_found then
+    transaction_timestamp_found:=get_audit_timestamp();
+    insert into HST_CURRENT_TRANSACTION (transaction_id, transaction_timestamp)
+      values (txid_current(), transaction_timestamp_found);
+  end;
+#end
+
+  if TG_OP = 'DELETE' then
+    insert into HST_OUTBOX (hst_table_name, transaction_timestamp, operation, key_data, row_data)
+      values ('${hstTableName}', transaction_timestamp_found, 'D', ${keyData},
+              jsonb_build_object(#foreach( $pkColumn in $pkColumns )'${pkColumn}', old.${pkColumn}#if( $foreach.hasNext ), #end#end#if( $MODIFIER_COLUMN_NAME ), '${MODIFIER_COLUMN_NAME}', hst_modified_by#end#foreach( $column in $noNullColumns ), '${column}', old.${column}#end))
+      returning id into outbox_id;
+  else
+    insert into HST_OUTBOX (hst_table_name, transaction_timestamp, operation, key_data, row_data)
+      values ('${hstTableName}', transaction_timestamp_found, substr(TG_OP, 1, 1),
+              case when TG_OP = 'UPDATE' then ${keyData} end,
+              to_jsonb(new)#if( $MODIFIER_COLUMN_NAME ) || jsonb_build_object('${MODIFIER_COLUMN_NAME}', coalesce(new.${MODIFIER_COLUMN_NAME}, hst_modified_by))#end)
+      returning id into outbox_id;
+  end if;
+#if( "$!outboxMaxBacklog" != '' )
+
+  if current_setting('yagen.outbox_checked', true) is distinct from 'Y' then
+    perform hst_outbox_await_capacity(outbox_id);
+    perform set_config('yagen.outbox_checked', 'Y', true);
+  end if;
+#end
+
+  return new;
+end;
+$$ LANGUAGE 'plpgsql';
\ No newline at end of file
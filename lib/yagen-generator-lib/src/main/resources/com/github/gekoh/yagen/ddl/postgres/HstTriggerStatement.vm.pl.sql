@@ -0,0 +1,130 @@
+#define( $liveRowid )''#foreach( $pkColumn in $pkColumns )||c.${pkColumn}#end#end
+#define( $unchangedRow )
+#foreach( $pkColumn in $pkColumns )
+  #if( $!{columnMap.get($pkColumn).isNullable()} )
+      ((n.${pkColumn} is null and o.${pkColumn} is null) or n.${pkColumn}=o.${pkColumn}) and
+  #else
+      n.${pkColumn}=o.${pkColumn} and
+  #end
+#end
+      not (1=0
+#foreach( $column in $histRelevantCols )
+        or n.${column} is distinct from o.${column}
+#end
+      )#end
+## rows written to the history table, updated rows are correlated by their primary key columns, like the row level
+## trigger an update of primary key columns invalidates the latest entry of the old key and writes an update entry
+## for the new key, no delete entry is written for the old key
+#define( $changedRows )
+#if( ${operation} == 'D' )
+select o.* from old_rows o
+#elseif( ${operation} == 'I' )
+select n.* from new_rows n
+#else
+select n.* from new_rows n
+ where not exists (select 1 from old_rows o where
+${unchangedRow})
+#end
+#end
+## rows whose latest history entry needs to be invalidated
+#define( $invalidatedRows )
+#if( ${operation} == 'D' )
+select o.* from old_rows o
+#else
+select o.* from old_rows o
+ where not exists (select 1 from new_rows n where
+${unchangedRow})
+#end
+#end
+#define( $notModifiedBefore )not exists (select 1 from hst_modified_row m
+                 where m.transaction_id=txid_current() and m.table_name=live_table_name and m.row_id=${liveRowid})#end
+create or replace function ${objectName}()
+  returns trigger AS $$
+declare
+  sql_rowcount integer;
+  expected_rowcount integer;
+  transaction_timestamp_found ${timestampType};
+#if( $MODIFIER_COLUMN_NAME )  hst_modified_by ${MODIFIER_COLUMN_TYPE}:=substr(get_audit_user(null), 1, ${MODIFIER_COLUMN_NAME_LENGTH});
+#end  live_table_name ${varcharType}:=upper('${liveTableName}');
+begin
+#if( $bypassFunctionality )
+  if is_bypassed(upper('${objectName}')) = 1 then
+    return null;
+  end if;
+#end
+
+  if not exists (select 1 from (${changedRows}) c) then
+    return null;
+  end if;
+
+#if( $cacheTransactionTimestamp )
+  transaction_timestamp_found:=get_transaction_timestamp();
+#else
+  select transaction_timestamp into transaction_timestamp_found
+  from HST_CURRENT_TRANSACTION
+  where transaction_id=txid_current();
+
+  if not found then
+    transaction_timestamp_found:=get_audit_timestamp();
+    insert into HST_CURRENT_TRANSACTION (transaction_id, transaction_timestamp)
+      values (txid_current(), transaction_timestamp_found);
+  end if;
+#end
+
+#if( ${operation} != 'I' )
+  -- invalidate latest entries in history table of rows not yet modified in this transaction
+  select count(1) into expected_rowcount
+    from (${invalidatedRows}) c
+   where ${notModifiedBefore};
+
+  update ${hstTableName} h set invalidated_at=transaction_timestamp_found
+    from (${invalidatedRows}) c
+   where
+     h.transaction_timestamp < transaction_timestamp_found and
+     h.operation <> 'D' and
+#foreach( $pkColumn in $pkColumns )
+  #if( $!{columnMap.get($pkColumn).isNullable()} )
+     ((h.${pkColumn} is null and c.${pkColumn} is null) or h.${pkColumn}=c.${pkColumn}) and
+  #else
+     h.${pkColumn}=c.${pkColumn} and
+  #end
+#end
+     h.invalidated_at is null and
+     ${notModifiedBefore};
+
+  GET DIAGNOSTICS sql_rowcount = ROW_COUNT;
+  if sql_rowcount<>expected_rowcount then
+    perform raise_application_error(-20100, 'unable to invalidate history records for '||live_table_name
+        ||', invalidated '||sql_rowcount||' of '||expected_rowcount);
+  end if;
+
+#end
+  -- rows modified before in this transaction replace their history entry
+  delete from ${hstTableName} h
+   using hst_modified_row m, (${changedRows}) c
+   where m.transaction_id=txid_current()
+     and m.table_name=live_table_name
+     and m.row_id=${liveRowid}
+     and h.hst_uuid=m.hst_uuid;
+
+  with rows_modified as (
+    insert into hst_modified_row (transaction_id, table_name, row_id, operation, hst_table_name, hst_uuid)
+    select txid_current(), live_table_name, ${liveRowid}, '${operation}', '${hstTableName}', sys_guid()
+      from (${changedRows}) c
+     where ${notModifiedBefore}
+    returning row_id, hst_uuid
+  )
+  insert into ${hstTableName} (#foreach( $pkColumn in $pkColumns ) ${pkColumn},#end #foreach( $column in $nonPkColumns ) #if( $column != $histColName ) ${column},#end #end hst_uuid, operation, ${histColName})
+  select#foreach( $pkColumn in $pkColumns ) c.${pkColumn},#end #foreach( $column in $nonPkColumns ) #if( $column == $MODIFIER_COLUMN_NAME )#if( ${operation} == 'D' ) hst_modified_by,#else coalesce(c.${column}, hst_modified_by),#end#else #if( $column != $histColName )#if( ${operation} != 'D' || $noNullColumns.contains($column) ) c.${column}#else null#end,#end #end #end coalesce(r.hst_uuid, m.hst_uuid), #if( ${operation} == 'D' )'D'#{else}case when m.operation='I' then 'I' else '${operation}' end#end, transaction_timestamp_found
+    from (${changedRows}) c
+    left join rows_modified r on r.row_id=${liveRowid}
+    left join hst_modified_row m on m.transaction_id=txid_current() and m.table_name=live_table_name and m.row_id=${liveRowid}
+#if( ${operation} == 'D' )
+   -- rows inserted and deleted again in this transaction do not need any history
+   where m.operation is null or m.operation<>'I'
+#end
+  ;
+
+  return null;
+end;
+$$ LANGUAGE 'plpgsql'
\ No newline at end of file
@@ -2,10 +2,19 @@ package com.github.gekoh.yagen.ddl;
 
 import com.github.gekoh.yagen.api.AuditInfo;
 import org.hibernate.dialect.OracleDialect;
+import org.hibernate.mapping.Column;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.regex.Pattern;
 
 /**
@@ -81,6 +90,179 @@ public class CreateDDLTest {
 
     }
 
+    @Test
+    public void testTemplatesParsedOnce() {
+        OracleDialect dialect = new OracleDialect();
+        TemplateRegistry.clear();
+
+        String first = null;
+        for (int i = 0; i < 2; i++) {
+            CreateDDL createDDL = new CreateDDL(new DDLGenerator.Profile("default"), dialect);
+            TableConfig.add(createDDL, "AMP_JOBS")
+                    .withTableAnnotation("AMPJ")
+                    .withTemporalEntityAnnotation()
+                    .withAuditableAnnotation();
+
+            String ddl = String.join("\n", createDDL.enhanceCreateTableDdl(dialect, "CREATE TABLE AMP_JOBS ( ID varchar2(36) NOT NULL, NAME varchar2(100), constraint AJ_PK PRIMARY KEY (ID));"));
+            if (first == null) {
+                first = ddl;
+            }
+            else {
+                Assert.assertEquals(first, ddl);
+            }
+        }
+
+        Assert.assertNotNull(TemplateRegistry.getTemplate("HstTrigger.vm.pl.sql"));
+        int cached = TemplateRegistry.size();
+        Assert.assertTrue(cached > 0);
+        Assert.assertSame(TemplateRegistry.getTemplate("HstTrigger.vm.pl.sql"), TemplateRegistry.getTemplate("HstTrigger.vm.pl.sql"));
+        Assert.assertEquals(cached, TemplateRegistry.size());
+    }
+
+    @Test
+    public void testParallelPreparationEqualsSequential() {
+        OracleDialect dialect = new OracleDialect();
+        CreateDDL sequential = createTemporalTables(dialect, 8);
+        CreateDDL parallel = createTemporalTables(dialect, 8);
+
+        Map<String, StringBuffer> tableCreates = new LinkedHashMap<String, StringBuffer>();
+        Map<String, Map<String, Column>> tableColumns = new HashMap<String, Map<String, Column>>();
+        for (int i = 0; i < 8; i++) {
+            tableCreates.put("AMP_TBL" + i, new StringBuffer(getCreateTableSql(i)));
+            tableColumns.put("AMP_TBL" + i, getColumnMap());
+        }
+        parallel.prepareCreateTables(dialect, tableCreates, tableColumns, 4);
+
+        for (int i = 0; i < 8; i++) {
+            String expected = sequential.updateCreateTable(dialect, new StringBuffer(getCreateTableSql(i)), "AMP_TBL" + i, getColumnMap());
+            Assert.assertEquals(expected, parallel.takePreparedCreateTable("AMP_TBL" + i));
+        }
+        Assert.assertNull(parallel.takePreparedCreateTable("AMP_TBL0"));
+    }
+
+    @Test
+    public void testParallelPreparationNameConflict() {
+        OracleDialect dialect = new OracleDialect();
+        CreateDDL createDDL = createTemporalTables(dialect, 2);
+
+        Map<String, StringBuffer> tableCreates = new LinkedHashMap<String, StringBuffer>();
+        Map<String, Map<String, Column>> tableColumns = new HashMap<String, Map<String, Column>>();
+        for (int i = 0; i < 2; i++) {
+            tableCreates.put("AMP_TBL" + i, new StringBuffer(getCreateTableSql(i)));
+            tableColumns.put("AMP_TBL" + i, getColumnMap());
+        }
+        createDDL.prepareCreateTables(dialect, tableCreates, tableColumns, 2);
+
+        Assert.assertNotNull(createDDL.takePreparedCreateTable("AMP_TBL0"));
+
+        // name claimed by the prepared table got defined by another object in the meantime
+        createDDL.checkObjectName(dialect, "amp_tbl1_atr");
+        Assert.assertNull(createDDL.takePreparedCreateTable("AMP_TBL1"));
+        try {
+            createDDL.updateCreateTable(dialect, new StringBuffer(getCreateTableSql(1)), "AMP_TBL1", getColumnMap());
+            Assert.fail("duplicate object name not detected");
+        } catch (IllegalArgumentException expected) {
+            Assert.assertTrue(expected.getMessage().contains("amp_tbl1_atr"));
+        }
+    }
+
+    @Test
+    public void testCreateTableStatementRoundTrip() {
+        String sql = "create table amp_tbl (id varchar2(36) not null, name varchar2(100) constraint ampt_name_UK unique, " +
+                "flag number(1) check (flag in (0,1)), amount number(10,2) default 0 not null, raw_col raw(16), " +
+                "constraint ampt_pk primary key (id), unique (name, amount)) partition by hash (id)";
+
+        CreateTableStatement createTable = CreateTableStatement.parse(sql);
+
+        Assert.assertNotNull(createTable);
+        Assert.assertEquals(sql, createTable.toSql());
+        Assert.assertEquals("amp_tbl", createTable.getTableName());
+        Assert.assertEquals(4, createTable.getColumns().size());
+        Assert.assertEquals("ampt_pk", createTable.getPrimaryKey().getName());
+        Assert.assertEquals(1, createTable.getUniqueConstraints().size());
+        Assert.assertNull(CreateTableStatement.parse("create table amp_tbl as select * from dual"));
+    }
+
+    @Test
+    public void testHistoryTableColumnAfterDefault() {
+        OracleDialect dialect = new OracleDialect();
+        CreateDDL createDDL = new CreateDDL(new DDLGenerator.Profile("default"), dialect);
+        TableConfig.add(createDDL, "AMP_DFLT")
+                .withTableAnnotation("AMPD")
+                .withTemporalEntityAnnotation();
+
+        Collection<String> sql = createDDL.enhanceCreateTableDdl(dialect, "create table amp_dflt (id varchar2(36) not null, " +
+                "retry_count number(10) default 0 not null, transaction_timestamp timestamp not null, priority number(10) not null, " +
+                "constraint ampd_pk primary key (id))");
+
+        String hstCreate = null;
+        for (String s : sql) {
+            if (s.contains("create table amp_dflt_HST")) {
+                hstCreate = s;
+            }
+        }
+
+        Assert.assertNotNull(hstCreate);
+        Assert.assertTrue(hstCreate.contains("retry_count number(10) default 0, transaction_timestamp timestamp constraint AMPDH_transaction_timestamp_NN not null, invalidated_at timestamp, priority number(10),"));
+    }
+
+    @Test
+    public void testOracleHistoryPlSqlGolden() throws IOException {
+        OracleDialect dialect = new OracleDialect();
+
+        String initHistory = new DDLGenerator.AddTemplateDDLEntry(DDLGenerator.class.getResource("/com/github/gekoh/yagen/ddl/InitHistory.ddl.sql"))
+                .getDdlText(dialect);
+        assertGolden("InitHistory.oracle.sql", initHistory);
+
+        CreateDDL createDDL = new CreateDDL(new DDLGenerator.Profile("default"), dialect);
+        TableConfig.add(createDDL, "AMP_GOLDEN")
+                .withTableAnnotation("AMPG")
+                .withTemporalEntityAnnotation()
+                .withAuditableAnnotation();
+
+        StringBuilder triggers = new StringBuilder();
+        for (String s : createDDL.enhanceCreateTableDdl(dialect, "create table amp_golden (id varchar2(36) not null, name varchar2(100), " +
+                "retry_count number(10) not null, constraint ampg_pk primary key (id))")) {
+            if (s.contains("trigger amp_golden_ht")) {
+                triggers.append(s).append("\n");
+            }
+        }
+        assertGolden("HstTrigger.oracle.sql", triggers.toString());
+    }
+
+    private static void assertGolden(String name, String actual) throws IOException {
+        InputStream in = CreateDDLTest.class.getResourceAsStream("golden/" + name);
+        Assert.assertNotNull("golden file " + name + " not found", in);
+        String expected;
+        try (Reader rd = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+            expected = DDLGenerator.read(rd);
+        }
+        Assert.assertEquals(name, expected.replace("\r\n", "\n").trim(), actual.replace("\r\n", "\n").trim());
+    }
+
+    private static CreateDDL createTemporalTables(OracleDialect dialect, int count) {
+        CreateDDL createDDL = new CreateDDL(new DDLGenerator.Profile("default"), dialect);
+        for (int i = 0; i < count; i++) {
+            TableConfig.add(createDDL, "AMP_TBL" + i)
+                    .withTableAnnotation("AMPT" + i)
+                    .withTemporalEntityAnnotation()
+                    .withAuditableAnnotation();
+        }
+        return createDDL;
+    }
+
+    private static String getCreateTableSql(int idx) {
+        return "create table amp_tbl" + idx + " (id varchar2(36) not null, name varchar2(100), retry_count number(10) not null, constraint ampt" + idx + "_pk primary key (id))";
+    }
+
+    private static Map<String, Column> getColumnMap() {
+        Map<String, Column> columns = new LinkedHashMap<String, Column>();
+        columns.put("id", null);
+        columns.put("name", null);
+        columns.put("retry_count", null);
+        return columns;
+    }
+
     private void assertHtrUpdateInvalidatedAtSql(String lowerCase) {
         lowerCase = Pattern.compile("\\s\\s*", Pattern.MULTILINE | Pattern.DOTALL).matcher(lowerCase).replaceAll(" ");
 
@@ -0,0 +1,50 @@
+package com.github.gekoh.yagen.hibernate;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * @author agent
+ */
+public class DdlPatchHelperTest {
+
+    @Test
+    public void testSplitSQL() {
+        String sql = "-- first\n-- second\ncreate table a (id integer);" + DdlPatchHelper.STATEMENT_SEPARATOR +
+                "  \n" + DdlPatchHelper.STATEMENT_SEPARATOR +
+                "/** doc */ create or replace function f() returns trigger as $$\nbegin\n -- inside\n return new;\nend;\n$$ language plpgsql;";
+
+        List<String> statements = new ArrayList<String>(DdlPatchHelper.splitSQL(sql));
+
+        Assert.assertEquals(Arrays.asList(
+                "-- first\n-- second\n",
+                "create table a (id integer);",
+                "/** doc */",
+                " create or replace function f() returns trigger as $$\nbegin\n -- inside\n return new;\nend;\n$$ language plpgsql;"), statements);
+    }
+
+    @Test
+    public void testIsEmptyStatement() {
+        Assert.assertTrue(DdlPatchHelper.isEmptyStatement(" -- comment\n/* block\n comment */\n"));
+        Assert.assertFalse(DdlPatchHelper.isEmptyStatement("/* block */ drop table a"));
+        Assert.assertFalse(DdlPatchHelper.isEmptyStatement("/* unterminated"));
+    }
+
+    @Test
+    public void testPrepareDDL() {
+        SqlStatement plsql = DdlPatchHelper.prepareDDL("begin\n  null;\nend my_block;\n/\n", null, null);
+        Assert.assertEquals("begin\n  null;\nend my_block;\n", plsql.getSql());
+        Assert.assertEquals("/", plsql.getDelimiter());
+
+        SqlStatement ddl = DdlPatchHelper.prepareDDL("create table a (id integer);", null, null);
+        Assert.assertEquals("create table a (id integer)", ddl.getSql());
+        Assert.assertEquals(";", ddl.getDelimiter());
+
+        SqlStatement comment = DdlPatchHelper.prepareDDL("-- just a comment", null, null);
+        Assert.assertEquals("", comment.getDelimiter());
+    }
+}
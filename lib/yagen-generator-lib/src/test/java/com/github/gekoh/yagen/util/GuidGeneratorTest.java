@@ -0,0 +1,39 @@
+package com.github.gekoh.yagen.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.UUID;
+
+/**
+ * @author agent
+ */
+public class GuidGeneratorTest {
+
+    @Test
+    public void testRandomGuid() {
+        UUID uuid = UUID.randomUUID();
+        Assert.assertEquals(uuid.toString().replace("-", "").toUpperCase(),
+                GuidGenerator.toHex(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits()));
+        Assert.assertTrue(GuidGenerator.createRandomGuid().matches("^[0-9A-F]{12}4[0-9A-F]{3}[89AB][0-9A-F]{15}$"));
+    }
+
+    @Test
+    public void testTimeOrderedGuid() {
+        long millis = System.currentTimeMillis();
+        String previous = GuidGenerator.createTimeOrderedGuid();
+        Assert.assertTrue(previous.matches("^[0-9A-F]{12}7[0-9A-F]{3}[89AB][0-9A-F]{15}$"));
+        Assert.assertTrue(Long.parseLong(previous.substring(0, 12), 16) >= millis);
+
+        for (int i = 0; i < 100000; i++) {
+            String guid = GuidGenerator.createTimeOrderedGuid();
+            Assert.assertTrue(guid.compareTo(previous) > 0);
+            previous = guid;
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownStrategy() {
+        GuidGenerator.Strategy.fromPropertyValue("sequential");
+    }
+}
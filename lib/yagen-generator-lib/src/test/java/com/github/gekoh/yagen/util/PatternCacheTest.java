@@ -0,0 +1,49 @@
+package com.github.gekoh.yagen.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.regex.Pattern;
+
+/**
+ * @author agent
+ */
+public class PatternCacheTest {
+
+    @Test
+    public void testGetPattern() {
+        long hits = PatternCache.getHitCount();
+        long misses = PatternCache.getMissCount();
+
+        Pattern pattern = PatternCache.getPattern("^pattern-cache-test-[0-9]+$");
+        Assert.assertSame(pattern, PatternCache.getPattern("^pattern-cache-test-[0-9]+$"));
+        Assert.assertNotSame(pattern, PatternCache.getPattern("^pattern-cache-test-[0-9]+$", Pattern.CASE_INSENSITIVE));
+
+        Assert.assertEquals(1, PatternCache.getHitCount() - hits);
+        Assert.assertEquals(2, PatternCache.getMissCount() - misses);
+
+        Assert.assertTrue(DBHelper.regexpLikeFlags("PATTERN-CACHE-TEST-1", "^pattern-cache-test-[0-9]+$", "i"));
+        Assert.assertFalse(DBHelper.regexpLike("PATTERN-CACHE-TEST-1", "^pattern-cache-test-[0-9]+$"));
+        Assert.assertEquals(3, PatternCache.getHitCount() - hits);
+    }
+
+    @Test
+    public void testStaticBypass() {
+        try {
+            System.setProperty(DBHelper.PROPERTY_BYPASS_REGEX, "AIRCRAFT_.*");
+            Assert.assertTrue(DBHelper.isStaticallyBypassed("AIRCRAFT_HTU"));
+            Assert.assertFalse(DBHelper.isStaticallyBypassed("PILOT_HTU"));
+
+            System.setProperty(DBHelper.PROPERTY_BYPASS_REGEX, "PILOT_.*");
+            Assert.assertFalse(DBHelper.isStaticallyBypassed("AIRCRAFT_HTU"));
+            Assert.assertTrue(DBHelper.isStaticallyBypassed("PILOT_HTU"));
+
+            System.setProperty(DBHelper.PROPERTY_BYPASS, "");
+            Assert.assertTrue(DBHelper.isStaticallyBypassed("AIRCRAFT_HTU"));
+        } finally {
+            System.clearProperty(DBHelper.PROPERTY_BYPASS);
+            System.clearProperty(DBHelper.PROPERTY_BYPASS_REGEX);
+        }
+        Assert.assertFalse(DBHelper.isStaticallyBypassed("PILOT_HTU"));
+    }
+}
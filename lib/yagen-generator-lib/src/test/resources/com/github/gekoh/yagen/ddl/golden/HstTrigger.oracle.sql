@@ -0,0 +1,197 @@
+create or replace
+trigger amp_golden_htr
+after insert or delete on amp_golden
+for each row
+declare
+  transaction_timestamp_found varchar(255);
+  hst_operation HST_MODIFIED_ROW.operation%TYPE:=case when inserting then 'I'
+                                                      when updating then 'U'
+                                                      when deleting then 'D' end;
+  live_rowid rowid:=coalesce(:new.rowid, :old.rowid);
+  hst_uuid_used amp_golden_HST.hst_uuid%TYPE:=sys_guid();
+  hst_modified_by varchar(255):=substr(get_audit_user(null), 1, 35);
+  live_table_name varchar(255):=upper('amp_golden');
+begin
+
+    begin
+      select transaction_timestamp into transaction_timestamp_found
+      from HST_CURRENT_TRANSACTION
+      where transaction_id=DBMS_TRANSACTION.LOCAL_TRANSACTION_ID;
+    exception when no_data_found then
+      transaction_timestamp_found:=get_audit_timestamp();
+      insert into HST_CURRENT_TRANSACTION (transaction_id, transaction_timestamp)
+        values (DBMS_TRANSACTION.LOCAL_TRANSACTION_ID, transaction_timestamp_found);
+    end;
+
+    if :new.rowid<>:old.rowid then
+      update hst_modified_row set row_id=:new.rowid
+        where table_name=live_table_name
+          and row_id=:old.rowid;
+    end if;
+
+    begin
+      insert into hst_modified_row values (live_table_name, live_rowid, hst_operation, 'amp_golden_HST', hst_uuid_used);
+
+      if hst_operation<>'I' then
+        -- invalidate latest entry in history table
+        update amp_golden_HST h set invalidated_at=transaction_timestamp_found
+          where
+            transaction_timestamp < transaction_timestamp_found and
+            operation <> 'D' and
+            id=:old.id and
+            invalidated_at is null;
+
+        if sql%rowcount<>1 then
+            transaction_timestamp_found:=update_transaction_timestamp(hst_uuid_used);
+
+            -- finally last try to invalidate latest entry in history table
+            update amp_golden_HST h set invalidated_at=transaction_timestamp_found
+              where
+                transaction_timestamp < transaction_timestamp_found and
+                operation <> 'D' and
+                id=:old.id and
+                invalidated_at is null;
+
+            if sql%rowcount<>1 then
+              raise_application_error(-20100, 'unable to invalidate history record for '||live_table_name
+                  ||' id='''|| :old.id ||''''
+                ||' after rewriting transaction history records with updated timestamp');
+            end if;
+        end if;
+      end if;
+    exception when dup_val_on_index then
+      declare
+        prev_operation amp_golden_HST.operation%TYPE;
+      begin
+        select operation, hst_uuid into prev_operation, hst_uuid_used
+          from hst_modified_row
+         where table_name=live_table_name
+           and row_id=live_rowid;
+
+        if prev_operation='I' and hst_operation='U' then
+          hst_operation:='I';
+        elsif prev_operation='I' and hst_operation='D' then
+          hst_operation:=null;
+        end if;
+      end;
+
+      delete from amp_golden_HST where hst_uuid=hst_uuid_used;
+
+    end;
+
+    if hst_operation is not null then
+      if hst_operation<>'D' then
+        insert into amp_golden_HST ( id,   created_at,   created_by,   last_modified_at,   last_modified_by,   name,   retry_count,  hst_uuid, operation, transaction_timestamp)
+        values ( coalesce(:new.id, :old.id),    :new.created_at,     :new.created_by,     :new.last_modified_at,    coalesce(:new.last_modified_by, hst_modified_by),    :new.name,     :new.retry_count,   hst_uuid_used, hst_operation, transaction_timestamp_found);
+      else
+        insert into amp_golden_HST ( id,   created_at,   created_by,   last_modified_at,   last_modified_by,   name,   retry_count,  hst_uuid, operation, transaction_timestamp)
+        values ( :old.id,    null,     null,     null,    hst_modified_by,    null,     null,   hst_uuid_used, hst_operation, transaction_timestamp_found);
+      end if;
+    end if;
+
+end;
+/
+create or replace
+trigger amp_golden_htU
+after update on amp_golden
+for each row
+when (
+  (new.retry_count is null and old.retry_count is not null) or
+  (new.retry_count is not null and old.retry_count is null) or
+  new.retry_count!=old.retry_count or
+  (new.name is null and old.name is not null) or
+  (new.name is not null and old.name is null) or
+  new.name!=old.name or
+  (new.id is null and old.id is not null) or
+  (new.id is not null and old.id is null) or
+  new.id!=old.id
+)
+declare
+  transaction_timestamp_found varchar(255);
+  hst_operation HST_MODIFIED_ROW.operation%TYPE:=case when inserting then 'I'
+                                                      when updating then 'U'
+                                                      when deleting then 'D' end;
+  live_rowid rowid:=coalesce(:new.rowid, :old.rowid);
+  hst_uuid_used amp_golden_HST.hst_uuid%TYPE:=sys_guid();
+  hst_modified_by varchar(255):=substr(get_audit_user(null), 1, 35);
+  live_table_name varchar(255):=upper('amp_golden');
+begin
+
+    begin
+      select transaction_timestamp into transaction_timestamp_found
+      from HST_CURRENT_TRANSACTION
+      where transaction_id=DBMS_TRANSACTION.LOCAL_TRANSACTION_ID;
+    exception when no_data_found then
+      transaction_timestamp_found:=get_audit_timestamp();
+      insert into HST_CURRENT_TRANSACTION (transaction_id, transaction_timestamp)
+        values (DBMS_TRANSACTION.LOCAL_TRANSACTION_ID, transaction_timestamp_found);
+    end;
+
+    if :new.rowid<>:old.rowid then
+      update hst_modified_row set row_id=:new.rowid
+        where table_name=live_table_name
+          and row_id=:old.rowid;
+    end if;
+
+    begin
+      insert into hst_modified_row values (live_table_name, live_rowid, hst_operation, 'amp_golden_HST', hst_uuid_used);
+
+      if hst_operation<>'I' then
+        -- invalidate latest entry in history table
+        update amp_golden_HST h set invalidated_at=transaction_timestamp_found
+          where
+            transaction_timestamp < transaction_timestamp_found and
+            operation <> 'D' and
+            id=:old.id and
+            invalidated_at is null;
+
+        if sql%rowcount<>1 then
+            transaction_timestamp_found:=update_transaction_timestamp(hst_uuid_used);
+
+            -- finally last try to invalidate latest entry in history table
+            update amp_golden_HST h set invalidated_at=transaction_timestamp_found
+              where
+                transaction_timestamp < transaction_timestamp_found and
+                operation <> 'D' and
+                id=:old.id and
+                invalidated_at is null;
+
+            if sql%rowcount<>1 then
+              raise_application_error(-20100, 'unable to invalidate history record for '||live_table_name
+                  ||' id='''|| :old.id ||''''
+                ||' after rewriting transaction history records with updated timestamp');
+            end if;
+        end if;
+      end if;
+    exception when dup_val_on_index then
+      declare
+        prev_operation amp_golden_HST.operation%TYPE;
+      begin
+        select operation, hst_uuid into prev_operation, hst_uuid_used
+          from hst_modified_row
+         where table_name=live_table_name
+           and row_id=live_rowid;
+
+        if prev_operation='I' and hst_operation='U' then
+          hst_operation:='I';
+        elsif prev_operation='I' and hst_operation='D' then
+          hst_operation:=null;
+        end if;
+      end;
+
+      delete from amp_golden_HST where hst_uuid=hst_uuid_used;
+
+    end;
+
+    if hst_operation is not null then
+      if hst_operation<>'D' then
+        insert into amp_golden_HST ( id,   created_at,   created_by,   last_modified_at,   last_modified_by,   name,   retry_count,  hst_uuid, operation, transaction_timestamp)
+        values ( coalesce(:new.id, :old.id),    :new.created_at,     :new.created_by,     :new.last_modified_at,    coalesce(:new.last_modified_by, hst_modified_by),    :new.name,     :new.retry_count,   hst_uuid_used, hst_operation, transaction_timestamp_found);
+      else
+        insert into amp_golden_HST ( id,   created_at,   created_by,   last_modified_at,   last_modified_by,   name,   retry_count,  hst_uuid, operation, transaction_timestamp)
+        values ( :old.id,    null,     null,     null,    hst_modified_by,    null,     null,   hst_uuid_used, hst_operation, transaction_timestamp_found);
+      end if;
+    end if;
+
+end;
+/
@@ -0,0 +1,52 @@
+------- CreateDDL statement separator -------
+create global temporary table HST_CURRENT_TRANSACTION (
+  transaction_id varchar2(4000 char),
+  transaction_timestamp varchar(255),
+  constraint hsttr_transaction_id_PK primary key (transaction_id)
+);
+
+------- CreateDDL statement separator -------
+create global temporary table HST_MODIFIED_ROW (
+  table_name varchar2(30 char),
+  row_id rowid,
+  operation varchar2(1 char),
+  hst_table_name varchar2(30 char),
+  hst_uuid varchar2(32 char),
+  constraint hstmod_rowid_tablename_PK primary key (row_id, table_name)
+);
+
+------- CreateDDL statement separator -------
+create procedure set_transaction_timestamp(timestamp_in in timestamp) is
+begin
+  insert into HST_CURRENT_TRANSACTION (TRANSACTION_ID, TRANSACTION_TIMESTAMP)
+    values (DBMS_TRANSACTION.LOCAL_TRANSACTION_ID, timestamp_in);
+end;
+/
+
+------- CreateDDL statement separator -------
+create or replace function update_transaction_timestamp(exclude_hst_uuid_in in varchar2) return timestamp is
+  transaction_timestamp_found varchar(255);
+  new_transaction_timestamp varchar(255);
+begin
+    select transaction_timestamp into transaction_timestamp_found
+    from HST_CURRENT_TRANSACTION
+    where transaction_id=DBMS_TRANSACTION.LOCAL_TRANSACTION_ID;
+
+    new_transaction_timestamp:=get_audit_timestamp();
+    update HST_CURRENT_TRANSACTION set transaction_timestamp=new_transaction_timestamp
+    where transaction_id=DBMS_TRANSACTION.LOCAL_TRANSACTION_ID;
+
+    -- one set based statement per history table instead of one per modified row
+    for data in (select distinct HST_TABLE_NAME from HST_MODIFIED_ROW where HST_UUID<>exclude_hst_uuid_in) loop
+
+        execute immediate 'update '||data.HST_TABLE_NAME||' set transaction_timestamp=:new_ts where hst_uuid in ('
+            ||'select HST_UUID from HST_MODIFIED_ROW where HST_TABLE_NAME=:hst_table_name and HST_UUID<>:exclude_hst_uuid)'
+          using new_transaction_timestamp, data.HST_TABLE_NAME, exclude_hst_uuid_in;
+
+        execute immediate 'update '||data.HST_TABLE_NAME||' h set invalidated_at=:new_ts where transaction_timestamp < :new_ts1 and operation <> ''D'' and invalidated_at = :old_ts'
+            using new_transaction_timestamp, new_transaction_timestamp, transaction_timestamp_found;
+    end loop;
+
+    return new_transaction_timestamp;
+end;
+/